@@ -0,0 +1,159 @@
+package GraphPackage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * AsyncQueryExecutor: Runs queries against a subject, such as a graph, asynchronously, returning a CompletableFuture
+ * for each. Every query runs on its own virtual thread, so thousands of waiting queries cost no platform threads, and a
+ * semaphore bounds how many run at once. Queries also hold the subject's lock while they run: the traversals of
+ * DirectedGraph record their progress in the vertices, so two cannot safely run on the same graph at once, and the
+ * default lock is therefore exclusive. A subject that supports concurrent reads can be given a shared read lock, or no
+ * lock at all.
+ * @param <S> The type of the subject queried.
+ */
+public class AsyncQueryExecutor<S> implements AutoCloseable {
+    /** The subject queries are run against. */
+    private final S subject;
+    /** The lock each query holds while it runs, or null if queries run without locking. */
+    private final Lock queryLock;
+    /** The maximum number of queries that run at once. */
+    private final int maxConcurrency;
+    /** Grants a permit to each running query. */
+    private final Semaphore permits;
+    /** Starts a new virtual thread for each query. */
+    private final ExecutorService executor;
+    /** The number of queries submitted but not yet running. */
+    private final AtomicInteger queued;
+    /** The number of queries running. */
+    private final AtomicInteger inFlight;
+
+    /**
+     * Constructor creates a new AsyncQueryExecutor whose queries hold an exclusive lock, so they run one at a time.
+     * @param subject The subject queries are run against.
+     * @param maxConcurrency The maximum number of queries that run at once; at least 1.
+     */
+    public AsyncQueryExecutor(S subject, int maxConcurrency) { this(subject, maxConcurrency, new ReentrantLock()); }
+
+    /**
+     * Constructor creates a new AsyncQueryExecutor whose queries hold the specified lock while they run.
+     * @param subject The subject queries are run against.
+     * @param maxConcurrency The maximum number of queries that run at once; at least 1.
+     * @param queryLock The lock each query holds while it runs, or null if the subject is safe to query concurrently.
+     */
+    public AsyncQueryExecutor(S subject, int maxConcurrency, Lock queryLock) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("Maximum concurrency must be at least 1.");
+        this.subject = subject;
+        this.queryLock = queryLock;
+        this.maxConcurrency = maxConcurrency;
+        permits = new Semaphore(maxConcurrency, true);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        queued = new AtomicInteger();
+        inFlight = new AtomicInteger();
+    }
+
+    /**
+     * Submits a query to run asynchronously.
+     * @param query The query, given the subject.
+     * @param <R> The type of the query's result.
+     * @return A future completed with the query's result, or exceptionally with any exception it throws.
+     */
+    public <R> CompletableFuture<R> submit(Function<? super S, ? extends R> query) {
+        return submitCancellable((target, token) -> query.apply(target));
+    }
+
+    /**
+     * Submits a query that accepts a cancellation token to run asynchronously. Cancelling the returned future cancels
+     * the token, so a query that passes the token to a traversal stops soon after, and a query cancelled before it
+     * starts never runs.
+     * @param query The query, given the subject and a cancellation token.
+     * @param <R> The type of the query's result.
+     * @return A future completed with the query's result, or exceptionally with any exception it throws.
+     */
+    public <R> CompletableFuture<R> submitCancellable(BiFunction<? super S, CancellationToken, ? extends R> query) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        CancellationToken token = new CancellationToken();
+        future.whenComplete((result, exception) -> {
+            if (future.isCancelled())
+                token.cancel();
+        });
+
+        queued.incrementAndGet();
+        try {
+            executor.execute(() -> run(query, token, future));
+        } catch (RuntimeException exception) {
+            queued.decrementAndGet();
+            future.completeExceptionally(exception);
+        }
+        return future;
+    }
+
+    /**
+     * Retrieves the number of queries submitted but waiting for a permit.
+     * @return The queue depth.
+     */
+    public int getQueueDepth() { return queued.get(); }
+
+    /**
+     * Retrieves the number of queries holding a permit, including any waiting for the subject's lock.
+     * @return The number of queries in flight.
+     */
+    public int getInFlight() { return inFlight.get(); }
+
+    /**
+     * Retrieves the maximum number of queries that run at once.
+     * @return The concurrency limit.
+     */
+    public int getMaxConcurrency() { return maxConcurrency; }
+
+    /**
+     * Stops accepting queries and waits for the submitted queries to finish.
+     */
+    public void close() { executor.close(); }
+
+    /**
+     * Runs a query on the current virtual thread once a permit and the subject's lock are available, and completes
+     * its future.
+     * @param query The query, given the subject and a cancellation token.
+     * @param token The query's cancellation token.
+     * @param future The future to complete.
+     * @param <R> The type of the query's result.
+     */
+    private <R> void run(BiFunction<? super S, CancellationToken, ? extends R> query, CancellationToken token,
+                         CompletableFuture<R> future) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException exception) {
+            queued.decrementAndGet();
+            future.completeExceptionally(exception);
+            return;
+        }
+        queued.decrementAndGet();
+        inFlight.incrementAndGet();
+        try {
+            if (future.isDone())
+                return;
+            if (queryLock != null)
+                queryLock.lock();
+            try {
+                future.complete(query.apply(subject, token));
+            } finally {
+                if (queryLock != null)
+                    queryLock.unlock();
+            }
+        } catch (Throwable exception) {
+            future.completeExceptionally(exception);
+        } finally {
+            inFlight.decrementAndGet();
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package GraphPackage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * BetweennessCentrality: Computes the betweenness centrality of every vertex of a graph, the number of shortest paths
+ * between other pairs of vertices that pass through it, counting paths by number of edges. Uses Brandes' algorithm: a
+ * breadth-first search from each source counts shortest paths, and a pass back through the search order accumulates
+ * each vertex's dependency on that source. Sources are divided among the threads of a fork-join pool, and each task
+ * accumulates into its own array, so no synchronization is needed until the task results are added together.
+ * <p>
+ * The approximate mode runs the searches from a random sample of sources and scales the result up, with an error
+ * bound that holds for every vertex at once at a chosen confidence. For an undirected graph each unordered pair is
+ * counted once. The graph must not be modified while centrality is being computed.
+ * @param <T> The data type of the vertex labels.
+ */
+public class BetweennessCentrality<T> {
+    /** The graph to compute centrality for. */
+    private final DirectedGraph<T> graph;
+    /** The fork-join pool the searches run in. */
+    private ForkJoinPool pool;
+    /** The number of vertices in the graph during the last computation. */
+    private int lastNumberOfVertices;
+    /** The number of sources searched by the last computation. */
+    private int lastSampleSize;
+
+    /**
+     * Constructor creates a new BetweennessCentrality calculator for the specified graph, using the common fork-join
+     * pool.
+     * @param graph The graph to compute centrality for.
+     */
+    public BetweennessCentrality(DirectedGraph<T> graph) {
+        this.graph = graph;
+        pool = ForkJoinPool.commonPool();
+        lastNumberOfVertices = 0;
+        lastSampleSize = 0;
+    }
+
+    /**
+     * Sets the fork-join pool the searches run in, allowing the number of threads to be chosen.
+     * @param newPool The fork-join pool to use.
+     */
+    public void setPool(ForkJoinPool newPool) { pool = newPool; }
+
+    /**
+     * Computes the exact betweenness centrality of every vertex, with a search from every vertex.
+     * Runtime: O(V * E), divided among the pool's threads.
+     * @return A map from each vertex label to its betweenness centrality.
+     */
+    public HashMap<T, Double> computeExact() { return computeFromAllSources(new CompactGraph<>(graph)); }
+
+    /**
+     * Computes the exact betweenness centrality of every vertex of a copied graph, with a search from every vertex.
+     * @param compact The graph to search.
+     * @return A map from each vertex label to its betweenness centrality.
+     */
+    private HashMap<T, Double> computeFromAllSources(CompactGraph<T> compact) {
+        int[] sources = new int[compact.size()];
+        for (int vertex = 0; vertex < sources.length; vertex++)
+            sources[vertex] = vertex;
+        return computeFromSources(compact, sources, 1.0);
+    }
+
+    /**
+     * Estimates the betweenness centrality of every vertex, with searches from a random sample of sources. The error
+     * of the estimate can be retrieved with getErrorBound().
+     * Runtime: O(sampleSize * E), divided among the pool's threads.
+     * @param sampleSize The number of sources to search; the exact centrality is computed if this is at least the
+     * number of vertices.
+     * @return A map from each vertex label to its estimated betweenness centrality.
+     */
+    public HashMap<T, Double> computeApproximate(int sampleSize) {
+        if (sampleSize < 1)
+            throw new IllegalArgumentException("Sample size must be at least 1.");
+
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        int numberOfVertices = compact.size();
+        if (sampleSize >= numberOfVertices)
+            return computeFromAllSources(compact);
+
+        // A partial Fisher-Yates shuffle picks the sample without repeating a source.
+        int[] candidates = new int[numberOfVertices];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            candidates[vertex] = vertex;
+        SplittableRandom random = new SplittableRandom();
+        for (int position = 0; position < sampleSize; position++) {
+            int swap = position + random.nextInt(numberOfVertices - position);
+            int temp = candidates[position];
+            candidates[position] = candidates[swap];
+            candidates[swap] = temp;
+        }
+        return computeFromSources(compact, Arrays.copyOf(candidates, sampleSize),
+                (double)numberOfVertices / sampleSize);
+    }
+
+    /**
+     * Retrieves a bound on the error of the last computation that holds for every vertex at once with the specified
+     * probability. The bound follows from Hoeffding's inequality, since each sampled source adds between 0 and V - 2
+     * to a vertex's centrality, combined with a union bound over all vertices.
+     * @param confidence The probability that the bound holds, greater than 0 and less than 1.
+     * @return The largest absolute difference between an estimated and exact centrality at the specified confidence,
+     * or 0 if the last computation was exact.
+     */
+    public double getErrorBound(double confidence) {
+        if (confidence <= 0 || confidence >= 1)
+            throw new IllegalArgumentException("Confidence must be greater than 0 and less than 1.");
+        if (lastSampleSize == 0 || lastSampleSize >= lastNumberOfVertices)
+            return 0;
+
+        double range = (double)lastNumberOfVertices * Math.max(0, lastNumberOfVertices - 2);
+        if (graph instanceof UndirectedGraph)
+            range /= 2;
+        return range * Math.sqrt(Math.log(2.0 * lastNumberOfVertices / (1 - confidence)) / (2.0 * lastSampleSize));
+    }
+
+    /**
+     * Retrieves the number of sources searched by the last computation.
+     * @return The number of sources searched.
+     */
+    public int getLastSampleSize() { return lastSampleSize; }
+
+    /**
+     * Runs the searches from the specified sources in the fork-join pool and adds up their dependencies.
+     * @param compact The graph to search.
+     * @param sources The vertex numbers of the sources to search from.
+     * @param scale The factor to multiply the summed dependencies by.
+     * @return A map from each vertex label to its centrality.
+     */
+    private HashMap<T, Double> computeFromSources(CompactGraph<T> compact, int[] sources, double scale) {
+        int numberOfVertices = compact.size();
+        int leafSize = Math.max(1, sources.length / (4 * pool.getParallelism()));
+        double[] centrality = (sources.length == 0) ? new double[numberOfVertices] :
+                pool.invoke(new SourceTask(compact, sources, 0, sources.length, leafSize));
+
+        if (graph instanceof UndirectedGraph)
+            scale /= 2;
+        HashMap<T, Double> result = new HashMap<>();
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            result.put(compact.getLabel(vertex), centrality[vertex] * scale);
+
+        lastNumberOfVertices = numberOfVertices;
+        lastSampleSize = sources.length;
+        return result;
+    }
+
+    /**
+     * SourceTask: A fork-join task that runs Brandes' searches from a range of sources, splitting the range in half
+     * until it is small enough to run directly.
+     */
+    private static class SourceTask extends RecursiveTask<double[]> {
+        /** The serialization version; tasks are never serialized, but RecursiveTask is serializable. */
+        private static final long serialVersionUID = 1L;
+
+        /** The graph to search, not serialized. */
+        private final transient CompactGraph<?> compact;
+        /** The vertex numbers of all sources. */
+        private final int[] sources;
+        /** The position of the first source in this task's range. */
+        private final int start;
+        /** The position after the last source in this task's range. */
+        private final int end;
+        /** The largest range run directly rather than split. */
+        private final int leafSize;
+
+        /**
+         * Constructor creates a new SourceTask for the specified range of sources.
+         * @param compact The graph to search.
+         * @param sources The vertex numbers of all sources.
+         * @param start The position of the first source in this task's range.
+         * @param end The position after the last source in this task's range.
+         * @param leafSize The largest range run directly rather than split.
+         */
+        private SourceTask(CompactGraph<?> compact, int[] sources, int start, int end, int leafSize) {
+            this.compact = compact;
+            this.sources = sources;
+            this.start = start;
+            this.end = end;
+            this.leafSize = leafSize;
+        }
+
+        /**
+         * Runs the searches of this task's range, or splits the range between two subtasks.
+         * @return The dependencies of every vertex summed over this task's sources.
+         */
+        protected double[] compute() {
+            if (end - start <= leafSize)
+                return searchRange();
+
+            int middle = (start + end) >>> 1;
+            SourceTask left = new SourceTask(compact, sources, start, middle, leafSize);
+            SourceTask right = new SourceTask(compact, sources, middle, end, leafSize);
+            left.fork();
+            double[] rightResult = right.compute();
+            double[] leftResult = left.join();
+            for (int vertex = 0; vertex < leftResult.length; vertex++)
+                leftResult[vertex] += rightResult[vertex];
+            return leftResult;
+        }
+
+        /**
+         * Runs Brandes' search from every source in this task's range, sharing one set of work arrays.
+         * @return The dependencies of every vertex summed over this task's sources.
+         */
+        private double[] searchRange() {
+            int numberOfVertices = compact.size();
+            int[] offsets = compact.getOutOffsets();
+            int[] targets = compact.getOutTargets();
+            double[] accumulated = new double[numberOfVertices];
+            int[] distance = new int[numberOfVertices];
+            double[] pathCount = new double[numberOfVertices];
+            double[] dependency = new double[numberOfVertices];
+            int[] order = new int[numberOfVertices];
+            Arrays.fill(distance, -1);
+
+            for (int position = start; position < end; position++) {
+                int source = sources[position];
+                int head = 0;
+                int tail = 0;
+                order[tail++] = source;
+                distance[source] = 0;
+                pathCount[source] = 1;
+
+                while (head < tail) {
+                    int vertex = order[head++];
+                    for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                        int neighbor = targets[edge];
+                        if (distance[neighbor] < 0) {
+                            distance[neighbor] = distance[vertex] + 1;
+                            order[tail++] = neighbor;
+                        }
+                        if (distance[neighbor] == distance[vertex] + 1)
+                            pathCount[neighbor] += pathCount[vertex];
+                    }
+                }
+
+                // Vertices are visited in reverse order of distance, so each successor's dependency is final.
+                for (int reached = tail - 1; reached >= 0; reached--) {
+                    int vertex = order[reached];
+                    for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                        int neighbor = targets[edge];
+                        if (distance[neighbor] == distance[vertex] + 1)
+                            dependency[vertex] += pathCount[vertex] / pathCount[neighbor] * (1 + dependency[neighbor]);
+                    }
+                    if (vertex != source)
+                        accumulated[vertex] += dependency[vertex];
+                }
+
+                for (int reached = 0; reached < tail; reached++) {
+                    int vertex = order[reached];
+                    distance[vertex] = -1;
+                    pathCount[vertex] = 0;
+                    dependency[vertex] = 0;
+                }
+            }
+            return accumulated;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package GraphPackage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * BinaryEdgeList: Reads and writes graphs with integer vertex labels in a compact binary edge-list format, for
+ * loading large graphs far faster than adding their edges one at a time. All values are little-endian. A file is a
+ * 24-byte header followed by one record per edge:
+ * <pre>
+ *   header: int magic ("GEBL"), int format version (1), int flags, int vertex count, long edge count
+ *   record: int source vertex, int target vertex[, float weight if the WEIGHTED flag is set]
+ * </pre>
+ * The vertices are labelled 0 to vertex count - 1. With the UNDIRECTED flag set, each record is an edge in both
+ * directions and the file loads as an UndirectedGraph.
+ * <p>
+ * Reading maps the file into memory and parses the records in place, in two passes: the first counts each vertex's
+ * edges, and the second places every edge into primitive arrays grouped by source vertex. Duplicate edges, of which
+ * the first is kept, and self-loops are then dropped, and each vertex's edge list is built at its final size, so no
+ * per-edge duplicate check is made against the growing graph.
+ */
+public final class BinaryEdgeList {
+    /** The first four bytes of every file, "GEBL" in little-endian order. */
+    public static final int MAGIC = 0x4C424547;
+    /** The version of the format written and read. */
+    public static final int FORMAT_VERSION = 1;
+    /** The flag set when each record carries a weight. */
+    public static final int WEIGHTED = 1;
+    /** The flag set when each record is an edge in both directions. */
+    public static final int UNDIRECTED = 2;
+    /** The number of bytes in the header. */
+    static final int HEADER_BYTES = 24;
+    /** The number of bytes written to the file at a time. */
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    /** The largest number of edges a loaded graph can hold, counting each undirected edge twice. */
+    private static final int MAX_EDGES = Integer.MAX_VALUE - 8;
+
+    /**
+     * Constructor is private, since the class only has static methods.
+     */
+    private BinaryEdgeList() {}
+
+    /**
+     * Loads a graph from a binary edge-list file. Runtime: O(V + E), reading the file twice from memory.
+     * @param path The path of the file.
+     * @return A new UndirectedGraph if the file's UNDIRECTED flag is set, or a new DirectedGraph otherwise, with
+     * vertices labelled 0 to vertex count - 1.
+     * @throws IOException If the file cannot be read or is not a valid binary edge list.
+     */
+    public static DirectedGraph<Integer> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES)
+                throw new IOException("File is too short to be a binary edge list.");
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC)
+                throw new IOException("File is not a binary edge list.");
+            if (header.getInt(4) != FORMAT_VERSION)
+                throw new IOException("Unsupported binary edge list version " + header.getInt(4) + ".");
+            int flags = header.getInt(8);
+            int vertexCount = header.getInt(12);
+            long numberOfRecords = header.getLong(16);
+            boolean weighted = (flags & WEIGHTED) != 0;
+            boolean undirected = (flags & UNDIRECTED) != 0;
+            int recordBytes = weighted ? 12 : 8;
+            if (vertexCount < 0 || numberOfRecords < 0)
+                throw new IOException("Binary edge list header is corrupt.");
+            if (numberOfRecords > (Long.MAX_VALUE - HEADER_BYTES) / recordBytes
+                    || channel.size() != HEADER_BYTES + numberOfRecords * recordBytes)
+                throw new IOException("File size does not match its edge count.");
+
+            ArrayList<MappedByteBuffer> regions = mapRecords(channel, numberOfRecords, recordBytes);
+            int[] offsets = countEdges(regions, recordBytes, vertexCount, undirected);
+            int[] targets = new int[offsets[vertexCount]];
+            float[] weights = weighted ? new float[targets.length] : null;
+            placeEdges(regions, recordBytes, offsets, targets, weights, undirected);
+
+            ArrayList<Vertex<Integer>> loadedVertices = new ArrayList<>(vertexCount);
+            for (int vertex = 0; vertex < vertexCount; vertex++)
+                loadedVertices.add(new Vertex<>(vertex, offsets[vertex + 1] - offsets[vertex]));
+            // lastSource[t] is one more than the last vertex found to have an edge to t, so duplicates are skipped.
+            int[] lastSource = new int[vertexCount];
+            int edgeCount = 0;
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                Vertex<Integer> beginVertex = loadedVertices.get(vertex);
+                for (int position = offsets[vertex]; position < offsets[vertex + 1]; position++) {
+                    int target = targets[position];
+                    if (lastSource[target] == vertex + 1)
+                        continue;
+                    lastSource[target] = vertex + 1;
+                    beginVertex.appendEdge(loadedVertices.get(target), weighted ? weights[position] : 0);
+                    edgeCount++;
+                }
+            }
+
+            DirectedGraph<Integer> graph = undirected ? new UndirectedGraph<>() : new DirectedGraph<>();
+            graph.loadVertices(loadedVertices, edgeCount);
+            return graph;
+        }
+    }
+
+    /**
+     * Writes a graph to a binary edge-list file, replacing any existing file. An UndirectedGraph is written with the
+     * UNDIRECTED flag set and one record per edge. The vertex count written is one more than the largest label.
+     * @param graph The graph, whose labels must be non-negative.
+     * @param path The path of the file.
+     * @param weighted True to write each edge's weight, rounded to a float, or false to write no weights, so the
+     * edges load with weight 0.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(DirectedGraph<Integer> graph, Path path, boolean weighted) throws IOException {
+        int vertexCount = 0;
+        for (VertexInterface<Integer> vertex : graph.getVertexObjects()) {
+            if (vertex.getLabel() < 0)
+                throw new IllegalArgumentException("Vertex labels must not be negative.");
+            vertexCount = Math.max(vertexCount, vertex.getLabel() + 1);
+        }
+        boolean undirected = graph instanceof UndirectedGraph;
+        int recordBytes = weighted ? 12 : 8;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES / recordBytes * recordBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            int flags = (weighted ? WEIGHTED : 0) | (undirected ? UNDIRECTED : 0);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(flags).putInt(vertexCount)
+                    .putLong(graph.getNumberOfEdges());
+            for (VertexInterface<Integer> vertex : graph.getVertexObjects()) {
+                int source = vertex.getLabel();
+                Iterator<VertexInterface<Integer>> neighbors = vertex.getNeighborIterator();
+                Iterator<Double> edgeWeights = vertex.getWeightIterator();
+                while (neighbors.hasNext()) {
+                    int target = neighbors.next().getLabel();
+                    double edgeWeight = edgeWeights.next();
+                    if (undirected && target < source)
+                        continue;
+                    if (buffer.remaining() < recordBytes)
+                        drain(buffer, channel);
+                    buffer.putInt(source).putInt(target);
+                    if (weighted)
+                        buffer.putFloat((float)edgeWeight);
+                }
+            }
+            drain(buffer, channel);
+        }
+    }
+
+    /**
+     * Maps the records of a file into memory, in regions of whole records no larger than a buffer can address.
+     * @param channel The file.
+     * @param numberOfRecords The number of records after the header.
+     * @param recordBytes The number of bytes per record.
+     * @return The mapped regions, in file order.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private static ArrayList<MappedByteBuffer> mapRecords(FileChannel channel, long numberOfRecords, int recordBytes)
+            throws IOException {
+        ArrayList<MappedByteBuffer> regions = new ArrayList<>();
+        long maxRegionBytes = (long)(Integer.MAX_VALUE / recordBytes) * recordBytes;
+        long position = HEADER_BYTES;
+        long end = HEADER_BYTES + numberOfRecords * recordBytes;
+        while (position < end) {
+            long regionBytes = Math.min(maxRegionBytes, end - position);
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, regionBytes);
+            region.order(ByteOrder.LITTLE_ENDIAN);
+            regions.add(region);
+            position += regionBytes;
+        }
+        return regions;
+    }
+
+    /**
+     * Counts the edges leaving each vertex, checking that every record refers to vertices in the graph.
+     * @param regions The mapped records.
+     * @param recordBytes The number of bytes per record.
+     * @param vertexCount The number of vertices.
+     * @param undirected True if each record is an edge in both directions.
+     * @return The start of each vertex's edges in the edge arrays, with the total number of edges at the end.
+     * @throws IOException If a record refers to a vertex outside the graph, or there are too many edges.
+     */
+    private static int[] countEdges(ArrayList<MappedByteBuffer> regions, int recordBytes, int vertexCount,
+                                    boolean undirected) throws IOException {
+        int[] offsets = new int[vertexCount + 1];
+        for (MappedByteBuffer region : regions) {
+            for (int position = 0; position < region.limit(); position += recordBytes) {
+                int source = region.getInt(position);
+                int target = region.getInt(position + 4);
+                if (source < 0 || source >= vertexCount || target < 0 || target >= vertexCount)
+                    throw new IOException("Edge record refers to a vertex outside the graph.");
+                if (source == target)
+                    continue;
+                offsets[source + 1]++;
+                if (undirected)
+                    offsets[target + 1]++;
+            }
+        }
+        long total = 0;
+        for (int vertex = 1; vertex <= vertexCount; vertex++) {
+            total += offsets[vertex];
+            if (total > MAX_EDGES)
+                throw new IOException("Binary edge list has too many edges to load.");
+            offsets[vertex] = (int)total;
+        }
+        return offsets;
+    }
+
+    /**
+     * Places each edge into the edge arrays, grouped by source vertex, in the order of the records.
+     * @param regions The mapped records.
+     * @param recordBytes The number of bytes per record.
+     * @param offsets The start of each vertex's edges in the edge arrays.
+     * @param targets Filled with the target vertex of each edge.
+     * @param weights Filled with the weight of each edge, or null if the records carry no weights.
+     * @param undirected True if each record is an edge in both directions.
+     */
+    private static void placeEdges(ArrayList<MappedByteBuffer> regions, int recordBytes, int[] offsets, int[] targets,
+                                   float[] weights, boolean undirected) {
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (MappedByteBuffer region : regions) {
+            for (int position = 0; position < region.limit(); position += recordBytes) {
+                int source = region.getInt(position);
+                int target = region.getInt(position + 4);
+                if (source == target)
+                    continue;
+                float edgeWeight = weights == null ? 0 : region.getFloat(position + 8);
+                if (weights != null)
+                    weights[next[source]] = edgeWeight;
+                targets[next[source]++] = target;
+                if (undirected) {
+                    if (weights != null)
+                        weights[next[target]] = edgeWeight;
+                    targets[next[target]++] = source;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the contents of a buffer to a file and empties the buffer.
+     * @param buffer The buffer, ready to be filled further.
+     * @param channel The file.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,27 @@
+package GraphPackage;
+
+/**
+ * CancellationToken: A flag another thread can set to ask running queries to stop. Queries given the token check it
+ * as they visit vertices and scan edges, and return a partial result soon after it is cancelled. A token stays
+ * cancelled once cancelled.
+ */
+public class CancellationToken {
+    /** Indicates whether cancellation has been requested. */
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor creates a new CancellationToken that is not cancelled.
+     */
+    public CancellationToken() { cancelled = false; }
+
+    /**
+     * Requests that every query given this token stop.
+     */
+    public void cancel() { cancelled = true; }
+
+    /**
+     * Determines if cancellation has been requested.
+     * @return True if the token has been cancelled, or false otherwise.
+     */
+    public boolean isCancelled() { return cancelled; }
+}
@@ -0,0 +1,331 @@
+package GraphPackage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * CommunityDetection: Groups the vertices of a graph into communities, ignoring edge direction and weights, by label
+ * propagation. Every vertex starts in its own community, and in each round every vertex joins the community most
+ * common among its neighbors, keeping its own when it is among the most common. Rounds visit the vertices in a random
+ * order and update them asynchronously in parallel, so a vertex sees the labels its neighbors chose earlier in the same
+ * round, which converges in few rounds on large graphs.
+ * <p>
+ * Optionally, label propagation is followed by Louvain-style refinement: each vertex is moved to the neighboring
+ * community that most increases modularity, until no move improves it. Refinement runs on a single thread.
+ * @param <T> The data type of the vertex labels.
+ */
+public class CommunityDetection<T> {
+    /** The default maximum number of label propagation rounds. */
+    public static final int DEFAULT_MAX_ITERATIONS = 50;
+
+    /** The graph to find communities in. */
+    private final DirectedGraph<T> graph;
+    /** The maximum number of label propagation rounds, and separately of refinement rounds. */
+    private int maxIterations;
+    /** Indicates whether label propagation is followed by modularity refinement. */
+    private boolean refinement;
+    /** The source of random seeds for each computation. */
+    private final SplittableRandom seedSource;
+    /** The number of label propagation rounds performed by the last computation. */
+    private int iterations;
+    /** The number of communities found by the last computation. */
+    private int numberOfCommunities;
+    /** The modularity of the communities found by the last computation. */
+    private double modularity;
+    /** Holds each thread's buffer of neighbor labels, grown as needed. */
+    private final ThreadLocal<int[]> labelBuffer;
+
+    /**
+     * Constructor creates a new CommunityDetection engine for the specified graph, using label propagation without
+     * refinement.
+     * @param graph The graph to find communities in.
+     */
+    public CommunityDetection(DirectedGraph<T> graph) {
+        this.graph = graph;
+        maxIterations = DEFAULT_MAX_ITERATIONS;
+        refinement = false;
+        seedSource = new SplittableRandom();
+        labelBuffer = ThreadLocal.withInitial(() -> new int[16]);
+    }
+
+    /**
+     * Sets the maximum number of label propagation rounds, which is also the maximum number of refinement rounds.
+     * @param newMaxIterations The maximum number of rounds; at least 1.
+     */
+    public void setMaxIterations(int newMaxIterations) {
+        if (newMaxIterations < 1)
+            throw new IllegalArgumentException("Maximum iterations must be at least 1.");
+        maxIterations = newMaxIterations;
+    }
+
+    /**
+     * Sets whether label propagation is followed by Louvain-style modularity refinement, which usually merges small
+     * communities into their neighbors at the cost of more time.
+     * @param newRefinement True to refine the communities, or false otherwise.
+     */
+    public void setRefinement(boolean newRefinement) { refinement = newRefinement; }
+
+    /**
+     * Finds the community of every vertex. Each label propagation round is O(V + E log d), where d is the largest
+     * degree, divided among the threads of the common fork-join pool; each refinement round is O(V + E).
+     * @return A map from each vertex label to its community number, numbered from 0 to getNumberOfCommunities() - 1.
+     */
+    public HashMap<T, Integer> computeCommunities() {
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        int[] offsets = compact.getUndirectedOffsets();
+        int[] neighbors = compact.getUndirectedTargets();
+        long seed;
+        synchronized (seedSource) {
+            seed = seedSource.nextLong();
+        }
+
+        int[] communities = propagateLabels(offsets, neighbors, seed);
+        if (refinement)
+            refine(offsets, neighbors, communities);
+
+        // Renumber the communities from 0 in order of first appearance.
+        int[] renumbered = new int[communities.length];
+        Arrays.fill(renumbered, -1);
+        numberOfCommunities = 0;
+        HashMap<T, Integer> result = new HashMap<>();
+        for (int vertex = 0; vertex < communities.length; vertex++) {
+            if (renumbered[communities[vertex]] < 0)
+                renumbered[communities[vertex]] = numberOfCommunities++;
+            communities[vertex] = renumbered[communities[vertex]];
+            result.put(compact.getLabel(vertex), communities[vertex]);
+        }
+        modularity = computeModularity(offsets, neighbors, communities);
+        return result;
+    }
+
+    /**
+     * Retrieves the number of label propagation rounds performed by the last computation.
+     * @return The number of rounds.
+     */
+    public int getIterations() { return iterations; }
+
+    /**
+     * Retrieves the number of communities found by the last computation.
+     * @return The number of communities.
+     */
+    public int getNumberOfCommunities() { return numberOfCommunities; }
+
+    /**
+     * Retrieves the modularity of the communities found by the last computation: the fraction of edges inside
+     * communities minus the fraction expected if edges were placed at random with the same degrees.
+     * @return The modularity, from -0.5 to 1.
+     */
+    public double getModularity() { return modularity; }
+
+    /**
+     * Runs label propagation rounds until a round changes no label or the maximum number of rounds is reached.
+     * @param offsets The undirected neighbor offsets.
+     * @param neighbors The undirected neighbor array.
+     * @param seed The random seed for the visiting orders and tie breaks.
+     * @return The community label of each vertex number, which is the number of one of its members.
+     */
+    private int[] propagateLabels(int[] offsets, int[] neighbors, long seed) {
+        int numberOfVertices = offsets.length - 1;
+        AtomicIntegerArray labels = new AtomicIntegerArray(numberOfVertices);
+        int[] order = new int[numberOfVertices];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            labels.set(vertex, vertex);
+            order[vertex] = vertex;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        iterations = 0;
+        long changes = 1;
+        while (changes > 0 && iterations < maxIterations) {
+            for (int position = numberOfVertices - 1; position > 0; position--) {
+                int swap = random.nextInt(position + 1);
+                int temp = order[position];
+                order[position] = order[swap];
+                order[swap] = temp;
+            }
+            long roundSeed = random.nextLong();
+            changes = IntStream.range(0, numberOfVertices).parallel()
+                    .filter(position -> updateLabel(order[position], offsets, neighbors, labels, roundSeed))
+                    .count();
+            iterations++;
+        }
+
+        int[] result = new int[numberOfVertices];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            result[vertex] = labels.get(vertex);
+        return result;
+    }
+
+    /**
+     * Sets a vertex's label to the label most common among its neighbors, keeping its own label if it is among the
+     * most common and otherwise breaking ties pseudo-randomly.
+     * @param vertex The vertex number.
+     * @param offsets The undirected neighbor offsets.
+     * @param neighbors The undirected neighbor array.
+     * @param labels The current label of each vertex number.
+     * @param roundSeed The seed for this round's tie breaks.
+     * @return True if the vertex's label changed, or false otherwise.
+     */
+    private boolean updateLabel(int vertex, int[] offsets, int[] neighbors, AtomicIntegerArray labels,
+                                long roundSeed) {
+        int degree = offsets[vertex + 1] - offsets[vertex];
+        if (degree == 0)
+            return false;
+        int[] buffer = labelBuffer.get();
+        if (buffer.length < degree) {
+            buffer = new int[Math.max(degree, buffer.length * 2)];
+            labelBuffer.set(buffer);
+        }
+        int count = 0;
+        for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+            if (neighbors[edge] != vertex)
+                buffer[count++] = labels.get(neighbors[edge]);
+        }
+        if (count == 0)
+            return false;
+        Arrays.sort(buffer, 0, count);
+
+        int currentLabel = labels.get(vertex);
+        int bestCount = 0;
+        int ties = 0;
+        int bestLabel = currentLabel;
+        boolean currentIsBest = false;
+        long tieHash = mix(roundSeed ^ vertex);
+        for (int start = 0; start < count; ) {
+            int end = start + 1;
+            while (end < count && buffer[end] == buffer[start])
+                end++;
+            int runLength = end - start;
+            if (runLength > bestCount) {
+                bestCount = runLength;
+                bestLabel = buffer[start];
+                currentIsBest = buffer[start] == currentLabel;
+                ties = 1;
+            }
+            else if (runLength == bestCount) {
+                currentIsBest |= buffer[start] == currentLabel;
+                // Keeps each tied label with probability 1 / ties, choosing uniformly among them.
+                ties++;
+                tieHash = mix(tieHash);
+                if (Long.remainderUnsigned(tieHash, ties) == 0)
+                    bestLabel = buffer[start];
+            }
+            start = end;
+        }
+        if (currentIsBest || bestLabel == currentLabel)
+            return false;
+        labels.set(vertex, bestLabel);
+        return true;
+    }
+
+    /**
+     * Moves vertices one at a time to the neighboring community that most increases modularity, until a round moves
+     * no vertex or the maximum number of rounds is reached.
+     * @param offsets The undirected neighbor offsets.
+     * @param neighbors The undirected neighbor array.
+     * @param communities The community label of each vertex number; updated.
+     */
+    private void refine(int[] offsets, int[] neighbors, int[] communities) {
+        int numberOfVertices = communities.length;
+        long[] degree = new long[numberOfVertices];
+        long[] communityDegree = new long[numberOfVertices];
+        long totalDegree = 0;
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                if (neighbors[edge] != vertex)
+                    degree[vertex]++;
+            }
+            communityDegree[communities[vertex]] += degree[vertex];
+            totalDegree += degree[vertex];
+        }
+        if (totalDegree == 0)
+            return;
+
+        int[] links = new int[numberOfVertices];
+        int[] touched = new int[numberOfVertices];
+        boolean moved = true;
+        for (int round = 0; moved && round < maxIterations; round++) {
+            moved = false;
+            for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+                if (degree[vertex] == 0)
+                    continue;
+                int touchedCount = 0;
+                for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                    int neighbor = neighbors[edge];
+                    if (neighbor == vertex)
+                        continue;
+                    if (links[communities[neighbor]]++ == 0)
+                        touched[touchedCount++] = communities[neighbor];
+                }
+
+                // The gain of joining community c, after leaving the current one, is proportional to
+                // links to c - degree * (degree of c) / total degree.
+                int current = communities[vertex];
+                communityDegree[current] -= degree[vertex];
+                int best = current;
+                double bestGain = links[current] - (double)degree[vertex] * communityDegree[current] / totalDegree;
+                for (int position = 0; position < touchedCount; position++) {
+                    int candidate = touched[position];
+                    double gain = links[candidate] -
+                            (double)degree[vertex] * communityDegree[candidate] / totalDegree;
+                    if (gain > bestGain + 1.0e-12) {
+                        bestGain = gain;
+                        best = candidate;
+                    }
+                    links[candidate] = 0;
+                }
+                links[current] = 0;
+                communityDegree[best] += degree[vertex];
+                if (best != current) {
+                    communities[vertex] = best;
+                    moved = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the modularity of a division of the graph into communities, ignoring loops.
+     * @param offsets The undirected neighbor offsets.
+     * @param neighbors The undirected neighbor array.
+     * @param communities The community number of each vertex number, from 0 to the number of communities - 1.
+     * @return The modularity, or 0 if the graph has no edges.
+     */
+    private double computeModularity(int[] offsets, int[] neighbors, int[] communities) {
+        long[] communityDegree = new long[numberOfCommunities];
+        long insideEnds = 0;
+        long totalDegree = 0;
+        for (int vertex = 0; vertex < communities.length; vertex++) {
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                int neighbor = neighbors[edge];
+                if (neighbor == vertex)
+                    continue;
+                totalDegree++;
+                communityDegree[communities[vertex]]++;
+                if (communities[neighbor] == communities[vertex])
+                    insideEnds++;
+            }
+        }
+        if (totalDegree == 0)
+            return 0;
+
+        double expected = 0;
+        for (long sum : communityDegree)
+            expected += ((double)sum / totalDegree) * ((double)sum / totalDegree);
+        return (double)insideEnds / totalDegree - expected;
+    }
+
+    /**
+     * Mixes 64 bits with the SplitMix64 finalizer, for cheap pseudo-random tie breaks.
+     * @param value The value to mix.
+     * @return The mixed value.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
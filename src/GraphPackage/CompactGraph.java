@@ -0,0 +1,261 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.stream.IntStream;
+
+/**
+ * CompactGraph: An immutable copy of a graph's structure in compressed sparse row form, where each vertex is
+ * numbered from 0 to size() - 1 and its edges are stored in primitive arrays. Used by the analytic algorithms in this
+ * package, which would otherwise follow object references and box values for every edge they scan.
+ * @param <T> The data type of the vertex labels.
+ */
+class CompactGraph<T> {
+    /** Stores the label of each vertex at the position of its vertex number. */
+    private final ArrayList<T> labels;
+    /** Stores each vertex label as a key, and its vertex number as a value. */
+    private final HashMap<T, Integer> indices;
+    /** The out-edges of vertex v are stored at positions outOffsets[v] to outOffsets[v + 1] - 1 of the edge arrays. */
+    private final int[] outOffsets;
+    /** Stores the vertex number each out-edge points to. */
+    private final int[] outTargets;
+    /** Stores the weight of each out-edge. */
+    private final double[] outWeights;
+    /** The in-edges of vertex v are stored at positions inOffsets[v] to inOffsets[v + 1] - 1; built on demand. */
+    private int[] inOffsets;
+    /** Stores the vertex number each in-edge comes from; built on demand. */
+    private int[] inSources;
+    /** Stores the weight of each in-edge; built on demand. */
+    private double[] inWeights;
+    /** The neighbors of vertex v, ignoring direction, are at positions undirectedOffsets[v] to
+     * undirectedOffsets[v + 1] - 1; built on demand. */
+    private int[] undirectedOffsets;
+    /** Stores the neighbors of every vertex ignoring direction, sorted and without duplicates; built on demand. */
+    private int[] undirectedTargets;
+    /** The mutation version of the source graph when this copy was made. */
+    private final long version;
+
+    /**
+     * Constructor creates a new CompactGraph by copying the vertices and edges of the specified graph.
+     * Runtime: O(V + E).
+     * @param graph The graph to copy.
+     */
+    CompactGraph(DirectedGraph<T> graph) {
+        version = graph.getVersion();
+        int numberOfVertices = graph.getNumberOfVertices();
+        labels = new ArrayList<>(numberOfVertices);
+        indices = new HashMap<>((int)(numberOfVertices / 0.75f) + 1);
+        for (VertexInterface<T> vertex : graph.getVertexObjects()) {
+            indices.put(vertex.getLabel(), labels.size());
+            labels.add(vertex.getLabel());
+        }
+
+        outOffsets = new int[numberOfVertices + 1];
+        int position = 0;
+        for (VertexInterface<T> vertex : graph.getVertexObjects()) {
+            Iterator<VertexInterface<T>> neighbors = vertex.getNeighborIterator();
+            while (neighbors.hasNext()) {
+                neighbors.next();
+                position++;
+            }
+            outOffsets[indices.get(vertex.getLabel()) + 1] = position;
+        }
+
+        outTargets = new int[position];
+        outWeights = new double[position];
+        position = 0;
+        for (VertexInterface<T> vertex : graph.getVertexObjects()) {
+            Iterator<VertexInterface<T>> neighbors = vertex.getNeighborIterator();
+            Iterator<Double> weights = vertex.getWeightIterator();
+            while (neighbors.hasNext()) {
+                outTargets[position] = indices.get(neighbors.next().getLabel());
+                outWeights[position] = weights.next();
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of vertices.
+     * @return The number of vertices.
+     */
+    int size() { return labels.size(); }
+
+    /**
+     * Retrieves the number of directed edges.
+     * @return The number of directed edges.
+     */
+    int getNumberOfEdges() { return outTargets.length; }
+
+    /**
+     * Retrieves the vertex number of the specified label.
+     * @param label The label of a vertex.
+     * @return The vertex number of the label, or -1 if the label was not in the graph when it was copied.
+     */
+    int indexOf(T label) {
+        Integer index = indices.get(label);
+        return (index == null) ? -1 : index;
+    }
+
+    /**
+     * Retrieves the label of the specified vertex number.
+     * @param index A vertex number from 0 to size() - 1.
+     * @return The label of the vertex.
+     */
+    T getLabel(int index) { return labels.get(index); }
+
+    /**
+     * Retrieves the mutation version of the source graph when this copy was made.
+     * @return The mutation version of the source graph.
+     */
+    long getVersion() { return version; }
+
+    /**
+     * Retrieves the number of out-edges of the specified vertex.
+     * @param index A vertex number.
+     * @return The number of edges leaving the vertex.
+     */
+    int outDegree(int index) { return outOffsets[index + 1] - outOffsets[index]; }
+
+    /**
+     * Retrieves the out-edge offsets. The out-edges of vertex v are at positions outOffsets[v] to outOffsets[v + 1] - 1.
+     * @return The out-edge offset array, of length size() + 1. Must not be modified.
+     */
+    int[] getOutOffsets() { return outOffsets; }
+
+    /**
+     * Retrieves the target vertex number of every out-edge.
+     * @return The out-edge target array. Must not be modified.
+     */
+    int[] getOutTargets() { return outTargets; }
+
+    /**
+     * Retrieves the weight of every out-edge.
+     * @return The out-edge weight array. Must not be modified.
+     */
+    double[] getOutWeights() { return outWeights; }
+
+    /**
+     * Retrieves the in-edge offsets, building the in-edge arrays on first use. The in-edges of vertex v are at
+     * positions inOffsets[v] to inOffsets[v + 1] - 1.
+     * @return The in-edge offset array, of length size() + 1. Must not be modified.
+     */
+    int[] getInOffsets() {
+        buildInEdges();
+        return inOffsets;
+    }
+
+    /**
+     * Retrieves the source vertex number of every in-edge, building the in-edge arrays on first use.
+     * @return The in-edge source array. Must not be modified.
+     */
+    int[] getInSources() {
+        buildInEdges();
+        return inSources;
+    }
+
+    /**
+     * Retrieves the weight of every in-edge, building the in-edge arrays on first use.
+     * @return The in-edge weight array. Must not be modified.
+     */
+    double[] getInWeights() {
+        buildInEdges();
+        return inWeights;
+    }
+
+    /**
+     * Retrieves the offsets of each vertex's neighbors ignoring edge direction, building the arrays on first use.
+     * @return The undirected neighbor offset array, of length size() + 1. Must not be modified.
+     */
+    int[] getUndirectedOffsets() {
+        buildUndirectedEdges();
+        return undirectedOffsets;
+    }
+
+    /**
+     * Retrieves the neighbors of every vertex ignoring edge direction, building the arrays on first use. Each vertex's
+     * neighbors are sorted by vertex number and listed once, even if edges run both ways.
+     * @return The undirected neighbor array. Must not be modified.
+     */
+    int[] getUndirectedTargets() {
+        buildUndirectedEdges();
+        return undirectedTargets;
+    }
+
+    /**
+     * Builds the undirected neighbor arrays by merging each vertex's out-edges and in-edges, then sorting and removing
+     * duplicates in parallel. Runtime: O(V + E log E).
+     */
+    private synchronized void buildUndirectedEdges() {
+        if (undirectedOffsets != null)
+            return;
+
+        int numberOfVertices = size();
+        int[] sourceOffsets = getInOffsets();
+        int[] sources = getInSources();
+        int[] merged = new int[outTargets.length * 2];
+        int[] mergedOffsets = new int[numberOfVertices + 1];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            mergedOffsets[vertex + 1] = mergedOffsets[vertex] + outDegree(vertex) +
+                    (sourceOffsets[vertex + 1] - sourceOffsets[vertex]);
+
+        int[] uniqueCounts = new int[numberOfVertices];
+        IntStream.range(0, numberOfVertices).parallel().forEach(vertex -> {
+            int start = mergedOffsets[vertex];
+            int position = start;
+            for (int edge = outOffsets[vertex]; edge < outOffsets[vertex + 1]; edge++)
+                merged[position++] = outTargets[edge];
+            for (int edge = sourceOffsets[vertex]; edge < sourceOffsets[vertex + 1]; edge++)
+                merged[position++] = sources[edge];
+            Arrays.sort(merged, start, position);
+
+            int unique = 0;
+            for (int edge = start; edge < position; edge++) {
+                if (unique == 0 || merged[edge] != merged[start + unique - 1])
+                    merged[start + unique++] = merged[edge];
+            }
+            uniqueCounts[vertex] = unique;
+        });
+
+        int[] offsets = new int[numberOfVertices + 1];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            offsets[vertex + 1] = offsets[vertex] + uniqueCounts[vertex];
+        int[] targets = new int[offsets[numberOfVertices]];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            System.arraycopy(merged, mergedOffsets[vertex], targets, offsets[vertex], uniqueCounts[vertex]);
+        undirectedTargets = targets;
+        undirectedOffsets = offsets;
+    }
+
+    /**
+     * Builds the in-edge arrays by transposing the out-edge arrays with a counting sort. Runtime: O(V + E).
+     */
+    private synchronized void buildInEdges() {
+        if (inOffsets != null)
+            return;
+
+        int numberOfVertices = size();
+        int[] offsets = new int[numberOfVertices + 1];
+        for (int target : outTargets)
+            offsets[target + 1]++;
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            offsets[vertex + 1] += offsets[vertex];
+
+        int[] fill = new int[numberOfVertices];
+        int[] sources = new int[outTargets.length];
+        double[] weights = new double[outTargets.length];
+        for (int source = 0; source < numberOfVertices; source++) {
+            for (int edge = outOffsets[source]; edge < outOffsets[source + 1]; edge++) {
+                int target = outTargets[edge];
+                int position = offsets[target] + fill[target]++;
+                sources[position] = source;
+                weights[position] = outWeights[edge];
+            }
+        }
+        inSources = sources;
+        inWeights = weights;
+        inOffsets = offsets;
+    }
+}
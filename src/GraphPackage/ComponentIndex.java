@@ -0,0 +1,287 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Queue;
+
+/**
+ * ComponentIndex: An online index of the connected components of an undirected graph. Insertions are handled by a
+ * union-find structure, and deletions by rebuilding only the component affected by the deletion. Each component's
+ * members are also kept in a circular linked list so they can be listed without traversing the graph.
+ * @param <T> The data type of the vertex labels in the indexed graph.
+ */
+class ComponentIndex<T> {
+    /** The graph whose components are indexed. Used only to find the extent of a component after a deletion. */
+    private final DirectedGraph<T> graph;
+    /** Stores each vertex label as a key, and its parent in the union-find forest as a value. */
+    private final HashMap<T, T> parent;
+    /** Stores the label of each component root as a key, and the number of vertices in the component as a value. */
+    private final HashMap<T, Integer> size;
+    /** Stores each vertex label as a key, and the next member of the same component as a value, forming a cycle. */
+    private final HashMap<T, T> next;
+
+    /**
+     * Constructor creates a new, empty ComponentIndex for the specified graph.
+     * @param graph The graph whose components are indexed. Its edges must be bidirectional.
+     */
+    ComponentIndex(DirectedGraph<T> graph) {
+        this.graph = graph;
+        parent = new HashMap<>();
+        size = new HashMap<>();
+        next = new HashMap<>();
+    }
+
+    /**
+     * Records a new vertex with no edges as a component of its own.
+     * @param vertexLabel The label of the vertex added to the graph.
+     */
+    void vertexAdded(T vertexLabel) {
+        parent.put(vertexLabel, vertexLabel);
+        size.put(vertexLabel, 1);
+        next.put(vertexLabel, vertexLabel);
+    }
+
+    /**
+     * Records a new edge by merging the components of its two vertices, if they differ. Runtime: O(alpha(V)).
+     * @param begin The label of one vertex of the new edge.
+     * @param end The label of the other vertex of the new edge.
+     */
+    void edgeAdded(T begin, T end) {
+        T beginRoot = find(begin);
+        T endRoot = find(end);
+        if (beginRoot.equals(endRoot))
+            return;
+
+        int beginSize = size.get(beginRoot);
+        int endSize = size.get(endRoot);
+        if (beginSize < endSize) {
+            T temp = beginRoot;
+            beginRoot = endRoot;
+            endRoot = temp;
+        }
+        parent.put(endRoot, beginRoot);
+        size.remove(endRoot);
+        size.put(beginRoot, beginSize + endSize);
+
+        // Swapping the successors of one member from each cycle splices the two cycles into one.
+        T beginNext = next.get(begin);
+        next.put(begin, next.get(end));
+        next.put(end, beginNext);
+    }
+
+    /**
+     * Records the removal of an edge. Searches outward from both vertices at once, one vertex at a time each, so the
+     * work done is proportional to the smaller of the two sides if the component has been split. Runtime: O(V + E)
+     * of the smaller side when the component splits, or of the explored region when it does not.
+     * @param begin The label of one vertex of the removed edge.
+     * @param end The label of the other vertex of the removed edge.
+     */
+    void edgeRemoved(T begin, T end) {
+        HashSet<T> beginSide = new HashSet<>();
+        HashSet<T> endSide = new HashSet<>();
+        Queue<T> beginQueue = new LinkedList<>();
+        Queue<T> endQueue = new LinkedList<>();
+        beginSide.add(begin);
+        endSide.add(end);
+        beginQueue.add(begin);
+        endQueue.add(end);
+
+        while (!beginQueue.isEmpty() && !endQueue.isEmpty()) {
+            if (expandOne(beginQueue, beginSide, endSide) || expandOne(endQueue, endSide, beginSide))
+                return;
+        }
+
+        HashSet<T> splitSide = beginQueue.isEmpty() ? beginSide : endSide;
+        ArrayList<T> otherSide = new ArrayList<>();
+        for (T member : collectMembers(begin)) {
+            if (!splitSide.contains(member))
+                otherSide.add(member);
+        }
+        size.remove(find(begin));
+        assignComponent(splitSide);
+        assignComponent(otherSide);
+    }
+
+    /**
+     * Records the removal of a vertex, after it and its edges have been removed from the graph. The remaining members
+     * of its former component are regrouped by searching the graph. Runtime: O(V + E) of the affected component.
+     * @param vertexLabel The label of the removed vertex.
+     */
+    void vertexRemoved(T vertexLabel) {
+        if (!parent.containsKey(vertexLabel))
+            return;
+
+        ArrayList<T> formerMembers = collectMembers(vertexLabel);
+        formerMembers.remove(vertexLabel);
+        size.remove(find(vertexLabel));
+        parent.remove(vertexLabel);
+        next.remove(vertexLabel);
+
+        HashSet<T> unassigned = new HashSet<>(formerMembers);
+        for (T member : formerMembers) {
+            if (unassigned.contains(member)) {
+                ArrayList<T> component = new ArrayList<>();
+                Queue<T> searchQueue = new LinkedList<>();
+                unassigned.remove(member);
+                component.add(member);
+                searchQueue.add(member);
+
+                while (!searchQueue.isEmpty()) {
+                    ArrayList<T> neighbors = graph.getNeighbors(searchQueue.remove(), Double.NEGATIVE_INFINITY);
+                    if (neighbors != null) {
+                        for (T neighbor : neighbors) {
+                            if (unassigned.remove(neighbor)) {
+                                component.add(neighbor);
+                                searchQueue.add(neighbor);
+                            }
+                        }
+                    }
+                }
+                assignComponent(component);
+            }
+        }
+    }
+
+    /**
+     * Removes all vertices from the index.
+     */
+    void clear() {
+        parent.clear();
+        size.clear();
+        next.clear();
+    }
+
+    /**
+     * Determines if two vertices are in the same connected component, without changing the index, so queries may run
+     * at the same time as each other. Runtime: O(log V).
+     * @param label1 The label of the first vertex.
+     * @param label2 The label of the second vertex.
+     * @return True if both vertices are indexed and connected by some path, or false otherwise.
+     */
+    boolean sameComponent(T label1, T label2) {
+        if (!parent.containsKey(label1) || !parent.containsKey(label2))
+            return false;
+        return findRoot(label1).equals(findRoot(label2));
+    }
+
+    /**
+     * Retrieves the number of vertices in the connected component containing the specified vertex, without changing
+     * the index. Runtime: O(log V).
+     * @param vertexLabel The label of the vertex.
+     * @return The number of vertices in its component, including itself, or 0 if the vertex is not indexed.
+     */
+    int componentSize(T vertexLabel) {
+        if (!parent.containsKey(vertexLabel))
+            return 0;
+        return size.get(findRoot(vertexLabel));
+    }
+
+    /**
+     * Retrieves the labels of all vertices in the connected component containing the specified vertex, beginning with
+     * the specified vertex. Runtime: O(size of the component).
+     * @param vertexLabel The label of the vertex.
+     * @return A list of the labels in its component, or an empty list if the vertex is not indexed.
+     */
+    ArrayList<T> componentMembers(T vertexLabel) {
+        if (!parent.containsKey(vertexLabel))
+            return new ArrayList<>();
+        return collectMembers(vertexLabel);
+    }
+
+    /**
+     * Retrieves the number of connected components in the graph.
+     * @return The number of connected components.
+     */
+    int getNumberOfComponents() { return size.size(); }
+
+    /**
+     * Locates the root of the union-find tree containing the specified vertex, halving the path along the way.
+     * @param vertexLabel The label of an indexed vertex.
+     * @return The label of the root of its component.
+     */
+    private T find(T vertexLabel) {
+        T current = vertexLabel;
+        T currentParent = parent.get(current);
+        while (!currentParent.equals(current)) {
+            T grandparent = parent.get(currentParent);
+            parent.put(current, grandparent);
+            current = grandparent;
+            currentParent = parent.get(current);
+        }
+        return current;
+    }
+
+    /**
+     * Locates the root of the union-find tree containing the specified vertex without halving the path, for queries
+     * that must not change the index. Union by size keeps every path at most O(log V) long.
+     * @param vertexLabel The label of an indexed vertex.
+     * @return The label of the root of its component.
+     */
+    private T findRoot(T vertexLabel) {
+        T current = vertexLabel;
+        T currentParent = parent.get(current);
+        while (!currentParent.equals(current)) {
+            current = currentParent;
+            currentParent = parent.get(current);
+        }
+        return current;
+    }
+
+    /**
+     * Walks the member cycle starting at the specified vertex.
+     * @param vertexLabel The label of an indexed vertex.
+     * @return A list of the labels of every member of its component, beginning with the specified vertex.
+     */
+    private ArrayList<T> collectMembers(T vertexLabel) {
+        ArrayList<T> members = new ArrayList<>();
+        T current = vertexLabel;
+        do {
+            members.add(current);
+            current = next.get(current);
+        } while (!current.equals(vertexLabel));
+        return members;
+    }
+
+    /**
+     * Makes the specified vertices a component of their own, with a flat union-find tree and a fresh member cycle.
+     * @param members The labels of every vertex in the new component.
+     */
+    private void assignComponent(Collection<T> members) {
+        if (members.isEmpty())
+            return;
+
+        T root = members.iterator().next();
+        T previous = null;
+        for (T member : members) {
+            parent.put(member, root);
+            if (previous != null)
+                next.put(previous, member);
+            previous = member;
+        }
+        next.put(previous, root);
+        size.put(root, members.size());
+    }
+
+    /**
+     * Expands the next vertex on one side of a two-sided search.
+     * @param queue The search queue of this side.
+     * @param ownSide The vertices reached by this side.
+     * @param otherSide The vertices reached by the other side.
+     * @return True if this side reached a vertex already reached by the other side, or false otherwise.
+     */
+    private boolean expandOne(Queue<T> queue, HashSet<T> ownSide, HashSet<T> otherSide) {
+        ArrayList<T> neighbors = graph.getNeighbors(queue.remove(), Double.NEGATIVE_INFINITY);
+        if (neighbors != null) {
+            for (T neighbor : neighbors) {
+                if (otherSide.contains(neighbor))
+                    return true;
+                if (ownSide.add(neighbor))
+                    queue.add(neighbor);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,693 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConcurrentDirectedGraph: A directed graph that many threads can read and change at once. Vertices are kept in a
+ * concurrent map and each vertex keeps its outgoing and incoming edges in concurrent maps, so reads and traversals
+ * take no locks. Changes lock only the vertices they touch, through a fixed array of striped locks chosen by label
+ * hash: a change to an edge locks the stripes of both its vertices in stripe order, so changes to unrelated vertices
+ * proceed in parallel and two-vertex changes cannot deadlock. The edge count is a LongAdder, so writers do not contend
+ * on it.
+ * <p>
+ * Traversals keep their progress in local maps rather than in the vertices, so any number may run at once, alongside
+ * changes. A traversal running during changes sees each vertex's edges as they are when it reaches that vertex, and
+ * skips vertices removed meanwhile. Paths that do not exist are reported as a length of -1 or a cost of positive
+ * infinity, with the path left unchanged.
+ * @param <T> The data type of the vertex labels.
+ */
+public class ConcurrentDirectedGraph<T> implements GraphInterface<T> {
+    /** The default number of lock stripes per available processor. */
+    private static final int STRIPES_PER_PROCESSOR = 16;
+    /** The largest number of lock stripes. */
+    private static final int MAX_STRIPES = 1 << 16;
+
+    /** Maps each vertex label to its vertex. */
+    private final ConcurrentHashMap<T, Node<T>> vertices;
+    /** The locks guarding changes to vertices, chosen by label hash. */
+    private final ReentrantLock[] stripes;
+    /** Counts the directed edges in the graph. */
+    private final LongAdder edgeCount;
+
+    /**
+     * Constructor creates a new, empty ConcurrentDirectedGraph with sixteen lock stripes per available processor.
+     */
+    public ConcurrentDirectedGraph() { this(STRIPES_PER_PROCESSOR * Runtime.getRuntime().availableProcessors()); }
+
+    /**
+     * Constructor creates a new, empty ConcurrentDirectedGraph.
+     * @param numberOfStripes The number of lock stripes, rounded up to a power of two of at most 65536; at least 1.
+     */
+    public ConcurrentDirectedGraph(int numberOfStripes) {
+        if (numberOfStripes < 1)
+            throw new IllegalArgumentException("Number of stripes must be at least 1.");
+        int size = 1;
+        while (size < numberOfStripes && size < MAX_STRIPES)
+            size <<= 1;
+        stripes = new ReentrantLock[size];
+        for (int index = 0; index < size; index++)
+            stripes[index] = new ReentrantLock();
+        vertices = new ConcurrentHashMap<>();
+        edgeCount = new LongAdder();
+    }
+
+    /**
+     * Adds a new vertex with no edges to the graph.
+     * @param vertexLabel The label object to store in the vertex. Must be distinct from other labels in the graph.
+     * @return True if the new vertex was added to the graph, or false if the label already exists in the graph.
+     */
+    public boolean addVertex(T vertexLabel) {
+        ReentrantLock lock = stripeOf(vertexLabel);
+        lock.lock();
+        try {
+            return vertices.putIfAbsent(vertexLabel, new Node<>(vertexLabel)) == null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a vertex and all of its edges from the graph. The vertex is removed first, so no new edge can reach it,
+     * and its edges are then removed one at a time under the locks of their two vertices.
+     * @param vertexLabel The label of the vertex to remove from the graph.
+     * @return True if the vertex that corresponds to the label was removed, or false if the label was not found.
+     */
+    public boolean removeVertex(T vertexLabel) {
+        Node<T> removedNode;
+        ReentrantLock lock = stripeOf(vertexLabel);
+        lock.lock();
+        try {
+            removedNode = vertices.remove(vertexLabel);
+            if (removedNode == null)
+                return false;
+            removedNode.removed = true;
+        } finally {
+            lock.unlock();
+        }
+
+        for (Node<T> origin : removedNode.inEdges.keySet()) {
+            lockPair(origin.label, vertexLabel);
+            try {
+                disconnect(origin, removedNode);
+            } finally {
+                unlockPair(origin.label, vertexLabel);
+            }
+        }
+        for (Node<T> end : removedNode.outEdges.keySet()) {
+            lockPair(vertexLabel, end.label);
+            try {
+                disconnect(removedNode, end);
+            } finally {
+                unlockPair(vertexLabel, end.label);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a new directional edge from one vertex to another with the specified edge weight.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object, distinct from begin, that labels the end vertex of the edge.
+     * @param edgeWeight The real value of the edge's weight.
+     * @return True if a new edge was added, or false if one of the vertices was not found, the two labels are the
+     * same, or the edge already exists.
+     */
+    public boolean addEdge(T begin, T end, double edgeWeight) {
+        if (begin != null && begin.equals(end))
+            return false;
+        lockPair(begin, end);
+        try {
+            Node<T> beginNode = vertices.get(begin);
+            Node<T> endNode = vertices.get(end);
+            return beginNode != null && endNode != null && connect(beginNode, endNode, edgeWeight);
+        } finally {
+            unlockPair(begin, end);
+        }
+    }
+
+    /**
+     * Creates a new directional edge from one vertex to another with the default edge weight of 0.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @return True if a new edge was added, or false if one of the vertices was not found, or the edge already exists.
+     */
+    public boolean addEdge(T begin, T end) { return addEdge(begin, end, 0); }
+
+    /**
+     * Removes a directional edge from one vertex to another.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @return True if the edge was removed, or false if the edge/vertex was not found.
+     */
+    public boolean removeEdge(T begin, T end) {
+        lockPair(begin, end);
+        try {
+            Node<T> beginNode = vertices.get(begin);
+            Node<T> endNode = vertices.get(end);
+            return beginNode != null && endNode != null && disconnect(beginNode, endNode);
+        } finally {
+            unlockPair(begin, end);
+        }
+    }
+
+    /**
+     * Determines if there is an edge from one vertex to another.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @return True if the edge exists, or false otherwise.
+     */
+    public boolean hasEdge(T begin, T end) {
+        Node<T> beginNode = vertices.get(begin);
+        Node<T> endNode = vertices.get(end);
+        return beginNode != null && endNode != null && beginNode.outEdges.containsKey(endNode);
+    }
+
+    /**
+     * Determines if a vertex is in the graph.
+     * @param vertexLabel The label object of the vertex.
+     * @return True if the vertex is in the graph, or false otherwise.
+     */
+    public boolean containsVertex(T vertexLabel) { return vertices.containsKey(vertexLabel); }
+
+    /**
+     * Determines if the graph is empty, containing no vertices.
+     * @return True if the graph is empty, or false otherwise.
+     */
+    public boolean isEmpty() { return vertices.isEmpty(); }
+
+    /**
+     * Retrieves the number of vertices stored in the graph.
+     * @return The number of vertices stored in the graph.
+     */
+    public int getNumberOfVertices() { return vertices.size(); }
+
+    /**
+     * Retrieves the number of edges between vertices stored in the graph. While edges are being changed, the count may
+     * lag the changes briefly.
+     * @return The number of edges between vertices stored in the graph.
+     */
+    public int getNumberOfEdges() { return edgeCount.intValue(); }
+
+    /**
+     * Removes all vertices and edges from the graph, holding every stripe so that no change is in progress.
+     */
+    public void clear() {
+        for (ReentrantLock lock : stripes)
+            lock.lock();
+        try {
+            // Emptying the removed vertices' edges stops a removeVertex still in progress from uncounting them again.
+            for (Node<T> node : vertices.values()) {
+                node.removed = true;
+                node.outEdges.clear();
+                node.inEdges.clear();
+            }
+            vertices.clear();
+            edgeCount.reset();
+        } finally {
+            for (int index = stripes.length - 1; index >= 0; index--)
+                stripes[index].unlock();
+        }
+    }
+
+    /**
+     * Retrieves a list of the labels of any neighbors of the specified vertex connected by an edge greater than or
+     * equal to the specified edge weight.
+     * @param vertexLabel The label object of the vertex.
+     * @param weightMin The minimum weight of the edges to follow.
+     * @return A list of neighbor labels, or null if the vertex is not in the graph.
+     */
+    public ArrayList<T> getNeighbors(T vertexLabel, double weightMin) {
+        Node<T> node = vertices.get(vertexLabel);
+        if (node == null)
+            return null;
+        ArrayList<T> neighborLabels = new ArrayList<>();
+        for (Map.Entry<Node<T>, Double> edge : node.outEdges.entrySet()) {
+            if (!edge.getKey().removed && edge.getValue() >= weightMin)
+                neighborLabels.add(edge.getKey().label);
+        }
+        return neighborLabels;
+    }
+
+    /**
+     * Retrieves the breadth-first traversal of the graph from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @return A queue of labels in breadth-first order, or null if the origin is not in the graph.
+     */
+    public Queue<T> getBreadthFirstTraversal(T origin) {
+        if (!containsVertex(origin))
+            return null;
+        return new LinkedList<>(getBreadthFirstTraversal(origin, null, null).getLabels());
+    }
+
+    /**
+     * Retrieves the depth-first traversal of the graph from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @return A queue of labels in depth-first order, or null if the origin is not in the graph.
+     */
+    public Queue<T> getDepthFirstTraversal(T origin) {
+        if (!containsVertex(origin))
+            return null;
+        return new LinkedList<>(getDepthFirstTraversal(origin, null, null).getLabels());
+    }
+
+    /**
+     * Retrieves the topological order of the vertices, which must have no cycles. Runtime: O(V + E).
+     * @return A stack of labels in topological order, beginning with the stack's top.
+     */
+    public Stack<T> getTopologicalOrder() {
+        Stack<T> order = new Stack<>();
+        // A vertex maps to false while it is on the search path and to true once all its descendants are ordered.
+        HashMap<Node<T>, Boolean> finished = new HashMap<>();
+        Stack<Node<T>> vertexStack = new Stack<>();
+        Stack<Iterator<Node<T>>> neighborStack = new Stack<>();
+        for (Node<T> start : vertices.values()) {
+            if (finished.containsKey(start))
+                continue;
+            finished.put(start, false);
+            vertexStack.push(start);
+            neighborStack.push(start.outEdges.keySet().iterator());
+            while (!vertexStack.isEmpty()) {
+                Iterator<Node<T>> neighbors = neighborStack.peek();
+                if (neighbors.hasNext()) {
+                    Node<T> nextNeighbor = neighbors.next();
+                    if (nextNeighbor.removed)
+                        continue;
+                    Boolean state = finished.get(nextNeighbor);
+                    if (state == null) {
+                        finished.put(nextNeighbor, false);
+                        vertexStack.push(nextNeighbor);
+                        neighborStack.push(nextNeighbor.outEdges.keySet().iterator());
+                    }
+                    else if (!state)
+                        throw new UnsupportedOperationException("Cannot get topological order for cyclic graph.");
+                }
+                else {
+                    Node<T> finishedVertex = vertexStack.pop();
+                    neighborStack.pop();
+                    finished.put(finishedVertex, true);
+                    order.push(finishedVertex.label);
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Calculates the shortest path in number of edges between two vertices.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param path A stack of labels that is empty initially; at the completion of the method, this stack contains
+     * the labels of the vertices along the shortest path, with the label of the origin vertex at the top, or is
+     * unchanged if there is no path.
+     * @return The length of the shortest path, or -1 if there is no path.
+     */
+    public int getShortestPath(T begin, T end, Stack<T> path) {
+        TraversalResult<T> result = getShortestPath(begin, end, null, null);
+        if (!result.isPathFound())
+            return -1;
+        pushPath(result.getLabels(), path);
+        return (int)result.getCost();
+    }
+
+    /**
+     * Finds the least-cost path between two vertices.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param path A stack of labels that is empty initially; at the completion of the method, this stack contains
+     * the labels of the vertices along the cheapest path, with the label of the origin vertex at the top, or is
+     * unchanged if there is no path.
+     * @return The cost of the cheapest path, or positive infinity if there is no path.
+     */
+    public double getCheapestPath(T begin, T end, Stack<T> path) {
+        TraversalResult<T> result = getCheapestPath(begin, end, null, null);
+        if (result.isPathFound())
+            pushPath(result.getLabels(), path);
+        return result.getCost();
+    }
+
+    /**
+     * Retrieves the breadth-first traversal of the graph from the origin, stopping early when the traversal exceeds
+     * the specified limits or is cancelled. Depth is the number of edges on the shortest path from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @param limits The limits of the traversal, or null for no limits.
+     * @param token A token that cancels the traversal, or null.
+     * @return The labels of the vertices in breadth-first order, which is empty if the origin is not in the graph,
+     * and whether the traversal was truncated.
+     */
+    public TraversalResult<T> getBreadthFirstTraversal(T origin, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        ArrayList<T> traversalOrder = new ArrayList<>();
+        Node<T> originNode = vertices.get(origin);
+        if (originNode != null && budget.admitVertex())
+            searchBreadthFirst(originNode, null, budget, traversalOrder, new HashMap<>());
+        return budget.finish(traversalOrder, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Retrieves the depth-first traversal of the graph from the origin, stopping early when the traversal exceeds the
+     * specified limits or is cancelled. Depth is the number of edges on the traversal's path from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @param limits The limits of the traversal, or null for no limits.
+     * @param token A token that cancels the traversal, or null.
+     * @return The labels of the vertices in depth-first order, which is empty if the origin is not in the graph, and
+     * whether the traversal was truncated.
+     */
+    public TraversalResult<T> getDepthFirstTraversal(T origin, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        ArrayList<T> traversalOrder = new ArrayList<>();
+        Node<T> originNode = vertices.get(origin);
+        if (originNode == null || !budget.admitVertex())
+            return budget.finish(traversalOrder, Double.POSITIVE_INFINITY);
+
+        HashSet<Node<T>> visited = new HashSet<>();
+        Stack<Node<T>> vertexStack = new Stack<>();
+        Stack<Iterator<Node<T>>> neighborStack = new Stack<>();
+        visited.add(originNode);
+        traversalOrder.add(origin);
+        vertexStack.push(originNode);
+        neighborStack.push(originNode.outEdges.keySet().iterator());
+
+        while (!vertexStack.isEmpty() && !budget.isStopped()) {
+            Iterator<Node<T>> neighbors = neighborStack.peek();
+            Node<T> nextNeighbor = null;
+            while (nextNeighbor == null && neighbors.hasNext() && budget.admitEdge()) {
+                Node<T> candidate = neighbors.next();
+                if (!candidate.removed && !visited.contains(candidate))
+                    nextNeighbor = candidate;
+            }
+
+            if (nextNeighbor == null) {
+                vertexStack.pop();
+                neighborStack.pop();
+            }
+            else if (!budget.allowsDepth(vertexStack.size()))
+                budget.markDepthCut();
+            else if (budget.admitVertex()) {
+                visited.add(nextNeighbor);
+                traversalOrder.add(nextNeighbor.label);
+                vertexStack.push(nextNeighbor);
+                neighborStack.push(nextNeighbor.outEdges.keySet().iterator());
+            }
+        }
+        return budget.finish(traversalOrder, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Calculates the shortest path in number of edges between two vertices, stopping early when the search exceeds
+     * the specified limits or is cancelled.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param limits The limits of the search, or null for no limits.
+     * @param token A token that cancels the search, or null.
+     * @return The labels along the path from origin to destination and the path's length, or an empty path with
+     * infinite length if there is no path within the limits.
+     */
+    public TraversalResult<T> getShortestPath(T begin, T end, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        Node<T> originNode = vertices.get(begin);
+        Node<T> endNode = vertices.get(end);
+        if (originNode == null || endNode == null || !budget.admitVertex())
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+
+        HashMap<Node<T>, Node<T>> predecessors = new HashMap<>();
+        if (!searchBreadthFirst(originNode, endNode, budget, null, predecessors))
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+        budget.clearDepthCut();
+        ArrayList<T> path = tracePath(endNode, predecessors);
+        return budget.finish(path, path.size() - 1);
+    }
+
+    /**
+     * Finds the least-cost path between two vertices with Dijkstra's algorithm, stopping early when the search
+     * exceeds the specified limits or is cancelled. With a maximum depth, the search does not extend the cheapest path
+     * to any vertex past that many edges.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param limits The limits of the search, or null for no limits.
+     * @param token A token that cancels the search, or null.
+     * @return The labels along the path from origin to destination and the path's cost, or an empty path with
+     * infinite cost if there is no path within the limits.
+     */
+    public TraversalResult<T> getCheapestPath(T begin, T end, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        Node<T> originNode = vertices.get(begin);
+        Node<T> endNode = vertices.get(end);
+        if (originNode == null || endNode == null)
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+
+        HashMap<Node<T>, Node<T>> predecessors = new HashMap<>();
+        HashSet<Node<T>> settled = new HashSet<>();
+        PriorityQueue<SearchEntry<T>> priorityQueue = new PriorityQueue<>();
+        priorityQueue.add(new SearchEntry<>(originNode, 0, null, 0));
+
+        while (!priorityQueue.isEmpty() && !budget.isStopped()) {
+            SearchEntry<T> frontEntry = priorityQueue.remove();
+            Node<T> frontNode = frontEntry.node;
+            if (settled.contains(frontNode) || !budget.admitVertex())
+                continue;
+
+            settled.add(frontNode);
+            predecessors.put(frontNode, frontEntry.predecessor);
+            if (frontNode == endNode)
+                return budget.finish(tracePath(endNode, predecessors), frontEntry.cost);
+
+            boolean atMaxDepth = !budget.allowsDepth(frontEntry.depth + 1);
+            Iterator<Map.Entry<Node<T>, Double>> edges = frontNode.outEdges.entrySet().iterator();
+            while (edges.hasNext() && budget.admitEdge()) {
+                Map.Entry<Node<T>, Double> edge = edges.next();
+                Node<T> nextNeighbor = edge.getKey();
+                if (nextNeighbor.removed || settled.contains(nextNeighbor))
+                    continue;
+                if (atMaxDepth)
+                    budget.markDepthCut();
+                else
+                    priorityQueue.add(new SearchEntry<>(nextNeighbor, frontEntry.cost + edge.getValue(), frontNode,
+                            frontEntry.depth + 1));
+            }
+        }
+        return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Records an edge between two vertices. The caller holds the stripes of both vertices.
+     * @param beginNode The origin vertex of the edge.
+     * @param endNode The end vertex of the edge.
+     * @param edgeWeight The weight of the edge.
+     * @return True if the edge was added, or false if it already exists.
+     */
+    boolean connect(Node<T> beginNode, Node<T> endNode, double edgeWeight) {
+        if (beginNode.outEdges.putIfAbsent(endNode, edgeWeight) != null)
+            return false;
+        endNode.inEdges.put(beginNode, edgeWeight);
+        edgeCount.increment();
+        return true;
+    }
+
+    /**
+     * Forgets an edge between two vertices. The caller holds the stripes of both vertices.
+     * @param beginNode The origin vertex of the edge.
+     * @param endNode The end vertex of the edge.
+     * @return True if the edge was removed, or false if it does not exist.
+     */
+    boolean disconnect(Node<T> beginNode, Node<T> endNode) {
+        if (beginNode.outEdges.remove(endNode) == null)
+            return false;
+        endNode.inEdges.remove(beginNode);
+        edgeCount.decrement();
+        return true;
+    }
+
+    /**
+     * Retrieves the lock stripe guarding a vertex label.
+     * @param vertexLabel The label.
+     * @return The label's stripe.
+     */
+    private ReentrantLock stripeOf(T vertexLabel) { return stripes[stripeIndex(vertexLabel)]; }
+
+    /**
+     * Computes the index of the lock stripe guarding a vertex label, spreading the label's hash code so that labels
+     * whose hash codes differ only in high bits fall in different stripes.
+     * @param vertexLabel The label.
+     * @return The index of the label's stripe.
+     */
+    private int stripeIndex(T vertexLabel) {
+        int hash = vertexLabel.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    /**
+     * Locks the stripes of two vertex labels, lower stripe index first, locking a shared stripe once.
+     * @param label1 The first label.
+     * @param label2 The second label.
+     */
+    private void lockPair(T label1, T label2) {
+        int index1 = stripeIndex(label1);
+        int index2 = stripeIndex(label2);
+        stripes[Math.min(index1, index2)].lock();
+        if (index1 != index2)
+            stripes[Math.max(index1, index2)].lock();
+    }
+
+    /**
+     * Unlocks the stripes of two vertex labels locked by lockPair.
+     * @param label1 The first label.
+     * @param label2 The second label.
+     */
+    private void unlockPair(T label1, T label2) {
+        int index1 = stripeIndex(label1);
+        int index2 = stripeIndex(label2);
+        if (index1 != index2)
+            stripes[Math.max(index1, index2)].unlock();
+        stripes[Math.min(index1, index2)].unlock();
+    }
+
+    /**
+     * Searches breadth-first from the origin within the budget. The origin must already be admitted to the budget.
+     * @param originNode The origin vertex.
+     * @param endNode The vertex at which to stop, or null to search every reachable vertex.
+     * @param budget The budget of the search.
+     * @param traversalOrder The list to add the label of each visited vertex to, or null.
+     * @param predecessors Filled with the vertex each visited vertex was reached from, which is null for the origin.
+     * @return True if the end vertex was reached, or false otherwise.
+     */
+    private boolean searchBreadthFirst(Node<T> originNode, Node<T> endNode, QueryBudget budget,
+                                       ArrayList<T> traversalOrder, HashMap<Node<T>, Node<T>> predecessors) {
+        HashMap<Node<T>, Integer> depths = new HashMap<>();
+        depths.put(originNode, 0);
+        predecessors.put(originNode, null);
+        if (traversalOrder != null)
+            traversalOrder.add(originNode.label);
+        if (originNode == endNode)
+            return true;
+
+        Queue<Node<T>> vertexQueue = new LinkedList<>();
+        vertexQueue.add(originNode);
+        while (!vertexQueue.isEmpty()) {
+            Node<T> frontNode = vertexQueue.remove();
+            int frontDepth = depths.get(frontNode);
+            boolean atMaxDepth = !budget.allowsDepth(frontDepth + 1);
+            for (Node<T> nextNeighbor : frontNode.outEdges.keySet()) {
+                if (!budget.admitEdge())
+                    return false;
+                if (nextNeighbor.removed || depths.containsKey(nextNeighbor))
+                    continue;
+                if (atMaxDepth) {
+                    budget.markDepthCut();
+                    break;
+                }
+                if (!budget.admitVertex())
+                    return false;
+
+                depths.put(nextNeighbor, frontDepth + 1);
+                predecessors.put(nextNeighbor, frontNode);
+                if (traversalOrder != null)
+                    traversalOrder.add(nextNeighbor.label);
+                if (nextNeighbor == endNode)
+                    return true;
+                vertexQueue.add(nextNeighbor);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Follows predecessors back from a vertex reached by a search to build the path from the search's origin.
+     * @param endNode The last vertex of the path.
+     * @param predecessors The vertex each reached vertex was reached from, which is null for the origin.
+     * @return The labels along the path, from origin to end vertex.
+     */
+    private ArrayList<T> tracePath(Node<T> endNode, HashMap<Node<T>, Node<T>> predecessors) {
+        ArrayList<T> path = new ArrayList<>();
+        for (Node<T> node = endNode; node != null; node = predecessors.get(node))
+            path.add(node.label);
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Pushes a path onto a stack so that its first label is on top.
+     * @param labels The labels along the path, from origin to destination.
+     * @param path The stack to push the labels onto.
+     */
+    private void pushPath(List<T> labels, Stack<T> path) {
+        for (int index = labels.size() - 1; index >= 0; index--)
+            path.push(labels.get(index));
+    }
+
+    /**
+     * Node: A vertex of a concurrent graph. Nodes are compared by identity, so a vertex removed and added again under
+     * the same label is a different node, and edges left to the removed node cannot be mistaken for edges to the new
+     * one.
+     * @param <T> The data type of the vertex label.
+     */
+    static final class Node<T> {
+        /** The vertex's label. */
+        private final T label;
+        /** Maps the end vertex of each edge leaving this vertex to the edge's weight. */
+        private final ConcurrentHashMap<Node<T>, Double> outEdges;
+        /** Maps the origin vertex of each edge pointing to this vertex to the edge's weight. */
+        private final ConcurrentHashMap<Node<T>, Double> inEdges;
+        /** Indicates whether the vertex has been removed from its graph, so traversals skip it. */
+        private volatile boolean removed;
+
+        /**
+         * Constructor creates a new Node with no edges.
+         * @param label The vertex's label.
+         */
+        private Node(T label) {
+            this.label = label;
+            outEdges = new ConcurrentHashMap<>();
+            inEdges = new ConcurrentHashMap<>();
+            removed = false;
+        }
+    }
+
+    /**
+     * SearchEntry: A priority queue entry for the cheapest path search, recording how a vertex was reached.
+     * @param <T> The data type of the vertex labels.
+     */
+    private static final class SearchEntry<T> implements Comparable<SearchEntry<T>> {
+        /** The vertex reached. */
+        private final Node<T> node;
+        /** The cost of the path to the vertex. */
+        private final double cost;
+        /** The vertex the path reached this vertex from, or null for the origin. */
+        private final Node<T> predecessor;
+        /** The number of edges on the path to the vertex. */
+        private final int depth;
+
+        /**
+         * Constructor creates a new SearchEntry.
+         * @param node The vertex reached.
+         * @param cost The cost of the path to the vertex.
+         * @param predecessor The vertex the path reached this vertex from, or null for the origin.
+         * @param depth The number of edges on the path to the vertex.
+         */
+        private SearchEntry(Node<T> node, double cost, Node<T> predecessor, int depth) {
+            this.node = node;
+            this.cost = cost;
+            this.predecessor = predecessor;
+            this.depth = depth;
+        }
+
+        /**
+         * Compares the cost of this entry's path to another's.
+         * @param otherEntry The other entry.
+         * @return A negative number, zero, or a positive number as this path is cheaper, equal, or more expensive.
+         */
+        public int compareTo(SearchEntry<T> otherEntry) { return Double.compare(cost, otherEntry.cost); }
+    }
+}
@@ -0,0 +1,66 @@
+package GraphPackage;
+
+import java.util.Stack;
+
+/**
+ * ConcurrentUndirectedGraph: An undirected graph that many threads can read and change at once. Each edge is stored
+ * as a pair of directed edges, both added or removed while the stripes of the two vertices are held, so no reader sees
+ * one direction without the other once a change completes, and friendships between unrelated users can be created in
+ * parallel.
+ * @param <T> The data type of the vertex labels.
+ */
+public class ConcurrentUndirectedGraph<T> extends ConcurrentDirectedGraph<T> {
+    /**
+     * Constructor creates a new, empty ConcurrentUndirectedGraph with sixteen lock stripes per available processor.
+     */
+    public ConcurrentUndirectedGraph() { super(); }
+
+    /**
+     * Constructor creates a new, empty ConcurrentUndirectedGraph.
+     * @param numberOfStripes The number of lock stripes, rounded up to a power of two of at most 65536; at least 1.
+     */
+    public ConcurrentUndirectedGraph(int numberOfStripes) { super(numberOfStripes); }
+
+    /**
+     * Retrieves the number of undirected edges stored in the graph.
+     * @return The number of edges in the graph.
+     */
+    public int getNumberOfEdges() { return super.getNumberOfEdges() / 2; }
+
+    /**
+     * Override method disables the retrieval of topological ordering of the label objects because topological
+     * ordering can only be determined for acyclic directional graphs.
+     * @throws UnsupportedOperationException Topological ordering cannot be determined for an undirected graph.
+     * @return Nothing
+     */
+    public Stack<T> getTopologicalOrder() {
+        throw new UnsupportedOperationException("Topological sort is illegal in an undirected graph.");
+    }
+
+    /**
+     * Records an edge in both directions between two vertices. The caller holds the stripes of both vertices.
+     * @param beginNode One vertex of the edge.
+     * @param endNode The other vertex of the edge.
+     * @param edgeWeight The weight of the edge.
+     * @return True if the edge was added, or false if it already exists.
+     */
+    boolean connect(Node<T> beginNode, Node<T> endNode, double edgeWeight) {
+        if (!super.connect(beginNode, endNode, edgeWeight))
+            return false;
+        super.connect(endNode, beginNode, edgeWeight);
+        return true;
+    }
+
+    /**
+     * Forgets the edge in both directions between two vertices. The caller holds the stripes of both vertices.
+     * @param beginNode One vertex of the edge.
+     * @param endNode The other vertex of the edge.
+     * @return True if the edge was removed, or false if it does not exist.
+     */
+    boolean disconnect(Node<T> beginNode, Node<T> endNode) {
+        if (!super.disconnect(beginNode, endNode))
+            return false;
+        super.disconnect(endNode, beginNode);
+        return true;
+    }
+}
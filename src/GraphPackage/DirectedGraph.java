@@ -7,6 +7,12 @@ import java.util.Stack;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.stream.IntStream;
 
 /**
  * DirectedGraph: An implementation of a generic graph with directional edges between vertices.
@@ -14,11 +20,24 @@ import java.util.ArrayList;
  */
 public class DirectedGraph<T> implements GraphInterface<T>
 {
+    /** The largest combined number of existing and new edges for which addEdges checks a vertex's edges for
+     * duplicates by scanning them, rather than with a hash set. */
+    private static final int SCAN_LIMIT = 16;
+
     /** Contains the labels of vertices as the key, and a pointer to the vertex itself as a value. For looking up
      * the vertex object by its label. */
-    private final HashMap<T, VertexInterface<T>> vertices;
+    private HashMap<T, VertexInterface<T>> vertices;
     /** Stores the current number of edges in the entire graph. */
     private int edgeCount;
+    /** Counts the changes made to the graph's vertices and edges, so derived structures can detect when they are
+     * out of date. */
+    private long version;
+    /** Caches the results of path queries until the graph changes, or null if path caching is disabled. */
+    private PathCache<T> pathCache;
+    /** The shortest path trees kept up to date as the graph changes, one per source vertex label. */
+    private final HashMap<T, DynamicShortestPathTree<T>> shortestPathTrees;
+    /** Delivers the graph's changes to listeners, or null if no stream has been requested. */
+    private MutationStream<T> mutationStream;
 
     /**
      * Constructor creates a new DirectedGraph object with no vertices or edges.
@@ -26,6 +45,10 @@ public class DirectedGraph<T> implements GraphInterface<T>
     public DirectedGraph() {
         vertices = new HashMap<>();
         edgeCount = 0;
+        version = 0;
+        pathCache = null;
+        shortestPathTrees = new HashMap<>();
+        mutationStream = null;
     }
 
     /**
@@ -38,6 +61,11 @@ public class DirectedGraph<T> implements GraphInterface<T>
             return false;
         else {
             vertices.put(vertexLabel, new Vertex<>(vertexLabel));
+            version++;
+            for (DynamicShortestPathTree<T> tree : shortestPathTrees.values())
+                tree.vertexAdded(vertexLabel);
+            if (recordsMutations())
+                mutationStream.record(MutationBatch.Type.VERTEX_ADDED, vertexLabel, null, 0, version);
             return true;
         }
     }
@@ -56,8 +84,18 @@ public class DirectedGraph<T> implements GraphInterface<T>
 
             while (vertexIterator.hasNext())
                 removeEdge(vertexIterator.next(), vertexLabel);
+            ArrayList<T> outNeighbors = vertexOfLabel.getNeighborLabels(Double.NEGATIVE_INFINITY);
+            if (outNeighbors != null) {
+                for (T neighborLabel : outNeighbors)
+                    removeEdge(vertexLabel, neighborLabel);
+            }
 
             vertices.remove(vertexLabel);
+            version++;
+            for (DynamicShortestPathTree<T> tree : shortestPathTrees.values())
+                tree.vertexRemoved(vertexLabel);
+            if (recordsMutations())
+                mutationStream.record(MutationBatch.Type.VERTEX_REMOVED, vertexLabel, null, 0, version);
             return true;
         }
     }
@@ -76,6 +114,11 @@ public class DirectedGraph<T> implements GraphInterface<T>
 
             if (beginVertex.connect(endVertex, edgeWeight)) {
                 edgeCount++;
+                version++;
+                for (DynamicShortestPathTree<T> tree : shortestPathTrees.values())
+                    tree.edgeAdded(begin, end, edgeWeight);
+                if (recordsMutations())
+                    mutationStream.record(MutationBatch.Type.EDGE_ADDED, begin, end, edgeWeight, version);
                 return true;
             }
         }
@@ -91,6 +134,36 @@ public class DirectedGraph<T> implements GraphInterface<T>
      */
     public boolean addEdge(T begin, T end) { return addEdge(begin, end, 0); }
 
+    /**
+     * Adds many new vertices with no edges at once, growing the map of vertices once for all of them rather than
+     * letting it double repeatedly. The additions count as a single change to the graph's version.
+     * @param vertexLabels The label objects to store in the new vertices. Labels already in the graph, and repeats,
+     * are skipped.
+     * @return The number of vertices added.
+     */
+    public int addVertices(Collection<? extends T> vertexLabels) { return insertVertices(vertexLabels).size(); }
+
+    /**
+     * Adds many directional edges at once, far faster than calling addEdge for each. The labels are looked up in
+     * parallel, the edges are grouped by origin vertex with a parallel sort, and each origin vertex's edges are then
+     * checked for duplicates and appended in parallel, growing its edge list once. An edge is skipped, as addEdge
+     * would skip it, if either of its vertices is not in the graph, it is a self-loop, or the edge already exists
+     * or appears earlier in the lists. Each vertex's new edges are added in the order they appear in the lists, and
+     * the additions count as a single change to the graph's version. Runtime: O(E log E) for E edges in the lists.
+     * @param begins The labels of the origin vertices, one per edge.
+     * @param ends The labels of the end vertices, one per edge, in the same order as begins.
+     * @param edgeWeights The weight of each edge, in the same order as begins, or null to give every edge weight 0.
+     * @return The number of edges added.
+     */
+    public int addEdges(List<? extends T> begins, List<? extends T> ends, double[] edgeWeights) {
+        int added = 0;
+        for (boolean edgeAdded : insertEdges(begins, ends, edgeWeights, false)) {
+            if (edgeAdded)
+                added++;
+        }
+        return added;
+    }
+
     /**
      * Removes a directional edge from one vertex to another.
      * @param begin An object that labels the origin vertex of the edge.
@@ -101,9 +174,15 @@ public class DirectedGraph<T> implements GraphInterface<T>
         if (containsLabels(begin, end)) {
             VertexInterface<T> beginVertex = vertices.get(begin);
             VertexInterface<T> endVertex = vertices.get(end);
+            double edgeWeight = recordsMutations() ? getEdgeWeight(beginVertex, endVertex) : 0;
 
             if (beginVertex.disconnect(endVertex)) {
                 edgeCount--;
+                version++;
+                for (DynamicShortestPathTree<T> tree : shortestPathTrees.values())
+                    tree.edgeRemoved(begin, end);
+                if (recordsMutations())
+                    mutationStream.record(MutationBatch.Type.EDGE_REMOVED, begin, end, edgeWeight, version);
                 return true;
             }
         }
@@ -120,7 +199,7 @@ public class DirectedGraph<T> implements GraphInterface<T>
         if (containsLabels(begin, end)) {
             VertexInterface<T> beginVertex = vertices.get(begin);
             VertexInterface<T> endVertex = vertices.get(end);
-            ArrayList<T> neighborLabels = beginVertex.getNeighborLabels(Double.MIN_VALUE);
+            ArrayList<T> neighborLabels = beginVertex.getNeighborLabels(Double.NEGATIVE_INFINITY);
             return neighborLabels.contains(endVertex.getLabel());
         }
         return false;
@@ -150,6 +229,11 @@ public class DirectedGraph<T> implements GraphInterface<T>
     public void clear() {
         vertices.clear();
         edgeCount = 0;
+        version++;
+        for (DynamicShortestPathTree<T> tree : shortestPathTrees.values())
+            tree.cleared();
+        if (recordsMutations())
+            mutationStream.record(MutationBatch.Type.CLEARED, null, null, 0, version);
     }
 
     /**
@@ -180,6 +264,348 @@ public class DirectedGraph<T> implements GraphInterface<T>
      */
     public int getNumberOfEdges() { return edgeCount; }
 
+    /**
+     * Retrieves the mutation version of the graph, which changes whenever a vertex or edge is added or removed.
+     * Structures derived from the graph can record the version they were built from to detect that they are stale.
+     * @return The current mutation version of the graph.
+     */
+    public long getVersion() { return version; }
+
+    /**
+     * Enables caching of getShortestPath and getCheapestPath results, replacing any existing cache. Cached paths are
+     * returned until the graph changes, and the least recently used paths are evicted to stay within capacity.
+     * @param capacity The maximum total number of vertex labels stored across all cached paths; at least 1.
+     */
+    public void enablePathCache(int capacity) { pathCache = new PathCache<>(capacity); }
+
+    /**
+     * Disables caching of path query results, discarding any cached paths.
+     */
+    public void disablePathCache() { pathCache = null; }
+
+    /**
+     * Retrieves the path query cache, from which hit and miss statistics can be read.
+     * @return The path query cache, or null if path caching is disabled.
+     */
+    public PathCache<T> getPathCache() { return pathCache; }
+
+    /**
+     * Starts keeping a tree of the cheapest paths from a source vertex up to date as the graph changes, so that
+     * getCheapestPath answers queries from that source without a search. Each added or removed edge then costs work
+     * in proportion to the part of the tree it changes. If a tree for the source is already kept, it is returned.
+     * Runtime: O((V + E) log(E)) to build a new tree.
+     * @param source The label of the source vertex.
+     * @return The tree of cheapest paths from the source.
+     */
+    public DynamicShortestPathTree<T> maintainShortestPathTree(T source) {
+        DynamicShortestPathTree<T> tree = shortestPathTrees.get(source);
+        if (tree == null) {
+            tree = new DynamicShortestPathTree<>(this, source);
+            shortestPathTrees.put(source, tree);
+        }
+        return tree;
+    }
+
+    /**
+     * Stops keeping the tree of cheapest paths from a source vertex up to date, and discards it.
+     * @param source The label of the source vertex.
+     * @return True if a tree was kept for the source, or false otherwise.
+     */
+    public boolean releaseShortestPathTree(T source) { return shortestPathTrees.remove(source) != null; }
+
+    /**
+     * Retrieves the stream that delivers the graph's changes to listeners, creating it on first use. The graph records
+     * its changes only while the stream has a listener.
+     * @return The graph's mutation stream.
+     */
+    public MutationStream<T> getMutationStream() {
+        if (mutationStream == null)
+            mutationStream = new MutationStream<>();
+        return mutationStream;
+    }
+
+    /**
+     * Retrieves the vertex object corresponding to the specified label, for use by algorithms in this package.
+     * @param vertexLabel The label object of the vertex.
+     * @return The vertex corresponding to the label, or null if the label is not in the graph.
+     */
+    VertexInterface<T> getVertex(T vertexLabel) { return vertices.get(vertexLabel); }
+
+    /**
+     * Retrieves a view of all vertex objects in the graph, for use by algorithms in this package.
+     * @return A read-only view of the graph's vertex objects.
+     */
+    Collection<VertexInterface<T>> getVertexObjects() { return Collections.unmodifiableCollection(vertices.values()); }
+
+    /**
+     * Adds new vertices with no edges, growing the map of vertices once, and tells shortest path trees and the
+     * mutation stream of each.
+     * @param vertexLabels The label objects to store in the new vertices.
+     * @return The labels of the vertices added, in the order given.
+     */
+    ArrayList<T> insertVertices(Collection<? extends T> vertexLabels) {
+        if (vertexLabels == null)
+            throw new IllegalArgumentException("Vertex labels must not be null.");
+        reserveVertices(vertexLabels.size());
+        ArrayList<T> added = new ArrayList<>();
+        for (T vertexLabel : vertexLabels) {
+            if (vertices.putIfAbsent(vertexLabel, new Vertex<>(vertexLabel)) == null)
+                added.add(vertexLabel);
+        }
+        if (added.isEmpty())
+            return added;
+
+        version++;
+        for (T vertexLabel : added) {
+            for (DynamicShortestPathTree<T> tree : shortestPathTrees.values())
+                tree.vertexAdded(vertexLabel);
+            if (recordsMutations())
+                mutationStream.record(MutationBatch.Type.VERTEX_ADDED, vertexLabel, null, 0, version);
+        }
+        return added;
+    }
+
+    /**
+     * Adds many edges at once, as addEdges describes, optionally adding each edge in both directions.
+     * @param begins The labels of the origin vertices, one per edge.
+     * @param ends The labels of the end vertices, one per edge, in the same order as begins.
+     * @param edgeWeights The weight of each edge, in the same order as begins, or null to give every edge weight 0.
+     * @param bothDirections True to also add each edge from its end vertex to its origin vertex, or false otherwise.
+     * @return Whether each directional edge was added: for the edge at position i in the lists, element i is its
+     * direction, or with bothDirections, element 2i is its forward direction and element 2i + 1 its reverse.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    boolean[] insertEdges(List<? extends T> begins, List<? extends T> ends, double[] edgeWeights,
+                          boolean bothDirections) {
+        if (begins == null || ends == null || begins.size() != ends.size())
+            throw new IllegalArgumentException("Begins and ends must be lists of the same length.");
+        int count = begins.size();
+        if (edgeWeights != null && edgeWeights.length != count)
+            throw new IllegalArgumentException("There must be one edge weight per edge.");
+        if (bothDirections && count > Integer.MAX_VALUE / 2 - 8)
+            throw new IllegalArgumentException("Too many edges to add at once.");
+        Object[] beginLabels = begins.toArray();
+        Object[] endLabels = ends.toArray();
+        int directedCount = bothDirections ? 2 * count : count;
+        VertexInterface<T>[] sources = new VertexInterface[directedCount];
+        VertexInterface<T>[] targets = new VertexInterface[directedCount];
+
+        // Each key is the identity hash of the edge's origin vertex above the edge's position, so sorting the keys
+        // groups each vertex's edges in the order given; skipped edges sort last. Vertices whose hashes collide are
+        // told apart when the groups are connected.
+        long[] keys = new long[directedCount];
+        int step = bothDirections ? 2 : 1;
+        IntStream.range(0, count).parallel().forEach(edge -> {
+            VertexInterface<T> beginVertex = vertices.get(beginLabels[edge]);
+            VertexInterface<T> endVertex = vertices.get(endLabels[edge]);
+            boolean skipped = beginVertex == null || endVertex == null || beginVertex == endVertex;
+            int position = edge * step;
+            sources[position] = beginVertex;
+            targets[position] = endVertex;
+            keys[position] = skipped ? Long.MAX_VALUE : edgeKey(beginVertex, position);
+            if (bothDirections) {
+                sources[position + 1] = endVertex;
+                targets[position + 1] = beginVertex;
+                keys[position + 1] = skipped ? Long.MAX_VALUE : edgeKey(endVertex, position + 1);
+            }
+        });
+        Arrays.parallelSort(keys);
+
+        IntList groupStarts = new IntList();
+        int groupEnd = 0;
+        while (groupEnd < directedCount && keys[groupEnd] != Long.MAX_VALUE) {
+            if (groupEnd == 0 || keys[groupEnd] >>> 32 != keys[groupEnd - 1] >>> 32)
+                groupStarts.add(groupEnd);
+            groupEnd++;
+        }
+        groupStarts.add(groupEnd);
+
+        boolean[] added = new boolean[directedCount];
+        IntStream.range(0, groupStarts.size() - 1).parallel().forEach(group -> {
+            int start = groupStarts.get(group);
+            int end = groupStarts.get(group + 1);
+            for (int first = start; first < end; first++) {
+                VertexInterface<T> source = sources[(int)keys[first]];
+                if (source != null)
+                    connectGroup((Vertex<T>)source, keys, first, end, sources, targets, edgeWeights, step, added);
+            }
+        });
+
+        int addedCount = 0;
+        for (boolean edgeAdded : added) {
+            if (edgeAdded)
+                addedCount++;
+        }
+        if (addedCount == 0)
+            return added;
+        edgeCount += addedCount;
+        version++;
+        if (shortestPathTrees.isEmpty() && !recordsMutations())
+            return added;
+        for (int edge = 0; edge < count; edge++) {
+            double edgeWeight = edgeWeights == null ? 0 : edgeWeights[edge];
+            if (added[edge * step])
+                edgeInserted((T)beginLabels[edge], (T)endLabels[edge], edgeWeight);
+            if (bothDirections && added[edge * step + 1])
+                edgeInserted((T)endLabels[edge], (T)beginLabels[edge], edgeWeight);
+        }
+        return added;
+    }
+
+    /**
+     * Builds the sort key of a directional edge for insertEdges.
+     * @param source The origin vertex of the edge.
+     * @param position The position of the edge among the directional edges being added.
+     * @return The key, whose upper half is the identity hash of the origin vertex and lower half is the position.
+     */
+    private static long edgeKey(Object source, int position) {
+        return (long)(System.identityHashCode(source) & Integer.MAX_VALUE) << 32 | position;
+    }
+
+    /**
+     * Appends the new edges of one origin vertex, found among a run of sorted keys whose origin vertices share an
+     * identity hash, skipping duplicates of its existing edges and of each other. Each edge handled has its origin
+     * cleared from sources, so a run holding several vertices is handled one vertex at a time.
+     * @param source The origin vertex.
+     * @param keys The sorted edge keys.
+     * @param first The position in keys of the vertex's first edge.
+     * @param end The position in keys after the run.
+     * @param sources The origin vertex of each directional edge, by position.
+     * @param targets The end vertex of each directional edge, by position.
+     * @param edgeWeights The weight of each edge given, or null for weight 0.
+     * @param step The number of directional edges per edge given, so position / step finds an edge's weight.
+     * @param added Set to true at the position of each edge appended.
+     */
+    private static <T> void connectGroup(Vertex<T> source, long[] keys, int first, int end,
+                                         VertexInterface<T>[] sources, VertexInterface<T>[] targets,
+                                         double[] edgeWeights, int step, boolean[] added) {
+        int existingDegree = source.getOutDegree();
+        HashSet<VertexInterface<T>> neighbors = null;
+        if (existingDegree + end - first > SCAN_LIMIT) {
+            neighbors = new HashSet<>();
+            Iterator<VertexInterface<T>> existing = source.getNeighborIterator();
+            while (existing.hasNext())
+                neighbors.add(existing.next());
+        }
+        source.ensureEdgeCapacity(existingDegree + end - first);
+
+        for (int index = first; index < end; index++) {
+            int position = (int)keys[index];
+            if (sources[position] != source)
+                continue;
+            sources[position] = null;
+            VertexInterface<T> target = targets[position];
+            if (neighbors != null ? !neighbors.add(target) : hasNeighborVertex(source, target))
+                continue;
+            source.appendEdge(target, edgeWeights == null ? 0 : edgeWeights[position / step]);
+            added[position] = true;
+        }
+    }
+
+    /**
+     * Determines if a vertex has an edge to another by scanning its edges, for vertices with few edges.
+     * @param source The origin vertex.
+     * @param target The end vertex.
+     * @return True if the edge exists, or false otherwise.
+     */
+    private static <T> boolean hasNeighborVertex(Vertex<T> source, VertexInterface<T> target) {
+        for (int position = 0; position < source.getOutDegree(); position++) {
+            if (source.getNeighborAt(position) == target)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tells shortest path trees and the mutation stream of an edge added in bulk.
+     * @param begin The label of the origin vertex.
+     * @param end The label of the end vertex.
+     * @param edgeWeight The weight of the edge.
+     */
+    private void edgeInserted(T begin, T end, double edgeWeight) {
+        for (DynamicShortestPathTree<T> tree : shortestPathTrees.values())
+            tree.edgeAdded(begin, end, edgeWeight);
+        if (recordsMutations())
+            mutationStream.record(MutationBatch.Type.EDGE_ADDED, begin, end, edgeWeight, version);
+    }
+
+    /**
+     * Grows the map of vertices once to hold the specified number of additional vertices, rather than letting it
+     * double repeatedly while they are added.
+     * @param additions The number of vertices about to be added.
+     */
+    private void reserveVertices(int additions) {
+        if (additions <= vertices.size())
+            return;
+        int capacity = (int)Math.min(Integer.MAX_VALUE, ((long)vertices.size() + additions) * 4 / 3 + 1);
+        HashMap<T, VertexInterface<T>> grownVertices = new HashMap<>(capacity);
+        grownVertices.putAll(vertices);
+        vertices = grownVertices;
+    }
+
+    /**
+     * Adds vertices whose edges are already connected to each other, for loaders in this package that build adjacency
+     * directly rather than adding one edge at a time. The graph must be empty, and the vertices' edges must only point
+     * to vertices in the list, with no duplicate edges or self-loops. The load counts as a single change to the graph's
+     * version, but shortest path trees and the mutation stream are still told of each vertex and edge.
+     * @param loadedVertices The vertices to add, with distinct labels.
+     * @param loadedEdgeCount The number of edges leaving the vertices.
+     */
+    void loadVertices(List<? extends VertexInterface<T>> loadedVertices, int loadedEdgeCount) {
+        if (!vertices.isEmpty())
+            throw new IllegalStateException("Graph must be empty to load vertices.");
+        reserveVertices(loadedVertices.size());
+        for (VertexInterface<T> vertex : loadedVertices)
+            vertices.put(vertex.getLabel(), vertex);
+        edgeCount = loadedEdgeCount;
+        version++;
+        if (shortestPathTrees.isEmpty() && !recordsMutations())
+            return;
+
+        for (VertexInterface<T> vertex : loadedVertices) {
+            for (DynamicShortestPathTree<T> tree : shortestPathTrees.values())
+                tree.vertexAdded(vertex.getLabel());
+            if (recordsMutations())
+                mutationStream.record(MutationBatch.Type.VERTEX_ADDED, vertex.getLabel(), null, 0, version);
+        }
+        for (VertexInterface<T> vertex : loadedVertices) {
+            Iterator<VertexInterface<T>> neighbors = vertex.getNeighborIterator();
+            Iterator<Double> weights = vertex.getWeightIterator();
+            while (neighbors.hasNext()) {
+                T endLabel = neighbors.next().getLabel();
+                double edgeWeight = weights.next();
+                for (DynamicShortestPathTree<T> tree : shortestPathTrees.values())
+                    tree.edgeAdded(vertex.getLabel(), endLabel, edgeWeight);
+                if (recordsMutations())
+                    mutationStream.record(MutationBatch.Type.EDGE_ADDED, vertex.getLabel(), endLabel, edgeWeight,
+                            version);
+            }
+        }
+    }
+
+    /**
+     * Determines if changes to the graph must be recorded in its mutation stream.
+     * @return True if the graph has a mutation stream with a listener, or false otherwise.
+     */
+    private boolean recordsMutations() { return mutationStream != null && mutationStream.isActive(); }
+
+    /**
+     * Finds the weight of the edge from one vertex to another.
+     * @param beginVertex The origin vertex of the edge.
+     * @param endVertex The end vertex of the edge.
+     * @return The weight of the edge, or 0 if there is no such edge.
+     */
+    private double getEdgeWeight(VertexInterface<T> beginVertex, VertexInterface<T> endVertex) {
+        Iterator<VertexInterface<T>> neighbors = beginVertex.getNeighborIterator();
+        Iterator<Double> edgeWeights = beginVertex.getWeightIterator();
+        while (neighbors.hasNext()) {
+            double edgeWeight = edgeWeights.next();
+            if (neighbors.next() == endVertex)
+                return edgeWeight;
+        }
+        return 0;
+    }
+
     /**
      * Resets the visited status, cost, and predecessor values of all vertices in the graph to prepare the graph for
      * a new traversal or search.
@@ -311,6 +737,28 @@ public class DirectedGraph<T> implements GraphInterface<T>
      * @return The length of the shortest path between the two specified vertices in number of vertices.
      */
     public int getShortestPath(T begin, T end, Stack<T> path) {
+        PathCache<T> cache = pathCache;
+        if (cache == null)
+            return searchShortestPath(begin, end, path);
+
+        Double cachedLength = cache.lookup(begin, end, PathCache.Algorithm.SHORTEST, version, path);
+        if (cachedLength != null)
+            return cachedLength.intValue();
+        long searchVersion = version;
+        int pathStart = path.size();
+        int pathLength = searchShortestPath(begin, end, path);
+        cache.store(begin, end, PathCache.Algorithm.SHORTEST, searchVersion, path, pathStart, pathLength);
+        return pathLength;
+    }
+
+    /**
+     * Searches breadth-first for the shortest path between two specified vertices, without consulting the path cache.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param path A stack of labels to push the path onto, with the label of the origin vertex at the top.
+     * @return The length of the shortest path between the two specified vertices in number of vertices.
+     */
+    private int searchShortestPath(T begin, T end, Stack<T> path) {
         resetVertices();
         boolean done = false;
         Queue<VertexInterface<T>> vertexQueue = new LinkedList<>();
@@ -347,7 +795,8 @@ public class DirectedGraph<T> implements GraphInterface<T>
         return pathLength;
     }
 
-    /** Finds the least-cost path between two given vertices in this graph.
+    /** Finds the least-cost path between two given vertices in this graph. If a shortest path tree is kept for the
+     * origin and reaches the destination, the path is read from the tree without a search.
      * @param begin An object that labels the path's origin vertex.
      * @param end An object that labels the path's destination vertex.
      * @param path A stack of labels that is empty initially; at the completion of the method, this stack contains
@@ -359,6 +808,33 @@ public class DirectedGraph<T> implements GraphInterface<T>
         if (path == null)
             return 0;
 
+        DynamicShortestPathTree<T> tree = shortestPathTrees.get(begin);
+        if (tree != null && tree.hasPathTo(end))
+            return tree.getPath(end, path);
+
+        PathCache<T> cache = pathCache;
+        if (cache == null)
+            return searchCheapestPath(begin, end, path);
+
+        Double cachedCost = cache.lookup(begin, end, PathCache.Algorithm.CHEAPEST, version, path);
+        if (cachedCost != null)
+            return cachedCost;
+        long searchVersion = version;
+        int pathStart = path.size();
+        double pathCost = searchCheapestPath(begin, end, path);
+        cache.store(begin, end, PathCache.Algorithm.CHEAPEST, searchVersion, path, pathStart, pathCost);
+        return pathCost;
+    }
+
+    /**
+     * Searches with Dijkstra's algorithm for the least-cost path between two given vertices, without consulting the
+     * path cache.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param path A stack of labels to push the path onto, with the label of the origin vertex at the top.
+     * @return The cost of the cheapest path.
+     */
+    private double searchCheapestPath(T begin, T end, Stack<T> path) {
         resetVertices();
         boolean done = false;
 
@@ -407,6 +883,224 @@ public class DirectedGraph<T> implements GraphInterface<T>
         return pathCost;
     }
 
+    /**
+     * Retrieves the breadth-first traversal of the graph from the origin, stopping early when the traversal exceeds
+     * the specified limits or is cancelled. Depth is the number of edges on the shortest path from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @param limits The limits of the traversal, or null for no limits.
+     * @param token A token that cancels the traversal, or null.
+     * @return The labels of the vertices in breadth-first order, which is empty if the origin is not in the graph,
+     * and whether the traversal was truncated.
+     */
+    public TraversalResult<T> getBreadthFirstTraversal(T origin, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        ArrayList<T> traversalOrder = new ArrayList<>();
+        VertexInterface<T> originVertex = vertices.get(origin);
+        if (originVertex != null && budget.admitVertex())
+            searchBreadthFirst(originVertex, null, budget, traversalOrder);
+        return budget.finish(traversalOrder, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Retrieves the depth-first traversal of the graph from the origin, stopping early when the traversal exceeds the
+     * specified limits or is cancelled. Depth is the number of edges on the traversal's path from the origin, so a
+     * vertex left out at one depth may still be reached later along a shorter path.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @param limits The limits of the traversal, or null for no limits.
+     * @param token A token that cancels the traversal, or null.
+     * @return The labels of the vertices in depth-first order, which is empty if the origin is not in the graph, and
+     * whether the traversal was truncated.
+     */
+    public TraversalResult<T> getDepthFirstTraversal(T origin, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        ArrayList<T> traversalOrder = new ArrayList<>();
+        VertexInterface<T> originVertex = vertices.get(origin);
+        if (originVertex == null || !budget.admitVertex())
+            return budget.finish(traversalOrder, Double.POSITIVE_INFINITY);
+
+        resetVertices();
+        Stack<VertexInterface<T>> vertexStack = new Stack<>();
+        Stack<Iterator<VertexInterface<T>>> neighborStack = new Stack<>();
+        originVertex.visit();
+        traversalOrder.add(origin);
+        vertexStack.push(originVertex);
+        neighborStack.push(originVertex.getNeighborIterator());
+
+        while (!vertexStack.isEmpty() && !budget.isStopped()) {
+            Iterator<VertexInterface<T>> neighbors = neighborStack.peek();
+            VertexInterface<T> nextNeighbor = null;
+            while (nextNeighbor == null && neighbors.hasNext() && budget.admitEdge()) {
+                VertexInterface<T> candidate = neighbors.next();
+                if (!candidate.isVisited())
+                    nextNeighbor = candidate;
+            }
+
+            if (nextNeighbor == null) {
+                vertexStack.pop();
+                neighborStack.pop();
+            }
+            else if (!budget.allowsDepth(vertexStack.size()))
+                budget.markDepthCut();
+            else if (budget.admitVertex()) {
+                nextNeighbor.visit();
+                traversalOrder.add(nextNeighbor.getLabel());
+                vertexStack.push(nextNeighbor);
+                neighborStack.push(nextNeighbor.getNeighborIterator());
+            }
+        }
+        return budget.finish(traversalOrder, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Calculates the shortest path between two specified vertices in number of edges, stopping early when the search
+     * exceeds the specified limits or is cancelled. The path cache is not consulted.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param limits The limits of the search, or null for no limits.
+     * @param token A token that cancels the search, or null.
+     * @return The labels along the path from origin to destination and the path's length, or an empty path with
+     * infinite length if there is no path within the limits.
+     */
+    public TraversalResult<T> getShortestPath(T begin, T end, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        VertexInterface<T> originVertex = vertices.get(begin);
+        VertexInterface<T> endVertex = vertices.get(end);
+        if (originVertex == null || endVertex == null || !budget.admitVertex())
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+
+        if (!searchBreadthFirst(originVertex, endVertex, budget, null))
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+        // Breadth-first search finds the shortest path within the maximum depth, so vertices left out beyond it
+        // could not have shortened the path.
+        budget.clearDepthCut();
+        return budget.finish(tracePath(endVertex), endVertex.getCost());
+    }
+
+    /**
+     * Finds the least-cost path between two given vertices, stopping early when the search exceeds the specified
+     * limits or is cancelled. With a maximum depth, the search does not extend the cheapest path to any vertex past
+     * that many edges, so a cheaper path with more edges is not found. The path cache is not consulted.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param limits The limits of the search, or null for no limits.
+     * @param token A token that cancels the search, or null.
+     * @return The labels along the path from origin to destination and the path's cost, or an empty path with
+     * infinite cost if there is no path within the limits.
+     */
+    public TraversalResult<T> getCheapestPath(T begin, T end, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        VertexInterface<T> originVertex = vertices.get(begin);
+        VertexInterface<T> endVertex = vertices.get(end);
+        if (originVertex == null || endVertex == null)
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+
+        resetVertices();
+        boolean found = false;
+        PriorityQueue<EntryPQ> priorityQueue = new PriorityQueue<>();
+        priorityQueue.add(new EntryPQ(originVertex, 0, null, 0));
+
+        while (!found && !priorityQueue.isEmpty() && !budget.isStopped()) {
+            EntryPQ frontEntry = priorityQueue.remove();
+            VertexInterface<T> frontVertex = frontEntry.getVertex();
+            if (frontVertex.isVisited() || !budget.admitVertex())
+                continue;
+
+            frontVertex.visit();
+            frontVertex.setCost(frontEntry.getCost());
+            frontVertex.setPredecessor(frontEntry.getPredecessor());
+            if (frontVertex.equals(endVertex)) {
+                found = true;
+                continue;
+            }
+
+            boolean atMaxDepth = !budget.allowsDepth(frontEntry.getDepth() + 1);
+            Iterator<VertexInterface<T>> neighbors = frontVertex.getNeighborIterator();
+            Iterator<Double> edgeWeights = frontVertex.getWeightIterator();
+            while (neighbors.hasNext() && budget.admitEdge()) {
+                VertexInterface<T> nextNeighbor = neighbors.next();
+                Double weightOfEdgeToNeighbor = edgeWeights.next();
+                if (nextNeighbor.isVisited())
+                    continue;
+                if (atMaxDepth)
+                    budget.markDepthCut();
+                else
+                    priorityQueue.add(new EntryPQ(nextNeighbor, weightOfEdgeToNeighbor + frontVertex.getCost(),
+                            frontVertex, frontEntry.getDepth() + 1));
+            }
+        }
+
+        if (!found)
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+        return budget.finish(tracePath(endVertex), endVertex.getCost());
+    }
+
+    /**
+     * Searches breadth-first from the origin within the budget, recording each vertex's depth as its cost and the
+     * vertex it was reached from as its predecessor. The origin must already be admitted to the budget.
+     * @param originVertex The origin vertex.
+     * @param endVertex The vertex at which to stop, or null to search every reachable vertex.
+     * @param budget The budget of the search.
+     * @param traversalOrder The list to add the label of each visited vertex to, or null.
+     * @return True if the end vertex was reached, or false otherwise.
+     */
+    private boolean searchBreadthFirst(VertexInterface<T> originVertex, VertexInterface<T> endVertex,
+                                       QueryBudget budget, ArrayList<T> traversalOrder) {
+        resetVertices();
+        originVertex.visit();
+        if (traversalOrder != null)
+            traversalOrder.add(originVertex.getLabel());
+        if (originVertex.equals(endVertex))
+            return true;
+
+        Queue<VertexInterface<T>> vertexQueue = new LinkedList<>();
+        vertexQueue.add(originVertex);
+        while (!vertexQueue.isEmpty()) {
+            VertexInterface<T> frontVertex = vertexQueue.remove();
+            boolean atMaxDepth = !budget.allowsDepth((int)frontVertex.getCost() + 1);
+            Iterator<VertexInterface<T>> neighbors = frontVertex.getNeighborIterator();
+            while (neighbors.hasNext()) {
+                if (!budget.admitEdge())
+                    return false;
+                VertexInterface<T> nextNeighbor = neighbors.next();
+                if (nextNeighbor.isVisited())
+                    continue;
+                if (atMaxDepth) {
+                    budget.markDepthCut();
+                    break;
+                }
+                if (!budget.admitVertex())
+                    return false;
+
+                nextNeighbor.visit();
+                nextNeighbor.setCost(1 + frontVertex.getCost());
+                nextNeighbor.setPredecessor(frontVertex);
+                if (traversalOrder != null)
+                    traversalOrder.add(nextNeighbor.getLabel());
+                if (nextNeighbor.equals(endVertex))
+                    return true;
+                vertexQueue.add(nextNeighbor);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Follows predecessors back from a vertex reached by a search to build the path from the search's origin.
+     * @param endVertex The last vertex of the path.
+     * @return The labels along the path, from origin to end vertex.
+     */
+    private ArrayList<T> tracePath(VertexInterface<T> endVertex) {
+        ArrayList<T> path = new ArrayList<>();
+        VertexInterface<T> vertex = endVertex;
+        path.add(vertex.getLabel());
+        while (vertex.hasPredecessor()) {
+            vertex = vertex.getPredecessor();
+            path.add(vertex.getLabel());
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
     /**
      * Prints a textual representation of all the vertices in the graph, along with their edge destinations
      * and weights. For testing.
@@ -429,6 +1123,8 @@ public class DirectedGraph<T> implements GraphInterface<T>
         private VertexInterface<T> previousVertex;
         /** The traversal cost of the edge between the previous two paths. */
         private double cost;
+        /** The number of edges on the path from the origin to the destination vertex. */
+        private int depth;
 
         /**
          * Constructor creates a new EntryPQ object with the specified origin and destination vertices and the
@@ -438,9 +1134,22 @@ public class DirectedGraph<T> implements GraphInterface<T>
          * @param previousVertex The origin vertex of this segment of the path.
          */
         private EntryPQ(VertexInterface<T> vertex, double cost, VertexInterface<T> previousVertex) {
+            this(vertex, cost, previousVertex, 0);
+        }
+
+        /**
+         * Constructor creates a new EntryPQ object with the specified origin and destination vertices, the traversal
+         * cost of the edge between them, and the number of edges on the path to the destination.
+         * @param vertex The destination vertex of this segment of the path.
+         * @param cost The traversal cost between the two vertices.
+         * @param previousVertex The origin vertex of this segment of the path.
+         * @param depth The number of edges on the path from the origin to the destination vertex.
+         */
+        private EntryPQ(VertexInterface<T> vertex, double cost, VertexInterface<T> previousVertex, int depth) {
             this.vertex = vertex;
             this.previousVertex = previousVertex;
             this.cost = cost;
+            this.depth = depth;
         }
 
         /**
@@ -461,6 +1170,12 @@ public class DirectedGraph<T> implements GraphInterface<T>
          */
         public double getCost() { return cost; }
 
+        /**
+         * Retrieves the number of edges on the path from the origin to this segment's destination vertex.
+         * @return The depth of the destination vertex.
+         */
+        public int getDepth() { return depth; }
+
         /**
          * Compares the traversal cost of this path to the traversal cost of another path segment, in order to
          * calculate the least expensive path.
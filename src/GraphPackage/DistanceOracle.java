@@ -0,0 +1,633 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DistanceOracle: An exact oracle for the shortest path length in number of edges between two vertices, the same
+ * length getShortestPath computes, answered without a traversal. The oracle is built with pruned landmark labeling:
+ * vertices are taken as landmarks in decreasing order of degree, and a breadth-first search from each landmark records
+ * its distance in the label of every vertex whose distance is not already answered by earlier landmarks. A query
+ * merges the sorted out-label of the origin with the sorted in-label of the destination.
+ * <p>
+ * With more than one thread, landmarks are searched in batches of one per thread. Each search in a batch is pruned
+ * only by the labels of earlier batches, so labels may be slightly larger than with one thread, but answers are the
+ * same. The threads are kept between builds, and end once they have been idle for a while.
+ * @param <T> The data type of the vertex labels.
+ */
+public class DistanceOracle<T> {
+    /**
+     * RebuildPolicy: Determines what the oracle does when queried after the graph has changed.
+     */
+    public enum RebuildPolicy {
+        /** Answer from the labels as last built; the caller decides when to call rebuild(). */
+        MANUAL,
+        /** Rebuild the labels before answering the first query after the graph has changed. */
+        ON_QUERY,
+        /** Answer queries made after the graph has changed by searching the graph, and once the time spent on those
+         * searches reaches the time the last build took, copy the graph and rebuild the labels from the copy on a
+         * background thread. Queries keep searching until the new labels are ready, so no query waits for a build. */
+        DEFERRED
+    }
+
+    /** The number of seconds a build thread is kept after its last build. */
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 30;
+
+    /** The distance returned when the destination cannot be reached from the origin. */
+    public static final int UNREACHABLE = -1;
+
+    /** The graph this oracle was built from. */
+    private final DirectedGraph<T> graph;
+    /** The number of threads used to build the labels. */
+    private final int numberOfThreads;
+    /** What to do when queried after the graph has changed. */
+    private final RebuildPolicy policy;
+    /** Indicates whether the graph is undirected, so one label per vertex serves as both in-label and out-label. */
+    private final boolean undirected;
+    /** The labels of the last completed build, replaced whole so a query never sees part of a build. */
+    private volatile Labels<T> labels;
+    /** The time spent searching the graph for queries made while the labels were stale, in nanoseconds. */
+    private final AtomicLong staleSearchNanos;
+    /** Indicates whether a rebuild is waiting or running on the background thread. Guarded by this oracle. */
+    private boolean rebuildScheduled;
+    /** The threads the landmarks are searched with, or null until the first build with more than one thread.
+     * Guarded by this oracle. */
+    private ThreadPoolExecutor pool;
+    /** The thread DEFERRED rebuilds run on, or null until the first one. Guarded by this oracle. */
+    private ThreadPoolExecutor rebuilder;
+
+    /**
+     * Constructor creates a new DistanceOracle for the specified graph and builds it with one thread per available
+     * processor. The labels are only rebuilt when rebuild() is called.
+     * @param graph The graph to answer distance queries for.
+     */
+    public DistanceOracle(DirectedGraph<T> graph) {
+        this(graph, Runtime.getRuntime().availableProcessors(), RebuildPolicy.MANUAL);
+    }
+
+    /**
+     * Constructor creates a new DistanceOracle for the specified graph and builds it.
+     * @param graph The graph to answer distance queries for.
+     * @param numberOfThreads The number of threads to build the labels with; at least 1.
+     * @param policy What to do when queried after the graph has changed.
+     */
+    public DistanceOracle(DirectedGraph<T> graph, int numberOfThreads, RebuildPolicy policy) {
+        if (numberOfThreads < 1)
+            throw new IllegalArgumentException("Number of threads must be at least 1.");
+        this.graph = graph;
+        this.numberOfThreads = numberOfThreads;
+        this.policy = policy;
+        undirected = graph instanceof UndirectedGraph;
+        staleSearchNanos = new AtomicLong();
+        rebuildScheduled = false;
+        pool = null;
+        rebuilder = null;
+        labels = buildLabels(new CompactGraph<>(graph));
+    }
+
+    /**
+     * Retrieves the number of edges on a shortest path from one vertex to another. Queries may be made from several
+     * threads at once, as long as the graph is not changed meanwhile. Runtime: O(size of the two labels), or
+     * O(V + E) for a query answered by searching the graph under the DEFERRED policy.
+     * @param begin An object that labels the origin vertex.
+     * @param end An object that labels the destination vertex.
+     * @return The number of edges on a shortest path, 0 if the two labels are the same, or UNREACHABLE if there is no
+     * path or either label is not in the graph.
+     */
+    public int distance(T begin, T end) {
+        Labels<T> current = labels;
+        if (current.compactGraph.getVersion() != graph.getVersion()) {
+            if (policy == RebuildPolicy.ON_QUERY)
+                current = rebuildIfStale();
+            else if (policy == RebuildPolicy.DEFERRED)
+                return searchWhileStale(begin, end, current);
+        }
+
+        int beginIndex = current.compactGraph.indexOf(begin);
+        int endIndex = current.compactGraph.indexOf(end);
+        if (beginIndex < 0 || endIndex < 0)
+            return UNREACHABLE;
+        if (beginIndex == endIndex)
+            return 0;
+
+        int[] firstRanks = current.outRanks[beginIndex];
+        int[] firstDistances = current.outDistances[beginIndex];
+        int[] secondRanks = current.inRanks[endIndex];
+        int[] secondDistances = current.inDistances[endIndex];
+        int best = Integer.MAX_VALUE;
+        int firstPosition = 0;
+        int secondPosition = 0;
+        while (firstPosition < firstRanks.length && secondPosition < secondRanks.length) {
+            int firstRank = firstRanks[firstPosition];
+            int secondRank = secondRanks[secondPosition];
+            if (firstRank == secondRank) {
+                best = Math.min(best, firstDistances[firstPosition++] + secondDistances[secondPosition++]);
+            }
+            else if (firstRank < secondRank)
+                firstPosition++;
+            else
+                secondPosition++;
+        }
+        return (best == Integer.MAX_VALUE) ? UNREACHABLE : best;
+    }
+
+    /**
+     * Determines if the graph has changed since the labels were built.
+     * @return True if a vertex or edge was added or removed since the labels were built, or false otherwise.
+     */
+    public boolean isStale() { return labels.compactGraph.getVersion() != graph.getVersion(); }
+
+    /**
+     * Rebuilds the labels from the current state of the graph, on the calling thread.
+     */
+    public void rebuild() { install(buildLabels(new CompactGraph<>(graph))); }
+
+    /**
+     * Rebuilds the labels for the ON_QUERY policy unless another query already has.
+     * @return The current labels.
+     */
+    private synchronized Labels<T> rebuildIfStale() {
+        if (isStale())
+            rebuild();
+        return labels;
+    }
+
+    /**
+     * Answers a query for the DEFERRED policy by searching the graph, and schedules a rebuild once the searches made
+     * since the labels became stale have taken as long as the last build.
+     * @param begin An object that labels the origin vertex.
+     * @param end An object that labels the destination vertex.
+     * @param current The stale labels.
+     * @return The number of edges on a shortest path, 0 if the two labels are the same, or UNREACHABLE if there is no
+     * path or either label is not in the graph.
+     */
+    private int searchWhileStale(T begin, T end, Labels<T> current) {
+        long startTime = System.nanoTime();
+        int result = searchDistance(begin, end);
+        if (staleSearchNanos.addAndGet(System.nanoTime() - startTime) >= current.buildTimeNanos)
+            scheduleRebuild();
+        return result;
+    }
+
+    /**
+     * Copies the graph on the calling thread, which must be allowed to read it, and builds labels from the copy on
+     * the background thread, unless a rebuild is already scheduled. Runtime on the calling thread: O(V + E).
+     */
+    private synchronized void scheduleRebuild() {
+        if (rebuildScheduled)
+            return;
+        CompactGraph<T> copy = new CompactGraph<>(graph);
+        if (rebuilder == null)
+            rebuilder = newThreads(1, "distance-oracle-rebuild");
+        rebuildScheduled = true;
+        rebuilder.execute(() -> {
+            try {
+                install(buildLabels(copy));
+            } finally {
+                synchronized (this) {
+                    rebuildScheduled = false;
+                    staleSearchNanos.set(0);
+                }
+            }
+        });
+    }
+
+    /**
+     * Replaces the labels with newly built ones and restarts the count of time spent searching.
+     * @param newLabels The new labels.
+     */
+    private synchronized void install(Labels<T> newLabels) {
+        labels = newLabels;
+        staleSearchNanos.set(0);
+    }
+
+    /**
+     * Retrieves the threads the landmarks are searched with, creating them on first use.
+     * @return The threads, or null when labels are built with one thread.
+     */
+    private synchronized ThreadPoolExecutor searchPool() {
+        if (numberOfThreads > 1 && pool == null)
+            pool = newThreads(numberOfThreads, "distance-oracle-");
+        return pool;
+    }
+
+    /**
+     * Creates daemon threads that end once they have been idle for a while.
+     * @param count The number of threads.
+     * @param name The name of the threads, followed by a number if there is more than one.
+     * @return The threads.
+     */
+    private static ThreadPoolExecutor newThreads(int count, String name) {
+        Thread.Builder builder = (count > 1) ? Thread.ofPlatform().name(name, 0).daemon() :
+                Thread.ofPlatform().name(name).daemon();
+        ThreadPoolExecutor threads = new ThreadPoolExecutor(count, count, THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), builder.factory());
+        threads.allowCoreThreadTimeOut(true);
+        return threads;
+    }
+
+    /**
+     * Searches the graph itself for the number of edges on a shortest path, for a query made while the labels are
+     * stale. For an undirected graph the search runs from both ends a level at a time, always extending the smaller
+     * frontier, so it reaches far fewer vertices than a search from one end; a directed graph is searched forward.
+     * @param begin An object that labels the origin vertex.
+     * @param end An object that labels the destination vertex.
+     * @return The number of edges on a shortest path, 0 if the two labels are the same, or UNREACHABLE if there is no
+     * path or either label is not in the graph.
+     */
+    private int searchDistance(T begin, T end) {
+        if (graph.getVertex(begin) == null || graph.getVertex(end) == null)
+            return UNREACHABLE;
+        if (begin.equals(end))
+            return 0;
+        HashMap<T, Integer> forwardDepths = new HashMap<>();
+        HashMap<T, Integer> backwardDepths = new HashMap<>();
+        forwardDepths.put(begin, 0);
+        backwardDepths.put(end, 0);
+        ArrayList<T> forwardFrontier = new ArrayList<>(List.of(begin));
+        ArrayList<T> backwardFrontier = new ArrayList<>(List.of(end));
+        while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()) {
+            // Every vertex within the other side's depth is already recorded, so the first level that meets the other
+            // side gives the shortest path through its best meeting edge.
+            boolean forward = !undirected || forwardFrontier.size() <= backwardFrontier.size();
+            HashMap<T, Integer> depths = forward ? forwardDepths : backwardDepths;
+            HashMap<T, Integer> otherDepths = forward ? backwardDepths : forwardDepths;
+            ArrayList<T> frontier = forward ? forwardFrontier : backwardFrontier;
+            ArrayList<T> nextFrontier = new ArrayList<>();
+            int best = Integer.MAX_VALUE;
+            for (T vertexLabel : frontier) {
+                int nextDepth = depths.get(vertexLabel) + 1;
+                ArrayList<T> neighbors = graph.getNeighbors(vertexLabel, Double.NEGATIVE_INFINITY);
+                if (neighbors == null)
+                    continue;
+                for (T neighbor : neighbors) {
+                    Integer otherDepth = otherDepths.get(neighbor);
+                    if (otherDepth != null)
+                        best = Math.min(best, nextDepth + otherDepth);
+                    else if (!depths.containsKey(neighbor)) {
+                        depths.put(neighbor, nextDepth);
+                        nextFrontier.add(neighbor);
+                    }
+                }
+            }
+            if (best != Integer.MAX_VALUE)
+                return best;
+            if (forward)
+                forwardFrontier = nextFrontier;
+            else
+                backwardFrontier = nextFrontier;
+        }
+        return UNREACHABLE;
+    }
+
+    /**
+     * Builds labels from a compact copy of the graph. Reads only the copy, so it may run while the graph changes.
+     * @param newGraph The compact copy of the graph.
+     * @return The labels.
+     */
+    private Labels<T> buildLabels(CompactGraph<T> newGraph) {
+        long startTime = System.nanoTime();
+        int numberOfVertices = newGraph.size();
+        int[] offsets = newGraph.getOutOffsets();
+        int[] targets = newGraph.getOutTargets();
+        int[] reverseOffsets = undirected ? offsets : newGraph.getInOffsets();
+        int[] reverseTargets = undirected ? targets : newGraph.getInSources();
+
+        Integer[] order = new Integer[numberOfVertices];
+        long[] priority = new long[numberOfVertices];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            order[vertex] = vertex;
+            priority[vertex] = (long)(offsets[vertex + 1] - offsets[vertex] + 1) *
+                    (reverseOffsets[vertex + 1] - reverseOffsets[vertex] + 1);
+        }
+        Arrays.sort(order, (first, second) -> Long.compare(priority[second], priority[first]));
+
+        LabelBuilder outBuilder = new LabelBuilder(numberOfVertices);
+        LabelBuilder inBuilder = undirected ? outBuilder : new LabelBuilder(numberOfVertices);
+        SearchScratch[] scratch = new SearchScratch[numberOfThreads];
+        for (int thread = 0; thread < numberOfThreads; thread++)
+            scratch[thread] = new SearchScratch(numberOfVertices);
+
+        ThreadPoolExecutor pool = searchPool();
+        try {
+            for (int batchStart = 0; batchStart < numberOfVertices; batchStart += numberOfThreads) {
+                int batchEnd = Math.min(numberOfVertices, batchStart + numberOfThreads);
+                List<Callable<IntList[]>> searches = new ArrayList<>();
+                for (int rank = batchStart; rank < batchEnd; rank++) {
+                    int landmarkRank = rank;
+                    SearchScratch searchScratch = scratch[rank - batchStart];
+                    searches.add(() -> searchLandmark(order[landmarkRank], offsets, targets, reverseOffsets,
+                            reverseTargets, outBuilder, inBuilder, searchScratch));
+                }
+
+                List<IntList[]> results = new ArrayList<>();
+                if (pool == null)
+                    results.add(searches.get(0).call());
+                else {
+                    for (Future<IntList[]> result : pool.invokeAll(searches))
+                        results.add(result.get());
+                }
+
+                for (int rank = batchStart; rank < batchEnd; rank++) {
+                    IntList[] reached = results.get(rank - batchStart);
+                    inBuilder.append(rank, reached[0]);
+                    if (!undirected)
+                        outBuilder.append(rank, reached[1]);
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Distance oracle build was interrupted.", exception);
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("Distance oracle build failed.", exception.getCause());
+        } catch (Exception exception) {
+            throw new IllegalStateException("Distance oracle build failed.", exception);
+        }
+
+        return new Labels<>(newGraph, outBuilder.rankArrays(), outBuilder.distanceArrays(), inBuilder.rankArrays(),
+                inBuilder.distanceArrays(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Retrieves the total number of landmark entries stored in all labels.
+     * @return The total number of label entries.
+     */
+    public long getLabelEntryCount() {
+        int[][] outRanks = labels.outRanks;
+        int[][] inRanks = labels.inRanks;
+        long count = 0;
+        for (int vertex = 0; vertex < outRanks.length; vertex++) {
+            count += outRanks[vertex].length;
+            if (!undirected)
+                count += inRanks[vertex].length;
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the average number of entries in a vertex's out-label and in-label combined.
+     * @return The average label size per vertex, or 0 if the graph has no vertices.
+     */
+    public double getAverageLabelSize() {
+        int numberOfVertices = labels.outRanks.length;
+        if (numberOfVertices == 0)
+            return 0;
+        return (double)getLabelEntryCount() / numberOfVertices;
+    }
+
+    /**
+     * Retrieves the number of entries in the largest single label.
+     * @return The size of the largest in-label or out-label.
+     */
+    public int getMaxLabelSize() {
+        int[][] outRanks = labels.outRanks;
+        int[][] inRanks = labels.inRanks;
+        int max = 0;
+        for (int vertex = 0; vertex < outRanks.length; vertex++)
+            max = Math.max(max, Math.max(outRanks[vertex].length, inRanks[vertex].length));
+        return max;
+    }
+
+    /**
+     * Retrieves the approximate memory used by the label entries, at eight bytes per entry.
+     * @return The approximate memory used by the labels, in bytes.
+     */
+    public long getLabelMemoryBytes() { return getLabelEntryCount() * 2 * Integer.BYTES; }
+
+    /**
+     * Retrieves the time the last build of the labels took.
+     * @return The time the last build took, in milliseconds.
+     */
+    public long getBuildTimeMillis() { return TimeUnit.NANOSECONDS.toMillis(labels.buildTimeNanos); }
+
+    /**
+     * Runs the pruned breadth-first searches from one landmark: forward for the in-labels of the vertices it reaches,
+     * and, for a directed graph, backward for the out-labels of the vertices that reach it. Reads only labels that have
+     * already been committed, so searches in the same batch may run at the same time.
+     * @param landmark The vertex number of the landmark.
+     * @param offsets The out-edge offsets of the graph.
+     * @param targets The out-edge targets of the graph.
+     * @param reverseOffsets The in-edge offsets of the graph.
+     * @param reverseTargets The in-edge sources of the graph.
+     * @param outBuilder The committed out-labels.
+     * @param inBuilder The committed in-labels.
+     * @param scratch The work arrays of the thread running the search.
+     * @return Two lists of (vertex number, distance) pairs: the in-label entries and the out-label entries to add.
+     */
+    private IntList[] searchLandmark(int landmark, int[] offsets, int[] targets, int[] reverseOffsets,
+                                     int[] reverseTargets, LabelBuilder outBuilder, LabelBuilder inBuilder,
+                                     SearchScratch scratch) {
+        IntList forward = prunedSearch(landmark, offsets, targets, outBuilder.labelOf(landmark), inBuilder, scratch);
+        IntList backward = undirected ? null :
+                prunedSearch(landmark, reverseOffsets, reverseTargets, inBuilder.labelOf(landmark), outBuilder,
+                        scratch);
+        return new IntList[] { forward, backward };
+    }
+
+    /**
+     * Runs a breadth-first search from a landmark in one direction, skipping every vertex whose distance from the
+     * landmark is already answered at least as well by the committed labels.
+     * @param landmark The vertex number of the landmark.
+     * @param offsets The edge offsets of the direction searched.
+     * @param targets The edge targets of the direction searched.
+     * @param landmarkLabel The landmark's own committed label on the searching side, as (ranks, distances).
+     * @param reachedLabels The committed labels on the reached side.
+     * @param scratch The work arrays of the thread running the search.
+     * @return A list of (vertex number, distance) pairs for the vertices to label.
+     */
+    private static IntList prunedSearch(int landmark, int[] offsets, int[] targets, IntList[] landmarkLabel,
+                                        LabelBuilder reachedLabels, SearchScratch scratch) {
+        IntList entries = new IntList();
+        int[] rankDistance = scratch.rankDistance;
+        int[] distance = scratch.distance;
+        int[] queue = scratch.queue;
+        IntList landmarkRanks = landmarkLabel[0];
+        IntList landmarkDistances = landmarkLabel[1];
+        for (int entry = 0; entry < landmarkRanks.size(); entry++)
+            rankDistance[landmarkRanks.get(entry)] = landmarkDistances.get(entry);
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = landmark;
+        distance[landmark] = 0;
+        while (head < tail) {
+            int vertex = queue[head++];
+            int vertexDistance = distance[vertex];
+            if (vertex != landmark && reachedLabels.covers(vertex, rankDistance, vertexDistance))
+                continue;
+            entries.add(vertex);
+            entries.add(vertexDistance);
+
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                int neighbor = targets[edge];
+                if (distance[neighbor] == Integer.MAX_VALUE) {
+                    distance[neighbor] = vertexDistance + 1;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        for (int position = 0; position < tail; position++)
+            distance[queue[position]] = Integer.MAX_VALUE;
+        for (int entry = 0; entry < landmarkRanks.size(); entry++)
+            rankDistance[landmarkRanks.get(entry)] = Integer.MAX_VALUE;
+        return entries;
+    }
+
+    /**
+     * Labels: The labels of one build, together with the compact copy of the graph they were built from. Never
+     * changed once built.
+     * @param <T> The data type of the vertex labels.
+     */
+    private static final class Labels<T> {
+        /** The compact copy of the graph the labels were built from. */
+        private final CompactGraph<T> compactGraph;
+        /** Stores, for each vertex number, the sorted ranks of the landmarks in its out-label. */
+        private final int[][] outRanks;
+        /** Stores, for each vertex number, the distance to each landmark in its out-label. */
+        private final int[][] outDistances;
+        /** Stores, for each vertex number, the sorted ranks of the landmarks in its in-label. */
+        private final int[][] inRanks;
+        /** Stores, for each vertex number, the distance from each landmark in its in-label. */
+        private final int[][] inDistances;
+        /** The time the build took, in nanoseconds. */
+        private final long buildTimeNanos;
+
+        /**
+         * Constructor creates new Labels from the results of a build.
+         * @param compactGraph The compact copy of the graph the labels were built from.
+         * @param outRanks The sorted landmark ranks of each vertex's out-label.
+         * @param outDistances The landmark distances of each vertex's out-label.
+         * @param inRanks The sorted landmark ranks of each vertex's in-label.
+         * @param inDistances The landmark distances of each vertex's in-label.
+         * @param buildTimeNanos The time the build took, in nanoseconds.
+         */
+        private Labels(CompactGraph<T> compactGraph, int[][] outRanks, int[][] outDistances, int[][] inRanks,
+                       int[][] inDistances, long buildTimeNanos) {
+            this.compactGraph = compactGraph;
+            this.outRanks = outRanks;
+            this.outDistances = outDistances;
+            this.inRanks = inRanks;
+            this.inDistances = inDistances;
+            this.buildTimeNanos = buildTimeNanos;
+        }
+    }
+
+    /**
+     * LabelBuilder: The labels of one side (in or out) of every vertex while they are being built. Labels are only
+     * appended to between batches, and only read during batches.
+     */
+    private static class LabelBuilder {
+        /** Stores, for each vertex number, the ranks in its label, in increasing order. */
+        private final IntList[] ranks;
+        /** Stores, for each vertex number, the distances in its label. */
+        private final IntList[] distances;
+
+        /**
+         * Constructor creates a new LabelBuilder with an empty label for every vertex.
+         * @param numberOfVertices The number of vertices.
+         */
+        private LabelBuilder(int numberOfVertices) {
+            ranks = new IntList[numberOfVertices];
+            distances = new IntList[numberOfVertices];
+            for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+                ranks[vertex] = new IntList(2);
+                distances[vertex] = new IntList(2);
+            }
+        }
+
+        /**
+         * Retrieves the label of a vertex.
+         * @param vertex The vertex number.
+         * @return A pair of lists: the label's ranks and distances.
+         */
+        private IntList[] labelOf(int vertex) { return new IntList[] { ranks[vertex], distances[vertex] }; }
+
+        /**
+         * Determines if a vertex's label, combined with a landmark's label, already gives a distance no greater than
+         * the specified distance.
+         * @param vertex The vertex number.
+         * @param rankDistance The landmark's label, as the distance stored at each rank, or Integer.MAX_VALUE.
+         * @param limit The distance to compare to.
+         * @return True if the labels already answer the distance at least as well, or false otherwise.
+         */
+        private boolean covers(int vertex, int[] rankDistance, int limit) {
+            IntList vertexRanks = ranks[vertex];
+            IntList vertexDistances = distances[vertex];
+            for (int entry = 0; entry < vertexRanks.size(); entry++) {
+                int landmarkDistance = rankDistance[vertexRanks.get(entry)];
+                if (landmarkDistance != Integer.MAX_VALUE && landmarkDistance + vertexDistances.get(entry) <= limit)
+                    return true;
+            }
+            return false;
+        }
+
+        /**
+         * Appends a landmark's entries to the labels of the vertices its search reached.
+         * @param rank The rank of the landmark, larger than any rank already appended.
+         * @param entries A list of (vertex number, distance) pairs.
+         */
+        private void append(int rank, IntList entries) {
+            for (int entry = 0; entry < entries.size(); entry += 2) {
+                ranks[entries.get(entry)].add(rank);
+                distances[entries.get(entry)].add(entries.get(entry + 1));
+            }
+        }
+
+        /**
+         * Copies the label ranks into arrays.
+         * @return The ranks of each vertex's label.
+         */
+        private int[][] rankArrays() {
+            int[][] result = new int[ranks.length][];
+            for (int vertex = 0; vertex < ranks.length; vertex++)
+                result[vertex] = ranks[vertex].toArray();
+            return result;
+        }
+
+        /**
+         * Copies the label distances into arrays.
+         * @return The distances of each vertex's label.
+         */
+        private int[][] distanceArrays() {
+            int[][] result = new int[distances.length][];
+            for (int vertex = 0; vertex < distances.length; vertex++)
+                result[vertex] = distances[vertex].toArray();
+            return result;
+        }
+    }
+
+    /**
+     * SearchScratch: The work arrays of one thread's pruned searches, kept between searches so each search costs only
+     * the vertices it reaches rather than the whole graph.
+     */
+    private static class SearchScratch {
+        /** The distance found to each vertex in the current search, or Integer.MAX_VALUE if not yet reached. */
+        private final int[] distance;
+        /** The landmark's label, as the distance stored at each rank, or Integer.MAX_VALUE. */
+        private final int[] rankDistance;
+        /** The search queue. */
+        private final int[] queue;
+
+        /**
+         * Constructor creates new work arrays for a graph of the specified size.
+         * @param numberOfVertices The number of vertices in the graph.
+         */
+        private SearchScratch(int numberOfVertices) {
+            distance = new int[numberOfVertices];
+            rankDistance = new int[numberOfVertices];
+            queue = new int[numberOfVertices];
+            Arrays.fill(distance, Integer.MAX_VALUE);
+            Arrays.fill(rankDistance, Integer.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Stack;
+
+/**
+ * DynamicShortestPathTree: A tree of least-cost paths from one source vertex to every vertex it can reach, kept up to
+ * date as edges and vertices are added and removed rather than recomputed. The graph notifies the tree of each change,
+ * and the tree repairs only the part of itself the change affects, in the manner of Ramalingam and Reps:
+ * <ul>
+ *     <li>An added edge that shortens the path to its end vertex starts a Dijkstra search from that vertex, which
+ *     stops wherever paths do not improve.</li>
+ *     <li>A removed edge of the tree detaches the subtree below it. Each vertex of the subtree is offered its best
+ *     path through an incoming edge from outside the subtree, and a Dijkstra search confined to the subtree settles
+ *     the rest. Removing an edge outside the tree changes nothing.</li>
+ * </ul>
+ * Updates therefore cost time in proportion to the vertices whose paths change and their edges. To find incoming
+ * edges, the tree keeps its own index of the graph's edges by end vertex. Like getCheapestPath, the tree assumes edge
+ * weights are not negative. Trees are created with DirectedGraph.maintainShortestPathTree.
+ * @param <T> The data type of the vertex labels.
+ */
+public class DynamicShortestPathTree<T> {
+    /** The graph the tree spans. */
+    private final DirectedGraph<T> graph;
+    /** The label of the source vertex of every path. */
+    private final T source;
+    /** Maps each reachable vertex label to the cost of the cheapest path from the source. */
+    private final HashMap<T, Double> distances;
+    /** Maps each reachable vertex label other than the source to its predecessor on the cheapest path. */
+    private final HashMap<T, T> parents;
+    /** Maps each reachable vertex label to the labels of the vertices whose predecessor it is. */
+    private final HashMap<T, HashSet<T>> children;
+    /** Maps each vertex label to the weights of the edges pointing to it, by the label of their origin vertex. */
+    private final HashMap<T, HashMap<T, Double>> incomingEdges;
+    /** The number of vertices whose paths were settled by the last update. */
+    private int lastUpdateSize;
+    /** The total number of vertices whose paths were settled by updates since the tree was built. */
+    private long totalUpdateSize;
+
+    /**
+     * Constructor creates a new DynamicShortestPathTree and builds it from the graph as it is now.
+     * @param graph The graph the tree spans.
+     * @param source The label of the source vertex of every path.
+     */
+    DynamicShortestPathTree(DirectedGraph<T> graph, T source) {
+        this.graph = graph;
+        this.source = source;
+        distances = new HashMap<>();
+        parents = new HashMap<>();
+        children = new HashMap<>();
+        incomingEdges = new HashMap<>();
+        for (VertexInterface<T> vertex : graph.getVertexObjects()) {
+            incomingEdges.computeIfAbsent(vertex.getLabel(), label -> new HashMap<>());
+            Iterator<VertexInterface<T>> neighbors = vertex.getNeighborIterator();
+            Iterator<Double> edgeWeights = vertex.getWeightIterator();
+            while (neighbors.hasNext())
+                incomingEdges.computeIfAbsent(neighbors.next().getLabel(), label -> new HashMap<>())
+                        .put(vertex.getLabel(), edgeWeights.next());
+        }
+        if (graph.getVertex(source) != null) {
+            setPath(source, 0, null);
+            PriorityQueue<SearchEntry<T>> priorityQueue = new PriorityQueue<>();
+            priorityQueue.add(new SearchEntry<>(source, 0));
+            propagate(priorityQueue, null);
+        }
+        lastUpdateSize = 0;
+        totalUpdateSize = 0;
+    }
+
+    /**
+     * Retrieves the label of the source vertex of every path in the tree.
+     * @return The source label.
+     */
+    public T getSource() { return source; }
+
+    /**
+     * Determines if a vertex can be reached from the source.
+     * @param vertexLabel The label of the vertex.
+     * @return True if there is a path from the source to the vertex, or false otherwise.
+     */
+    public boolean hasPathTo(T vertexLabel) { return distances.containsKey(vertexLabel); }
+
+    /**
+     * Retrieves the cost of the cheapest path from the source to a vertex. Runtime: O(1).
+     * @param vertexLabel The label of the vertex.
+     * @return The cost of the cheapest path, or positive infinity if the vertex cannot be reached.
+     */
+    public double getDistance(T vertexLabel) {
+        Double distance = distances.get(vertexLabel);
+        return distance == null ? Double.POSITIVE_INFINITY : distance;
+    }
+
+    /**
+     * Retrieves the predecessor of a vertex on the cheapest path from the source.
+     * @param vertexLabel The label of the vertex.
+     * @return The label of the predecessor, or null if the vertex is the source or cannot be reached.
+     */
+    public T getParent(T vertexLabel) { return parents.get(vertexLabel); }
+
+    /**
+     * Retrieves the cheapest path from the source to a vertex. Runtime: O(length of the path).
+     * @param end The label of the path's destination vertex.
+     * @param path A stack of labels; at the completion of the method, the labels of the vertices along the cheapest
+     * path have been pushed onto it with the label of the source at the top, or it is unchanged if the vertex cannot
+     * be reached.
+     * @return The cost of the cheapest path, or positive infinity if the vertex cannot be reached.
+     */
+    public double getPath(T end, Stack<T> path) {
+        Double distance = distances.get(end);
+        if (distance == null)
+            return Double.POSITIVE_INFINITY;
+        for (T label = end; label != null; label = parents.get(label))
+            path.push(label);
+        return distance;
+    }
+
+    /**
+     * Retrieves the number of vertices that can be reached from the source, including the source.
+     * @return The number of vertices in the tree.
+     */
+    public int getNumberOfReachableVertices() { return distances.size(); }
+
+    /**
+     * Retrieves the number of vertices whose paths were settled by the last update, a measure of the update's work.
+     * @return The number of vertices settled by the last update.
+     */
+    public int getLastUpdateSize() { return lastUpdateSize; }
+
+    /**
+     * Retrieves the total number of vertices whose paths were settled by updates since the tree was built.
+     * @return The number of vertices settled by all updates.
+     */
+    public long getTotalUpdateSize() { return totalUpdateSize; }
+
+    /**
+     * Updates the tree after a vertex is added to the graph.
+     * @param vertexLabel The label of the new vertex.
+     */
+    void vertexAdded(T vertexLabel) {
+        incomingEdges.put(vertexLabel, new HashMap<>());
+        lastUpdateSize = 0;
+        if (vertexLabel.equals(source)) {
+            setPath(source, 0, null);
+            recordUpdate(1);
+        }
+    }
+
+    /**
+     * Updates the tree after a vertex is removed from the graph. The vertex's edges must already have been removed
+     * through edgeRemoved, which left it unreachable unless it was the source.
+     * @param vertexLabel The label of the removed vertex.
+     */
+    void vertexRemoved(T vertexLabel) {
+        incomingEdges.remove(vertexLabel);
+        lastUpdateSize = 0;
+        if (vertexLabel.equals(source)) {
+            recordUpdate(distances.size());
+            distances.clear();
+            parents.clear();
+            children.clear();
+        }
+    }
+
+    /**
+     * Updates the tree after an edge is added to the graph. Runtime: O((A + E_A) log(E_A)), where A is the number of
+     * vertices whose paths become cheaper and E_A the number of edges leaving them.
+     * @param begin The label of the edge's origin vertex.
+     * @param end The label of the edge's end vertex.
+     * @param edgeWeight The weight of the edge.
+     */
+    void edgeAdded(T begin, T end, double edgeWeight) {
+        incomingEdges.computeIfAbsent(end, label -> new HashMap<>()).put(begin, edgeWeight);
+        lastUpdateSize = 0;
+        Double beginDistance = distances.get(begin);
+        if (beginDistance == null)
+            return;
+        double candidate = beginDistance + edgeWeight;
+        if (candidate < getDistance(end)) {
+            setPath(end, candidate, begin);
+            PriorityQueue<SearchEntry<T>> priorityQueue = new PriorityQueue<>();
+            priorityQueue.add(new SearchEntry<>(end, candidate));
+            recordUpdate(propagate(priorityQueue, null));
+        }
+    }
+
+    /**
+     * Updates the tree after an edge is removed from the graph. Runtime: O((S + E_S) log(E_S)), where S is the number
+     * of vertices in the subtree below the edge and E_S the number of edges entering or leaving them, or O(1) if the
+     * edge is not in the tree.
+     * @param begin The label of the edge's origin vertex.
+     * @param end The label of the edge's end vertex.
+     */
+    void edgeRemoved(T begin, T end) {
+        HashMap<T, Double> edges = incomingEdges.get(end);
+        if (edges != null)
+            edges.remove(begin);
+        lastUpdateSize = 0;
+        if (begin.equals(parents.get(end)))
+            reattachSubtree(collectSubtree(end));
+    }
+
+    /**
+     * Updates the tree after every vertex and edge is removed from the graph.
+     */
+    void cleared() {
+        lastUpdateSize = distances.size();
+        totalUpdateSize += lastUpdateSize;
+        distances.clear();
+        parents.clear();
+        children.clear();
+        incomingEdges.clear();
+    }
+
+    /**
+     * Finds the cheapest paths to the vertices of a detached subtree, whose old paths all ran through an edge that is
+     * gone. Paths to vertices outside the subtree cannot have run through the edge, so they are still the cheapest.
+     * @param subtree The labels of the vertices in the subtree.
+     */
+    private void reattachSubtree(HashSet<T> subtree) {
+        for (T label : subtree)
+            clearPath(label);
+
+        PriorityQueue<SearchEntry<T>> priorityQueue = new PriorityQueue<>();
+        HashMap<T, T> candidateParents = new HashMap<>();
+        HashMap<T, Double> candidateDistances = new HashMap<>();
+        for (T label : subtree) {
+            HashMap<T, Double> edges = incomingEdges.get(label);
+            if (edges == null)
+                continue;
+            for (Map.Entry<T, Double> edge : edges.entrySet()) {
+                Double originDistance = distances.get(edge.getKey());
+                if (originDistance == null)
+                    continue;
+                double candidate = originDistance + edge.getValue();
+                Double best = candidateDistances.get(label);
+                if (best == null || candidate < best) {
+                    candidateDistances.put(label, candidate);
+                    candidateParents.put(label, edge.getKey());
+                }
+            }
+        }
+        for (T label : candidateDistances.keySet())
+            priorityQueue.add(new SearchEntry<>(label, candidateDistances.get(label)));
+        recordUpdate(propagate(priorityQueue, new Reattachment<>(subtree, candidateParents, candidateDistances)));
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from the entries in a priority queue, improving the paths of the vertices they reach.
+     * A vertex whose path is already at least as cheap as an entry is not searched past.
+     * @param priorityQueue The entries to search from; each names a vertex and the cost of its path, which must
+     * already be recorded unless the vertex belongs to the reattachment.
+     * @param reattachment The detached subtree being reattached, whose vertices have no paths yet, or null.
+     * @return The number of vertices settled.
+     */
+    private int propagate(PriorityQueue<SearchEntry<T>> priorityQueue, Reattachment<T> reattachment) {
+        HashSet<T> settled = new HashSet<>();
+        while (!priorityQueue.isEmpty()) {
+            SearchEntry<T> frontEntry = priorityQueue.remove();
+            T frontLabel = frontEntry.label;
+            if (settled.contains(frontLabel))
+                continue;
+            if (reattachment != null && reattachment.subtree.contains(frontLabel)) {
+                Double best = reattachment.distances.get(frontLabel);
+                if (best == null || frontEntry.cost > best)
+                    continue;
+                setPath(frontLabel, best, reattachment.parents.get(frontLabel));
+            }
+            else if (frontEntry.cost > getDistance(frontLabel))
+                continue;
+            settled.add(frontLabel);
+
+            VertexInterface<T> frontVertex = graph.getVertex(frontLabel);
+            if (frontVertex == null)
+                continue;
+            Iterator<VertexInterface<T>> neighbors = frontVertex.getNeighborIterator();
+            Iterator<Double> edgeWeights = frontVertex.getWeightIterator();
+            while (neighbors.hasNext()) {
+                T neighborLabel = neighbors.next().getLabel();
+                double candidate = frontEntry.cost + edgeWeights.next();
+                if (settled.contains(neighborLabel))
+                    continue;
+                if (reattachment != null && reattachment.subtree.contains(neighborLabel)) {
+                    Double best = reattachment.distances.get(neighborLabel);
+                    if (best == null || candidate < best) {
+                        reattachment.distances.put(neighborLabel, candidate);
+                        reattachment.parents.put(neighborLabel, frontLabel);
+                        priorityQueue.add(new SearchEntry<>(neighborLabel, candidate));
+                    }
+                }
+                else if (candidate < getDistance(neighborLabel)) {
+                    setPath(neighborLabel, candidate, frontLabel);
+                    priorityQueue.add(new SearchEntry<>(neighborLabel, candidate));
+                }
+            }
+        }
+        return settled.size();
+    }
+
+    /**
+     * Collects a vertex and every vertex below it in the tree.
+     * @param rootLabel The label of the vertex at the root of the subtree.
+     * @return The labels of the vertices in the subtree.
+     */
+    private HashSet<T> collectSubtree(T rootLabel) {
+        HashSet<T> subtree = new HashSet<>();
+        ArrayList<T> pending = new ArrayList<>();
+        subtree.add(rootLabel);
+        pending.add(rootLabel);
+        while (!pending.isEmpty()) {
+            HashSet<T> below = children.get(pending.remove(pending.size() - 1));
+            if (below == null)
+                continue;
+            for (T child : below) {
+                if (subtree.add(child))
+                    pending.add(child);
+            }
+        }
+        return subtree;
+    }
+
+    /**
+     * Records the cheapest path to a vertex, moving it under its new predecessor.
+     * @param vertexLabel The label of the vertex.
+     * @param distance The cost of the path.
+     * @param parent The label of the vertex's predecessor, or null for the source.
+     */
+    private void setPath(T vertexLabel, double distance, T parent) {
+        T oldParent = parents.get(vertexLabel);
+        if (oldParent != null)
+            children.get(oldParent).remove(vertexLabel);
+        distances.put(vertexLabel, distance);
+        if (parent == null)
+            parents.remove(vertexLabel);
+        else {
+            parents.put(vertexLabel, parent);
+            children.computeIfAbsent(parent, label -> new HashSet<>()).add(vertexLabel);
+        }
+    }
+
+    /**
+     * Forgets the path to a vertex, detaching it from its predecessor. Its children keep it as their predecessor.
+     * @param vertexLabel The label of the vertex.
+     */
+    private void clearPath(T vertexLabel) {
+        T oldParent = parents.remove(vertexLabel);
+        if (oldParent != null) {
+            HashSet<T> siblings = children.get(oldParent);
+            if (siblings != null)
+                siblings.remove(vertexLabel);
+        }
+        distances.remove(vertexLabel);
+        children.remove(vertexLabel);
+    }
+
+    /**
+     * Records the work done by an update.
+     * @param settledCount The number of vertices the update settled.
+     */
+    private void recordUpdate(int settledCount) {
+        lastUpdateSize = settledCount;
+        totalUpdateSize += settledCount;
+    }
+
+    /**
+     * Reattachment: The state of a detached subtree while its vertices are being given new paths.
+     * @param <T> The data type of the vertex labels.
+     */
+    private static final class Reattachment<T> {
+        /** The labels of the vertices in the subtree. */
+        private final HashSet<T> subtree;
+        /** Maps each vertex of the subtree to the predecessor on the cheapest path found to it so far. */
+        private final HashMap<T, T> parents;
+        /** Maps each vertex of the subtree to the cost of the cheapest path found to it so far. */
+        private final HashMap<T, Double> distances;
+
+        /**
+         * Constructor creates a new Reattachment.
+         * @param subtree The labels of the vertices in the subtree.
+         * @param parents The predecessor on the cheapest known path to each vertex of the subtree.
+         * @param distances The cost of the cheapest known path to each vertex of the subtree.
+         */
+        private Reattachment(HashSet<T> subtree, HashMap<T, T> parents, HashMap<T, Double> distances) {
+            this.subtree = subtree;
+            this.parents = parents;
+            this.distances = distances;
+        }
+    }
+
+    /**
+     * SearchEntry: A priority queue entry naming a vertex and the cost of a path to it.
+     * @param <T> The data type of the vertex labels.
+     */
+    private static final class SearchEntry<T> implements Comparable<SearchEntry<T>> {
+        /** The label of the vertex. */
+        private final T label;
+        /** The cost of the path to the vertex. */
+        private final double cost;
+
+        /**
+         * Constructor creates a new SearchEntry.
+         * @param label The label of the vertex.
+         * @param cost The cost of the path to the vertex.
+         */
+        private SearchEntry(T label, double cost) {
+            this.label = label;
+            this.cost = cost;
+        }
+
+        /**
+         * Compares the cost of this entry's path to another's.
+         * @param otherEntry The other entry.
+         * @return A negative number, zero, or a positive number as this path is cheaper, equal, or more expensive.
+         */
+        public int compareTo(SearchEntry<T> otherEntry) { return Double.compare(cost, otherEntry.cost); }
+    }
+}
@@ -0,0 +1,17 @@
+package GraphPackage;
+
+/**
+ * EdgePredicate: A test applied to each edge of a graph, for choosing the edges a subgraph view includes.
+ * @param <T> The data type of the vertex labels.
+ */
+@FunctionalInterface
+public interface EdgePredicate<T> {
+    /**
+     * Determines if an edge passes the test.
+     * @param begin The label of the edge's origin vertex.
+     * @param end The label of the edge's end vertex.
+     * @param edgeWeight The weight of the edge.
+     * @return True if the edge passes the test, or false otherwise.
+     */
+    boolean test(T begin, T end, double edgeWeight);
+}
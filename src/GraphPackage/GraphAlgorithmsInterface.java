@@ -42,4 +42,42 @@ public interface GraphAlgorithmsInterface<T> {
      the label of the destination vertex is at the bottom
      @return  The cost of the cheapest path. */
     public double getCheapestPath(T begin, T end, Stack<T> path);
-}
\ No newline at end of file
+
+    /** Performs a breadth-first traversal of this graph that stops early
+     when it exceeds the specified limits or is cancelled.
+     @param origin  An object that labels the origin vertex of the traversal.
+     @param limits  The limits of the traversal, or null for no limits.
+     @param token   A token that cancels the traversal, or null.
+     @return  The labels of the vertices in the order visited, with the
+     label of the origin vertex first, and whether the traversal was truncated. */
+    public TraversalResult<T> getBreadthFirstTraversal(T origin, QueryLimits limits, CancellationToken token);
+
+    /** Performs a depth-first traversal of this graph that stops early
+     when it exceeds the specified limits or is cancelled.
+     @param origin  An object that labels the origin vertex of the traversal.
+     @param limits  The limits of the traversal, or null for no limits.
+     @param token   A token that cancels the traversal, or null.
+     @return  The labels of the vertices in the order visited, with the
+     label of the origin vertex first, and whether the traversal was truncated. */
+    public TraversalResult<T> getDepthFirstTraversal(T origin, QueryLimits limits, CancellationToken token);
+
+    /** Finds the shortest-length path between two given vertices in this graph,
+     stopping early when the search exceeds the specified limits or is cancelled.
+     @param begin   An object that labels the path's origin vertex.
+     @param end     An object that labels the path's destination vertex.
+     @param limits  The limits of the search, or null for no limits.
+     @param token   A token that cancels the search, or null.
+     @return  The labels along the path from origin to destination and the
+     path's length, or an empty path if none was found within the limits. */
+    public TraversalResult<T> getShortestPath(T begin, T end, QueryLimits limits, CancellationToken token);
+
+    /** Finds the least-cost path between two given vertices in this graph,
+     stopping early when the search exceeds the specified limits or is cancelled.
+     @param begin   An object that labels the path's origin vertex.
+     @param end     An object that labels the path's destination vertex.
+     @param limits  The limits of the search, or null for no limits.
+     @param token   A token that cancels the search, or null.
+     @return  The labels along the path from origin to destination and the
+     path's cost, or an empty path if none was found within the limits. */
+    public TraversalResult<T> getCheapestPath(T begin, T end, QueryLimits limits, CancellationToken token);
+}
@@ -0,0 +1,16 @@
+package GraphPackage;
+
+/**
+ * GraphMutationListener: Receives the changes made to a graph, in the order they were made, in batches from the
+ * graph's mutation stream.
+ * @param <T> The data type of the vertex labels.
+ */
+@FunctionalInterface
+public interface GraphMutationListener<T> {
+    /**
+     * Handles a batch of changes. The batch is only valid until this method returns, so a listener that keeps any of
+     * its contents must copy them. A listener must not change the graph.
+     * @param batch The changes, in the order they were made.
+     */
+    void mutationsApplied(MutationBatch<T> batch);
+}
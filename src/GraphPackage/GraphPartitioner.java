@@ -0,0 +1,228 @@
+package GraphPackage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * GraphPartitioner: Splits the vertices of a graph into a number of balanced partitions while keeping as many edges as
+ * possible inside a partition, so that work on each partition mostly stays local. Vertices are streamed in
+ * breadth-first order, ignoring edge direction, and each is placed in the partition that scores best given where its
+ * neighbors already are. FENNEL scores a partition by its number of neighbors minus a penalty that grows with its size;
+ * LDG scores it by its number of neighbors scaled by its remaining capacity. No partition grows past its capacity.
+ * Further passes restream the vertices, scoring each against the placement of all its neighbors from the pass before,
+ * which usually removes more cut edges.
+ * @param <T> The data type of the vertex labels.
+ */
+public class GraphPartitioner<T> {
+    /**
+     * Strategy: The scoring rule used to place each vertex.
+     */
+    public enum Strategy {
+        /** Linear deterministic greedy: neighbors in the partition times the fraction of its capacity left. */
+        LDG,
+        /** FENNEL: neighbors in the partition minus a penalty of alpha * gamma * size^(gamma - 1). */
+        FENNEL
+    }
+
+    /** The default ratio of a partition's capacity to a perfectly even share of the vertices. */
+    public static final double DEFAULT_BALANCE_SLACK = 1.1;
+    /** The default number of passes over the vertices. */
+    public static final int DEFAULT_PASSES = 3;
+    /** The exponent of FENNEL's size penalty. */
+    private static final double GAMMA = 1.5;
+
+    /** The graph to partition. */
+    private final DirectedGraph<T> graph;
+    /** The number of partitions. */
+    private final int numberOfPartitions;
+    /** The scoring rule used to place each vertex. */
+    private Strategy strategy;
+    /** The ratio of a partition's capacity to a perfectly even share of the vertices. */
+    private double balanceSlack;
+    /** The number of passes over the vertices. */
+    private int passes;
+    /** The number of vertices in each partition after the last computation. */
+    private int[] partitionSizes;
+    /** The number of edges between partitions after the last computation. */
+    private long cutEdges;
+    /** The number of edges in the graph during the last computation. */
+    private long totalEdges;
+
+    /**
+     * Constructor creates a new GraphPartitioner for the specified graph and number of partitions, using FENNEL.
+     * @param graph The graph to partition.
+     * @param numberOfPartitions The number of partitions; at least 1.
+     */
+    public GraphPartitioner(DirectedGraph<T> graph, int numberOfPartitions) {
+        if (numberOfPartitions < 1)
+            throw new IllegalArgumentException("Number of partitions must be at least 1.");
+        this.graph = graph;
+        this.numberOfPartitions = numberOfPartitions;
+        strategy = Strategy.FENNEL;
+        balanceSlack = DEFAULT_BALANCE_SLACK;
+        passes = DEFAULT_PASSES;
+    }
+
+    /**
+     * Sets the scoring rule used to place each vertex.
+     * @param newStrategy The scoring rule.
+     */
+    public void setStrategy(Strategy newStrategy) { strategy = newStrategy; }
+
+    /**
+     * Sets how far a partition may grow past a perfectly even share of the vertices.
+     * @param newBalanceSlack The ratio of a partition's capacity to an even share; at least 1.
+     */
+    public void setBalanceSlack(double newBalanceSlack) {
+        if (!(newBalanceSlack >= 1))
+            throw new IllegalArgumentException("Balance slack must be at least 1.");
+        balanceSlack = newBalanceSlack;
+    }
+
+    /**
+     * Sets the number of passes over the vertices. The first pass places each vertex by its earlier neighbors only;
+     * each further pass moves vertices with knowledge of all their neighbors.
+     * @param newPasses The number of passes; at least 1.
+     */
+    public void setPasses(int newPasses) {
+        if (newPasses < 1)
+            throw new IllegalArgumentException("Number of passes must be at least 1.");
+        passes = newPasses;
+    }
+
+    /**
+     * Assigns every vertex to a partition. Runtime: O(passes * (V * P + E)), where P is the number of partitions.
+     * @return A map from each vertex label to its partition number, from 0 to the number of partitions - 1.
+     */
+    public HashMap<T, Integer> partition() {
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        int numberOfVertices = compact.size();
+        int[] offsets = compact.getUndirectedOffsets();
+        int[] neighbors = compact.getUndirectedTargets();
+        int[] order = breadthFirstOrder(offsets, neighbors);
+        int capacity = Math.max(1, (int)Math.ceil(balanceSlack * numberOfVertices / numberOfPartitions));
+        long undirectedEdges = offsets[numberOfVertices] / 2;
+        double alpha = Math.sqrt(numberOfPartitions) * undirectedEdges / Math.pow(Math.max(1, numberOfVertices), GAMMA);
+
+        int[] assignment = new int[numberOfVertices];
+        Arrays.fill(assignment, -1);
+        int[] sizes = new int[numberOfPartitions];
+        int[] neighborCounts = new int[numberOfPartitions];
+        for (int pass = 0; pass < passes; pass++) {
+            for (int vertex : order) {
+                if (assignment[vertex] >= 0)
+                    sizes[assignment[vertex]]--;
+                for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                    int neighbor = neighbors[edge];
+                    if (neighbor != vertex && assignment[neighbor] >= 0)
+                        neighborCounts[assignment[neighbor]]++;
+                }
+
+                int best = -1;
+                double bestScore = Double.NEGATIVE_INFINITY;
+                for (int part = 0; part < numberOfPartitions; part++) {
+                    if (sizes[part] >= capacity)
+                        continue;
+                    double score = (strategy == Strategy.LDG) ?
+                            neighborCounts[part] * (1 - (double)sizes[part] / capacity) :
+                            neighborCounts[part] - alpha * GAMMA * Math.pow(sizes[part], GAMMA - 1);
+                    // Ties go to the smaller partition, which keeps early placements balanced.
+                    if (score > bestScore || (score == bestScore && sizes[part] < sizes[best])) {
+                        bestScore = score;
+                        best = part;
+                    }
+                }
+                assignment[vertex] = best;
+                sizes[best]++;
+                Arrays.fill(neighborCounts, 0);
+            }
+        }
+
+        int[] outOffsets = compact.getOutOffsets();
+        int[] outTargets = compact.getOutTargets();
+        long cut = 0;
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            for (int edge = outOffsets[vertex]; edge < outOffsets[vertex + 1]; edge++) {
+                if (assignment[outTargets[edge]] != assignment[vertex])
+                    cut++;
+            }
+        }
+        // An undirected graph stores each edge in both directions.
+        boolean undirected = graph instanceof UndirectedGraph;
+        cutEdges = undirected ? cut / 2 : cut;
+        totalEdges = undirected ? compact.getNumberOfEdges() / 2 : compact.getNumberOfEdges();
+        partitionSizes = sizes;
+
+        HashMap<T, Integer> result = new HashMap<>();
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            result.put(compact.getLabel(vertex), assignment[vertex]);
+        return result;
+    }
+
+    /**
+     * Retrieves the number of edges whose ends are in different partitions after the last computation. Each edge of
+     * an undirected graph is counted once.
+     * @return The number of cut edges.
+     */
+    public long getCutEdges() { return cutEdges; }
+
+    /**
+     * Retrieves the fraction of edges whose ends are in different partitions after the last computation.
+     * @return The fraction of cut edges, or 0 if the graph has no edges.
+     */
+    public double getCutFraction() { return (totalEdges == 0) ? 0 : (double)cutEdges / totalEdges; }
+
+    /**
+     * Retrieves the number of vertices in each partition after the last computation.
+     * @return An array holding the size of partition p at position p, or an empty array before the first computation.
+     */
+    public int[] getPartitionSizes() { return (partitionSizes == null) ? new int[0] : partitionSizes.clone(); }
+
+    /**
+     * Retrieves the imbalance of the last computation: the size of the largest partition divided by a perfectly even
+     * share of the vertices.
+     * @return The imbalance, which is 1 for perfectly even partitions, or 0 if there were no vertices.
+     */
+    public double getImbalance() {
+        if (partitionSizes == null)
+            return 0;
+        long total = 0;
+        int largest = 0;
+        for (int size : partitionSizes) {
+            total += size;
+            largest = Math.max(largest, size);
+        }
+        return (total == 0) ? 0 : largest / ((double)total / numberOfPartitions);
+    }
+
+    /**
+     * Orders the vertices breadth-first, ignoring edge direction, starting a new search from the lowest unvisited
+     * vertex number whenever one ends, so that each vertex tends to follow its neighbors in the stream.
+     * @param offsets The undirected neighbor offsets.
+     * @param neighbors The undirected neighbor array.
+     * @return Every vertex number, in breadth-first order.
+     */
+    private static int[] breadthFirstOrder(int[] offsets, int[] neighbors) {
+        int numberOfVertices = offsets.length - 1;
+        int[] order = new int[numberOfVertices];
+        boolean[] visited = new boolean[numberOfVertices];
+        int tail = 0;
+        for (int start = 0; start < numberOfVertices; start++) {
+            if (visited[start])
+                continue;
+            int head = tail;
+            visited[start] = true;
+            order[tail++] = start;
+            while (head < tail) {
+                int vertex = order[head++];
+                for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                    if (!visited[neighbors[edge]]) {
+                        visited[neighbors[edge]] = true;
+                        order[tail++] = neighbors[edge];
+                    }
+                }
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,82 @@
+package GraphPackage;
+
+import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * GraphQueryExecutor: An asynchronous facade over the traversal and path algorithms of a graph. Each query runs on a
+ * virtual thread under the executor's concurrency limit and the graph's lock, with the specified limits, and
+ * cancelling its future stops the traversal.
+ * @param <T> The data type of the vertex labels.
+ */
+public class GraphQueryExecutor<T> extends AsyncQueryExecutor<GraphAlgorithmsInterface<T>> {
+    /**
+     * Constructor creates a new GraphQueryExecutor whose queries run one at a time under an exclusive lock, as the
+     * traversals of DirectedGraph require.
+     * @param graph The graph to query.
+     * @param maxConcurrency The maximum number of queries that run at once; at least 1.
+     */
+    public GraphQueryExecutor(GraphAlgorithmsInterface<T> graph, int maxConcurrency) { super(graph, maxConcurrency); }
+
+    /**
+     * Constructor creates a new GraphQueryExecutor whose queries hold the specified lock while they run.
+     * @param graph The graph to query.
+     * @param maxConcurrency The maximum number of queries that run at once; at least 1.
+     * @param queryLock The lock each query holds while it runs, or null if the graph is safe to query concurrently.
+     */
+    public GraphQueryExecutor(GraphAlgorithmsInterface<T> graph, int maxConcurrency, Lock queryLock) {
+        super(graph, maxConcurrency, queryLock);
+    }
+
+    /**
+     * Retrieves the breadth-first traversal of the graph from the origin asynchronously.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @param limits The limits of the traversal, or null for no limits.
+     * @return A future completed with the labels of the vertices in breadth-first order.
+     */
+    public CompletableFuture<TraversalResult<T>> getBreadthFirstTraversal(T origin, QueryLimits limits) {
+        return submitCancellable((graph, token) -> graph.getBreadthFirstTraversal(origin, limits, token));
+    }
+
+    /**
+     * Retrieves the depth-first traversal of the graph from the origin asynchronously.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @param limits The limits of the traversal, or null for no limits.
+     * @return A future completed with the labels of the vertices in depth-first order.
+     */
+    public CompletableFuture<TraversalResult<T>> getDepthFirstTraversal(T origin, QueryLimits limits) {
+        return submitCancellable((graph, token) -> graph.getDepthFirstTraversal(origin, limits, token));
+    }
+
+    /**
+     * Finds the shortest path between two vertices asynchronously.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param limits The limits of the search, or null for no limits.
+     * @return A future completed with the labels along the path and its length.
+     */
+    public CompletableFuture<TraversalResult<T>> getShortestPath(T begin, T end, QueryLimits limits) {
+        return submitCancellable((graph, token) -> graph.getShortestPath(begin, end, limits, token));
+    }
+
+    /**
+     * Finds the least-cost path between two vertices asynchronously.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param limits The limits of the search, or null for no limits.
+     * @return A future completed with the labels along the path and its cost.
+     */
+    public CompletableFuture<TraversalResult<T>> getCheapestPath(T begin, T end, QueryLimits limits) {
+        return submitCancellable((graph, token) -> graph.getCheapestPath(begin, end, limits, token));
+    }
+
+    /**
+     * Retrieves the topological order of the graph's vertices asynchronously.
+     * @return A future completed with a stack of labels in topological order, or exceptionally with an
+     * UnsupportedOperationException if the graph has a cycle.
+     */
+    public CompletableFuture<Stack<T>> getTopologicalOrder() {
+        return submit(graph -> graph.getTopologicalOrder());
+    }
+}
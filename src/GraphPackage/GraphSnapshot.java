@@ -0,0 +1,550 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Stack;
+
+/**
+ * GraphSnapshot: An immutable version of a VersionedGraph, taken in constant time. The snapshot shares its structure
+ * with the graph and with other snapshots, and never changes, so any number of threads can run long traversals and
+ * analytics on it while the graph goes on changing. A version's memory is reclaimed by the garbage collector once
+ * neither the graph nor any snapshot shares it. Methods that would modify the graph throw
+ * UnsupportedOperationException. Paths that do not exist are reported as a length of -1 or a cost of positive
+ * infinity, with the path left unchanged.
+ * @param <T> The data type of the vertex labels.
+ */
+public class GraphSnapshot<T> implements GraphInterface<T> {
+    /** Maps each vertex label to the vertex's edges. */
+    private final PersistentHashMap<T, VertexRecord<T>> vertices;
+    /** The number of directed edges in the snapshot. */
+    private final int edgeCount;
+    /** The graph's version when the snapshot was taken. */
+    private final long version;
+    /** Indicates whether the graph is undirected, with each edge stored in both directions. */
+    private final boolean undirected;
+
+    /**
+     * Constructor creates a new GraphSnapshot.
+     * @param vertices Maps each vertex label to the vertex's edges.
+     * @param edgeCount The number of directed edges.
+     * @param version The graph's version.
+     * @param undirected True if each edge is stored in both directions.
+     */
+    GraphSnapshot(PersistentHashMap<T, VertexRecord<T>> vertices, int edgeCount, long version, boolean undirected) {
+        this.vertices = vertices;
+        this.edgeCount = edgeCount;
+        this.version = version;
+        this.undirected = undirected;
+    }
+
+    /**
+     * Retrieves the graph's version when the snapshot was taken, which increases with every change to the graph.
+     * @return The snapshot's version.
+     */
+    public long getVersion() { return version; }
+
+    /**
+     * Determines if the snapshot is of an undirected graph.
+     * @return True if every edge is stored in both directions, or false otherwise.
+     */
+    public boolean isUndirected() { return undirected; }
+
+    /**
+     * Copies the snapshot into a new mutable graph, for algorithms that require one, such as PageRank or
+     * CommunityDetection. Runtime: O(V + E).
+     * @return A new UndirectedGraph if the snapshot is of an undirected graph, or a new DirectedGraph otherwise.
+     */
+    public DirectedGraph<T> toDirectedGraph() {
+        DirectedGraph<T> copy = undirected ? new UndirectedGraph<>() : new DirectedGraph<>();
+        for (Map.Entry<T, VertexRecord<T>> vertex : vertices)
+            copy.addVertex(vertex.getKey());
+        for (Map.Entry<T, VertexRecord<T>> vertex : vertices) {
+            for (Map.Entry<T, Double> edge : vertex.getValue().outEdges)
+                copy.addEdge(vertex.getKey(), edge.getKey(), edge.getValue());
+        }
+        return copy;
+    }
+
+    /**
+     * Throws UnsupportedOperationException, since snapshots are read-only.
+     * @param vertexLabel The label object to store in the vertex.
+     * @return Never returns.
+     */
+    public boolean addVertex(T vertexLabel) { throw new UnsupportedOperationException("Graph snapshots are read-only."); }
+
+    /**
+     * Throws UnsupportedOperationException, since snapshots are read-only.
+     * @param vertexLabel The label of the vertex to remove.
+     * @return Never returns.
+     */
+    public boolean removeVertex(T vertexLabel) {
+        throw new UnsupportedOperationException("Graph snapshots are read-only.");
+    }
+
+    /**
+     * Throws UnsupportedOperationException, since snapshots are read-only.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @param edgeWeight The real value of the edge's weight.
+     * @return Never returns.
+     */
+    public boolean addEdge(T begin, T end, double edgeWeight) {
+        throw new UnsupportedOperationException("Graph snapshots are read-only.");
+    }
+
+    /**
+     * Throws UnsupportedOperationException, since snapshots are read-only.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @return Never returns.
+     */
+    public boolean addEdge(T begin, T end) { throw new UnsupportedOperationException("Graph snapshots are read-only."); }
+
+    /**
+     * Throws UnsupportedOperationException, since snapshots are read-only.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @return Never returns.
+     */
+    public boolean removeEdge(T begin, T end) {
+        throw new UnsupportedOperationException("Graph snapshots are read-only.");
+    }
+
+    /**
+     * Throws UnsupportedOperationException, since snapshots are read-only.
+     */
+    public void clear() { throw new UnsupportedOperationException("Graph snapshots are read-only."); }
+
+    /**
+     * Determines if there is an edge from one vertex to another.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @return True if the edge exists, or false otherwise.
+     */
+    public boolean hasEdge(T begin, T end) {
+        VertexRecord<T> beginRecord = vertices.get(begin);
+        return beginRecord != null && beginRecord.outEdges.containsKey(end);
+    }
+
+    /**
+     * Determines if a vertex is in the snapshot.
+     * @param vertexLabel The label object of the vertex.
+     * @return True if the vertex is in the snapshot, or false otherwise.
+     */
+    public boolean containsVertex(T vertexLabel) { return vertices.containsKey(vertexLabel); }
+
+    /**
+     * Determines if the snapshot is empty, containing no vertices.
+     * @return True if the snapshot is empty, or false otherwise.
+     */
+    public boolean isEmpty() { return vertices.isEmpty(); }
+
+    /**
+     * Retrieves the number of vertices in the snapshot.
+     * @return The number of vertices.
+     */
+    public int getNumberOfVertices() { return vertices.size(); }
+
+    /**
+     * Retrieves the number of edges in the snapshot, counting each edge of an undirected graph once.
+     * @return The number of edges.
+     */
+    public int getNumberOfEdges() { return undirected ? edgeCount / 2 : edgeCount; }
+
+    /**
+     * Retrieves a list of the labels of any neighbors of the specified vertex connected by an edge greater than or
+     * equal to the specified edge weight.
+     * @param vertexLabel The label object of the vertex.
+     * @param weightMin The minimum weight of the edges to follow.
+     * @return A list of neighbor labels, or null if the vertex is not in the snapshot.
+     */
+    public ArrayList<T> getNeighbors(T vertexLabel, double weightMin) {
+        VertexRecord<T> record = vertices.get(vertexLabel);
+        if (record == null)
+            return null;
+        ArrayList<T> neighborLabels = new ArrayList<>();
+        for (Map.Entry<T, Double> edge : record.outEdges) {
+            if (edge.getValue() >= weightMin)
+                neighborLabels.add(edge.getKey());
+        }
+        return neighborLabels;
+    }
+
+    /**
+     * Retrieves the breadth-first traversal of the snapshot from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @return A queue of labels in breadth-first order, or null if the origin is not in the snapshot.
+     */
+    public Queue<T> getBreadthFirstTraversal(T origin) {
+        if (!containsVertex(origin))
+            return null;
+        return new LinkedList<>(getBreadthFirstTraversal(origin, null, null).getLabels());
+    }
+
+    /**
+     * Retrieves the depth-first traversal of the snapshot from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @return A queue of labels in depth-first order, or null if the origin is not in the snapshot.
+     */
+    public Queue<T> getDepthFirstTraversal(T origin) {
+        if (!containsVertex(origin))
+            return null;
+        return new LinkedList<>(getDepthFirstTraversal(origin, null, null).getLabels());
+    }
+
+    /**
+     * Retrieves the topological order of the vertices, which must have no cycles. Runtime: O(V + E).
+     * @return A stack of labels in topological order, beginning with the stack's top.
+     */
+    public Stack<T> getTopologicalOrder() {
+        if (undirected)
+            throw new UnsupportedOperationException("Topological sort is illegal in an undirected graph.");
+        Stack<T> order = new Stack<>();
+        // A vertex maps to false while it is on the search path and to true once all its descendants are ordered.
+        HashMap<T, Boolean> finished = new HashMap<>();
+        Stack<T> vertexStack = new Stack<>();
+        Stack<Iterator<Map.Entry<T, Double>>> edgeStack = new Stack<>();
+        for (Map.Entry<T, VertexRecord<T>> start : vertices) {
+            if (finished.containsKey(start.getKey()))
+                continue;
+            finished.put(start.getKey(), false);
+            vertexStack.push(start.getKey());
+            edgeStack.push(start.getValue().outEdges.iterator());
+            while (!vertexStack.isEmpty()) {
+                Iterator<Map.Entry<T, Double>> edges = edgeStack.peek();
+                if (edges.hasNext()) {
+                    T nextNeighbor = edges.next().getKey();
+                    Boolean state = finished.get(nextNeighbor);
+                    if (state == null) {
+                        finished.put(nextNeighbor, false);
+                        vertexStack.push(nextNeighbor);
+                        edgeStack.push(vertices.get(nextNeighbor).outEdges.iterator());
+                    }
+                    else if (!state)
+                        throw new UnsupportedOperationException("Cannot get topological order for cyclic graph.");
+                }
+                else {
+                    T finishedVertex = vertexStack.pop();
+                    edgeStack.pop();
+                    finished.put(finishedVertex, true);
+                    order.push(finishedVertex);
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Calculates the shortest path in number of edges between two vertices.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param path A stack of labels that is empty initially; at the completion of the method, this stack contains
+     * the labels of the vertices along the shortest path, with the label of the origin vertex at the top, or is
+     * unchanged if there is no path.
+     * @return The length of the shortest path, or -1 if there is no path.
+     */
+    public int getShortestPath(T begin, T end, Stack<T> path) {
+        TraversalResult<T> result = getShortestPath(begin, end, null, null);
+        if (!result.isPathFound())
+            return -1;
+        pushPath(result.getLabels(), path);
+        return (int)result.getCost();
+    }
+
+    /**
+     * Finds the least-cost path between two vertices.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param path A stack of labels that is empty initially; at the completion of the method, this stack contains
+     * the labels of the vertices along the cheapest path, with the label of the origin vertex at the top, or is
+     * unchanged if there is no path.
+     * @return The cost of the cheapest path, or positive infinity if there is no path.
+     */
+    public double getCheapestPath(T begin, T end, Stack<T> path) {
+        TraversalResult<T> result = getCheapestPath(begin, end, null, null);
+        if (result.isPathFound())
+            pushPath(result.getLabels(), path);
+        return result.getCost();
+    }
+
+    /**
+     * Retrieves the breadth-first traversal of the snapshot from the origin, stopping early when the traversal
+     * exceeds the specified limits or is cancelled. Depth is the number of edges on the shortest path from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @param limits The limits of the traversal, or null for no limits.
+     * @param token A token that cancels the traversal, or null.
+     * @return The labels of the vertices in breadth-first order, which is empty if the origin is not in the snapshot,
+     * and whether the traversal was truncated.
+     */
+    public TraversalResult<T> getBreadthFirstTraversal(T origin, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        ArrayList<T> traversalOrder = new ArrayList<>();
+        if (containsVertex(origin) && budget.admitVertex())
+            searchBreadthFirst(origin, null, budget, traversalOrder, new HashMap<>());
+        return budget.finish(traversalOrder, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Retrieves the depth-first traversal of the snapshot from the origin, stopping early when the traversal exceeds
+     * the specified limits or is cancelled. Depth is the number of edges on the traversal's path from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @param limits The limits of the traversal, or null for no limits.
+     * @param token A token that cancels the traversal, or null.
+     * @return The labels of the vertices in depth-first order, which is empty if the origin is not in the snapshot,
+     * and whether the traversal was truncated.
+     */
+    public TraversalResult<T> getDepthFirstTraversal(T origin, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        ArrayList<T> traversalOrder = new ArrayList<>();
+        VertexRecord<T> originRecord = vertices.get(origin);
+        if (originRecord == null || !budget.admitVertex())
+            return budget.finish(traversalOrder, Double.POSITIVE_INFINITY);
+
+        HashSet<T> visited = new HashSet<>();
+        Stack<Iterator<Map.Entry<T, Double>>> edgeStack = new Stack<>();
+        visited.add(origin);
+        traversalOrder.add(origin);
+        edgeStack.push(originRecord.outEdges.iterator());
+
+        while (!edgeStack.isEmpty() && !budget.isStopped()) {
+            Iterator<Map.Entry<T, Double>> edges = edgeStack.peek();
+            T nextNeighbor = null;
+            while (nextNeighbor == null && edges.hasNext() && budget.admitEdge()) {
+                T candidate = edges.next().getKey();
+                if (!visited.contains(candidate))
+                    nextNeighbor = candidate;
+            }
+
+            if (nextNeighbor == null)
+                edgeStack.pop();
+            else if (!budget.allowsDepth(edgeStack.size()))
+                budget.markDepthCut();
+            else if (budget.admitVertex()) {
+                visited.add(nextNeighbor);
+                traversalOrder.add(nextNeighbor);
+                edgeStack.push(vertices.get(nextNeighbor).outEdges.iterator());
+            }
+        }
+        return budget.finish(traversalOrder, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Calculates the shortest path in number of edges between two vertices, stopping early when the search exceeds
+     * the specified limits or is cancelled.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param limits The limits of the search, or null for no limits.
+     * @param token A token that cancels the search, or null.
+     * @return The labels along the path from origin to destination and the path's length, or an empty path with
+     * infinite length if there is no path within the limits.
+     */
+    public TraversalResult<T> getShortestPath(T begin, T end, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        if (!containsVertex(begin) || !containsVertex(end) || !budget.admitVertex())
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+
+        HashMap<T, T> predecessors = new HashMap<>();
+        if (!searchBreadthFirst(begin, end, budget, null, predecessors))
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+        budget.clearDepthCut();
+        ArrayList<T> path = tracePath(end, predecessors);
+        return budget.finish(path, path.size() - 1);
+    }
+
+    /**
+     * Finds the least-cost path between two vertices with Dijkstra's algorithm, stopping early when the search
+     * exceeds the specified limits or is cancelled. With a maximum depth, the search does not extend the cheapest path
+     * to any vertex past that many edges.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param limits The limits of the search, or null for no limits.
+     * @param token A token that cancels the search, or null.
+     * @return The labels along the path from origin to destination and the path's cost, or an empty path with
+     * infinite cost if there is no path within the limits.
+     */
+    public TraversalResult<T> getCheapestPath(T begin, T end, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        if (!containsVertex(begin) || !containsVertex(end))
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+
+        HashMap<T, T> predecessors = new HashMap<>();
+        PriorityQueue<SearchEntry<T>> priorityQueue = new PriorityQueue<>();
+        priorityQueue.add(new SearchEntry<>(begin, 0, null, 0));
+
+        while (!priorityQueue.isEmpty() && !budget.isStopped()) {
+            SearchEntry<T> frontEntry = priorityQueue.remove();
+            T frontLabel = frontEntry.label;
+            if (predecessors.containsKey(frontLabel) || !budget.admitVertex())
+                continue;
+
+            predecessors.put(frontLabel, frontEntry.predecessor);
+            if (frontLabel.equals(end))
+                return budget.finish(tracePath(end, predecessors), frontEntry.cost);
+
+            boolean atMaxDepth = !budget.allowsDepth(frontEntry.depth + 1);
+            Iterator<Map.Entry<T, Double>> edges = vertices.get(frontLabel).outEdges.iterator();
+            while (edges.hasNext() && budget.admitEdge()) {
+                Map.Entry<T, Double> edge = edges.next();
+                if (predecessors.containsKey(edge.getKey()))
+                    continue;
+                if (atMaxDepth)
+                    budget.markDepthCut();
+                else
+                    priorityQueue.add(new SearchEntry<>(edge.getKey(), frontEntry.cost + edge.getValue(), frontLabel,
+                            frontEntry.depth + 1));
+            }
+        }
+        return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Retrieves the map of vertex records the snapshot was taken from, for the graph to derive its next version from.
+     * @return The vertex records.
+     */
+    PersistentHashMap<T, VertexRecord<T>> getVertexRecords() { return vertices; }
+
+    /**
+     * Retrieves the number of directed edges in the snapshot, counting each edge of an undirected graph twice.
+     * @return The number of directed edges.
+     */
+    int getDirectedEdgeCount() { return edgeCount; }
+
+    /**
+     * Searches breadth-first from the origin within the budget. The origin must already be admitted to the budget.
+     * @param origin The label of the origin vertex.
+     * @param end The label of the vertex at which to stop, or null to search every reachable vertex.
+     * @param budget The budget of the search.
+     * @param traversalOrder The list to add the label of each visited vertex to, or null.
+     * @param predecessors Filled with the label each visited vertex was reached from, which is null for the origin.
+     * @return True if the end vertex was reached, or false otherwise.
+     */
+    private boolean searchBreadthFirst(T origin, T end, QueryBudget budget, ArrayList<T> traversalOrder,
+                                       HashMap<T, T> predecessors) {
+        HashMap<T, Integer> depths = new HashMap<>();
+        depths.put(origin, 0);
+        predecessors.put(origin, null);
+        if (traversalOrder != null)
+            traversalOrder.add(origin);
+        if (origin.equals(end))
+            return true;
+
+        Queue<T> vertexQueue = new LinkedList<>();
+        vertexQueue.add(origin);
+        while (!vertexQueue.isEmpty()) {
+            T frontLabel = vertexQueue.remove();
+            int frontDepth = depths.get(frontLabel);
+            boolean atMaxDepth = !budget.allowsDepth(frontDepth + 1);
+            for (Map.Entry<T, Double> edge : vertices.get(frontLabel).outEdges) {
+                if (!budget.admitEdge())
+                    return false;
+                T nextNeighbor = edge.getKey();
+                if (depths.containsKey(nextNeighbor))
+                    continue;
+                if (atMaxDepth) {
+                    budget.markDepthCut();
+                    break;
+                }
+                if (!budget.admitVertex())
+                    return false;
+
+                depths.put(nextNeighbor, frontDepth + 1);
+                predecessors.put(nextNeighbor, frontLabel);
+                if (traversalOrder != null)
+                    traversalOrder.add(nextNeighbor);
+                if (nextNeighbor.equals(end))
+                    return true;
+                vertexQueue.add(nextNeighbor);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Follows predecessors back from a vertex reached by a search to build the path from the search's origin.
+     * @param end The label of the last vertex of the path.
+     * @param predecessors The label each reached vertex was reached from, which is null for the origin.
+     * @return The labels along the path, from origin to end vertex.
+     */
+    private ArrayList<T> tracePath(T end, HashMap<T, T> predecessors) {
+        ArrayList<T> path = new ArrayList<>();
+        for (T label = end; label != null; label = predecessors.get(label))
+            path.add(label);
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Pushes a path onto a stack so that its first label is on top.
+     * @param labels The labels along the path, from origin to destination.
+     * @param path The stack to push the labels onto.
+     */
+    private void pushPath(List<T> labels, Stack<T> path) {
+        for (int index = labels.size() - 1; index >= 0; index--)
+            path.push(labels.get(index));
+    }
+
+    /**
+     * VertexRecord: The immutable edges of one vertex in one version of a graph.
+     * @param <T> The data type of the vertex labels.
+     */
+    static final class VertexRecord<T> {
+        /** Maps the end vertex of each edge leaving the vertex to the edge's weight. */
+        final PersistentHashMap<T, Double> outEdges;
+        /** Maps the origin vertex of each edge pointing to the vertex to the edge's weight. */
+        final PersistentHashMap<T, Double> inEdges;
+
+        /**
+         * Constructor creates a new VertexRecord.
+         * @param outEdges The edges leaving the vertex.
+         * @param inEdges The edges pointing to the vertex.
+         */
+        VertexRecord(PersistentHashMap<T, Double> outEdges, PersistentHashMap<T, Double> inEdges) {
+            this.outEdges = outEdges;
+            this.inEdges = inEdges;
+        }
+    }
+
+    /**
+     * SearchEntry: A priority queue entry for the cheapest path search, recording how a vertex was reached.
+     * @param <T> The data type of the vertex labels.
+     */
+    private static final class SearchEntry<T> implements Comparable<SearchEntry<T>> {
+        /** The label of the vertex reached. */
+        private final T label;
+        /** The cost of the path to the vertex. */
+        private final double cost;
+        /** The label of the vertex the path reached this vertex from, or null for the origin. */
+        private final T predecessor;
+        /** The number of edges on the path to the vertex. */
+        private final int depth;
+
+        /**
+         * Constructor creates a new SearchEntry.
+         * @param label The label of the vertex reached.
+         * @param cost The cost of the path to the vertex.
+         * @param predecessor The label of the vertex the path reached this vertex from, or null for the origin.
+         * @param depth The number of edges on the path to the vertex.
+         */
+        private SearchEntry(T label, double cost, T predecessor, int depth) {
+            this.label = label;
+            this.cost = cost;
+            this.predecessor = predecessor;
+            this.depth = depth;
+        }
+
+        /**
+         * Compares the cost of this entry's path to another's.
+         * @param otherEntry The other entry.
+         * @return A negative number, zero, or a positive number as this path is cheaper, equal, or more expensive.
+         */
+        public int compareTo(SearchEntry<T> otherEntry) { return Double.compare(cost, otherEntry.cost); }
+    }
+}
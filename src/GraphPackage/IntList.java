@@ -0,0 +1,63 @@
+package GraphPackage;
+
+import java.util.Arrays;
+
+/**
+ * IntList: A growable list of primitive ints, used by graph algorithms that would otherwise box every vertex index.
+ */
+class IntList {
+    /** The default number of elements the list can hold before it must grow. */
+    private static final int DEFAULT_CAPACITY = 4;
+    /** Stores the elements of the list in its first size positions. */
+    private int[] elements;
+    /** The number of elements in the list. */
+    private int size;
+
+    /**
+     * Constructor creates a new, empty IntList with the default capacity.
+     */
+    IntList() { this(DEFAULT_CAPACITY); }
+
+    /**
+     * Constructor creates a new, empty IntList with the specified capacity.
+     * @param initialCapacity The number of elements the list can hold before it must grow.
+     */
+    IntList(int initialCapacity) {
+        elements = new int[Math.max(1, initialCapacity)];
+        size = 0;
+    }
+
+    /**
+     * Adds an element to the end of the list, growing the list if it is full.
+     * @param element The element to add.
+     */
+    void add(int element) {
+        if (size == elements.length)
+            elements = Arrays.copyOf(elements, size * 2);
+        elements[size++] = element;
+    }
+
+    /**
+     * Retrieves the element at the specified position.
+     * @param position The position of the element, from 0 to size() - 1.
+     * @return The element at the specified position.
+     */
+    int get(int position) { return elements[position]; }
+
+    /**
+     * Retrieves the number of elements in the list.
+     * @return The number of elements in the list.
+     */
+    int size() { return size; }
+
+    /**
+     * Removes all elements from the list, keeping its capacity.
+     */
+    void clear() { size = 0; }
+
+    /**
+     * Copies the elements of the list into a new array of exactly the list's size.
+     * @return A new array containing the elements of the list, in order.
+     */
+    int[] toArray() { return Arrays.copyOf(elements, size); }
+}
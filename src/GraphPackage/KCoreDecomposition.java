@@ -0,0 +1,194 @@
+package GraphPackage;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * KCoreDecomposition: Computes the core number of every vertex of a graph, ignoring edge direction. The k-core of a
+ * graph is the largest subgraph in which every vertex has at least k neighbors, and a vertex's core number is the
+ * largest k for which it is in the k-core. The sequential algorithm is Batagelj and Zaversnik's bucket algorithm,
+ * which peels vertices in order of current degree in linear time. The parallel algorithm repeatedly lowers each
+ * vertex's estimate to the h-index of its neighbors' estimates until nothing changes, which converges to the same core
+ * numbers.
+ * @param <T> The data type of the vertex labels.
+ */
+public class KCoreDecomposition<T> {
+    /** The graph to decompose. */
+    private final DirectedGraph<T> graph;
+
+    /**
+     * Constructor creates a new KCoreDecomposition for the specified graph.
+     * @param graph The graph to decompose.
+     */
+    public KCoreDecomposition(DirectedGraph<T> graph) { this.graph = graph; }
+
+    /**
+     * Computes the core number of every vertex with the sequential bucket algorithm. Runtime: O(V + E).
+     * @return A map from each vertex label to its core number.
+     */
+    public HashMap<T, Integer> computeCoreNumbers() {
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        return toMap(compact, bucketCores(compact));
+    }
+
+    /**
+     * Computes the core number of every vertex with the parallel h-index algorithm. Each round is O(V + E) divided
+     * among the threads of the common fork-join pool; the number of rounds is usually small.
+     * @return A map from each vertex label to its core number.
+     */
+    public HashMap<T, Integer> computeCoreNumbersParallel() {
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        return toMap(compact, hIndexCores(compact));
+    }
+
+    /**
+     * Retrieves the degeneracy of the graph, the largest core number of any vertex.
+     * @return The degeneracy of the graph, or 0 if it has no edges.
+     */
+    public int getDegeneracy() {
+        int degeneracy = 0;
+        for (int core : bucketCores(new CompactGraph<>(graph)))
+            degeneracy = Math.max(degeneracy, core);
+        return degeneracy;
+    }
+
+    /**
+     * Builds a new graph containing the k-core: the vertices with a core number of at least k, and the edges between
+     * them with their weights. The new graph is undirected if the decomposed graph is.
+     * @param k The minimum core number of the vertices to keep.
+     * @return A new graph containing the k-core, which is empty if no vertex has a core number of k.
+     */
+    public DirectedGraph<T> extractCore(int k) {
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        int[] cores = bucketCores(compact);
+        DirectedGraph<T> core = (graph instanceof UndirectedGraph) ? new UndirectedGraph<>() : new DirectedGraph<>();
+        for (int vertex = 0; vertex < cores.length; vertex++) {
+            if (cores[vertex] >= k)
+                core.addVertex(compact.getLabel(vertex));
+        }
+
+        int[] offsets = compact.getOutOffsets();
+        int[] targets = compact.getOutTargets();
+        double[] weights = compact.getOutWeights();
+        for (int vertex = 0; vertex < cores.length; vertex++) {
+            if (cores[vertex] < k)
+                continue;
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                if (cores[targets[edge]] >= k)
+                    core.addEdge(compact.getLabel(vertex), compact.getLabel(targets[edge]), weights[edge]);
+            }
+        }
+        return core;
+    }
+
+    /**
+     * Computes core numbers by peeling vertices in order of current degree, keeping the vertices sorted by degree in
+     * an array of buckets so that each removal and degree decrease takes constant time.
+     * @param compact The graph to decompose.
+     * @return The core number of each vertex number.
+     */
+    private static int[] bucketCores(CompactGraph<?> compact) {
+        int numberOfVertices = compact.size();
+        int[] offsets = compact.getUndirectedOffsets();
+        int[] neighbors = compact.getUndirectedTargets();
+        int[] degree = new int[numberOfVertices];
+        int maxDegree = 0;
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            degree[vertex] = offsets[vertex + 1] - offsets[vertex];
+            maxDegree = Math.max(maxDegree, degree[vertex]);
+        }
+
+        // bucketStart[d] is the position in sorted of the first vertex with current degree d.
+        int[] bucketStart = new int[maxDegree + 2];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            bucketStart[degree[vertex] + 1]++;
+        for (int d = 0; d <= maxDegree; d++)
+            bucketStart[d + 1] += bucketStart[d];
+        int[] sorted = new int[numberOfVertices];
+        int[] position = new int[numberOfVertices];
+        int[] fill = bucketStart.clone();
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            position[vertex] = fill[degree[vertex]]++;
+            sorted[position[vertex]] = vertex;
+        }
+
+        for (int next = 0; next < numberOfVertices; next++) {
+            int vertex = sorted[next];
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                int neighbor = neighbors[edge];
+                if (degree[neighbor] > degree[vertex]) {
+                    // Swap the neighbor to the front of its bucket, then shrink the bucket past it.
+                    int neighborDegree = degree[neighbor];
+                    int front = bucketStart[neighborDegree];
+                    int frontVertex = sorted[front];
+                    if (frontVertex != neighbor) {
+                        sorted[position[neighbor]] = frontVertex;
+                        position[frontVertex] = position[neighbor];
+                        sorted[front] = neighbor;
+                        position[neighbor] = front;
+                    }
+                    bucketStart[neighborDegree]++;
+                    degree[neighbor]--;
+                }
+            }
+        }
+        return degree;
+    }
+
+    /**
+     * Computes core numbers by starting each vertex's estimate at its degree and lowering it, in parallel rounds, to
+     * the largest h such that at least h neighbors have an estimate of at least h. Estimates only decrease, and a
+     * round with no change means every estimate is a fixed point, which is the core number.
+     * @param compact The graph to decompose.
+     * @return The core number of each vertex number.
+     */
+    private static int[] hIndexCores(CompactGraph<?> compact) {
+        int numberOfVertices = compact.size();
+        int[] offsets = compact.getUndirectedOffsets();
+        int[] neighbors = compact.getUndirectedTargets();
+        int[] estimate = new int[numberOfVertices];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            estimate[vertex] = offsets[vertex + 1] - offsets[vertex];
+
+        AtomicBoolean changed = new AtomicBoolean(true);
+        while (changed.get()) {
+            changed.set(false);
+            IntStream.range(0, numberOfVertices).parallel().forEach(vertex -> {
+                int current = estimate[vertex];
+                if (current == 0)
+                    return;
+                int[] count = new int[current + 1];
+                for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++)
+                    count[Math.min(current, estimate[neighbors[edge]])]++;
+
+                int atLeast = 0;
+                int hIndex = current;
+                while (hIndex > 0) {
+                    atLeast += count[hIndex];
+                    if (atLeast >= hIndex)
+                        break;
+                    hIndex--;
+                }
+                if (hIndex < current) {
+                    estimate[vertex] = hIndex;
+                    changed.set(true);
+                }
+            });
+        }
+        return estimate;
+    }
+
+    /**
+     * Converts an array of core numbers into a map keyed by vertex label.
+     * @param compact The graph the core numbers belong to.
+     * @param cores The core number of each vertex number.
+     * @return A map from each vertex label to its core number.
+     */
+    private HashMap<T, Integer> toMap(CompactGraph<T> compact, int[] cores) {
+        HashMap<T, Integer> result = new HashMap<>();
+        for (int vertex = 0; vertex < cores.length; vertex++)
+            result.put(compact.getLabel(vertex), cores[vertex]);
+        return result;
+    }
+}
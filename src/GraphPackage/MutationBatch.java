@@ -0,0 +1,120 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+
+/**
+ * MutationBatch: A read-only window onto consecutive changes in a mutation stream's buffer, handed to each listener
+ * without copying. Changes are numbered from 0 in the order they were made. An edge change describes one directed
+ * edge, so a change to an edge of an undirected graph appears as two changes, one per direction. Removing a vertex
+ * appears as the removal of each of its edges followed by the removal of the vertex, and clearing the graph appears
+ * as a single CLEARED change.
+ * @param <T> The data type of the vertex labels.
+ */
+public class MutationBatch<T> {
+    /**
+     * Type: The kind of change made to the graph.
+     */
+    public enum Type {
+        /** A vertex was added; getBegin is its label. */
+        VERTEX_ADDED,
+        /** A vertex was removed, after each of its edges; getBegin is its label. */
+        VERTEX_REMOVED,
+        /** An edge was added; getBegin and getEnd label its vertices and getWeight is its weight. */
+        EDGE_ADDED,
+        /** An edge was removed; getBegin and getEnd label its vertices and getWeight is its weight. */
+        EDGE_REMOVED,
+        /** Every vertex and edge was removed. */
+        CLEARED
+    }
+
+    /** The kinds of change, for turning the stored ordinals back into types. */
+    private static final Type[] TYPES = Type.values();
+
+    /** The stream's buffer of change types, stored as ordinals. */
+    private final byte[] types;
+    /** The stream's buffer of vertex labels and edge origin labels. */
+    private final ArrayList<T> begins;
+    /** The stream's buffer of edge end labels. */
+    private final ArrayList<T> ends;
+    /** The stream's buffer of edge weights. */
+    private final double[] weights;
+    /** The stream's buffer of graph versions after each change. */
+    private final long[] versions;
+    /** The position in the buffers of the batch's first change. */
+    private final int offset;
+    /** The number of changes in the batch. */
+    private final int size;
+
+    /**
+     * Constructor creates a new MutationBatch over a range of a mutation stream's buffers.
+     * @param types The buffer of change types, stored as ordinals.
+     * @param begins The buffer of vertex labels and edge origin labels.
+     * @param ends The buffer of edge end labels.
+     * @param weights The buffer of edge weights.
+     * @param versions The buffer of graph versions after each change.
+     * @param offset The position in the buffers of the batch's first change.
+     * @param size The number of changes in the batch.
+     */
+    MutationBatch(byte[] types, ArrayList<T> begins, ArrayList<T> ends, double[] weights, long[] versions, int offset,
+                  int size) {
+        this.types = types;
+        this.begins = begins;
+        this.ends = ends;
+        this.weights = weights;
+        this.versions = versions;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     * Retrieves the number of changes in the batch.
+     * @return The number of changes.
+     */
+    public int size() { return size; }
+
+    /**
+     * Retrieves the kind of a change.
+     * @param index The number of the change, from 0.
+     * @return The kind of change.
+     */
+    public Type getType(int index) { return TYPES[types[position(index)]]; }
+
+    /**
+     * Retrieves the label of the vertex added or removed, or of the origin vertex of the edge added or removed.
+     * @param index The number of the change, from 0.
+     * @return The label, or null for a CLEARED change.
+     */
+    public T getBegin(int index) { return begins.get(position(index)); }
+
+    /**
+     * Retrieves the label of the end vertex of the edge added or removed.
+     * @param index The number of the change, from 0.
+     * @return The label, or null for a change that is not to an edge.
+     */
+    public T getEnd(int index) { return ends.get(position(index)); }
+
+    /**
+     * Retrieves the weight of the edge added or removed.
+     * @param index The number of the change, from 0.
+     * @return The edge weight, or 0 for a change that is not to an edge.
+     */
+    public double getWeight(int index) { return weights[position(index)]; }
+
+    /**
+     * Retrieves the graph's mutation version just after a change was made.
+     * @param index The number of the change, from 0.
+     * @return The graph's version after the change.
+     */
+    public long getVersion(int index) { return versions[position(index)]; }
+
+    /**
+     * Converts the number of a change in the batch to its position in the stream's buffers.
+     * @param index The number of the change, from 0.
+     * @return The change's position in the buffers.
+     */
+    private int position(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Change " + index + " is not in a batch of " + size + ".");
+        return offset + index;
+    }
+}
@@ -0,0 +1,281 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MutationStream: Delivers the changes made to a graph to registered listeners, so structures derived from the graph
+ * can update themselves incrementally rather than being rebuilt. Each graph has one stream, retrieved with
+ * DirectedGraph.getMutationStream. While no listener is registered, the graph records nothing, so an unused stream
+ * costs a single check per change.
+ * <p>
+ * Changes are recorded into a ring buffer divided into segments of one batch each, and a batch is delivered when its
+ * segment fills or flush() is called. By default batches hold one change and are delivered synchronously, so
+ * listeners see each change before the method that made it returns, and an exception thrown by a listener propagates
+ * to the caller. With asynchronous delivery, batches are delivered in order by a single virtual thread directly from
+ * the ring buffer, while the graph goes on recording into the next segment; when every segment is waiting for
+ * delivery, the next change waits for a segment to be freed. Listener exceptions are then counted rather than thrown.
+ * <p>
+ * Like the graph, the stream is not safe to change from several threads at once: changes, flush() and the settings
+ * are called from the thread that changes the graph.
+ * @param <T> The data type of the vertex labels.
+ */
+public class MutationStream<T> implements AutoCloseable {
+    /** The default number of changes per batch. */
+    public static final int DEFAULT_BATCH_SIZE = 1;
+    /** The default number of ring buffer segments, which bounds the batches awaiting asynchronous delivery. */
+    public static final int DEFAULT_SEGMENTS = 4;
+
+    /** The listeners changes are delivered to. */
+    private final CopyOnWriteArrayList<GraphMutationListener<T>> listeners;
+    /** The maximum number of changes per batch. */
+    private int batchSize;
+    /** The number of segments of the ring buffer. */
+    private int segments;
+    /** The ring buffer of change types, stored as ordinals. */
+    private byte[] types;
+    /** The ring buffer of vertex labels and edge origin labels. */
+    private ArrayList<T> begins;
+    /** The ring buffer of edge end labels. */
+    private ArrayList<T> ends;
+    /** The ring buffer of edge weights. */
+    private double[] weights;
+    /** The ring buffer of graph versions after each change. */
+    private long[] versions;
+    /** The segment changes are being recorded into. */
+    private int currentSegment;
+    /** The number of changes recorded into the current segment. */
+    private int pending;
+    /** Delivers batches asynchronously on a virtual thread, or null if delivery is synchronous. */
+    private ExecutorService dispatcher;
+    /** Grants a permit for each segment free to record into, other than the current segment. */
+    private Semaphore freeSegments;
+    /** The number of changes recorded. */
+    private long recorded;
+    /** The number of batches delivered. */
+    private final AtomicLong deliveredBatches;
+    /** The number of deliveries to a listener that threw an exception during asynchronous delivery. */
+    private final AtomicLong failedDeliveries;
+
+    /**
+     * Constructor creates a new MutationStream with no listeners, delivering each change synchronously.
+     */
+    MutationStream() {
+        listeners = new CopyOnWriteArrayList<>();
+        batchSize = DEFAULT_BATCH_SIZE;
+        segments = DEFAULT_SEGMENTS;
+        dispatcher = null;
+        recorded = 0;
+        deliveredBatches = new AtomicLong();
+        failedDeliveries = new AtomicLong();
+        allocateBuffers();
+    }
+
+    /**
+     * Registers a listener to receive every change made from now on.
+     * @param listener The listener.
+     */
+    public void addListener(GraphMutationListener<T> listener) {
+        if (listener == null)
+            throw new IllegalArgumentException("Listener must not be null.");
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops delivering changes to a listener. Changes already recorded are delivered to the remaining listeners.
+     * @param listener The listener.
+     * @return True if the listener was registered, or false otherwise.
+     */
+    public boolean removeListener(GraphMutationListener<T> listener) { return listeners.remove(listener); }
+
+    /**
+     * Determines if any listener is registered, and so whether the graph records its changes.
+     * @return True if at least one listener is registered, or false otherwise.
+     */
+    public boolean isActive() { return !listeners.isEmpty(); }
+
+    /**
+     * Sets the maximum number of changes per batch, after delivering any recorded changes.
+     * @param batchSize The maximum number of changes per batch; at least 1.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        awaitDelivery();
+        this.batchSize = batchSize;
+        allocateBuffers();
+    }
+
+    /**
+     * Retrieves the maximum number of changes per batch.
+     * @return The batch size.
+     */
+    public int getBatchSize() { return batchSize; }
+
+    /**
+     * Sets the number of segments of the ring buffer, which bounds how many batches may await asynchronous delivery
+     * before the graph waits, after delivering any recorded changes.
+     * @param segments The number of segments; at least 1.
+     */
+    public void setSegments(int segments) {
+        if (segments < 1)
+            throw new IllegalArgumentException("Number of segments must be at least 1.");
+        awaitDelivery();
+        this.segments = segments;
+        allocateBuffers();
+    }
+
+    /**
+     * Retrieves the number of segments of the ring buffer.
+     * @return The number of segments.
+     */
+    public int getSegments() { return segments; }
+
+    /**
+     * Switches between synchronous and asynchronous delivery, after delivering any recorded changes.
+     * @param asynchronous True to deliver batches on a virtual thread, or false to deliver them on the thread that
+     * fills them.
+     */
+    public void setAsynchronous(boolean asynchronous) {
+        if (asynchronous == (dispatcher != null))
+            return;
+        awaitDelivery();
+        if (asynchronous)
+            dispatcher = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("graph-mutations").factory());
+        else {
+            dispatcher.close();
+            dispatcher = null;
+        }
+        allocateBuffers();
+    }
+
+    /**
+     * Determines if batches are delivered asynchronously.
+     * @return True if batches are delivered on a virtual thread, or false if on the thread that fills them.
+     */
+    public boolean isAsynchronous() { return dispatcher != null; }
+
+    /**
+     * Delivers the changes recorded so far as a batch, without waiting for asynchronous delivery to finish.
+     */
+    public void flush() {
+        if (pending == 0)
+            return;
+        MutationBatch<T> batch = new MutationBatch<>(types, begins, ends, weights, versions,
+                currentSegment * batchSize, pending);
+        pending = 0;
+        if (dispatcher == null) {
+            deliver(batch, false);
+            return;
+        }
+        Semaphore segmentPermits = freeSegments;
+        dispatcher.execute(() -> {
+            try {
+                deliver(batch, true);
+            } finally {
+                segmentPermits.release();
+            }
+        });
+        currentSegment = (currentSegment + 1) % segments;
+        segmentPermits.acquireUninterruptibly();
+    }
+
+    /**
+     * Delivers the changes recorded so far and waits until every batch has been delivered.
+     */
+    public void awaitDelivery() {
+        flush();
+        if (dispatcher != null) {
+            freeSegments.acquireUninterruptibly(segments - 1);
+            freeSegments.release(segments - 1);
+        }
+    }
+
+    /**
+     * Retrieves the number of changes recorded since the stream was created.
+     * @return The number of changes recorded.
+     */
+    public long getRecordedCount() { return recorded; }
+
+    /**
+     * Retrieves the number of batches delivered since the stream was created.
+     * @return The number of batches delivered.
+     */
+    public long getDeliveredBatchCount() { return deliveredBatches.get(); }
+
+    /**
+     * Retrieves the number of times a listener threw an exception during asynchronous delivery.
+     * @return The number of failed deliveries.
+     */
+    public long getFailedDeliveryCount() { return failedDeliveries.get(); }
+
+    /**
+     * Delivers any recorded changes, waiting for asynchronous delivery to finish, and returns to synchronous delivery.
+     */
+    public void close() {
+        setAsynchronous(false);
+        flush();
+    }
+
+    /**
+     * Records a change, delivering the batch if its segment is full.
+     * @param type The kind of change.
+     * @param begin The label of the vertex, or of the edge's origin vertex, or null.
+     * @param end The label of the edge's end vertex, or null.
+     * @param edgeWeight The weight of the edge, or 0.
+     * @param version The graph's version after the change.
+     */
+    void record(MutationBatch.Type type, T begin, T end, double edgeWeight, long version) {
+        int slot = currentSegment * batchSize + pending;
+        types[slot] = (byte)type.ordinal();
+        begins.set(slot, begin);
+        ends.set(slot, end);
+        weights[slot] = edgeWeight;
+        versions[slot] = version;
+        pending++;
+        recorded++;
+        if (pending == batchSize)
+            flush();
+    }
+
+    /**
+     * Hands a batch to every listener.
+     * @param batch The batch.
+     * @param asynchronous True to count listener exceptions rather than throw them.
+     */
+    private void deliver(MutationBatch<T> batch, boolean asynchronous) {
+        for (GraphMutationListener<T> listener : listeners) {
+            if (!asynchronous)
+                listener.mutationsApplied(batch);
+            else {
+                try {
+                    listener.mutationsApplied(batch);
+                } catch (RuntimeException exception) {
+                    failedDeliveries.incrementAndGet();
+                }
+            }
+        }
+        deliveredBatches.incrementAndGet();
+    }
+
+    /**
+     * Allocates the ring buffer for the current batch size and number of segments. Every batch must have been
+     * delivered.
+     */
+    private void allocateBuffers() {
+        int capacity = dispatcher == null ? batchSize : Math.multiplyExact(batchSize, segments);
+        types = new byte[capacity];
+        begins = new ArrayList<>(Collections.nCopies(capacity, null));
+        ends = new ArrayList<>(Collections.nCopies(capacity, null));
+        weights = new double[capacity];
+        versions = new long[capacity];
+        currentSegment = 0;
+        pending = 0;
+        freeSegments = new Semaphore(dispatcher == null ? 0 : segments - 1);
+    }
+}
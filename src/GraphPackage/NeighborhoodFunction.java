@@ -0,0 +1,383 @@
+package GraphPackage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.stream.IntStream;
+
+/**
+ * NeighborhoodFunction: Estimates how many vertices each vertex can reach within a number of hops, and the
+ * neighborhood function of the whole graph, with the HyperANF algorithm. Every vertex keeps a HyperLogLog counter, an
+ * array of small registers that estimates the size of a set from the hashes of its members. A vertex's counter starts
+ * with only the vertex itself, and each round replaces it with the union of its own counter and the counters of the
+ * vertices its edges point to, which is a register-wise maximum. After t rounds each counter estimates the number of
+ * vertices within t hops.
+ * <p>
+ * Memory is two register arrays of V * 2^registerBits bytes, swapped between rounds, so it grows with the number of
+ * vertices rather than the number of pairs. Vertices are updated in parallel, and a vertex is only recomputed when a
+ * counter it reads changed in the previous round. The relative standard error of each estimate is about
+ * 1.04 / sqrt(2^registerBits).
+ * @param <T> The data type of the vertex labels.
+ */
+public class NeighborhoodFunction<T> {
+    /** The default number of bits of each hash used to choose a register. */
+    public static final int DEFAULT_REGISTER_BITS = 7;
+    /** The default maximum number of rounds computed by compute(). */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /** The graph to estimate neighborhoods in. */
+    private final DirectedGraph<T> graph;
+    /** The number of bits of each hash used to choose a register; each counter has 2^registerBits registers. */
+    private int registerBits;
+    /** The maximum number of rounds computed by compute(). */
+    private int maxIterations;
+    /** Stores the estimated number of pairs within t hops of each other at position t, from the last compute(). */
+    private double[] neighborhoodFunction;
+    /** The compact copy of the graph the cached reach estimates belong to. */
+    private CompactGraph<T> reachGraph;
+    /** The number of hops the cached reach estimates are for. */
+    private int reachHops;
+    /** The register bits the cached reach estimates were computed with. */
+    private int reachRegisterBits;
+    /** Stores the estimated number of vertices within reachHops hops of each vertex number. */
+    private double[] reachEstimates;
+
+    /**
+     * Constructor creates a new NeighborhoodFunction estimator for the specified graph with the default settings.
+     * @param graph The graph to estimate neighborhoods in.
+     */
+    public NeighborhoodFunction(DirectedGraph<T> graph) {
+        this.graph = graph;
+        registerBits = DEFAULT_REGISTER_BITS;
+        maxIterations = DEFAULT_MAX_ITERATIONS;
+    }
+
+    /**
+     * Sets the number of hash bits used to choose a register. Each additional bit doubles the memory used and divides
+     * the error by about the square root of 2.
+     * @param newRegisterBits The number of register bits, from 4 to 16.
+     */
+    public void setRegisterBits(int newRegisterBits) {
+        if (newRegisterBits < 4 || newRegisterBits > 16)
+            throw new IllegalArgumentException("Register bits must be from 4 to 16.");
+        registerBits = newRegisterBits;
+    }
+
+    /**
+     * Sets the maximum number of rounds computed by compute(), which stops early once no counter changes.
+     * @param newMaxIterations The maximum number of rounds; at least 1.
+     */
+    public void setMaxIterations(int newMaxIterations) {
+        if (newMaxIterations < 1)
+            throw new IllegalArgumentException("Maximum iterations must be at least 1.");
+        maxIterations = newMaxIterations;
+    }
+
+    /**
+     * Retrieves the estimated number of vertices each vertex can reach within the specified number of hops, counting
+     * itself. Runtime: O(hops * (V + E) * 2^registerBits), divided among the threads of the common fork-join pool.
+     * @param hops The number of hops; at least 0.
+     * @return A map from each vertex label to its estimated reach.
+     */
+    public HashMap<T, Double> computeReachEstimates(int hops) {
+        updateReachEstimates(hops);
+        HashMap<T, Double> result = new HashMap<>();
+        for (int vertex = 0; vertex < reachEstimates.length; vertex++)
+            result.put(reachGraph.getLabel(vertex), reachEstimates[vertex]);
+        return result;
+    }
+
+    /**
+     * Retrieves the estimated number of vertices one vertex can reach within the specified number of hops, counting
+     * itself. The estimates of every vertex are computed together and kept until the graph changes or a different
+     * number of hops is asked for, so repeated queries are answered without another computation.
+     * @param vertexLabel The label object of the vertex.
+     * @param hops The number of hops; at least 0.
+     * @return The vertex's estimated reach, or 0 if it is not in the graph.
+     */
+    public double getReachEstimate(T vertexLabel, int hops) {
+        updateReachEstimates(hops);
+        int vertex = reachGraph.indexOf(vertexLabel);
+        return (vertex < 0) ? 0 : reachEstimates[vertex];
+    }
+
+    /**
+     * Computes the neighborhood function of the graph, running rounds until no counter changes or the maximum number
+     * of rounds is reached. Runtime: O(rounds * (V + E) * 2^registerBits), divided among the threads of the common
+     * fork-join pool.
+     */
+    public void compute() {
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        int numberOfVertices = compact.size();
+        int[] offsets = compact.getOutOffsets();
+        int[] targets = compact.getOutTargets();
+        byte[] current = initialCounters(numberOfVertices);
+        byte[] next = new byte[current.length];
+        double[] estimates = new double[numberOfVertices];
+        boolean[] changed = new boolean[numberOfVertices];
+        boolean[] nextChanged = new boolean[numberOfVertices];
+        Arrays.fill(changed, true);
+
+        double[] function = new double[maxIterations + 1];
+        estimateAll(current, estimates);
+        function[0] = sum(estimates);
+
+        int round = 0;
+        boolean anyChanged = true;
+        while (anyChanged && round < maxIterations) {
+            anyChanged = advance(offsets, targets, current, next, changed, nextChanged, estimates);
+            byte[] tempCounters = current;
+            current = next;
+            next = tempCounters;
+            boolean[] tempChanged = changed;
+            changed = nextChanged;
+            nextChanged = tempChanged;
+            round++;
+            function[round] = Math.max(function[round - 1], sum(estimates));
+        }
+
+        // The last round changed nothing, so it adds no distance to the function.
+        if (!anyChanged && round > 0)
+            round--;
+        neighborhoodFunction = Arrays.copyOf(function, round + 1);
+    }
+
+    /**
+     * Retrieves the neighborhood function from the last computation: the estimated number of ordered pairs of
+     * vertices (x, y) such that y is within t hops of x, including each vertex paired with itself.
+     * @return An array holding the estimated number of pairs within t hops at position t.
+     */
+    public double[] getNeighborhoodFunction() { return requireComputed().clone(); }
+
+    /**
+     * Retrieves the number of rounds after which the last computation's counters stopped changing, an estimate of
+     * the largest distance between two connected vertices.
+     * @return The number of rounds that changed a counter.
+     */
+    public int getIterations() { return requireComputed().length - 1; }
+
+    /**
+     * Retrieves the distance distribution from the last computation: the estimated fraction of pairs of distinct
+     * vertices connected by a path whose shortest path has exactly t edges.
+     * @return An array holding the fraction of connected pairs at distance t at position t, where position 0 is 0.
+     */
+    public double[] getDistanceDistribution() {
+        double[] function = requireComputed();
+        double[] distribution = new double[function.length];
+        double connectedPairs = function[function.length - 1] - function[0];
+        if (connectedPairs <= 0)
+            return distribution;
+        for (int t = 1; t < function.length; t++)
+            distribution[t] = (function[t] - function[t - 1]) / connectedPairs;
+        return distribution;
+    }
+
+    /**
+     * Retrieves the estimated average shortest path length between pairs of distinct vertices connected by a path.
+     * @return The average distance, or 0 if no two distinct vertices are connected.
+     */
+    public double getAverageDistance() {
+        double[] distribution = getDistanceDistribution();
+        double average = 0;
+        for (int t = 1; t < distribution.length; t++)
+            average += t * distribution[t];
+        return average;
+    }
+
+    /**
+     * Retrieves the estimated effective diameter: the number of hops within which 90 percent of the connected pairs
+     * of distinct vertices lie.
+     * @return The effective diameter, or 0 if no two distinct vertices are connected.
+     */
+    public double getEffectiveDiameter() { return getEffectiveDiameter(0.9); }
+
+    /**
+     * Retrieves the estimated number of hops within which the specified fraction of the connected pairs of distinct
+     * vertices lie, interpolating linearly between whole numbers of hops.
+     * @param fraction The fraction of connected pairs, greater than 0 and at most 1.
+     * @return The effective diameter at the specified fraction, or 0 if no two distinct vertices are connected.
+     */
+    public double getEffectiveDiameter(double fraction) {
+        if (fraction <= 0 || fraction > 1)
+            throw new IllegalArgumentException("Fraction must be greater than 0 and at most 1.");
+        double[] function = requireComputed();
+        double connectedPairs = function[function.length - 1] - function[0];
+        if (connectedPairs <= 0)
+            return 0;
+
+        double wanted = fraction * connectedPairs;
+        for (int t = 1; t < function.length; t++) {
+            double reached = function[t] - function[0];
+            if (reached >= wanted) {
+                double previous = function[t - 1] - function[0];
+                return (t - 1) + (wanted - previous) / (reached - previous);
+            }
+        }
+        return function.length - 1;
+    }
+
+    /**
+     * Retrieves the neighborhood function, checking that it has been computed.
+     * @return The neighborhood function from the last computation.
+     */
+    private double[] requireComputed() {
+        if (neighborhoodFunction == null)
+            throw new IllegalStateException("The neighborhood function has not been computed.");
+        return neighborhoodFunction;
+    }
+
+    /**
+     * Computes the reach estimates of every vertex for the specified number of hops, unless the cached estimates are
+     * already for that number of hops and the current version of the graph.
+     * @param hops The number of hops; at least 0.
+     */
+    private void updateReachEstimates(int hops) {
+        if (hops < 0)
+            throw new IllegalArgumentException("Number of hops must be at least 0.");
+        if (reachEstimates != null && reachHops == hops && reachRegisterBits == registerBits &&
+                reachGraph.getVersion() == graph.getVersion())
+            return;
+
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        int numberOfVertices = compact.size();
+        byte[] current = initialCounters(numberOfVertices);
+        byte[] next = new byte[current.length];
+        double[] estimates = new double[numberOfVertices];
+        boolean[] changed = new boolean[numberOfVertices];
+        boolean[] nextChanged = new boolean[numberOfVertices];
+        Arrays.fill(changed, true);
+        estimateAll(current, estimates);
+
+        for (int round = 0; round < hops; round++) {
+            if (!advance(compact.getOutOffsets(), compact.getOutTargets(), current, next, changed, nextChanged,
+                    estimates))
+                break;
+            byte[] tempCounters = current;
+            current = next;
+            next = tempCounters;
+            boolean[] tempChanged = changed;
+            changed = nextChanged;
+            nextChanged = tempChanged;
+        }
+
+        reachGraph = compact;
+        reachHops = hops;
+        reachRegisterBits = registerBits;
+        reachEstimates = estimates;
+    }
+
+    /**
+     * Creates a counter for every vertex holding only the vertex itself. Each vertex number is hashed; the first
+     * registerBits bits of the hash choose a register, which records the position of the first 1 bit in the rest.
+     * @param numberOfVertices The number of vertices.
+     * @return The registers of every counter, with vertex v's counter at positions v * 2^registerBits onward.
+     */
+    private byte[] initialCounters(int numberOfVertices) {
+        int registers = 1 << registerBits;
+        if ((long)numberOfVertices * registers > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("Too many vertices for one counter array; use fewer register bits.");
+        byte[] counters = new byte[numberOfVertices * registers];
+        IntStream.range(0, numberOfVertices).parallel().forEach(vertex -> {
+            long hash = mix(vertex);
+            int register = (int)(hash >>> (64 - registerBits));
+            long rest = (hash << registerBits) | (1L << (registerBits - 1));
+            counters[vertex * registers + register] = (byte)(Long.numberOfLeadingZeros(rest) + 1);
+        });
+        return counters;
+    }
+
+    /**
+     * Runs one round, setting each vertex's next counter to the union of its current counter and the current
+     * counters of the vertices its edges point to. Vertices none of whose inputs changed last round are copied.
+     * @param offsets The out-edge offsets.
+     * @param targets The out-edge targets.
+     * @param current The counters from the previous round.
+     * @param next The counters to fill for this round.
+     * @param changed Indicates, for each vertex number, whether its counter changed in the previous round.
+     * @param nextChanged Filled to indicate whether each vertex's counter changes in this round.
+     * @param estimates The estimate of each vertex's counter; updated for the counters that change.
+     * @return True if any counter changed in this round, or false otherwise.
+     */
+    private boolean advance(int[] offsets, int[] targets, byte[] current, byte[] next, boolean[] changed,
+                            boolean[] nextChanged, double[] estimates) {
+        int registers = 1 << registerBits;
+        return IntStream.range(0, estimates.length).parallel().map(vertex -> {
+            int start = vertex * registers;
+            System.arraycopy(current, start, next, start, registers);
+            nextChanged[vertex] = false;
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                int neighbor = targets[edge];
+                if (!changed[neighbor] || neighbor == vertex)
+                    continue;
+                int neighborStart = neighbor * registers;
+                for (int register = 0; register < registers; register++) {
+                    byte value = current[neighborStart + register];
+                    if (value > next[start + register]) {
+                        next[start + register] = value;
+                        nextChanged[vertex] = true;
+                    }
+                }
+            }
+            if (!nextChanged[vertex])
+                return 0;
+            estimates[vertex] = estimate(next, start, registers);
+            return 1;
+        }).max().orElse(0) == 1;
+    }
+
+    /**
+     * Estimates the number of members of a counter with the HyperLogLog formula, switching to linear counting of the
+     * empty registers when the estimate is small.
+     * @param counters The array of all counters.
+     * @param start The position of the counter's first register.
+     * @param registers The number of registers in each counter.
+     * @return The estimated number of members.
+     */
+    private static double estimate(byte[] counters, int start, int registers) {
+        double harmonicSum = 0;
+        int emptyRegisters = 0;
+        for (int register = start; register < start + registers; register++) {
+            harmonicSum += Math.scalb(1.0, -counters[register]);
+            if (counters[register] == 0)
+                emptyRegisters++;
+        }
+
+        double alpha = (registers == 16) ? 0.673 : (registers == 32) ? 0.697 : (registers == 64) ? 0.709 :
+                0.7213 / (1 + 1.079 / registers);
+        double estimate = alpha * registers * registers / harmonicSum;
+        if (estimate <= 2.5 * registers && emptyRegisters > 0)
+            estimate = registers * Math.log((double)registers / emptyRegisters);
+        return estimate;
+    }
+
+    /**
+     * Estimates the number of members of every counter in parallel.
+     * @param counters The array of all counters.
+     * @param estimates Filled with the estimate of each vertex's counter.
+     */
+    private void estimateAll(byte[] counters, double[] estimates) {
+        int registers = 1 << registerBits;
+        IntStream.range(0, estimates.length).parallel().forEach(vertex ->
+                estimates[vertex] = estimate(counters, vertex * registers, registers));
+    }
+
+    /**
+     * Adds up an array of estimates.
+     * @param estimates The estimates to add.
+     * @return The sum of the estimates.
+     */
+    private static double sum(double[] estimates) {
+        return IntStream.range(0, estimates.length).parallel().mapToDouble(vertex -> estimates[vertex]).sum();
+    }
+
+    /**
+     * Hashes a vertex number to 64 well-mixed bits with the SplitMix64 finalizer.
+     * @param vertex The vertex number.
+     * @return The hash of the vertex number.
+     */
+    private static long mix(int vertex) {
+        long hash = (vertex + 1) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,255 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.stream.IntStream;
+
+/**
+ * PageRank: An engine that ranks the vertices of a directed graph by PageRank, the probability that a random surfer
+ * who follows an edge with the damping probability, and otherwise jumps to a random vertex, is at each vertex. Scores
+ * are computed by pulling rank along the in-edges of a compact copy of the graph, using primitive arrays. Edge weights
+ * are ignored, and the rank of vertices with no out-edges is spread evenly over all vertices.
+ * @param <T> The data type of the vertex labels.
+ */
+public class PageRank<T> {
+    /**
+     * Method: The iteration scheme used to compute the scores.
+     */
+    public enum Method {
+        /** Power iteration: every vertex is updated from the previous iteration's scores, in parallel. */
+        POWER_ITERATION,
+        /** Gauss-Seidel: vertices are updated one at a time, each from the newest scores; usually converges in fewer
+         * iterations, but runs on a single thread. */
+        GAUSS_SEIDEL
+    }
+
+    /** The default probability of following an edge rather than jumping to a random vertex. */
+    public static final double DEFAULT_DAMPING_FACTOR = 0.85;
+    /** The default total change in scores, summed over all vertices, below which the scores have converged. */
+    public static final double DEFAULT_TOLERANCE = 1.0e-9;
+    /** The default maximum number of iterations. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /** The graph to rank. */
+    private final DirectedGraph<T> graph;
+    /** The probability of following an edge rather than jumping to a random vertex. */
+    private double dampingFactor;
+    /** The total change in scores, summed over all vertices, below which the scores have converged. */
+    private double tolerance;
+    /** The maximum number of iterations. */
+    private int maxIterations;
+    /** The iteration scheme used to compute the scores. */
+    private Method method;
+    /** The number of iterations performed by the last computation. */
+    private int iterations;
+    /** Indicates whether the last computation converged within the maximum number of iterations. */
+    private boolean converged;
+
+    /**
+     * Constructor creates a new PageRank engine for the specified graph with the default settings and power
+     * iteration.
+     * @param graph The graph to rank.
+     */
+    public PageRank(DirectedGraph<T> graph) {
+        this.graph = graph;
+        dampingFactor = DEFAULT_DAMPING_FACTOR;
+        tolerance = DEFAULT_TOLERANCE;
+        maxIterations = DEFAULT_MAX_ITERATIONS;
+        method = Method.POWER_ITERATION;
+        iterations = 0;
+        converged = false;
+    }
+
+    /**
+     * Sets the probability of following an edge rather than jumping to a random vertex.
+     * @param newDampingFactor The damping factor, from 0 inclusive to 1 exclusive.
+     */
+    public void setDampingFactor(double newDampingFactor) {
+        if (newDampingFactor < 0 || newDampingFactor >= 1)
+            throw new IllegalArgumentException("Damping factor must be at least 0 and less than 1.");
+        dampingFactor = newDampingFactor;
+    }
+
+    /**
+     * Sets the total change in scores, summed over all vertices, below which the scores have converged.
+     * @param newTolerance The tolerance; greater than 0.
+     */
+    public void setTolerance(double newTolerance) {
+        if (newTolerance <= 0)
+            throw new IllegalArgumentException("Tolerance must be greater than 0.");
+        tolerance = newTolerance;
+    }
+
+    /**
+     * Sets the maximum number of iterations.
+     * @param newMaxIterations The maximum number of iterations; at least 1.
+     */
+    public void setMaxIterations(int newMaxIterations) {
+        if (newMaxIterations < 1)
+            throw new IllegalArgumentException("Maximum iterations must be at least 1.");
+        maxIterations = newMaxIterations;
+    }
+
+    /**
+     * Sets the iteration scheme used to compute the scores.
+     * @param newMethod The iteration scheme.
+     */
+    public void setMethod(Method newMethod) { method = newMethod; }
+
+    /**
+     * Retrieves the number of iterations performed by the last computation.
+     * @return The number of iterations performed.
+     */
+    public int getIterations() { return iterations; }
+
+    /**
+     * Determines if the last computation converged within the maximum number of iterations.
+     * @return True if the scores converged, or false if the maximum number of iterations was reached first.
+     */
+    public boolean hasConverged() { return converged; }
+
+    /**
+     * Computes the PageRank score of every vertex in the current state of the graph. Scores sum to 1.
+     * Runtime: O(V + E) per iteration.
+     * @return A map from each vertex label to its score.
+     */
+    public HashMap<T, Double> compute() {
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        double[] scores = computeScores(compact);
+        HashMap<T, Double> result = new HashMap<>();
+        for (int vertex = 0; vertex < scores.length; vertex++)
+            result.put(compact.getLabel(vertex), scores[vertex]);
+        return result;
+    }
+
+    /**
+     * Computes the PageRank scores and retrieves the labels of the highest scoring vertices.
+     * @param count The maximum number of labels to retrieve.
+     * @return A list of up to count labels, from the highest score down.
+     */
+    public ArrayList<T> getTopRanked(int count) {
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        double[] scores = computeScores(compact);
+        Integer[] order = new Integer[scores.length];
+        for (int vertex = 0; vertex < order.length; vertex++)
+            order[vertex] = vertex;
+        Arrays.sort(order, (first, second) -> Double.compare(scores[second], scores[first]));
+
+        ArrayList<T> result = new ArrayList<>();
+        for (int position = 0; position < Math.min(count, order.length); position++)
+            result.add(compact.getLabel(order[position]));
+        return result;
+    }
+
+    /**
+     * Computes the PageRank scores of a compact graph with the configured iteration scheme.
+     * @param compact The graph to rank.
+     * @return The score of each vertex number.
+     */
+    private double[] computeScores(CompactGraph<T> compact) {
+        int numberOfVertices = compact.size();
+        iterations = 0;
+        converged = true;
+        if (numberOfVertices == 0)
+            return new double[0];
+
+        int[] inOffsets = compact.getInOffsets();
+        int[] inSources = compact.getInSources();
+        int[] outDegree = new int[numberOfVertices];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            outDegree[vertex] = compact.outDegree(vertex);
+
+        double[] scores = new double[numberOfVertices];
+        Arrays.fill(scores, 1.0 / numberOfVertices);
+        if (method == Method.GAUSS_SEIDEL)
+            gaussSeidel(scores, inOffsets, inSources, outDegree);
+        else
+            powerIteration(scores, inOffsets, inSources, outDegree);
+        return scores;
+    }
+
+    /**
+     * Iterates by updating every vertex in parallel from the previous iteration's scores.
+     * @param scores The starting scores, replaced by the final scores.
+     * @param inOffsets The in-edge offsets of the graph.
+     * @param inSources The in-edge sources of the graph.
+     * @param outDegree The out-degree of each vertex number.
+     */
+    private void powerIteration(double[] scores, int[] inOffsets, int[] inSources, int[] outDegree) {
+        int numberOfVertices = scores.length;
+        double[] contribution = new double[numberOfVertices];
+        double[] nextScores = new double[numberOfVertices];
+        converged = false;
+
+        while (!converged && iterations < maxIterations) {
+            double[] current = scores;
+            double danglingRank = IntStream.range(0, numberOfVertices).parallel().mapToDouble(vertex -> {
+                if (outDegree[vertex] == 0) {
+                    contribution[vertex] = 0;
+                    return current[vertex];
+                }
+                contribution[vertex] = current[vertex] / outDegree[vertex];
+                return 0;
+            }).sum();
+
+            double base = (1 - dampingFactor + dampingFactor * danglingRank) / numberOfVertices;
+            double change = IntStream.range(0, numberOfVertices).parallel().mapToDouble(vertex -> {
+                double pulled = 0;
+                for (int edge = inOffsets[vertex]; edge < inOffsets[vertex + 1]; edge++)
+                    pulled += contribution[inSources[edge]];
+                nextScores[vertex] = base + dampingFactor * pulled;
+                return Math.abs(nextScores[vertex] - current[vertex]);
+            }).sum();
+
+            System.arraycopy(nextScores, 0, scores, 0, numberOfVertices);
+            iterations++;
+            converged = change < tolerance;
+        }
+    }
+
+    /**
+     * Iterates by updating one vertex at a time in place, so each update uses the newest scores of its in-neighbors.
+     * @param scores The starting scores, replaced by the final scores.
+     * @param inOffsets The in-edge offsets of the graph.
+     * @param inSources The in-edge sources of the graph.
+     * @param outDegree The out-degree of each vertex number.
+     */
+    private void gaussSeidel(double[] scores, int[] inOffsets, int[] inSources, int[] outDegree) {
+        int numberOfVertices = scores.length;
+        double danglingRank = 0;
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            if (outDegree[vertex] == 0)
+                danglingRank += scores[vertex];
+        }
+        converged = false;
+
+        while (!converged && iterations < maxIterations) {
+            double change = 0;
+            for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+                double pulled = 0;
+                for (int edge = inOffsets[vertex]; edge < inOffsets[vertex + 1]; edge++) {
+                    int source = inSources[edge];
+                    pulled += scores[source] / outDegree[source];
+                }
+                double updated = (1 - dampingFactor + dampingFactor * danglingRank) / numberOfVertices +
+                        dampingFactor * pulled;
+                if (outDegree[vertex] == 0)
+                    danglingRank += updated - scores[vertex];
+                change += Math.abs(updated - scores[vertex]);
+                scores[vertex] = updated;
+            }
+
+            // In-place updates let the total drift slightly from 1; renormalizing keeps the jump term consistent.
+            double total = 0;
+            for (double score : scores)
+                total += score;
+            danglingRank /= total;
+            for (int vertex = 0; vertex < numberOfVertices; vertex++)
+                scores[vertex] /= total;
+
+            iterations++;
+            converged = change < tolerance;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Stack;
+
+/**
+ * PathCache: A bounded cache of path query results for one graph, keyed by origin, destination and algorithm. Each
+ * entry records the graph's mutation version when it was computed, and an entry whose version no longer matches the
+ * graph is treated as a miss and dropped, so any change to the graph invalidates every cached path in constant time.
+ * The cache is bounded by the total number of labels stored across all paths rather than by the number of paths, and
+ * evicts the least recently used paths first. A hit copies the stored path, taking time proportional to its length.
+ * @param <T> The data type of the vertex labels.
+ */
+public class PathCache<T> {
+    /**
+     * Algorithm: The path query a cached result belongs to.
+     */
+    public enum Algorithm {
+        /** The path with the fewest edges, from getShortestPath. */
+        SHORTEST,
+        /** The path with the least total edge weight, from getCheapestPath. */
+        CHEAPEST
+    }
+
+    /** The maximum total number of labels stored across all cached paths. */
+    private final int capacity;
+    /** Stores each query as a key and its result as a value, in order from least to most recently used. */
+    private final LinkedHashMap<Key, Entry> entries;
+    /** The total number of labels stored across all cached paths. */
+    private long storedLabels;
+    /** The number of lookups answered from the cache. */
+    private long hits;
+    /** The number of lookups not answered from the cache, including those that found a stale entry. */
+    private long misses;
+    /** The number of entries evicted to stay within capacity. */
+    private long evictions;
+
+    /**
+     * Constructor creates a new, empty PathCache.
+     * @param capacity The maximum total number of labels stored across all cached paths; at least 1.
+     */
+    PathCache(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Path cache capacity must be at least 1.");
+        this.capacity = capacity;
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+        storedLabels = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Looks up a cached path and, if it is current, pushes its labels onto the specified stack with the origin on top.
+     * @param begin The label of the path's origin vertex.
+     * @param end The label of the path's destination vertex.
+     * @param algorithm The path query.
+     * @param version The graph's current mutation version.
+     * @param path The stack to push the path's labels onto.
+     * @return The cached length or cost of the path, or null if no current path is cached.
+     */
+    synchronized Double lookup(T begin, T end, Algorithm algorithm, long version, Stack<T> path) {
+        Key key = new Key(begin, end, algorithm);
+        Entry entry = entries.get(key);
+        if (entry == null || entry.version != version) {
+            if (entry != null)
+                remove(key, entry);
+            misses++;
+            return null;
+        }
+
+        hits++;
+        for (int position = entry.labels.size() - 1; position >= 0; position--)
+            path.push(entry.labels.get(position));
+        return entry.cost;
+    }
+
+    /**
+     * Caches a newly computed path, evicting the least recently used paths as needed to stay within capacity. A path
+     * longer than the whole capacity is not cached.
+     * @param begin The label of the path's origin vertex.
+     * @param end The label of the path's destination vertex.
+     * @param algorithm The path query.
+     * @param version The graph's mutation version when the path was computed.
+     * @param path The stack holding the path, with the origin on top.
+     * @param pathStart The position in the stack of the path's destination, the first label pushed for this path.
+     * @param cost The length or cost of the path.
+     */
+    synchronized void store(T begin, T end, Algorithm algorithm, long version, Stack<T> path, int pathStart,
+                            double cost) {
+        int length = path.size() - pathStart;
+        if (length > capacity)
+            return;
+        ArrayList<T> labels = new ArrayList<>(length);
+        for (int position = 0; position < length; position++)
+            labels.add(path.get(path.size() - 1 - position));
+
+        Key key = new Key(begin, end, algorithm);
+        Entry previous = entries.remove(key);
+        if (previous != null)
+            storedLabels -= previous.labels.size();
+        entries.put(key, new Entry(labels, cost, version));
+        storedLabels += length;
+
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (storedLabels > capacity && eldest.hasNext()) {
+            storedLabels -= eldest.next().getValue().labels.size();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes all cached paths. The hit, miss and eviction counts are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        storedLabels = 0;
+    }
+
+    /**
+     * Retrieves the maximum total number of labels stored across all cached paths.
+     * @return The capacity of the cache.
+     */
+    public int getCapacity() { return capacity; }
+
+    /**
+     * Retrieves the number of cached paths, including any that are stale but not yet dropped.
+     * @return The number of cached paths.
+     */
+    public synchronized int size() { return entries.size(); }
+
+    /**
+     * Retrieves the total number of labels stored across all cached paths.
+     * @return The number of stored labels.
+     */
+    public synchronized long getStoredLabels() { return storedLabels; }
+
+    /**
+     * Retrieves the number of lookups answered from the cache.
+     * @return The number of hits.
+     */
+    public synchronized long getHits() { return hits; }
+
+    /**
+     * Retrieves the number of lookups not answered from the cache.
+     * @return The number of misses.
+     */
+    public synchronized long getMisses() { return misses; }
+
+    /**
+     * Retrieves the number of cached paths evicted to stay within capacity.
+     * @return The number of evictions.
+     */
+    public synchronized long getEvictions() { return evictions; }
+
+    /**
+     * Retrieves the fraction of lookups answered from the cache.
+     * @return The hit rate from 0 to 1, or 0 if there have been no lookups.
+     */
+    public synchronized double getHitRate() { return (hits + misses == 0) ? 0 : (double)hits / (hits + misses); }
+
+    /**
+     * Removes a cached path.
+     * @param key The query of the path.
+     * @param entry The cached result of the query.
+     */
+    private void remove(Key key, Entry entry) {
+        entries.remove(key);
+        storedLabels -= entry.labels.size();
+    }
+
+    /**
+     * Key: A path query, identified by its origin, destination and algorithm.
+     */
+    private static final class Key {
+        /** The label of the path's origin vertex. */
+        private final Object begin;
+        /** The label of the path's destination vertex. */
+        private final Object end;
+        /** The path query. */
+        private final Algorithm algorithm;
+
+        /**
+         * Constructor creates a new Key for the specified query.
+         * @param begin The label of the path's origin vertex.
+         * @param end The label of the path's destination vertex.
+         * @param algorithm The path query.
+         */
+        private Key(Object begin, Object end, Algorithm algorithm) {
+            this.begin = begin;
+            this.end = end;
+            this.algorithm = algorithm;
+        }
+
+        /**
+         * Determines if another object is a key for the same query.
+         * @param other The object to compare to.
+         * @return True if the other object is a key with the same origin, destination and algorithm.
+         */
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            Key otherKey = (Key)other;
+            return algorithm == otherKey.algorithm && Objects.equals(begin, otherKey.begin) &&
+                    Objects.equals(end, otherKey.end);
+        }
+
+        /**
+         * Computes a hash code from the origin, destination and algorithm.
+         * @return The hash code of the key.
+         */
+        public int hashCode() { return Objects.hash(begin, end, algorithm); }
+    }
+
+    /**
+     * Entry: A cached path with its length or cost and the graph version it was computed at.
+     */
+    private final class Entry {
+        /** The labels of the path, from origin to destination. */
+        private final ArrayList<T> labels;
+        /** The length or cost of the path. */
+        private final double cost;
+        /** The graph's mutation version when the path was computed. */
+        private final long version;
+
+        /**
+         * Constructor creates a new Entry.
+         * @param labels The labels of the path, from origin to destination.
+         * @param cost The length or cost of the path.
+         * @param version The graph's mutation version when the path was computed.
+         */
+        private Entry(ArrayList<T> labels, double cost, long version) {
+            this.labels = labels;
+            this.cost = cost;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,551 @@
+package GraphPackage;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * PersistentHashMap: An immutable hash map in which adding or removing a key returns a new map and leaves the old one
+ * unchanged, sharing all but the changed path between them. The map is a hash array mapped trie: each level consumes
+ * five bits of the key's hash and stores only the slots in use, located through a 32-bit bitmap, so a change copies
+ * at most seven small arrays and any number of versions of the map can be kept cheaply. Keys whose hashes are equal
+ * share a collision node. Lookups and changes take O(log32 n) time.
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+final class PersistentHashMap<K, V> implements Iterable<Map.Entry<K, V>> {
+    /** The number of hash bits consumed at each level of the trie. */
+    private static final int BITS_PER_LEVEL = 5;
+    /** Selects the hash bits of one level. */
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+    /** The root of the trie, or null if the map is empty. */
+    private final TrieNode<K, V> root;
+    /** The number of keys in the map. */
+    private final int size;
+
+    /**
+     * Constructor creates a new PersistentHashMap over a trie.
+     * @param root The root of the trie, or null if the map is empty.
+     * @param size The number of keys in the trie.
+     */
+    private PersistentHashMap(TrieNode<K, V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Creates an empty map.
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     * @return An empty map.
+     */
+    static <K, V> PersistentHashMap<K, V> empty() { return new PersistentHashMap<>(null, 0); }
+
+    /**
+     * Retrieves the number of keys in the map.
+     * @return The number of keys.
+     */
+    int size() { return size; }
+
+    /**
+     * Determines if the map has no keys.
+     * @return True if the map is empty, or false otherwise.
+     */
+    boolean isEmpty() { return size == 0; }
+
+    /**
+     * Retrieves the value of a key.
+     * @param key The key.
+     * @return The key's value, or null if the key is not in the map.
+     */
+    V get(Object key) { return root == null ? null : root.find(key, hash(key), 0); }
+
+    /**
+     * Determines if a key is in the map.
+     * @param key The key.
+     * @return True if the key is in the map, or false otherwise.
+     */
+    boolean containsKey(Object key) { return get(key) != null; }
+
+    /**
+     * Creates a map with a key set to a value. Values must not be null.
+     * @param key The key.
+     * @param value The key's value.
+     * @return A new map with the key, or this map if the key already has the value.
+     */
+    PersistentHashMap<K, V> plus(K key, V value) {
+        Objects.requireNonNull(value);
+        int keyHash = hash(key);
+        if (root == null)
+            return new PersistentHashMap<>(BitmapNode.of(new Leaf<>(key, value, keyHash), keyHash, 0), 1);
+        SizeChange change = new SizeChange();
+        TrieNode<K, V> newRoot = root.put(key, value, keyHash, 0, change);
+        return newRoot == root ? this : new PersistentHashMap<>(newRoot, size + change.delta);
+    }
+
+    /**
+     * Creates a map without a key.
+     * @param key The key.
+     * @return A new map without the key, or this map if the key is not in it.
+     */
+    PersistentHashMap<K, V> minus(Object key) {
+        if (root == null)
+            return this;
+        SizeChange change = new SizeChange();
+        Slot<K, V> newRoot = root.remove(key, hash(key), 0, change);
+        if (change.delta == 0)
+            return this;
+        if (newRoot == null)
+            return empty();
+        if (newRoot instanceof TrieNode<K, V> node)
+            return new PersistentHashMap<>(node, size - 1);
+        Leaf<K, V> leaf = (Leaf<K, V>)newRoot;
+        return new PersistentHashMap<>(BitmapNode.of(leaf, leaf.hash, 0), size - 1);
+    }
+
+    /**
+     * Retrieves an iterator over the map's entries, in an order determined by the keys' hashes.
+     * @return An iterator over the entries.
+     */
+    public Iterator<Map.Entry<K, V>> iterator() { return new EntryIterator<>(root); }
+
+    /**
+     * Computes the hash of a key, spreading its hash code so that codes differing only in high bits are separated
+     * near the root.
+     * @param key The key.
+     * @return The key's hash.
+     */
+    private static int hash(Object key) {
+        int code = key.hashCode();
+        return code ^ (code >>> 16);
+    }
+
+    /**
+     * Retrieves the slot at a position of a node's slot array.
+     * @param slots The slot array.
+     * @param index The position.
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     * @return The slot.
+     */
+    private static <K, V> Slot<K, V> slotAt(Object[] slots, int index) {
+        // The slot arrays of a map only ever hold slots of the map's own key and value types
+        @SuppressWarnings("unchecked")
+        Slot<K, V> slot = (Slot<K, V>)slots[index];
+        return slot;
+    }
+
+    /**
+     * Creates a copy of an array with one element replaced.
+     * @param slots The array.
+     * @param index The position to replace.
+     * @param slot The new element.
+     * @return The copy.
+     */
+    private static Object[] replaced(Object[] slots, int index, Object slot) {
+        Object[] copy = slots.clone();
+        copy[index] = slot;
+        return copy;
+    }
+
+    /**
+     * Creates a copy of an array with an element inserted.
+     * @param slots The array.
+     * @param index The position to insert at.
+     * @param slot The new element.
+     * @return The copy, one element longer.
+     */
+    private static Object[] inserted(Object[] slots, int index, Object slot) {
+        Object[] copy = new Object[slots.length + 1];
+        System.arraycopy(slots, 0, copy, 0, index);
+        copy[index] = slot;
+        System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+        return copy;
+    }
+
+    /**
+     * Creates a copy of an array with an element removed.
+     * @param slots The array.
+     * @param index The position to remove.
+     * @return The copy, one element shorter.
+     */
+    private static Object[] removed(Object[] slots, int index) {
+        Object[] copy = new Object[slots.length - 1];
+        System.arraycopy(slots, 0, copy, 0, index);
+        System.arraycopy(slots, index + 1, copy, index, slots.length - index - 1);
+        return copy;
+    }
+
+    /**
+     * Creates the smallest subtrie holding two slots whose hashes differ, or a collision node for two leaves whose
+     * hashes are equal.
+     * @param first The first slot.
+     * @param firstHash The hash of the first slot's keys.
+     * @param second The second slot.
+     * @param secondHash The hash of the second slot's keys.
+     * @param shift The number of hash bits consumed above the subtrie.
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     * @return The subtrie.
+     */
+    private static <K, V> TrieNode<K, V> merge(Slot<K, V> first, int firstHash, Slot<K, V> second, int secondHash,
+                                               int shift) {
+        if (firstHash == secondHash)
+            return new CollisionNode<>(firstHash, new Object[] {first, second});
+        int firstFragment = (firstHash >>> shift) & LEVEL_MASK;
+        int secondFragment = (secondHash >>> shift) & LEVEL_MASK;
+        if (firstFragment == secondFragment)
+            return new BitmapNode<>(1 << firstFragment,
+                    new Object[] {merge(first, firstHash, second, secondHash, shift + BITS_PER_LEVEL)});
+        Object[] slots = firstFragment < secondFragment ? new Object[] {first, second} : new Object[] {second, first};
+        return new BitmapNode<>((1 << firstFragment) | (1 << secondFragment), slots);
+    }
+
+    /**
+     * SizeChange: Reports whether a change added or removed a key.
+     */
+    private static final class SizeChange {
+        /** The change in the number of keys: -1, 0 or 1. */
+        private int delta;
+    }
+
+    /**
+     * Slot: An element of a trie node, which is either an entry or a child node.
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     */
+    private abstract static class Slot<K, V> {
+    }
+
+    /**
+     * Leaf: An entry of the map.
+     * @param <K> The type of the key.
+     * @param <V> The type of the value.
+     */
+    private static final class Leaf<K, V> extends Slot<K, V> implements Map.Entry<K, V> {
+        /** The key. */
+        private final K key;
+        /** The key's value. */
+        private final V value;
+        /** The key's hash. */
+        private final int hash;
+
+        /**
+         * Constructor creates a new Leaf.
+         * @param key The key.
+         * @param value The key's value.
+         * @param hash The key's hash.
+         */
+        private Leaf(K key, V value, int hash) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+        }
+
+        /**
+         * Retrieves the key.
+         * @return The key.
+         */
+        public K getKey() { return key; }
+
+        /**
+         * Retrieves the key's value.
+         * @return The value.
+         */
+        public V getValue() { return value; }
+
+        /**
+         * Throws UnsupportedOperationException, since the map is immutable.
+         * @param newValue The new value.
+         * @return Never returns.
+         */
+        public V setValue(V newValue) { throw new UnsupportedOperationException("Persistent maps are immutable."); }
+    }
+
+    /**
+     * TrieNode: An interior node of the trie.
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     */
+    private abstract static class TrieNode<K, V> extends Slot<K, V> {
+        /**
+         * Looks up a key in the subtrie.
+         * @param key The key.
+         * @param keyHash The key's hash.
+         * @param shift The number of hash bits consumed above this node.
+         * @return The key's value, or null if the key is not in the subtrie.
+         */
+        abstract V find(Object key, int keyHash, int shift);
+
+        /**
+         * Creates a subtrie with a key set to a value.
+         * @param key The key.
+         * @param value The key's value.
+         * @param keyHash The key's hash.
+         * @param shift The number of hash bits consumed above this node.
+         * @param change Set to 1 if the key was added.
+         * @return The new subtrie, or this node if the key already has the value.
+         */
+        abstract TrieNode<K, V> put(K key, V value, int keyHash, int shift, SizeChange change);
+
+        /**
+         * Creates a subtrie without a key.
+         * @param key The key.
+         * @param keyHash The key's hash.
+         * @param shift The number of hash bits consumed above this node.
+         * @param change Set to -1 if the key was removed.
+         * @return The new subtrie, which is a lone leaf if only one entry remains or null if none remain, or this node
+         * if the key is not in the subtrie.
+         */
+        abstract Slot<K, V> remove(Object key, int keyHash, int shift, SizeChange change);
+
+        /**
+         * Retrieves the node's slots, for iteration.
+         * @return The slot array, which must not be modified.
+         */
+        abstract Object[] slots();
+    }
+
+    /**
+     * BitmapNode: A trie node holding a slot for each five-bit hash fragment in use, in fragment order.
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     */
+    private static final class BitmapNode<K, V> extends TrieNode<K, V> {
+        /** Has a bit set for each hash fragment with a slot. */
+        private final int bitmap;
+        /** The slots, in fragment order. */
+        private final Object[] slots;
+
+        /**
+         * Constructor creates a new BitmapNode.
+         * @param bitmap Has a bit set for each hash fragment with a slot.
+         * @param slots The slots, in fragment order.
+         */
+        private BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        /**
+         * Creates a node holding a single slot.
+         * @param slot The slot.
+         * @param slotHash The hash of the slot's keys.
+         * @param shift The number of hash bits consumed above the node.
+         * @param <K> The type of the keys.
+         * @param <V> The type of the values.
+         * @return The node.
+         */
+        private static <K, V> BitmapNode<K, V> of(Slot<K, V> slot, int slotHash, int shift) {
+            return new BitmapNode<>(1 << ((slotHash >>> shift) & LEVEL_MASK), new Object[] {slot});
+        }
+
+        V find(Object key, int keyHash, int shift) {
+            int bit = 1 << ((keyHash >>> shift) & LEVEL_MASK);
+            if ((bitmap & bit) == 0)
+                return null;
+            Slot<K, V> slot = slotAt(slots, Integer.bitCount(bitmap & (bit - 1)));
+            if (slot instanceof Leaf<K, V> leaf)
+                return leaf.key.equals(key) ? leaf.value : null;
+            return ((TrieNode<K, V>)slot).find(key, keyHash, shift + BITS_PER_LEVEL);
+        }
+
+        TrieNode<K, V> put(K key, V value, int keyHash, int shift, SizeChange change) {
+            int bit = 1 << ((keyHash >>> shift) & LEVEL_MASK);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                change.delta = 1;
+                return new BitmapNode<>(bitmap | bit, inserted(slots, index, new Leaf<>(key, value, keyHash)));
+            }
+            Slot<K, V> slot = slotAt(slots, index);
+            if (slot instanceof Leaf<K, V> leaf) {
+                if (leaf.key.equals(key)) {
+                    if (leaf.value == value)
+                        return this;
+                    return new BitmapNode<>(bitmap, replaced(slots, index, new Leaf<>(key, value, keyHash)));
+                }
+                change.delta = 1;
+                TrieNode<K, V> child = merge(leaf, leaf.hash, new Leaf<>(key, value, keyHash), keyHash,
+                        shift + BITS_PER_LEVEL);
+                return new BitmapNode<>(bitmap, replaced(slots, index, child));
+            }
+            TrieNode<K, V> child = (TrieNode<K, V>)slot;
+            TrieNode<K, V> newChild = child.put(key, value, keyHash, shift + BITS_PER_LEVEL, change);
+            return newChild == child ? this : new BitmapNode<>(bitmap, replaced(slots, index, newChild));
+        }
+
+        Slot<K, V> remove(Object key, int keyHash, int shift, SizeChange change) {
+            int bit = 1 << ((keyHash >>> shift) & LEVEL_MASK);
+            if ((bitmap & bit) == 0)
+                return this;
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            Slot<K, V> slot = slotAt(slots, index);
+            Slot<K, V> newSlot;
+            if (slot instanceof Leaf<K, V> leaf) {
+                if (!leaf.key.equals(key))
+                    return this;
+                change.delta = -1;
+                newSlot = null;
+            }
+            else {
+                newSlot = ((TrieNode<K, V>)slot).remove(key, keyHash, shift + BITS_PER_LEVEL, change);
+                if (newSlot == slot)
+                    return this;
+            }
+
+            if (newSlot != null)
+                return new BitmapNode<>(bitmap, replaced(slots, index, newSlot));
+            if (slots.length == 1)
+                return null;
+            if (slots.length == 2 && PersistentHashMap.<K, V>slotAt(slots, 1 - index) instanceof Leaf<K, V> remaining)
+                return remaining;
+            return new BitmapNode<>(bitmap & ~bit, removed(slots, index));
+        }
+
+        Object[] slots() { return slots; }
+    }
+
+    /**
+     * CollisionNode: A trie node holding the leaves of keys whose hashes are all equal.
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     */
+    private static final class CollisionNode<K, V> extends TrieNode<K, V> {
+        /** The hash shared by every key in the node. */
+        private final int hash;
+        /** The leaves. */
+        private final Object[] leaves;
+
+        /**
+         * Constructor creates a new CollisionNode.
+         * @param hash The hash shared by every key in the node.
+         * @param leaves The leaves, at least two.
+         */
+        private CollisionNode(int hash, Object[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        V find(Object key, int keyHash, int shift) {
+            if (keyHash != hash)
+                return null;
+            for (int index = 0; index < leaves.length; index++) {
+                Leaf<K, V> leaf = leafAt(index);
+                if (leaf.key.equals(key))
+                    return leaf.value;
+            }
+            return null;
+        }
+
+        TrieNode<K, V> put(K key, V value, int keyHash, int shift, SizeChange change) {
+            Leaf<K, V> newLeaf = new Leaf<>(key, value, keyHash);
+            if (keyHash != hash) {
+                change.delta = 1;
+                return merge(this, hash, newLeaf, keyHash, shift);
+            }
+            for (int index = 0; index < leaves.length; index++) {
+                Leaf<K, V> leaf = leafAt(index);
+                if (leaf.key.equals(key))
+                    return leaf.value == value ? this : new CollisionNode<>(hash, replaced(leaves, index, newLeaf));
+            }
+            change.delta = 1;
+            return new CollisionNode<>(hash, inserted(leaves, leaves.length, newLeaf));
+        }
+
+        Slot<K, V> remove(Object key, int keyHash, int shift, SizeChange change) {
+            if (keyHash != hash)
+                return this;
+            for (int index = 0; index < leaves.length; index++) {
+                Leaf<K, V> leaf = leafAt(index);
+                if (leaf.key.equals(key)) {
+                    change.delta = -1;
+                    if (leaves.length == 2)
+                        return slotAt(leaves, 1 - index);
+                    return new CollisionNode<>(hash, removed(leaves, index));
+                }
+            }
+            return this;
+        }
+
+        Object[] slots() { return leaves; }
+
+        /**
+         * Retrieves a leaf of the node.
+         * @param index The position of the leaf.
+         * @return The leaf.
+         */
+        private Leaf<K, V> leafAt(int index) { return (Leaf<K, V>)PersistentHashMap.<K, V>slotAt(leaves, index); }
+    }
+
+    /**
+     * EntryIterator: Visits the leaves of a trie depth first.
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        /** The slot arrays of the nodes on the path to the next leaf. */
+        private final ArrayDeque<Object[]> nodeStack;
+        /** The position of the next slot to visit in each slot array on the path. */
+        private final ArrayDeque<Integer> indexStack;
+        /** The next leaf, or null if every leaf has been visited. */
+        private Leaf<K, V> nextLeaf;
+
+        /**
+         * Constructor creates a new EntryIterator.
+         * @param root The root of the trie, or null if the trie is empty.
+         */
+        private EntryIterator(TrieNode<K, V> root) {
+            nodeStack = new ArrayDeque<>();
+            indexStack = new ArrayDeque<>();
+            if (root != null) {
+                nodeStack.push(root.slots());
+                indexStack.push(0);
+            }
+            advance();
+        }
+
+        /**
+         * Determines if there is another entry.
+         * @return True if there is another entry, or false otherwise.
+         */
+        public boolean hasNext() { return nextLeaf != null; }
+
+        /**
+         * Retrieves the next entry.
+         * @return The next entry.
+         */
+        public Map.Entry<K, V> next() {
+            if (nextLeaf == null)
+                throw new NoSuchElementException();
+            Leaf<K, V> leaf = nextLeaf;
+            advance();
+            return leaf;
+        }
+
+        /**
+         * Moves to the next leaf in depth-first order.
+         */
+        private void advance() {
+            nextLeaf = null;
+            while (!nodeStack.isEmpty()) {
+                Object[] slots = nodeStack.peek();
+                int index = indexStack.pop();
+                if (index == slots.length) {
+                    nodeStack.pop();
+                    continue;
+                }
+                indexStack.push(index + 1);
+                Slot<K, V> slot = slotAt(slots, index);
+                if (slot instanceof Leaf<K, V> leaf) {
+                    nextLeaf = leaf;
+                    return;
+                }
+                nodeStack.push(((TrieNode<K, V>)slot).slots());
+                indexStack.push(0);
+            }
+        }
+    }
+}
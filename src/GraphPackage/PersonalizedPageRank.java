@@ -0,0 +1,192 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * PersonalizedPageRank: Estimates the PageRank of every vertex personalized to one source vertex, the probability
+ * that a random surfer who restarts at the source is at each vertex, by Monte Carlo simulation. Random walks start at
+ * the source and end at each step with the restart probability, or at a vertex with no out-edges; a vertex's score is
+ * its share of all visits made by the walks. The walks run in parallel directly on the graph's vertices, so the work
+ * is bounded by the number of walks times the maximum walk length, no matter how large the graph is.
+ * <p>
+ * The graph must not be modified while an estimate is being computed.
+ * @param <T> The data type of the vertex labels.
+ */
+public class PersonalizedPageRank<T> {
+    /** The default probability that a walk ends at each step, returning to the source. */
+    public static final double DEFAULT_RESTART_PROBABILITY = 0.15;
+    /** The default number of random walks. */
+    public static final int DEFAULT_NUMBER_OF_WALKS = 10000;
+    /** The default maximum number of steps in a single walk. */
+    public static final int DEFAULT_MAX_WALK_LENGTH = 50;
+
+    /** The graph to walk. */
+    private final DirectedGraph<T> graph;
+    /** The probability that a walk ends at each step. */
+    private double restartProbability;
+    /** The number of random walks. */
+    private int numberOfWalks;
+    /** The maximum number of steps in a single walk. */
+    private int maxWalkLength;
+    /** The source of random seeds for each computation. */
+    private final SplittableRandom seedSource;
+
+    /**
+     * Constructor creates a new PersonalizedPageRank estimator for the specified graph with the default settings.
+     * @param graph The graph to walk.
+     */
+    public PersonalizedPageRank(DirectedGraph<T> graph) {
+        this.graph = graph;
+        restartProbability = DEFAULT_RESTART_PROBABILITY;
+        numberOfWalks = DEFAULT_NUMBER_OF_WALKS;
+        maxWalkLength = DEFAULT_MAX_WALK_LENGTH;
+        seedSource = new SplittableRandom();
+    }
+
+    /**
+     * Sets the probability that a walk ends at each step, returning to the source.
+     * @param newRestartProbability The restart probability, greater than 0 and at most 1.
+     */
+    public void setRestartProbability(double newRestartProbability) {
+        if (newRestartProbability <= 0 || newRestartProbability > 1)
+            throw new IllegalArgumentException("Restart probability must be greater than 0 and at most 1.");
+        restartProbability = newRestartProbability;
+    }
+
+    /**
+     * Sets the number of random walks. More walks give more accurate scores at proportionally more work.
+     * @param newNumberOfWalks The number of walks; at least 1.
+     */
+    public void setNumberOfWalks(int newNumberOfWalks) {
+        if (newNumberOfWalks < 1)
+            throw new IllegalArgumentException("Number of walks must be at least 1.");
+        numberOfWalks = newNumberOfWalks;
+    }
+
+    /**
+     * Sets the maximum number of steps in a single walk, bounding the work of walks that do not restart.
+     * @param newMaxWalkLength The maximum walk length; at least 1.
+     */
+    public void setMaxWalkLength(int newMaxWalkLength) {
+        if (newMaxWalkLength < 1)
+            throw new IllegalArgumentException("Maximum walk length must be at least 1.");
+        maxWalkLength = newMaxWalkLength;
+    }
+
+    /**
+     * Estimates the personalized PageRank of every vertex visited by walks from the source. Vertices that are never
+     * visited have an estimated score of 0 and are left out. Runtime: O(walks * maximum walk length).
+     * @param source An object that labels the source vertex.
+     * @return A map from each visited vertex label to its estimated score, or an empty map if the source is not in
+     * the graph.
+     */
+    public HashMap<T, Double> computeScores(T source) {
+        HashMap<T, Double> result = new HashMap<>();
+        VertexInterface<T> sourceVertex = graph.getVertex(source);
+        if (sourceVertex == null)
+            return result;
+
+        int numberOfBatches = Math.min(numberOfWalks, Runtime.getRuntime().availableProcessors());
+        long[] seeds = new long[numberOfBatches];
+        synchronized (seedSource) {
+            for (int batch = 0; batch < numberOfBatches; batch++)
+                seeds[batch] = seedSource.nextLong();
+        }
+
+        List<HashMap<VertexInterface<T>, int[]>> batchVisits = IntStream.range(0, numberOfBatches).parallel()
+                .mapToObj(batch -> walk(sourceVertex, walksInBatch(batch, numberOfBatches), seeds[batch]))
+                .collect(Collectors.toList());
+        HashMap<VertexInterface<T>, int[]> visits = new HashMap<>();
+        for (HashMap<VertexInterface<T>, int[]> batch : batchVisits)
+            visits = mergeVisits(visits, batch);
+
+        long totalVisits = 0;
+        for (int[] count : visits.values())
+            totalVisits += count[0];
+        for (Map.Entry<VertexInterface<T>, int[]> entry : visits.entrySet())
+            result.put(entry.getKey().getLabel(), (double)entry.getValue()[0] / totalVisits);
+        return result;
+    }
+
+    /**
+     * Estimates the personalized PageRank of the vertices reached from the source and retrieves the labels of the
+     * highest scoring vertices, leaving out the source and any vertex its edges already point to.
+     * @param source An object that labels the source vertex.
+     * @param count The maximum number of labels to retrieve.
+     * @return A list of up to count labels, from the highest estimated score down.
+     */
+    public ArrayList<T> getTopRecommendations(T source, int count) {
+        HashMap<T, Double> scores = computeScores(source);
+        scores.remove(source);
+        ArrayList<T> neighbors = graph.getNeighbors(source, Double.NEGATIVE_INFINITY);
+        if (neighbors != null) {
+            for (T neighbor : neighbors)
+                scores.remove(neighbor);
+        }
+
+        ArrayList<T> result = new ArrayList<>(scores.keySet());
+        result.sort((first, second) -> Double.compare(scores.get(second), scores.get(first)));
+        if (result.size() > count)
+            result.subList(count, result.size()).clear();
+        return result;
+    }
+
+    /**
+     * Determines how many of the walks a batch runs, spreading the remainder over the first batches.
+     * @param batch The batch number.
+     * @param numberOfBatches The number of batches.
+     * @return The number of walks the batch runs.
+     */
+    private int walksInBatch(int batch, int numberOfBatches) {
+        return numberOfWalks / numberOfBatches + ((batch < numberOfWalks % numberOfBatches) ? 1 : 0);
+    }
+
+    /**
+     * Runs a batch of random walks from the source, counting the visits to each vertex.
+     * @param source The source vertex.
+     * @param walks The number of walks to run.
+     * @param seed The random seed for this batch.
+     * @return A map from each visited vertex to its visit count, stored in a one-element array.
+     */
+    private HashMap<VertexInterface<T>, int[]> walk(VertexInterface<T> source, int walks, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        HashMap<VertexInterface<T>, int[]> visits = new HashMap<>();
+        for (int walkNumber = 0; walkNumber < walks; walkNumber++) {
+            VertexInterface<T> current = source;
+            visits.computeIfAbsent(current, vertex -> new int[1])[0]++;
+            for (int step = 0; step < maxWalkLength; step++) {
+                int outDegree = current.getOutDegree();
+                if (outDegree == 0 || random.nextDouble() < restartProbability)
+                    break;
+                current = current.getNeighborAt(random.nextInt(outDegree));
+                visits.computeIfAbsent(current, vertex -> new int[1])[0]++;
+            }
+        }
+        return visits;
+    }
+
+    /**
+     * Adds the visit counts of one batch to those of another.
+     * @param total The visit counts to add to; modified.
+     * @param batch The visit counts to add.
+     * @param <T> The data type of the vertex labels.
+     * @return The combined visit counts.
+     */
+    private static <T> HashMap<VertexInterface<T>, int[]> mergeVisits(HashMap<VertexInterface<T>, int[]> total,
+                                                                      HashMap<VertexInterface<T>, int[]> batch) {
+        if (total.size() < batch.size()) {
+            HashMap<VertexInterface<T>, int[]> temp = total;
+            total = batch;
+            batch = temp;
+        }
+        for (Map.Entry<VertexInterface<T>, int[]> entry : batch.entrySet())
+            total.computeIfAbsent(entry.getKey(), vertex -> new int[1])[0] += entry.getValue()[0];
+        return total;
+    }
+}
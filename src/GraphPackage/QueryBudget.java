@@ -0,0 +1,135 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+
+/**
+ * QueryBudget: Tracks the work done by one query against its limits and cancellation token, and records why the query
+ * stopped. The clock is read only once every CLOCK_INTERVAL steps, since reading it costs more than a step.
+ */
+class QueryBudget {
+    /** The number of steps between reads of the clock. */
+    private static final int CLOCK_INTERVAL = 64;
+
+    /** The limits of the query, or null if it is unlimited. */
+    private final QueryLimits limits;
+    /** The query's cancellation token, or null if it cannot be cancelled. */
+    private final CancellationToken token;
+    /** The time at which the query must stop, in System.nanoTime() units. */
+    private final long deadline;
+    /** Indicates whether the query has a deadline. */
+    private final boolean hasDeadline;
+    /** The number of vertices the query has visited. */
+    private int verticesVisited;
+    /** The number of edges the query has scanned. */
+    private long edgesScanned;
+    /** The number of steps until the clock is next read. */
+    private int stepsUntilClock;
+    /** Why the query stopped early, or null if it has not. */
+    private TraversalResult.StopReason stopReason;
+    /** Indicates whether the query left out a vertex because it was beyond the maximum depth. */
+    private boolean depthCut;
+
+    /**
+     * Constructor creates a new QueryBudget and starts its clock.
+     * @param limits The limits of the query, or null if it is unlimited.
+     * @param token The query's cancellation token, or null if it cannot be cancelled.
+     */
+    QueryBudget(QueryLimits limits, CancellationToken token) {
+        this.limits = limits;
+        this.token = token;
+        hasDeadline = limits != null && limits.getTimeLimitNanos() != Long.MAX_VALUE;
+        deadline = hasDeadline ? System.nanoTime() + limits.getTimeLimitNanos() : 0;
+        verticesVisited = 0;
+        edgesScanned = 0;
+        stepsUntilClock = 0;
+        stopReason = null;
+        depthCut = false;
+    }
+
+    /**
+     * Counts a vertex about to be visited, unless a limit or cancellation stops the query first.
+     * @return True if the vertex may be visited, or false if the query must stop.
+     */
+    boolean admitVertex() {
+        if (!checkInterrupts())
+            return false;
+        if (limits != null && verticesVisited >= limits.getMaxVertices()) {
+            stopReason = TraversalResult.StopReason.VERTEX_LIMIT;
+            return false;
+        }
+        verticesVisited++;
+        return true;
+    }
+
+    /**
+     * Counts an edge about to be scanned, unless a limit or cancellation stops the query first.
+     * @return True if the edge may be scanned, or false if the query must stop.
+     */
+    boolean admitEdge() {
+        if (!checkInterrupts())
+            return false;
+        if (limits != null && edgesScanned >= limits.getMaxEdges()) {
+            stopReason = TraversalResult.StopReason.EDGE_LIMIT;
+            return false;
+        }
+        edgesScanned++;
+        return true;
+    }
+
+    /**
+     * Determines if a vertex at the specified depth may be visited.
+     * @param depth The number of edges between the origin and the vertex.
+     * @return True if the depth is within the maximum depth, or false otherwise.
+     */
+    boolean allowsDepth(int depth) { return limits == null || depth <= limits.getMaxDepth(); }
+
+    /**
+     * Records that the query left out a vertex because it was beyond the maximum depth.
+     */
+    void markDepthCut() { depthCut = true; }
+
+    /**
+     * Forgets that the query left out vertices beyond the maximum depth, for a query whose result they cannot change.
+     */
+    void clearDepthCut() { depthCut = false; }
+
+    /**
+     * Determines if the query has been stopped by a limit or cancellation.
+     * @return True if the query must stop, or false otherwise.
+     */
+    boolean isStopped() { return stopReason != null; }
+
+    /**
+     * Builds the result of the query.
+     * @param labels The labels produced by the query.
+     * @param cost The length or cost of the path found, or positive infinity if no path was found.
+     * @param <T> The data type of the vertex labels.
+     * @return The result of the query, with the reason it stopped.
+     */
+    <T> TraversalResult<T> finish(ArrayList<T> labels, double cost) {
+        TraversalResult.StopReason reason = (stopReason != null) ? stopReason :
+                depthCut ? TraversalResult.StopReason.DEPTH_LIMIT : TraversalResult.StopReason.COMPLETE;
+        return new TraversalResult<>(labels, cost, reason, verticesVisited, edgesScanned);
+    }
+
+    /**
+     * Checks the cancellation token, and the clock every CLOCK_INTERVAL steps.
+     * @return True if the query may continue, or false if it was cancelled or ran out of time.
+     */
+    private boolean checkInterrupts() {
+        if (stopReason != null)
+            return false;
+        if (token != null && token.isCancelled()) {
+            stopReason = TraversalResult.StopReason.CANCELLED;
+            return false;
+        }
+        if (hasDeadline && --stepsUntilClock < 0) {
+            stepsUntilClock = CLOCK_INTERVAL;
+            if (System.nanoTime() - deadline >= 0) {
+                stopReason = TraversalResult.StopReason.DEADLINE;
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+package GraphPackage;
+
+/**
+ * QueryLimits: The budget a single traversal or path query may spend before it stops and returns a partial result:
+ * the number of vertices visited, the number of edges scanned, the depth in edges from the origin, and the elapsed
+ * time. A new QueryLimits object places no limits; each setter adds one. The time limit is measured from the start
+ * of each query, so one QueryLimits object can be shared by many queries.
+ */
+public class QueryLimits {
+    /** The maximum number of vertices a query may visit. */
+    private int maxVertices;
+    /** The maximum number of edges a query may scan. */
+    private long maxEdges;
+    /** The maximum number of edges between the origin and any vertex a query visits. */
+    private int maxDepth;
+    /** The maximum time a query may run, in nanoseconds. */
+    private long timeLimitNanos;
+
+    /**
+     * Constructor creates a new QueryLimits object with no limits.
+     */
+    public QueryLimits() {
+        maxVertices = Integer.MAX_VALUE;
+        maxEdges = Long.MAX_VALUE;
+        maxDepth = Integer.MAX_VALUE;
+        timeLimitNanos = Long.MAX_VALUE;
+    }
+
+    /**
+     * Sets the maximum number of vertices a query may visit, counting the origin.
+     * @param newMaxVertices The maximum number of vertices; at least 1.
+     */
+    public void setMaxVertices(int newMaxVertices) {
+        if (newMaxVertices < 1)
+            throw new IllegalArgumentException("Maximum vertices must be at least 1.");
+        maxVertices = newMaxVertices;
+    }
+
+    /**
+     * Sets the maximum number of edges a query may scan.
+     * @param newMaxEdges The maximum number of edges; at least 0.
+     */
+    public void setMaxEdges(long newMaxEdges) {
+        if (newMaxEdges < 0)
+            throw new IllegalArgumentException("Maximum edges must be at least 0.");
+        maxEdges = newMaxEdges;
+    }
+
+    /**
+     * Sets the maximum number of edges between the origin and any vertex a query visits.
+     * @param newMaxDepth The maximum depth; at least 0.
+     */
+    public void setMaxDepth(int newMaxDepth) {
+        if (newMaxDepth < 0)
+            throw new IllegalArgumentException("Maximum depth must be at least 0.");
+        maxDepth = newMaxDepth;
+    }
+
+    /**
+     * Sets the maximum time a query may run, measured from its start.
+     * @param newTimeLimitMillis The time limit in milliseconds; at least 0.
+     */
+    public void setTimeLimitMillis(long newTimeLimitMillis) {
+        if (newTimeLimitMillis < 0)
+            throw new IllegalArgumentException("Time limit must be at least 0.");
+        timeLimitNanos = (newTimeLimitMillis >= Long.MAX_VALUE / 1000000) ? Long.MAX_VALUE :
+                newTimeLimitMillis * 1000000;
+    }
+
+    /**
+     * Retrieves the maximum number of vertices a query may visit.
+     * @return The maximum number of vertices, or Integer.MAX_VALUE if unlimited.
+     */
+    public int getMaxVertices() { return maxVertices; }
+
+    /**
+     * Retrieves the maximum number of edges a query may scan.
+     * @return The maximum number of edges, or Long.MAX_VALUE if unlimited.
+     */
+    public long getMaxEdges() { return maxEdges; }
+
+    /**
+     * Retrieves the maximum number of edges between the origin and any vertex a query visits.
+     * @return The maximum depth, or Integer.MAX_VALUE if unlimited.
+     */
+    public int getMaxDepth() { return maxDepth; }
+
+    /**
+     * Retrieves the maximum time a query may run.
+     * @return The time limit in nanoseconds, or Long.MAX_VALUE if unlimited.
+     */
+    public long getTimeLimitNanos() { return timeLimitNanos; }
+}
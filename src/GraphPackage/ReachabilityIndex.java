@@ -0,0 +1,372 @@
+package GraphPackage;
+
+import java.util.Arrays;
+
+/**
+ * ReachabilityIndex: A precomputed index that determines whether one vertex of a directed graph can reach another
+ * without traversing the graph. The graph is condensed into a directed acyclic graph of its strongly connected
+ * components, and each component is given two small sorted labels by pruned landmark labeling: the landmarks it can
+ * reach and the landmarks that can reach it. One vertex reaches another exactly when the first one's out-label and the
+ * second one's in-label share a landmark. A topological level filter rejects most negative queries before the labels
+ * are even compared.
+ * <p>
+ * The index reflects the graph as it was when the index was built. Use isStale() to detect later changes to the graph,
+ * and rebuild() to bring the index up to date.
+ * @param <T> The data type of the vertex labels.
+ */
+public final class ReachabilityIndex<T> {
+    /** The graph this index was built from. */
+    private final DirectedGraph<T> graph;
+    /** A compact copy of the graph, used to map labels to vertex numbers. */
+    private CompactGraph<T> compactGraph;
+    /** Stores the strongly connected component number of each vertex number. */
+    private int[] componentOf;
+    /** Stores the topological level of each component; a component can only reach components of a higher level. */
+    private int[] level;
+    /** Stores, for each component, the sorted ranks of the landmarks it can reach. */
+    private int[][] outLabels;
+    /** Stores, for each component, the sorted ranks of the landmarks that can reach it. */
+    private int[][] inLabels;
+
+    /**
+     * Constructor creates a new ReachabilityIndex for the specified graph and builds it.
+     * Runtime: O(V + E) for the condensation, plus one pruned search per component for the labels.
+     * @param graph The directed graph to index. Undirected graphs are also accepted.
+     */
+    public ReachabilityIndex(DirectedGraph<T> graph) {
+        this.graph = graph;
+        rebuild();
+    }
+
+    /**
+     * Determines if there is a directed path from one vertex to another. Every vertex can reach itself.
+     * Runtime: O(size of the two labels), with no traversal of the graph.
+     * @param begin An object that labels the origin vertex.
+     * @param end An object that labels the destination vertex.
+     * @return True if the destination can be reached from the origin, or false if it cannot or either label was not
+     * in the graph when the index was built.
+     */
+    public boolean canReach(T begin, T end) {
+        int beginIndex = compactGraph.indexOf(begin);
+        int endIndex = compactGraph.indexOf(end);
+        if (beginIndex < 0 || endIndex < 0)
+            return false;
+
+        int beginComponent = componentOf[beginIndex];
+        int endComponent = componentOf[endIndex];
+        if (beginComponent == endComponent)
+            return true;
+        if (level[beginComponent] >= level[endComponent])
+            return false;
+        return intersects(outLabels[beginComponent], inLabels[endComponent]);
+    }
+
+    /**
+     * Determines if the graph has changed since the index was built.
+     * @return True if a vertex or edge was added or removed since the index was built, or false otherwise.
+     */
+    public boolean isStale() { return compactGraph.getVersion() != graph.getVersion(); }
+
+    /**
+     * Rebuilds the index from the current state of the graph.
+     */
+    public void rebuild() {
+        CompactGraph<T> newGraph = new CompactGraph<>(graph);
+        int[] components = findStrongComponents(newGraph);
+        int numberOfComponents = 0;
+        for (int component : components)
+            numberOfComponents = Math.max(numberOfComponents, component + 1);
+
+        int[][] dag = condense(newGraph, components, numberOfComponents);
+        int[] dagOffsets = dag[0];
+        int[] dagTargets = dag[1];
+        int[][] reverseDag = transpose(dagOffsets, dagTargets, numberOfComponents);
+
+        // Components are numbered in reverse topological order, so every edge points to a lower number.
+        int[] levels = new int[numberOfComponents];
+        for (int component = numberOfComponents - 1; component >= 0; component--) {
+            for (int edge = dagOffsets[component]; edge < dagOffsets[component + 1]; edge++)
+                levels[dagTargets[edge]] = Math.max(levels[dagTargets[edge]], levels[component] + 1);
+        }
+
+        buildLabels(dagOffsets, dagTargets, reverseDag[0], reverseDag[1], numberOfComponents);
+        componentOf = components;
+        level = levels;
+        compactGraph = newGraph;
+    }
+
+    /**
+     * Retrieves the number of strongly connected components in the graph when the index was built.
+     * @return The number of strongly connected components.
+     */
+    public int getNumberOfComponents() { return level.length; }
+
+    /**
+     * Retrieves the total number of landmark entries stored in all labels, a measure of the index's size.
+     * @return The total number of label entries.
+     */
+    public long getLabelEntryCount() {
+        long count = 0;
+        for (int component = 0; component < level.length; component++)
+            count += outLabels[component].length + inLabels[component].length;
+        return count;
+    }
+
+    /**
+     * Numbers the strongly connected components of a graph with an iterative version of Tarjan's algorithm.
+     * Components are numbered in reverse topological order. Runtime: O(V + E).
+     * @param compact The graph to search.
+     * @return An array storing the component number of each vertex number.
+     */
+    private static int[] findStrongComponents(CompactGraph<?> compact) {
+        int numberOfVertices = compact.size();
+        int[] offsets = compact.getOutOffsets();
+        int[] targets = compact.getOutTargets();
+        int[] discovery = new int[numberOfVertices];
+        int[] lowLink = new int[numberOfVertices];
+        int[] components = new int[numberOfVertices];
+        int[] nextEdge = new int[numberOfVertices];
+        boolean[] onStack = new boolean[numberOfVertices];
+        int[] componentStack = new int[numberOfVertices];
+        int[] callStack = new int[numberOfVertices];
+        Arrays.fill(discovery, -1);
+        int componentTop = 0;
+        int discoveryCount = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < numberOfVertices; root++) {
+            if (discovery[root] >= 0)
+                continue;
+
+            int callTop = 0;
+            callStack[callTop++] = root;
+            discovery[root] = lowLink[root] = discoveryCount++;
+            nextEdge[root] = offsets[root];
+            componentStack[componentTop++] = root;
+            onStack[root] = true;
+
+            while (callTop > 0) {
+                int vertex = callStack[callTop - 1];
+                if (nextEdge[vertex] < offsets[vertex + 1]) {
+                    int neighbor = targets[nextEdge[vertex]++];
+                    if (discovery[neighbor] < 0) {
+                        discovery[neighbor] = lowLink[neighbor] = discoveryCount++;
+                        nextEdge[neighbor] = offsets[neighbor];
+                        componentStack[componentTop++] = neighbor;
+                        onStack[neighbor] = true;
+                        callStack[callTop++] = neighbor;
+                    }
+                    else if (onStack[neighbor])
+                        lowLink[vertex] = Math.min(lowLink[vertex], discovery[neighbor]);
+                }
+                else {
+                    callTop--;
+                    if (callTop > 0) {
+                        int caller = callStack[callTop - 1];
+                        lowLink[caller] = Math.min(lowLink[caller], lowLink[vertex]);
+                    }
+                    if (lowLink[vertex] == discovery[vertex]) {
+                        int member;
+                        do {
+                            member = componentStack[--componentTop];
+                            onStack[member] = false;
+                            components[member] = componentCount;
+                        } while (member != vertex);
+                        componentCount++;
+                    }
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Builds the condensation of a graph, with one vertex per strongly connected component and no duplicate edges.
+     * Runtime: O(V + E).
+     * @param compact The graph to condense.
+     * @param components The component number of each vertex number.
+     * @param numberOfComponents The number of components.
+     * @return A pair of arrays: the edge offsets and edge targets of the condensation.
+     */
+    private static int[][] condense(CompactGraph<?> compact, int[] components, int numberOfComponents) {
+        int[] offsets = compact.getOutOffsets();
+        int[] targets = compact.getOutTargets();
+
+        int[] memberOffsets = new int[numberOfComponents + 1];
+        for (int component : components)
+            memberOffsets[component + 1]++;
+        for (int component = 0; component < numberOfComponents; component++)
+            memberOffsets[component + 1] += memberOffsets[component];
+        int[] members = new int[components.length];
+        int[] fill = memberOffsets.clone();
+        for (int vertex = 0; vertex < components.length; vertex++)
+            members[fill[components[vertex]]++] = vertex;
+
+        int[] lastSeen = new int[numberOfComponents];
+        Arrays.fill(lastSeen, -1);
+        int[] dagOffsets = new int[numberOfComponents + 1];
+        IntList dagTargets = new IntList(numberOfComponents);
+        for (int component = 0; component < numberOfComponents; component++) {
+            for (int member = memberOffsets[component]; member < memberOffsets[component + 1]; member++) {
+                int vertex = members[member];
+                for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                    int targetComponent = components[targets[edge]];
+                    if (targetComponent != component && lastSeen[targetComponent] != component) {
+                        lastSeen[targetComponent] = component;
+                        dagTargets.add(targetComponent);
+                    }
+                }
+            }
+            dagOffsets[component + 1] = dagTargets.size();
+        }
+        return new int[][] { dagOffsets, dagTargets.toArray() };
+    }
+
+    /**
+     * Reverses the edges of a graph stored as offset and target arrays. Runtime: O(V + E).
+     * @param offsets The edge offsets of the graph.
+     * @param targets The edge targets of the graph.
+     * @param numberOfVertices The number of vertices in the graph.
+     * @return A pair of arrays: the edge offsets and edge targets of the reversed graph.
+     */
+    private static int[][] transpose(int[] offsets, int[] targets, int numberOfVertices) {
+        int[] reverseOffsets = new int[numberOfVertices + 1];
+        for (int target : targets)
+            reverseOffsets[target + 1]++;
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            reverseOffsets[vertex + 1] += reverseOffsets[vertex];
+
+        int[] fill = reverseOffsets.clone();
+        int[] reverseTargets = new int[targets.length];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++)
+                reverseTargets[fill[targets[edge]]++] = vertex;
+        }
+        return new int[][] { reverseOffsets, reverseTargets };
+    }
+
+    /**
+     * Builds the in-labels and out-labels of every component by pruned landmark labeling. Components are taken as
+     * landmarks in decreasing order of degree, and each landmark's forward and backward searches stop at any component
+     * whose reachability is already answered by the labels of earlier landmarks.
+     * @param offsets The edge offsets of the condensation.
+     * @param targets The edge targets of the condensation.
+     * @param reverseOffsets The edge offsets of the reversed condensation.
+     * @param reverseTargets The edge targets of the reversed condensation.
+     * @param numberOfComponents The number of components.
+     */
+    private void buildLabels(int[] offsets, int[] targets, int[] reverseOffsets, int[] reverseTargets,
+                             int numberOfComponents) {
+        Integer[] order = new Integer[numberOfComponents];
+        long[] priority = new long[numberOfComponents];
+        for (int component = 0; component < numberOfComponents; component++) {
+            order[component] = component;
+            priority[component] = (long)(offsets[component + 1] - offsets[component] + 1) *
+                    (reverseOffsets[component + 1] - reverseOffsets[component] + 1);
+        }
+        Arrays.sort(order, (first, second) -> Long.compare(priority[second], priority[first]));
+
+        IntList[] outLists = new IntList[numberOfComponents];
+        IntList[] inLists = new IntList[numberOfComponents];
+        for (int component = 0; component < numberOfComponents; component++) {
+            outLists[component] = new IntList();
+            inLists[component] = new IntList();
+        }
+
+        int[] visitedStamp = new int[numberOfComponents];
+        int[] queue = new int[numberOfComponents];
+        for (int rank = 0; rank < numberOfComponents; rank++) {
+            int landmark = order[rank];
+            prunedSearch(landmark, rank, offsets, targets, outLists[landmark], inLists, true,
+                    visitedStamp, 2 * rank + 1, queue);
+            prunedSearch(landmark, rank, reverseOffsets, reverseTargets, inLists[landmark], outLists, false,
+                    visitedStamp, 2 * rank + 2, queue);
+        }
+
+        outLabels = new int[numberOfComponents][];
+        inLabels = new int[numberOfComponents][];
+        for (int component = 0; component < numberOfComponents; component++) {
+            outLabels[component] = outLists[component].toArray();
+            inLabels[component] = inLists[component].toArray();
+        }
+    }
+
+    /**
+     * Searches outward from a landmark in one direction, adding the landmark's rank to the labels of every component
+     * reached whose reachability is not already answered by earlier landmarks.
+     * @param landmark The component number of the landmark.
+     * @param rank The rank of the landmark, which is larger than every rank already in the labels.
+     * @param offsets The edge offsets of the graph to search.
+     * @param targets The edge targets of the graph to search.
+     * @param landmarkLabel The landmark's own label on the searching side.
+     * @param reachedLabels The labels to add the rank to on the reached side.
+     * @param forward True if searching along edges, or false if searching against them.
+     * @param visitedStamp The search stamp of each component, used instead of clearing a visited array.
+     * @param stamp The stamp of this search.
+     * @param queue A work array for the search queue, of length equal to the number of components.
+     */
+    private static void prunedSearch(int landmark, int rank, int[] offsets, int[] targets, IntList landmarkLabel,
+                                     IntList[] reachedLabels, boolean forward, int[] visitedStamp, int stamp,
+                                     int[] queue) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = landmark;
+        visitedStamp[landmark] = stamp;
+
+        while (head < tail) {
+            int component = queue[head++];
+            if (component != landmark && intersects(landmarkLabel, reachedLabels[component]))
+                continue;
+            reachedLabels[component].add(rank);
+
+            for (int edge = offsets[component]; edge < offsets[component + 1]; edge++) {
+                int neighbor = targets[edge];
+                if (visitedStamp[neighbor] != stamp) {
+                    visitedStamp[neighbor] = stamp;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines if two sorted lists share an element, by merging them.
+     * @param first The first sorted list.
+     * @param second The second sorted list.
+     * @return True if some element appears in both lists, or false otherwise.
+     */
+    private static boolean intersects(IntList first, IntList second) {
+        int firstPosition = 0;
+        int secondPosition = 0;
+        while (firstPosition < first.size() && secondPosition < second.size()) {
+            int difference = first.get(firstPosition) - second.get(secondPosition);
+            if (difference == 0)
+                return true;
+            if (difference < 0)
+                firstPosition++;
+            else
+                secondPosition++;
+        }
+        return false;
+    }
+
+    /**
+     * Determines if two sorted arrays share an element, by merging them.
+     * @param first The first sorted array.
+     * @param second The second sorted array.
+     * @return True if some element appears in both arrays, or false otherwise.
+     */
+    private static boolean intersects(int[] first, int[] second) {
+        int firstPosition = 0;
+        int secondPosition = 0;
+        while (firstPosition < first.length && secondPosition < second.length) {
+            if (first[firstPosition] == second[secondPosition])
+                return true;
+            if (first[firstPosition] < second[secondPosition])
+                firstPosition++;
+            else
+                secondPosition++;
+        }
+        return false;
+    }
+}
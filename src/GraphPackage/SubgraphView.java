@@ -0,0 +1,619 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Stack;
+import java.util.function.Predicate;
+
+/**
+ * SubgraphView: A read-only view of the part of a graph that passes a vertex predicate and an edge predicate, on
+ * which every traversal and path algorithm runs without copying the graph. An edge is in the view if both its ends
+ * pass the vertex predicate and it passes the edge predicate. The predicates are applied as the algorithms reach each
+ * vertex and edge, so the view always reflects the current graph. The algorithms keep their progress in local maps
+ * rather than in the graph's vertices, so they do not disturb traversals of the underlying graph, but the graph must
+ * not be modified while one is running. Methods that would modify the graph throw UnsupportedOperationException.
+ * @param <T> The data type of the vertex labels.
+ */
+public class SubgraphView<T> implements GraphInterface<T> {
+    /** The graph this view is of. */
+    private final DirectedGraph<T> graph;
+    /** The test each vertex label must pass to be in the view, or null if every vertex is included. */
+    private final Predicate<? super T> vertexFilter;
+    /** The test each edge must pass to be in the view, or null if every edge between included vertices is included. */
+    private final EdgePredicate<? super T> edgeFilter;
+
+    /**
+     * Constructor creates a new SubgraphView of the specified graph.
+     * @param graph The graph to view.
+     * @param vertexFilter The test each vertex label must pass to be in the view, or null to include every vertex.
+     * @param edgeFilter The test each edge must pass to be in the view, or null to include every edge between
+     * included vertices.
+     */
+    public SubgraphView(DirectedGraph<T> graph, Predicate<? super T> vertexFilter,
+                        EdgePredicate<? super T> edgeFilter) {
+        this.graph = graph;
+        this.vertexFilter = vertexFilter;
+        this.edgeFilter = edgeFilter;
+    }
+
+    /**
+     * Creates a view of the ego network of a vertex: the vertices within the specified number of hops along edges
+     * from it, and the edges between them. The set of vertices is fixed when the view is created.
+     * Runtime: O(size of the ego network and its edges).
+     * @param graph The graph to view.
+     * @param center The label of the vertex at the center of the ego network.
+     * @param hops The maximum number of edges between the center and any vertex in the view; at least 0.
+     * @param <T> The data type of the vertex labels.
+     * @return A view of the ego network, which is empty if the center is not in the graph.
+     */
+    public static <T> SubgraphView<T> egoNetwork(DirectedGraph<T> graph, T center, int hops) {
+        QueryLimits limits = new QueryLimits();
+        limits.setMaxDepth(hops);
+        HashSet<T> members = new HashSet<>(
+                new SubgraphView<>(graph, null, null).getBreadthFirstTraversal(center, limits, null).getLabels());
+        return new SubgraphView<>(graph, members::contains, null);
+    }
+
+    /**
+     * Throws UnsupportedOperationException, since views are read-only.
+     * @param vertexLabel The label object to store in the vertex.
+     * @return Never returns.
+     */
+    public boolean addVertex(T vertexLabel) { throw new UnsupportedOperationException("Subgraph views are read-only."); }
+
+    /**
+     * Throws UnsupportedOperationException, since views are read-only.
+     * @param vertexLabel The label of the vertex to remove.
+     * @return Never returns.
+     */
+    public boolean removeVertex(T vertexLabel) {
+        throw new UnsupportedOperationException("Subgraph views are read-only.");
+    }
+
+    /**
+     * Throws UnsupportedOperationException, since views are read-only.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @param edgeWeight The real value of the edge's weight.
+     * @return Never returns.
+     */
+    public boolean addEdge(T begin, T end, double edgeWeight) {
+        throw new UnsupportedOperationException("Subgraph views are read-only.");
+    }
+
+    /**
+     * Throws UnsupportedOperationException, since views are read-only.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @return Never returns.
+     */
+    public boolean addEdge(T begin, T end) { throw new UnsupportedOperationException("Subgraph views are read-only."); }
+
+    /**
+     * Throws UnsupportedOperationException, since views are read-only.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @return Never returns.
+     */
+    public boolean removeEdge(T begin, T end) {
+        throw new UnsupportedOperationException("Subgraph views are read-only.");
+    }
+
+    /**
+     * Throws UnsupportedOperationException, since views are read-only.
+     */
+    public void clear() { throw new UnsupportedOperationException("Subgraph views are read-only."); }
+
+    /**
+     * Determines if the view contains an edge from one vertex to another.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @return True if the edge is in the graph and passes both predicates, or false otherwise.
+     */
+    public boolean hasEdge(T begin, T end) {
+        VertexInterface<T> beginVertex = includedVertex(begin);
+        if (beginVertex == null || includedVertex(end) == null)
+            return false;
+        Iterator<VertexInterface<T>> neighbors = beginVertex.getNeighborIterator();
+        Iterator<Double> edgeWeights = beginVertex.getWeightIterator();
+        while (neighbors.hasNext()) {
+            T neighborLabel = neighbors.next().getLabel();
+            double edgeWeight = edgeWeights.next();
+            if (neighborLabel.equals(end))
+                return edgeFilter == null || edgeFilter.test(begin, end, edgeWeight);
+        }
+        return false;
+    }
+
+    /**
+     * Determines if a vertex is in the view.
+     * @param vertexLabel The label object of the vertex.
+     * @return True if the vertex is in the graph and passes the vertex predicate, or false otherwise.
+     */
+    public boolean containsVertex(T vertexLabel) { return includedVertex(vertexLabel) != null; }
+
+    /**
+     * Determines if the view contains no vertices. Runtime: O(V) in the worst case.
+     * @return True if no vertex of the graph passes the vertex predicate, or false otherwise.
+     */
+    public boolean isEmpty() {
+        for (VertexInterface<T> vertex : graph.getVertexObjects()) {
+            if (vertexFilter == null || vertexFilter.test(vertex.getLabel()))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Counts the vertices in the view. Runtime: O(V).
+     * @return The number of vertices that pass the vertex predicate.
+     */
+    public int getNumberOfVertices() {
+        if (vertexFilter == null)
+            return graph.getNumberOfVertices();
+        int count = 0;
+        for (VertexInterface<T> vertex : graph.getVertexObjects()) {
+            if (vertexFilter.test(vertex.getLabel()))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Counts the directed edges in the view. Runtime: O(V + E).
+     * @return The number of edges that pass both predicates.
+     */
+    public int getNumberOfEdges() {
+        int count = 0;
+        ArrayList<VertexInterface<T>> neighbors = new ArrayList<>();
+        ArrayList<Double> edgeWeights = new ArrayList<>();
+        for (VertexInterface<T> vertex : graph.getVertexObjects()) {
+            if (vertexFilter == null || vertexFilter.test(vertex.getLabel()))
+                count += loadEdges(vertex, neighbors, edgeWeights);
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the labels of the neighbors of a vertex in the view connected by an edge of at least the specified
+     * weight.
+     * @param vertexLabel The label object of the vertex.
+     * @param weightMin The minimum weight of the edges to follow.
+     * @return A list of neighbor labels, or null if the vertex is not in the view.
+     */
+    public ArrayList<T> getNeighbors(T vertexLabel, double weightMin) {
+        VertexInterface<T> vertex = includedVertex(vertexLabel);
+        if (vertex == null)
+            return null;
+        ArrayList<VertexInterface<T>> neighbors = new ArrayList<>();
+        ArrayList<Double> edgeWeights = new ArrayList<>();
+        loadEdges(vertex, neighbors, edgeWeights);
+        ArrayList<T> neighborLabels = new ArrayList<>();
+        for (int index = 0; index < neighbors.size(); index++) {
+            if (edgeWeights.get(index) >= weightMin)
+                neighborLabels.add(neighbors.get(index).getLabel());
+        }
+        return neighborLabels;
+    }
+
+    /**
+     * Retrieves the breadth-first traversal of the view from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @return A queue of labels in breadth-first order, or null if the origin is not in the view.
+     */
+    public Queue<T> getBreadthFirstTraversal(T origin) {
+        if (!containsVertex(origin))
+            return null;
+        return new LinkedList<>(getBreadthFirstTraversal(origin, null, null).getLabels());
+    }
+
+    /**
+     * Retrieves the depth-first traversal of the view from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @return A queue of labels in depth-first order, or null if the origin is not in the view.
+     */
+    public Queue<T> getDepthFirstTraversal(T origin) {
+        if (!containsVertex(origin))
+            return null;
+        return new LinkedList<>(getDepthFirstTraversal(origin, null, null).getLabels());
+    }
+
+    /**
+     * Retrieves the topological order of the vertices in the view, which must have no cycles. Runtime: O(V + E).
+     * @return A stack of labels in topological order, beginning with the stack's top.
+     */
+    public Stack<T> getTopologicalOrder() {
+        Stack<T> order = new Stack<>();
+        // A vertex maps to false while it is on the search path and to true once all its descendants are ordered.
+        HashMap<VertexInterface<T>, Boolean> finished = new HashMap<>();
+        Stack<VertexInterface<T>> vertexStack = new Stack<>();
+        Stack<Iterator<VertexInterface<T>>> neighborStack = new Stack<>();
+        for (VertexInterface<T> start : graph.getVertexObjects()) {
+            if (finished.containsKey(start) || (vertexFilter != null && !vertexFilter.test(start.getLabel())))
+                continue;
+            finished.put(start, false);
+            vertexStack.push(start);
+            neighborStack.push(edgeTargets(start).iterator());
+            while (!vertexStack.isEmpty()) {
+                Iterator<VertexInterface<T>> neighbors = neighborStack.peek();
+                if (neighbors.hasNext()) {
+                    VertexInterface<T> nextNeighbor = neighbors.next();
+                    Boolean state = finished.get(nextNeighbor);
+                    if (state == null) {
+                        finished.put(nextNeighbor, false);
+                        vertexStack.push(nextNeighbor);
+                        neighborStack.push(edgeTargets(nextNeighbor).iterator());
+                    }
+                    else if (!state)
+                        throw new UnsupportedOperationException("Cannot get topological order for cyclic graph.");
+                }
+                else {
+                    VertexInterface<T> finishedVertex = vertexStack.pop();
+                    neighborStack.pop();
+                    finished.put(finishedVertex, true);
+                    order.push(finishedVertex.getLabel());
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Calculates the shortest path in number of edges between two vertices in the view.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param path A stack of labels that is empty initially; at the completion of the method, this stack contains
+     * the labels of the vertices along the shortest path, with the label of the origin vertex at the top, or is
+     * unchanged if there is no path.
+     * @return The length of the shortest path, or -1 if there is no path in the view.
+     */
+    public int getShortestPath(T begin, T end, Stack<T> path) {
+        TraversalResult<T> result = getShortestPath(begin, end, null, null);
+        if (!result.isPathFound())
+            return -1;
+        pushPath(result.getLabels(), path);
+        return (int)result.getCost();
+    }
+
+    /**
+     * Finds the least-cost path between two vertices in the view.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param path A stack of labels that is empty initially; at the completion of the method, this stack contains
+     * the labels of the vertices along the cheapest path, with the label of the origin vertex at the top, or is
+     * unchanged if there is no path.
+     * @return The cost of the cheapest path, or positive infinity if there is no path in the view.
+     */
+    public double getCheapestPath(T begin, T end, Stack<T> path) {
+        TraversalResult<T> result = getCheapestPath(begin, end, null, null);
+        if (result.isPathFound())
+            pushPath(result.getLabels(), path);
+        return result.getCost();
+    }
+
+    /**
+     * Retrieves the breadth-first traversal of the view from the origin, stopping early when the traversal exceeds
+     * the specified limits or is cancelled.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @param limits The limits of the traversal, or null for no limits.
+     * @param token A token that cancels the traversal, or null.
+     * @return The labels of the vertices in breadth-first order, which is empty if the origin is not in the view,
+     * and whether the traversal was truncated.
+     */
+    public TraversalResult<T> getBreadthFirstTraversal(T origin, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        ArrayList<T> traversalOrder = new ArrayList<>();
+        VertexInterface<T> originVertex = includedVertex(origin);
+        if (originVertex != null && budget.admitVertex())
+            searchBreadthFirst(originVertex, null, budget, traversalOrder, new HashMap<>());
+        return budget.finish(traversalOrder, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Retrieves the depth-first traversal of the view from the origin, stopping early when the traversal exceeds the
+     * specified limits or is cancelled. Depth is the number of edges on the traversal's path from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @param limits The limits of the traversal, or null for no limits.
+     * @param token A token that cancels the traversal, or null.
+     * @return The labels of the vertices in depth-first order, which is empty if the origin is not in the view, and
+     * whether the traversal was truncated.
+     */
+    public TraversalResult<T> getDepthFirstTraversal(T origin, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        ArrayList<T> traversalOrder = new ArrayList<>();
+        VertexInterface<T> originVertex = includedVertex(origin);
+        if (originVertex == null || !budget.admitVertex())
+            return budget.finish(traversalOrder, Double.POSITIVE_INFINITY);
+
+        HashSet<VertexInterface<T>> visited = new HashSet<>();
+        Stack<Iterator<VertexInterface<T>>> neighborStack = new Stack<>();
+        visited.add(originVertex);
+        traversalOrder.add(origin);
+        neighborStack.push(edgeTargets(originVertex).iterator());
+        Stack<VertexInterface<T>> vertexStack = new Stack<>();
+        vertexStack.push(originVertex);
+
+        while (!vertexStack.isEmpty() && !budget.isStopped()) {
+            Iterator<VertexInterface<T>> neighbors = neighborStack.peek();
+            VertexInterface<T> nextNeighbor = null;
+            while (nextNeighbor == null && neighbors.hasNext() && budget.admitEdge()) {
+                VertexInterface<T> candidate = neighbors.next();
+                if (!visited.contains(candidate))
+                    nextNeighbor = candidate;
+            }
+
+            if (nextNeighbor == null) {
+                vertexStack.pop();
+                neighborStack.pop();
+            }
+            else if (!budget.allowsDepth(vertexStack.size()))
+                budget.markDepthCut();
+            else if (budget.admitVertex()) {
+                visited.add(nextNeighbor);
+                traversalOrder.add(nextNeighbor.getLabel());
+                vertexStack.push(nextNeighbor);
+                neighborStack.push(edgeTargets(nextNeighbor).iterator());
+            }
+        }
+        return budget.finish(traversalOrder, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Calculates the shortest path in number of edges between two vertices in the view, stopping early when the
+     * search exceeds the specified limits or is cancelled.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param limits The limits of the search, or null for no limits.
+     * @param token A token that cancels the search, or null.
+     * @return The labels along the path from origin to destination and the path's length, or an empty path with
+     * infinite length if there is no path within the limits.
+     */
+    public TraversalResult<T> getShortestPath(T begin, T end, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        VertexInterface<T> originVertex = includedVertex(begin);
+        VertexInterface<T> endVertex = includedVertex(end);
+        if (originVertex == null || endVertex == null || !budget.admitVertex())
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+
+        HashMap<VertexInterface<T>, VertexInterface<T>> predecessors = new HashMap<>();
+        if (!searchBreadthFirst(originVertex, endVertex, budget, null, predecessors))
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+        budget.clearDepthCut();
+        ArrayList<T> path = tracePath(endVertex, predecessors);
+        return budget.finish(path, path.size() - 1);
+    }
+
+    /**
+     * Finds the least-cost path between two vertices in the view, stopping early when the search exceeds the
+     * specified limits or is cancelled. With a maximum depth, the search does not extend the cheapest path to any
+     * vertex past that many edges.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param limits The limits of the search, or null for no limits.
+     * @param token A token that cancels the search, or null.
+     * @return The labels along the path from origin to destination and the path's cost, or an empty path with
+     * infinite cost if there is no path within the limits.
+     */
+    public TraversalResult<T> getCheapestPath(T begin, T end, QueryLimits limits, CancellationToken token) {
+        QueryBudget budget = new QueryBudget(limits, token);
+        VertexInterface<T> originVertex = includedVertex(begin);
+        VertexInterface<T> endVertex = includedVertex(end);
+        if (originVertex == null || endVertex == null)
+            return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+
+        HashMap<VertexInterface<T>, VertexInterface<T>> predecessors = new HashMap<>();
+        HashMap<VertexInterface<T>, Double> settledCosts = new HashMap<>();
+        PriorityQueue<SearchEntry<T>> priorityQueue = new PriorityQueue<>();
+        priorityQueue.add(new SearchEntry<>(originVertex, 0, null, 0));
+
+        while (!priorityQueue.isEmpty() && !budget.isStopped()) {
+            SearchEntry<T> frontEntry = priorityQueue.remove();
+            VertexInterface<T> frontVertex = frontEntry.vertex;
+            if (settledCosts.containsKey(frontVertex) || !budget.admitVertex())
+                continue;
+
+            settledCosts.put(frontVertex, frontEntry.cost);
+            predecessors.put(frontVertex, frontEntry.predecessor);
+            if (frontVertex.equals(endVertex))
+                return budget.finish(tracePath(endVertex, predecessors), frontEntry.cost);
+
+            boolean atMaxDepth = !budget.allowsDepth(frontEntry.depth + 1);
+            Iterator<VertexInterface<T>> neighbors = frontVertex.getNeighborIterator();
+            Iterator<Double> edgeWeights = frontVertex.getWeightIterator();
+            while (neighbors.hasNext() && budget.admitEdge()) {
+                VertexInterface<T> nextNeighbor = neighbors.next();
+                double edgeWeight = edgeWeights.next();
+                if (settledCosts.containsKey(nextNeighbor) || !includesEdge(frontVertex, nextNeighbor, edgeWeight))
+                    continue;
+                if (atMaxDepth)
+                    budget.markDepthCut();
+                else
+                    priorityQueue.add(new SearchEntry<>(nextNeighbor, frontEntry.cost + edgeWeight, frontVertex,
+                            frontEntry.depth + 1));
+            }
+        }
+        return budget.finish(new ArrayList<>(), Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Searches breadth-first from the origin within the budget and the view. The origin must already be admitted to
+     * the budget.
+     * @param originVertex The origin vertex.
+     * @param endVertex The vertex at which to stop, or null to search every reachable vertex.
+     * @param budget The budget of the search.
+     * @param traversalOrder The list to add the label of each visited vertex to, or null.
+     * @param predecessors Filled with the vertex each visited vertex was reached from, which is null for the origin.
+     * @return True if the end vertex was reached, or false otherwise.
+     */
+    private boolean searchBreadthFirst(VertexInterface<T> originVertex, VertexInterface<T> endVertex,
+                                       QueryBudget budget, ArrayList<T> traversalOrder,
+                                       HashMap<VertexInterface<T>, VertexInterface<T>> predecessors) {
+        HashMap<VertexInterface<T>, Integer> depths = new HashMap<>();
+        depths.put(originVertex, 0);
+        predecessors.put(originVertex, null);
+        if (traversalOrder != null)
+            traversalOrder.add(originVertex.getLabel());
+        if (originVertex.equals(endVertex))
+            return true;
+
+        Queue<VertexInterface<T>> vertexQueue = new LinkedList<>();
+        vertexQueue.add(originVertex);
+        while (!vertexQueue.isEmpty()) {
+            VertexInterface<T> frontVertex = vertexQueue.remove();
+            int frontDepth = depths.get(frontVertex);
+            boolean atMaxDepth = !budget.allowsDepth(frontDepth + 1);
+            Iterator<VertexInterface<T>> neighbors = frontVertex.getNeighborIterator();
+            Iterator<Double> edgeWeights = frontVertex.getWeightIterator();
+            while (neighbors.hasNext()) {
+                if (!budget.admitEdge())
+                    return false;
+                VertexInterface<T> nextNeighbor = neighbors.next();
+                double edgeWeight = edgeWeights.next();
+                if (depths.containsKey(nextNeighbor) || !includesEdge(frontVertex, nextNeighbor, edgeWeight))
+                    continue;
+                if (atMaxDepth) {
+                    budget.markDepthCut();
+                    break;
+                }
+                if (!budget.admitVertex())
+                    return false;
+
+                depths.put(nextNeighbor, frontDepth + 1);
+                predecessors.put(nextNeighbor, frontVertex);
+                if (traversalOrder != null)
+                    traversalOrder.add(nextNeighbor.getLabel());
+                if (nextNeighbor.equals(endVertex))
+                    return true;
+                vertexQueue.add(nextNeighbor);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the vertex object of a label if the vertex is in the view.
+     * @param vertexLabel The label object of the vertex.
+     * @return The vertex object, or null if the vertex is not in the graph or fails the vertex predicate.
+     */
+    private VertexInterface<T> includedVertex(T vertexLabel) {
+        VertexInterface<T> vertex = graph.getVertex(vertexLabel);
+        if (vertex == null || (vertexFilter != null && !vertexFilter.test(vertexLabel)))
+            return null;
+        return vertex;
+    }
+
+    /**
+     * Determines if an edge from an included vertex is in the view.
+     * @param from The vertex the edge leaves, which must be in the view.
+     * @param to The vertex the edge points to.
+     * @param edgeWeight The weight of the edge.
+     * @return True if the end vertex passes the vertex predicate and the edge passes the edge predicate.
+     */
+    private boolean includesEdge(VertexInterface<T> from, VertexInterface<T> to, double edgeWeight) {
+        return (vertexFilter == null || vertexFilter.test(to.getLabel())) &&
+                (edgeFilter == null || edgeFilter.test(from.getLabel(), to.getLabel(), edgeWeight));
+    }
+
+    /**
+     * Collects the edges of an included vertex that are in the view.
+     * @param vertex The vertex, which must be in the view.
+     * @param neighbors Cleared, then filled with the vertex each edge points to.
+     * @param edgeWeights Cleared, then filled with the weight of each edge.
+     * @return The number of edges collected.
+     */
+    private int loadEdges(VertexInterface<T> vertex, ArrayList<VertexInterface<T>> neighbors,
+                          ArrayList<Double> edgeWeights) {
+        neighbors.clear();
+        edgeWeights.clear();
+        Iterator<VertexInterface<T>> neighborIterator = vertex.getNeighborIterator();
+        Iterator<Double> weightIterator = vertex.getWeightIterator();
+        while (neighborIterator.hasNext()) {
+            VertexInterface<T> neighbor = neighborIterator.next();
+            double edgeWeight = weightIterator.next();
+            if (includesEdge(vertex, neighbor, edgeWeight)) {
+                neighbors.add(neighbor);
+                edgeWeights.add(edgeWeight);
+            }
+        }
+        return neighbors.size();
+    }
+
+    /**
+     * Collects the vertices the edges of an included vertex point to in the view.
+     * @param vertex The vertex, which must be in the view.
+     * @return A list of the vertices its edges in the view point to.
+     */
+    private ArrayList<VertexInterface<T>> edgeTargets(VertexInterface<T> vertex) {
+        ArrayList<VertexInterface<T>> neighbors = new ArrayList<>();
+        loadEdges(vertex, neighbors, new ArrayList<>());
+        return neighbors;
+    }
+
+    /**
+     * Follows predecessors back from a vertex reached by a search to build the path from the search's origin.
+     * @param endVertex The last vertex of the path.
+     * @param predecessors The vertex each reached vertex was reached from, which is null for the origin.
+     * @return The labels along the path, from origin to end vertex.
+     */
+    private ArrayList<T> tracePath(VertexInterface<T> endVertex,
+                                   HashMap<VertexInterface<T>, VertexInterface<T>> predecessors) {
+        ArrayList<T> path = new ArrayList<>();
+        for (VertexInterface<T> vertex = endVertex; vertex != null; vertex = predecessors.get(vertex))
+            path.add(vertex.getLabel());
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Pushes a path onto a stack so that its first label is on top.
+     * @param labels The labels along the path, from origin to destination.
+     * @param path The stack to push the labels onto.
+     */
+    private void pushPath(List<T> labels, Stack<T> path) {
+        for (int index = labels.size() - 1; index >= 0; index--)
+            path.push(labels.get(index));
+    }
+
+    /**
+     * SearchEntry: A priority queue entry for the cheapest path search, recording how a vertex was reached.
+     * @param <T> The data type of the vertex labels.
+     */
+    private static final class SearchEntry<T> implements Comparable<SearchEntry<T>> {
+        /** The vertex reached. */
+        private final VertexInterface<T> vertex;
+        /** The cost of the path to the vertex. */
+        private final double cost;
+        /** The vertex the path reached this vertex from, or null for the origin. */
+        private final VertexInterface<T> predecessor;
+        /** The number of edges on the path to the vertex. */
+        private final int depth;
+
+        /**
+         * Constructor creates a new SearchEntry.
+         * @param vertex The vertex reached.
+         * @param cost The cost of the path to the vertex.
+         * @param predecessor The vertex the path reached this vertex from, or null for the origin.
+         * @param depth The number of edges on the path to the vertex.
+         */
+        private SearchEntry(VertexInterface<T> vertex, double cost, VertexInterface<T> predecessor, int depth) {
+            this.vertex = vertex;
+            this.cost = cost;
+            this.predecessor = predecessor;
+            this.depth = depth;
+        }
+
+        /**
+         * Compares the cost of this entry's path to another's.
+         * @param otherEntry The other entry.
+         * @return A negative number, zero, or a positive number as this path is cheaper, equal, or more expensive.
+         */
+        public int compareTo(SearchEntry<T> otherEntry) { return Double.compare(cost, otherEntry.cost); }
+    }
+}
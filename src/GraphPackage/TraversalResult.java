@@ -0,0 +1,102 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TraversalResult: The result of a traversal or path query run with limits: the labels it produced, why it stopped,
+ * and how much work it did. A result that stopped on a limit or cancellation is truncated; its labels are those
+ * produced before it stopped.
+ * @param <T> The data type of the vertex labels.
+ */
+public class TraversalResult<T> {
+    /**
+     * StopReason: Why a query stopped.
+     */
+    public enum StopReason {
+        /** The query ran to completion. */
+        COMPLETE,
+        /** The query visited the maximum number of vertices. */
+        VERTEX_LIMIT,
+        /** The query scanned the maximum number of edges. */
+        EDGE_LIMIT,
+        /** The query reached every vertex within the maximum depth, but there were vertices beyond it. */
+        DEPTH_LIMIT,
+        /** The query ran out of time. */
+        DEADLINE,
+        /** The query's cancellation token was cancelled. */
+        CANCELLED
+    }
+
+    /** The labels of the vertices in the order visited, or along the path from origin to destination. */
+    private final List<T> labels;
+    /** The length or cost of the path found, or positive infinity if no path was found. */
+    private final double cost;
+    /** Why the query stopped. */
+    private final StopReason stopReason;
+    /** The number of vertices the query visited. */
+    private final int verticesVisited;
+    /** The number of edges the query scanned. */
+    private final long edgesScanned;
+
+    /**
+     * Constructor creates a new TraversalResult.
+     * @param labels The labels produced by the query.
+     * @param cost The length or cost of the path found, or positive infinity if no path was found.
+     * @param stopReason Why the query stopped.
+     * @param verticesVisited The number of vertices the query visited.
+     * @param edgesScanned The number of edges the query scanned.
+     */
+    TraversalResult(ArrayList<T> labels, double cost, StopReason stopReason, int verticesVisited,
+                    long edgesScanned) {
+        this.labels = Collections.unmodifiableList(labels);
+        this.cost = cost;
+        this.stopReason = stopReason;
+        this.verticesVisited = verticesVisited;
+        this.edgesScanned = edgesScanned;
+    }
+
+    /**
+     * Retrieves the labels produced by the query: the vertices in the order a traversal visited them, or the
+     * vertices along a path from origin to destination, which is empty if no path was found.
+     * @return A read-only list of labels.
+     */
+    public List<T> getLabels() { return labels; }
+
+    /**
+     * Retrieves the length in edges or cost of the path a path query found. Traversals report positive infinity.
+     * @return The length or cost of the path, or positive infinity if no path was found.
+     */
+    public double getCost() { return cost; }
+
+    /**
+     * Determines if a path query found a path.
+     * @return True if a path was found, or false otherwise.
+     */
+    public boolean isPathFound() { return cost != Double.POSITIVE_INFINITY; }
+
+    /**
+     * Determines if the query stopped before completing, so its result may be partial.
+     * @return True if the query stopped on a limit or cancellation, or false if it completed.
+     */
+    public boolean isTruncated() { return stopReason != StopReason.COMPLETE; }
+
+    /**
+     * Retrieves why the query stopped.
+     * @return The reason the query stopped.
+     */
+    public StopReason getStopReason() { return stopReason; }
+
+    /**
+     * Retrieves the number of vertices the query visited.
+     * @return The number of vertices visited.
+     */
+    public int getVerticesVisited() { return verticesVisited; }
+
+    /**
+     * Retrieves the number of edges the query scanned.
+     * @return The number of edges scanned.
+     */
+    public long getEdgesScanned() { return edgesScanned; }
+}
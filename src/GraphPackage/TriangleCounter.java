@@ -0,0 +1,284 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * TriangleCounter: Counts the triangles each vertex of a graph belongs to, ignoring edge direction, and derives local
+ * clustering coefficients and global transitivity from the counts. Each edge is oriented from the endpoint of lower
+ * degree to the endpoint of higher degree, so every triangle is found exactly once, from its lowest vertex, by
+ * intersecting two sorted lists of oriented neighbors. Intersections merge lists of similar length and gallop through
+ * the longer list otherwise. Vertices are processed in parallel.
+ * @param <T> The data type of the vertex labels.
+ */
+public class TriangleCounter<T> {
+    /** The length ratio above which an intersection gallops through the longer list instead of merging. */
+    private static final int GALLOP_RATIO = 16;
+
+    /** The graph to count triangles in. */
+    private final DirectedGraph<T> graph;
+
+    /**
+     * Constructor creates a new TriangleCounter for the specified graph.
+     * @param graph The graph to count triangles in.
+     */
+    public TriangleCounter(DirectedGraph<T> graph) { this.graph = graph; }
+
+    /**
+     * Counts the triangles each vertex belongs to. Runtime: O(E * sqrt(E)) in the worst case, divided among the
+     * threads of the common fork-join pool.
+     * @return A map from each vertex label to the number of triangles it belongs to.
+     */
+    public HashMap<T, Long> computeTriangleCounts() {
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        long[] counts = countTriangles(compact);
+        HashMap<T, Long> result = new HashMap<>();
+        for (int vertex = 0; vertex < counts.length; vertex++)
+            result.put(compact.getLabel(vertex), counts[vertex]);
+        return result;
+    }
+
+    /**
+     * Counts the triangles in the whole graph.
+     * @return The number of triangles in the graph.
+     */
+    public long getTotalTriangles() {
+        long total = 0;
+        for (long count : countTriangles(new CompactGraph<>(graph)))
+            total += count;
+        return total / 3;
+    }
+
+    /**
+     * Computes the local clustering coefficient of every vertex: the fraction of pairs of its neighbors that are
+     * neighbors of each other.
+     * @return A map from each vertex label to its clustering coefficient, which is 0 for vertices with fewer than two
+     * neighbors.
+     */
+    public HashMap<T, Double> computeClusteringCoefficients() {
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        long[] counts = countTriangles(compact);
+        int[] offsets = compact.getUndirectedOffsets();
+        HashMap<T, Double> result = new HashMap<>();
+        for (int vertex = 0; vertex < counts.length; vertex++) {
+            long degree = offsets[vertex + 1] - offsets[vertex];
+            double pairs = degree * (degree - 1) / 2.0;
+            result.put(compact.getLabel(vertex), (pairs == 0) ? 0 : counts[vertex] / pairs);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the global transitivity of the graph: the fraction of connected triples of vertices that are closed
+     * into triangles.
+     * @return The global transitivity, or 0 if the graph has no connected triples.
+     */
+    public double getGlobalTransitivity() {
+        CompactGraph<T> compact = new CompactGraph<>(graph);
+        long[] counts = countTriangles(compact);
+        int[] offsets = compact.getUndirectedOffsets();
+        long triangleCorners = 0;
+        double triples = 0;
+        for (int vertex = 0; vertex < counts.length; vertex++) {
+            long degree = offsets[vertex + 1] - offsets[vertex];
+            triangleCorners += counts[vertex];
+            triples += degree * (degree - 1) / 2.0;
+        }
+        return (triples == 0) ? 0 : triangleCorners / triples;
+    }
+
+    /**
+     * Computes the local clustering coefficient of a single vertex directly from the graph, without copying it. Edge
+     * direction is ignored, as in computeClusteringCoefficients: in a directed graph, the neighbors are the vertex's
+     * out-neighbors and in-neighbors, and two neighbors are linked by an edge either way. Runtime: O(sum of the degrees
+     * of the vertex's neighbors) for an undirected graph, or O(V + E) for a directed graph, whose in-neighbors can
+     * only be found by scanning every edge.
+     * @param vertexLabel The label object of the vertex.
+     * @return The vertex's clustering coefficient, or 0 if it has fewer than two neighbors or is not in the graph.
+     */
+    public double getClusteringCoefficient(T vertexLabel) {
+        HashSet<T> neighborSet = neighborSet(vertexLabel);
+        if (!(graph instanceof UndirectedGraph)) {
+            for (VertexInterface<T> vertex : graph.getVertexObjects()) {
+                Iterator<VertexInterface<T>> neighbors = vertex.getNeighborIterator();
+                while (neighbors.hasNext()) {
+                    if (neighbors.next().getLabel().equals(vertexLabel)) {
+                        neighborSet.add(vertex.getLabel());
+                        break;
+                    }
+                }
+            }
+        }
+        neighborSet.remove(vertexLabel);
+        long degree = neighborSet.size();
+        if (degree < 2)
+            return 0;
+
+        HashMap<T, HashSet<T>> outNeighborSets = new HashMap<>();
+        for (T neighbor : neighborSet)
+            outNeighborSets.put(neighbor, neighborSet(neighbor));
+        // An edge between two neighbors links them once, but a pair joined both ways is seen from each end.
+        double linkedPairs = 0;
+        for (T neighbor : neighborSet) {
+            for (T secondNeighbor : outNeighborSets.get(neighbor)) {
+                if (!secondNeighbor.equals(neighbor) && neighborSet.contains(secondNeighbor))
+                    linkedPairs += outNeighborSets.get(secondNeighbor).contains(neighbor) ? 0.5 : 1;
+            }
+        }
+        return linkedPairs / (degree * (degree - 1) / 2.0);
+    }
+
+    /**
+     * Retrieves the labels of the vertices the specified vertex's edges point to. In an undirected graph these are
+     * all of its neighbors; in a directed graph they are only its out-neighbors.
+     * @param vertexLabel The label object of the vertex.
+     * @return A set of the labels of the vertex's out-neighbors, which is empty if the vertex is not in the graph.
+     */
+    private HashSet<T> neighborSet(T vertexLabel) {
+        HashSet<T> neighborSet = new HashSet<>();
+        ArrayList<T> neighbors = graph.getNeighbors(vertexLabel, Double.NEGATIVE_INFINITY);
+        if (neighbors != null)
+            neighborSet.addAll(neighbors);
+        return neighborSet;
+    }
+
+    /**
+     * Counts the triangles each vertex belongs to by intersecting oriented neighbor lists in parallel.
+     * @param compact The graph to count triangles in.
+     * @return The number of triangles each vertex number belongs to.
+     */
+    private static long[] countTriangles(CompactGraph<?> compact) {
+        int numberOfVertices = compact.size();
+        int[] offsets = compact.getUndirectedOffsets();
+        int[] neighbors = compact.getUndirectedTargets();
+
+        // Keep only the neighbors that come later in (degree, vertex number) order; the sorted order is preserved.
+        int[] forwardOffsets = new int[numberOfVertices + 1];
+        int[] forwardCounts = new int[numberOfVertices];
+        IntStream.range(0, numberOfVertices).parallel().forEach(vertex -> {
+            int count = 0;
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                if (comesBefore(vertex, neighbors[edge], offsets))
+                    count++;
+            }
+            forwardCounts[vertex] = count;
+        });
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            forwardOffsets[vertex + 1] = forwardOffsets[vertex] + forwardCounts[vertex];
+        int[] forward = new int[forwardOffsets[numberOfVertices]];
+        IntStream.range(0, numberOfVertices).parallel().forEach(vertex -> {
+            int position = forwardOffsets[vertex];
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                if (comesBefore(vertex, neighbors[edge], offsets))
+                    forward[position++] = neighbors[edge];
+            }
+        });
+
+        AtomicLongArray counts = new AtomicLongArray(numberOfVertices);
+        IntStream.range(0, numberOfVertices).parallel().forEach(vertex -> {
+            long vertexCount = 0;
+            for (int edge = forwardOffsets[vertex]; edge < forwardOffsets[vertex + 1]; edge++) {
+                int neighbor = forward[edge];
+                int found = intersect(forward, forwardOffsets[vertex], forwardOffsets[vertex + 1],
+                        forwardOffsets[neighbor], forwardOffsets[neighbor + 1], counts);
+                if (found > 0) {
+                    vertexCount += found;
+                    counts.addAndGet(neighbor, found);
+                }
+            }
+            if (vertexCount > 0)
+                counts.addAndGet(vertex, vertexCount);
+        });
+
+        long[] result = new long[numberOfVertices];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++)
+            result[vertex] = counts.get(vertex);
+        return result;
+    }
+
+    /**
+     * Determines if one vertex comes before another in the orientation order: by degree, then by vertex number.
+     * @param first The first vertex number.
+     * @param second The second vertex number.
+     * @param offsets The undirected neighbor offsets, from which degrees are read.
+     * @return True if the first vertex comes before the second, or false otherwise.
+     */
+    private static boolean comesBefore(int first, int second, int[] offsets) {
+        int firstDegree = offsets[first + 1] - offsets[first];
+        int secondDegree = offsets[second + 1] - offsets[second];
+        return (firstDegree < secondDegree) || (firstDegree == secondDegree && first < second);
+    }
+
+    /**
+     * Intersects two sorted ranges of the same array, adding one to the count of every common element, since each
+     * common element closes a triangle. Merges the ranges if their lengths are similar, and otherwise searches the
+     * longer range for each element of the shorter one by galloping.
+     * @param list The array containing both ranges.
+     * @param firstStart The start of the first range.
+     * @param firstEnd The end of the first range, exclusive.
+     * @param secondStart The start of the second range.
+     * @param secondEnd The end of the second range, exclusive.
+     * @param counts The triangle count of each vertex number.
+     * @return The number of common elements.
+     */
+    private static int intersect(int[] list, int firstStart, int firstEnd, int secondStart, int secondEnd,
+                                 AtomicLongArray counts) {
+        int firstLength = firstEnd - firstStart;
+        int secondLength = secondEnd - secondStart;
+        if (firstLength == 0 || secondLength == 0)
+            return 0;
+        if (firstLength > secondLength)
+            return intersect(list, secondStart, secondEnd, firstStart, firstEnd, counts);
+
+        int found = 0;
+        if (secondLength > GALLOP_RATIO * firstLength) {
+            int low = secondStart;
+            for (int position = firstStart; position < firstEnd && low < secondEnd; position++) {
+                int value = list[position];
+                int step = 1;
+                int high = low;
+                while (high < secondEnd && list[high] < value) {
+                    low = high + 1;
+                    high += step;
+                    step <<= 1;
+                }
+                high = Math.min(high, secondEnd - 1);
+                while (low <= high) {
+                    int middle = (low + high) >>> 1;
+                    if (list[middle] < value)
+                        low = middle + 1;
+                    else
+                        high = middle - 1;
+                }
+                if (low < secondEnd && list[low] == value) {
+                    counts.incrementAndGet(value);
+                    found++;
+                    low++;
+                }
+            }
+            return found;
+        }
+
+        int firstPosition = firstStart;
+        int secondPosition = secondStart;
+        while (firstPosition < firstEnd && secondPosition < secondEnd) {
+            int firstValue = list[firstPosition];
+            int secondValue = list[secondPosition];
+            if (firstValue == secondValue) {
+                counts.incrementAndGet(firstValue);
+                found++;
+                firstPosition++;
+                secondPosition++;
+            }
+            else if (firstValue < secondValue)
+                firstPosition++;
+            else
+                secondPosition++;
+        }
+        return found;
+    }
+}
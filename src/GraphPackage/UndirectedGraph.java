@@ -1,16 +1,61 @@
 package GraphPackage;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Stack;
 
 /**
  * UndirectedGraph: An implementation of a generic graph with bidirectional edges between vertices.
  * @param <T> The dada type to store in vertex labels.
  */
-public class UndirectedGraph<T> extends DirectedGraph<T> implements GraphInterface<T> {
+public final class UndirectedGraph<T> extends DirectedGraph<T> implements GraphInterface<T> {
+    /** An index of the connected components of this graph, kept up to date as vertices and edges change. */
+    private final ComponentIndex<T> components;
+    /** Indicates whether a vertex is being removed, so the edge removals it causes are not indexed one by one. */
+    private boolean removingVertex;
+
     /**
      * Constructor creates a new UndirectedGraph object with no vertices or edges.
      */
-    public UndirectedGraph() { super(); }
+    public UndirectedGraph() {
+        super();
+        components = new ComponentIndex<>(this);
+        removingVertex = false;
+    }
+
+    /**
+     * Adds a new vertex with no edges to the graph, as a connected component of its own.
+     * @param vertexLabel The label object to store in the vertex. Must be distinct from other labels in the graph.
+     * @return True if the new vertex was added to the graph, or false if the label already exists in the graph.
+     */
+    public boolean addVertex(T vertexLabel) {
+        if (super.addVertex(vertexLabel)) {
+            components.vertexAdded(vertexLabel);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes a vertex and all of its edges from the graph. Only the connected component the vertex belonged to is
+     * regrouped.
+     * @param vertexLabel The label of the vertex to remove from the graph.
+     * @return True if the vertex that corresponds to the label was removed, or false if the label was not found.
+     */
+    public boolean removeVertex(T vertexLabel) {
+        removingVertex = true;
+        boolean removed;
+        try {
+            removed = super.removeVertex(vertexLabel);
+        } finally {
+            removingVertex = false;
+        }
+        if (removed)
+            components.vertexRemoved(vertexLabel);
+        return removed;
+    }
 
     /**
      * Creates a new bidirectional edge between one vertex and another with the specified edge weight.
@@ -20,8 +65,11 @@ public class UndirectedGraph<T> extends DirectedGraph<T> implements GraphInterfa
      * @return True if a new edge was added, or false if one of the vertices was not found, or the edge already exists.
      */
     public boolean addEdge(T begin, T end, double edgeWeight) {
-        return super.addEdge(begin, end, edgeWeight) &&
-                super.addEdge(end, begin, edgeWeight);
+        if (super.addEdge(begin, end, edgeWeight) && super.addEdge(end, begin, edgeWeight)) {
+            components.edgeAdded(begin, end);
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -33,6 +81,45 @@ public class UndirectedGraph<T> extends DirectedGraph<T> implements GraphInterfa
      */
     public boolean addEdge(T begin, T end) { return this.addEdge(begin, end, 0); }
 
+    /**
+     * Adds many new vertices with no edges at once, each as a connected component of its own, growing the map of
+     * vertices once for all of them.
+     * @param vertexLabels The label objects to store in the new vertices. Labels already in the graph, and repeats,
+     * are skipped.
+     * @return The number of vertices added.
+     */
+    public int addVertices(Collection<? extends T> vertexLabels) {
+        ArrayList<T> added = insertVertices(vertexLabels);
+        for (T vertexLabel : added)
+            components.vertexAdded(vertexLabel);
+        return added.size();
+    }
+
+    /**
+     * Adds many bidirectional edges at once, far faster than calling addEdge for each, as DirectedGraph.addEdges
+     * describes, then merges the connected components they join.
+     * @param begins The labels of one vertex of each edge.
+     * @param ends The labels of the other vertex of each edge, in the same order as begins.
+     * @param edgeWeights The weight of each edge, in the same order as begins, or null to give every edge weight 0.
+     * @return The number of bidirectional edges added.
+     */
+    public int addEdges(List<? extends T> begins, List<? extends T> ends, double[] edgeWeights) {
+        boolean[] added = insertEdges(begins, ends, edgeWeights, true);
+        int count = begins.size();
+        int addedCount = 0;
+        Iterator<? extends T> beginIterator = begins.iterator();
+        Iterator<? extends T> endIterator = ends.iterator();
+        for (int edge = 0; edge < count; edge++) {
+            T begin = beginIterator.next();
+            T end = endIterator.next();
+            if (added[2 * edge] || added[2 * edge + 1]) {
+                components.edgeAdded(begin, end);
+                addedCount += (added[2 * edge] ? 1 : 0) + (added[2 * edge + 1] ? 1 : 0);
+            }
+        }
+        return addedCount / 2;
+    }
+
     /**
      * Removes a bidirectional edge between one vertex and another.
      * @param begin An object that labels the origin vertex of the edge.
@@ -40,9 +127,71 @@ public class UndirectedGraph<T> extends DirectedGraph<T> implements GraphInterfa
      * @return True if the edge was removed, or false if the edge/vertex was not found.
      */
     public boolean removeEdge(T begin, T end) {
-        return super.removeEdge(begin, end) && super.removeEdge(end, begin);
+        if (super.removeEdge(begin, end) && super.removeEdge(end, begin)) {
+            if (!removingVertex)
+                components.edgeRemoved(begin, end);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds vertices whose bidirectional edges are already connected, then indexes their connected components.
+     * Runtime: O(V + E alpha(V)).
+     * @param loadedVertices The vertices to add, with distinct labels.
+     * @param loadedEdgeCount The number of edges leaving the vertices, counting each bidirectional edge twice.
+     */
+    void loadVertices(List<? extends VertexInterface<T>> loadedVertices, int loadedEdgeCount) {
+        super.loadVertices(loadedVertices, loadedEdgeCount);
+        for (VertexInterface<T> vertex : loadedVertices)
+            components.vertexAdded(vertex.getLabel());
+        for (VertexInterface<T> vertex : loadedVertices) {
+            Iterator<VertexInterface<T>> neighbors = vertex.getNeighborIterator();
+            while (neighbors.hasNext())
+                components.edgeAdded(vertex.getLabel(), neighbors.next().getLabel());
+        }
+    }
+
+    /**
+     * Removes all vertices and edges from the graph, resetting it to an empty state.
+     */
+    public void clear() {
+        super.clear();
+        components.clear();
     }
 
+    /**
+     * Determines if there is a path between two vertices, using the connected component index rather than a
+     * traversal. Does not change the graph, so it may be called from several threads at once. Runtime: O(log V).
+     * @param label1 The label object of the first vertex.
+     * @param label2 The label object of the second vertex.
+     * @return True if both vertices are in the graph and connected by some path, or false otherwise.
+     */
+    public boolean sameComponent(T label1, T label2) { return components.sameComponent(label1, label2); }
+
+    /**
+     * Retrieves the number of vertices connected to the specified vertex by some path, including itself, using the
+     * connected component index rather than a traversal. Runtime: O(log V).
+     * @param vertexLabel The label object of the vertex.
+     * @return The number of vertices in the vertex's connected component, or 0 if the vertex is not in the graph.
+     */
+    public int componentSize(T vertexLabel) { return components.componentSize(vertexLabel); }
+
+    /**
+     * Retrieves the labels of all vertices connected to the specified vertex by some path, using the connected
+     * component index rather than a traversal. Runtime: O(size of the component).
+     * @param vertexLabel The label object of the vertex.
+     * @return A list of the labels in the vertex's connected component, beginning with the vertex itself, or an empty
+     * list if the vertex is not in the graph.
+     */
+    public ArrayList<T> componentMembers(T vertexLabel) { return components.componentMembers(vertexLabel); }
+
+    /**
+     * Retrieves the number of connected components in the graph.
+     * @return The number of connected components in the graph.
+     */
+    public int getNumberOfComponents() { return components.getNumberOfComponents(); }
+
     /**
      * Override method returns the number of bidirectional edges in the graph, which is half of the total edges
      * since two edges exist between connected vertices.
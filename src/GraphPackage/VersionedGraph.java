@@ -0,0 +1,380 @@
+package GraphPackage;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Stack;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * VersionedGraph: A graph whose every version is immutable, so readers can take a snapshot of it in constant time and
+ * traverse the snapshot for as long as they like while writers go on changing the graph. Vertices and edges are kept
+ * in persistent hash maps, so a change copies only the few map nodes on the path to what it changes, sharing the rest
+ * with the previous version, and then publishes the new version through a volatile reference. Writers are serialized
+ * by a lock; readers take no locks and never wait. A version's memory is reclaimed by the garbage collector once no
+ * snapshot refers to it.
+ * <p>
+ * Reads and traversals on the graph itself are answered by the current version, as if from a snapshot taken when
+ * they begin. Paths that do not exist are reported as a length of -1 or a cost of positive infinity, with the path
+ * left unchanged.
+ * @param <T> The data type of the vertex labels.
+ */
+public class VersionedGraph<T> implements GraphInterface<T> {
+    /** Indicates whether each edge is stored in both directions. */
+    private final boolean undirected;
+    /** Serializes changes to the graph. */
+    private final ReentrantLock writeLock;
+    /** The current version of the graph. */
+    private volatile GraphSnapshot<T> current;
+
+    /**
+     * Constructor creates a new, empty directed VersionedGraph.
+     */
+    public VersionedGraph() { this(false); }
+
+    /**
+     * Constructor creates a new, empty VersionedGraph.
+     * @param undirected True for an undirected graph, whose edges join their vertices in both directions, or false for
+     * a directed graph.
+     */
+    public VersionedGraph(boolean undirected) {
+        this.undirected = undirected;
+        writeLock = new ReentrantLock();
+        current = new GraphSnapshot<>(PersistentHashMap.empty(), 0, 0, undirected);
+    }
+
+    /**
+     * Takes an immutable snapshot of the current version of the graph. Runtime: O(1).
+     * @return The snapshot, which is unaffected by later changes to the graph.
+     */
+    public GraphSnapshot<T> snapshot() { return current; }
+
+    /**
+     * Retrieves the current version of the graph, which increases with every change.
+     * @return The graph's version.
+     */
+    public long getVersion() { return current.getVersion(); }
+
+    /**
+     * Determines if the graph is undirected.
+     * @return True if every edge joins its vertices in both directions, or false otherwise.
+     */
+    public boolean isUndirected() { return undirected; }
+
+    /**
+     * Adds a new vertex with no edges to the graph.
+     * @param vertexLabel The label object to store in the vertex. Must be distinct from other labels in the graph.
+     * @return True if the new vertex was added to the graph, or false if the label already exists in the graph.
+     */
+    public boolean addVertex(T vertexLabel) {
+        writeLock.lock();
+        try {
+            GraphSnapshot<T> version = current;
+            PersistentHashMap<T, GraphSnapshot.VertexRecord<T>> vertices = version.getVertexRecords();
+            if (vertices.containsKey(vertexLabel))
+                return false;
+            GraphSnapshot.VertexRecord<T> emptyRecord =
+                    new GraphSnapshot.VertexRecord<>(PersistentHashMap.empty(), PersistentHashMap.empty());
+            publish(vertices.plus(vertexLabel, emptyRecord), version.getDirectedEdgeCount());
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a vertex and every edge to or from it. Runtime: O(d log V), where d is the vertex's degree.
+     * @param vertexLabel The label of the vertex to remove.
+     * @return True if the vertex was removed, or false if the vertex was not found.
+     */
+    public boolean removeVertex(T vertexLabel) {
+        writeLock.lock();
+        try {
+            GraphSnapshot<T> version = current;
+            PersistentHashMap<T, GraphSnapshot.VertexRecord<T>> vertices = version.getVertexRecords();
+            GraphSnapshot.VertexRecord<T> record = vertices.get(vertexLabel);
+            if (record == null)
+                return false;
+            int edgeCount = version.getDirectedEdgeCount();
+            for (Map.Entry<T, Double> edge : record.inEdges) {
+                vertices = withoutOutEdge(vertices, edge.getKey(), vertexLabel);
+                edgeCount--;
+            }
+            for (Map.Entry<T, Double> edge : record.outEdges) {
+                vertices = withoutInEdge(vertices, edge.getKey(), vertexLabel);
+                edgeCount--;
+            }
+            publish(vertices.minus(vertexLabel), edgeCount);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a weighted edge between two given distinct vertices that are currently in the graph. The desired edge must
+     * not already be in the graph.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @param edgeWeight The real value of the edge's weight.
+     * @return True if the edge is added, or false otherwise.
+     */
+    public boolean addEdge(T begin, T end, double edgeWeight) {
+        writeLock.lock();
+        try {
+            GraphSnapshot<T> version = current;
+            PersistentHashMap<T, GraphSnapshot.VertexRecord<T>> vertices = version.getVertexRecords();
+            GraphSnapshot.VertexRecord<T> beginRecord = vertices.get(begin);
+            if (beginRecord == null || begin.equals(end) || !vertices.containsKey(end)
+                    || beginRecord.outEdges.containsKey(end))
+                return false;
+            int edgeCount = version.getDirectedEdgeCount() + 1;
+            vertices = withEdge(vertices, begin, end, edgeWeight);
+            if (undirected) {
+                vertices = withEdge(vertices, end, begin, edgeWeight);
+                edgeCount++;
+            }
+            publish(vertices, edgeCount);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds an unweighted edge between two given distinct vertices that are currently in the graph. The desired edge
+     * must not already be in the graph.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @return True if the edge is added, or false otherwise.
+     */
+    public boolean addEdge(T begin, T end) { return addEdge(begin, end, 0); }
+
+    /**
+     * Removes an edge between two given vertices.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @return True if the edge was removed, or false if it was not found.
+     */
+    public boolean removeEdge(T begin, T end) {
+        writeLock.lock();
+        try {
+            GraphSnapshot<T> version = current;
+            PersistentHashMap<T, GraphSnapshot.VertexRecord<T>> vertices = version.getVertexRecords();
+            GraphSnapshot.VertexRecord<T> beginRecord = vertices.get(begin);
+            if (beginRecord == null || !beginRecord.outEdges.containsKey(end))
+                return false;
+            int edgeCount = version.getDirectedEdgeCount() - 1;
+            vertices = withoutInEdge(withoutOutEdge(vertices, begin, end), end, begin);
+            if (undirected) {
+                vertices = withoutInEdge(withoutOutEdge(vertices, end, begin), begin, end);
+                edgeCount--;
+            }
+            publish(vertices, edgeCount);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes every vertex and edge from the graph. Snapshots taken earlier keep their contents.
+     */
+    public void clear() {
+        writeLock.lock();
+        try {
+            publish(PersistentHashMap.empty(), 0);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Determines if there is an edge from one vertex to another.
+     * @param begin An object that labels the origin vertex of the edge.
+     * @param end An object that labels the end vertex of the edge.
+     * @return True if the edge exists, or false otherwise.
+     */
+    public boolean hasEdge(T begin, T end) { return current.hasEdge(begin, end); }
+
+    /**
+     * Determines if a vertex is in the graph.
+     * @param vertexLabel The label object of the vertex.
+     * @return True if the vertex is in the graph, or false otherwise.
+     */
+    public boolean containsVertex(T vertexLabel) { return current.containsVertex(vertexLabel); }
+
+    /**
+     * Determines if the graph is empty, containing no vertices.
+     * @return True if the graph is empty, or false otherwise.
+     */
+    public boolean isEmpty() { return current.isEmpty(); }
+
+    /**
+     * Retrieves the number of vertices in the graph.
+     * @return The number of vertices.
+     */
+    public int getNumberOfVertices() { return current.getNumberOfVertices(); }
+
+    /**
+     * Retrieves the number of edges in the graph, counting each edge of an undirected graph once.
+     * @return The number of edges.
+     */
+    public int getNumberOfEdges() { return current.getNumberOfEdges(); }
+
+    /**
+     * Retrieves a list of the labels of any neighbors of the specified vertex connected by an edge greater than or
+     * equal to the specified edge weight.
+     * @param vertexLabel The label object of the vertex.
+     * @param weightMin The minimum weight of the edges to follow.
+     * @return A list of neighbor labels, or null if the vertex is not in the graph.
+     */
+    public ArrayList<T> getNeighbors(T vertexLabel, double weightMin) {
+        return current.getNeighbors(vertexLabel, weightMin);
+    }
+
+    /**
+     * Retrieves the breadth-first traversal of the current version from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @return A queue of labels in breadth-first order, or null if the origin is not in the graph.
+     */
+    public Queue<T> getBreadthFirstTraversal(T origin) { return current.getBreadthFirstTraversal(origin); }
+
+    /**
+     * Retrieves the depth-first traversal of the current version from the origin.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @return A queue of labels in depth-first order, or null if the origin is not in the graph.
+     */
+    public Queue<T> getDepthFirstTraversal(T origin) { return current.getDepthFirstTraversal(origin); }
+
+    /**
+     * Retrieves the topological order of the current version, which must have no cycles.
+     * @return A stack of labels in topological order, beginning with the stack's top.
+     */
+    public Stack<T> getTopologicalOrder() { return current.getTopologicalOrder(); }
+
+    /**
+     * Calculates the shortest path in number of edges between two vertices in the current version.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param path A stack of labels that is empty initially; at the completion of the method, this stack contains
+     * the labels of the vertices along the shortest path, with the label of the origin vertex at the top, or is
+     * unchanged if there is no path.
+     * @return The length of the shortest path, or -1 if there is no path.
+     */
+    public int getShortestPath(T begin, T end, Stack<T> path) { return current.getShortestPath(begin, end, path); }
+
+    /**
+     * Finds the least-cost path between two vertices in the current version.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param path A stack of labels that is empty initially; at the completion of the method, this stack contains
+     * the labels of the vertices along the cheapest path, with the label of the origin vertex at the top, or is
+     * unchanged if there is no path.
+     * @return The cost of the cheapest path, or positive infinity if there is no path.
+     */
+    public double getCheapestPath(T begin, T end, Stack<T> path) { return current.getCheapestPath(begin, end, path); }
+
+    /**
+     * Retrieves the breadth-first traversal of the current version from the origin, stopping early when the
+     * traversal exceeds the specified limits or is cancelled.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @param limits The limits of the traversal, or null for no limits.
+     * @param token A token that cancels the traversal, or null.
+     * @return The labels of the vertices in breadth-first order and whether the traversal was truncated.
+     */
+    public TraversalResult<T> getBreadthFirstTraversal(T origin, QueryLimits limits, CancellationToken token) {
+        return current.getBreadthFirstTraversal(origin, limits, token);
+    }
+
+    /**
+     * Retrieves the depth-first traversal of the current version from the origin, stopping early when the traversal
+     * exceeds the specified limits or is cancelled.
+     * @param origin An object that labels the origin vertex of the traversal.
+     * @param limits The limits of the traversal, or null for no limits.
+     * @param token A token that cancels the traversal, or null.
+     * @return The labels of the vertices in depth-first order and whether the traversal was truncated.
+     */
+    public TraversalResult<T> getDepthFirstTraversal(T origin, QueryLimits limits, CancellationToken token) {
+        return current.getDepthFirstTraversal(origin, limits, token);
+    }
+
+    /**
+     * Calculates the shortest path in number of edges between two vertices in the current version, stopping early
+     * when the search exceeds the specified limits or is cancelled.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param limits The limits of the search, or null for no limits.
+     * @param token A token that cancels the search, or null.
+     * @return The labels along the path and the path's length, or an empty path with infinite length.
+     */
+    public TraversalResult<T> getShortestPath(T begin, T end, QueryLimits limits, CancellationToken token) {
+        return current.getShortestPath(begin, end, limits, token);
+    }
+
+    /**
+     * Finds the least-cost path between two vertices in the current version, stopping early when the search exceeds
+     * the specified limits or is cancelled.
+     * @param begin An object that labels the path's origin vertex.
+     * @param end An object that labels the path's destination vertex.
+     * @param limits The limits of the search, or null for no limits.
+     * @param token A token that cancels the search, or null.
+     * @return The labels along the path and the path's cost, or an empty path with infinite cost.
+     */
+    public TraversalResult<T> getCheapestPath(T begin, T end, QueryLimits limits, CancellationToken token) {
+        return current.getCheapestPath(begin, end, limits, token);
+    }
+
+    /**
+     * Publishes a new version of the graph. The write lock must be held.
+     * @param vertices The vertex records of the new version.
+     * @param edgeCount The number of directed edges in the new version.
+     */
+    private void publish(PersistentHashMap<T, GraphSnapshot.VertexRecord<T>> vertices, int edgeCount) {
+        current = new GraphSnapshot<>(vertices, edgeCount, current.getVersion() + 1, undirected);
+    }
+
+    /**
+     * Derives vertex records with a directed edge added to both its vertices.
+     * @param vertices The vertex records to derive from.
+     * @param begin The label of the edge's origin vertex.
+     * @param end The label of the edge's end vertex.
+     * @param edgeWeight The weight of the edge.
+     * @return The new vertex records.
+     */
+    private static <T> PersistentHashMap<T, GraphSnapshot.VertexRecord<T>> withEdge(
+            PersistentHashMap<T, GraphSnapshot.VertexRecord<T>> vertices, T begin, T end, double edgeWeight) {
+        GraphSnapshot.VertexRecord<T> beginRecord = vertices.get(begin);
+        vertices = vertices.plus(begin,
+                new GraphSnapshot.VertexRecord<>(beginRecord.outEdges.plus(end, edgeWeight), beginRecord.inEdges));
+        GraphSnapshot.VertexRecord<T> endRecord = vertices.get(end);
+        return vertices.plus(end,
+                new GraphSnapshot.VertexRecord<>(endRecord.outEdges, endRecord.inEdges.plus(begin, edgeWeight)));
+    }
+
+    /**
+     * Derives vertex records with an edge removed from the outgoing edges of its origin vertex.
+     * @param vertices The vertex records to derive from.
+     * @param begin The label of the edge's origin vertex.
+     * @param end The label of the edge's end vertex.
+     * @return The new vertex records.
+     */
+    private static <T> PersistentHashMap<T, GraphSnapshot.VertexRecord<T>> withoutOutEdge(
+            PersistentHashMap<T, GraphSnapshot.VertexRecord<T>> vertices, T begin, T end) {
+        GraphSnapshot.VertexRecord<T> record = vertices.get(begin);
+        return vertices.plus(begin, new GraphSnapshot.VertexRecord<>(record.outEdges.minus(end), record.inEdges));
+    }
+
+    /**
+     * Derives vertex records with an edge removed from the incoming edges of its end vertex.
+     * @param vertices The vertex records to derive from.
+     * @param end The label of the edge's end vertex.
+     * @param begin The label of the edge's origin vertex.
+     * @return The new vertex records.
+     */
+    private static <T> PersistentHashMap<T, GraphSnapshot.VertexRecord<T>> withoutInEdge(
+            PersistentHashMap<T, GraphSnapshot.VertexRecord<T>> vertices, T end, T begin) {
+        GraphSnapshot.VertexRecord<T> record = vertices.get(end);
+        return vertices.plus(end, new GraphSnapshot.VertexRecord<>(record.outEdges, record.inEdges.minus(begin)));
+    }
+}
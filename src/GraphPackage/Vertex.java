@@ -33,6 +33,20 @@ class Vertex<T> implements VertexInterface<T> {
         cost = 0;
     }
 
+    /**
+     * Constructor creates a new Vertex object with room for the specified number of edges, for loaders that know each
+     * vertex's degree in advance.
+     * @param vertexLabel The label object to store in this vertex.
+     * @param expectedDegree The number of edges the vertex can hold before its edge list must grow.
+     */
+    Vertex(T vertexLabel, int expectedDegree) {
+        label = vertexLabel;
+        edgeList = new ArrayList<>(expectedDegree);
+        visited = false;
+        previousVertex = null;
+        cost = 0;
+    }
+
     /**
      * Retrieves the label object stored in this vertex.
      * @return The stored label object.
@@ -107,6 +121,21 @@ class Vertex<T> implements VertexInterface<T> {
         return true;
     }
 
+    /**
+     * Appends an edge to the specified end vertex without checking for an existing edge, for loaders in this package
+     * that have already removed duplicate edges and self-loops.
+     * @param endVertex A vertex in the graph, other than this one, that ends the edge.
+     * @param edgeWeight A real-valued edge weight.
+     */
+    void appendEdge(VertexInterface<T> endVertex, double edgeWeight) { edgeList.add(new Edge(endVertex, edgeWeight)); }
+
+    /**
+     * Grows this vertex's edge list so it can hold the specified number of edges without resizing again, for loaders
+     * in this package that append many edges at once.
+     * @param capacity The number of edges the vertex should be able to hold.
+     */
+    void ensureEdgeCapacity(int capacity) { edgeList.ensureCapacity(capacity); }
+
     /**
      * Creates a new edge from this vertex to the specified end vertex, with the default weight of 0.
      * @param endVertex A vertex in the graph that ends the edge.
@@ -162,9 +191,23 @@ class Vertex<T> implements VertexInterface<T> {
         if (!this.hasNeighbor())
             return false;
 
-        return this.getNeighborLabels(Double.MIN_VALUE).contains(searchLabel);
+        return this.getNeighborLabels(Double.NEGATIVE_INFINITY).contains(searchLabel);
     }
 
+    /**
+     * Retrieves the number of edges pointing from this vertex to other vertices.
+     * @return The number of edges leaving this vertex.
+     */
+    public int getOutDegree() { return edgeList.size(); }
+
+    /**
+     * Retrieves the vertex at the end of the edge at the specified position in this vertex's edge list, allowing a
+     * random neighbor to be chosen without iterating.
+     * @param position The position of the edge, from 0 to getOutDegree() - 1.
+     * @return The vertex the edge points to.
+     */
+    public VertexInterface<T> getNeighborAt(int position) { return edgeList.get(position).getEndVertex(); }
+
     /**
      * Indicates whether this vertex has any edges pointing to other vertices.
      * @return True if this vertex has any neighbors, or false if it does not.
@@ -58,6 +58,20 @@ public interface VertexInterface<T> {
      @return  True if the vertex has a neighbor. */
     public boolean hasNeighbor();
 
+    /**
+     * Retrieves the number of edges pointing from this vertex to other vertices.
+     * @return The number of edges leaving this vertex.
+     */
+    public int getOutDegree();
+
+    /**
+     * Retrieves the vertex at the end of the edge at the specified position among this vertex's edges, in the order
+     * getNeighborIterator visits them, allowing a random neighbor to be chosen without iterating.
+     * @param position The position of the edge, from 0 to getOutDegree() - 1.
+     * @return The vertex the edge points to.
+     */
+    public VertexInterface<T> getNeighborAt(int position);
+
     /**
      * Retrieves a list of label objects containing the labels of any neighbors of this vertex connected
      * by an edge greater than or equal to the specified edge weight.
@@ -1,6 +1,9 @@
 import GraphPackage.DirectedGraph;
 import SocialMediaPackage.SocialMedia;
+import SocialMediaPackage.WriteAheadLog;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Queue;
 import java.util.Stack;
@@ -9,11 +12,28 @@ import java.util.Stack;
  * Main: Contains an entry point to start the social media network and test the DirectedGraph class.
  */
 public class Main {
+    /**
+     * Starts the social media network. If a file path is given, the network is restored from the write-ahead log at
+     * that path, which is created if it does not exist, and every change made is recorded in it.
+     * @param args An optional path of the write-ahead log to restore from and record to.
+     */
     public static void main(String[] args) {
         //testGraph();
-        SocialMedia testSM = new SocialMedia();
-        testSM.addExampleProfiles(); // Adds example profiles for testing.
-        testSM.start();
+        if (args.length == 0) {
+            SocialMedia testSM = new SocialMedia();
+            testSM.addExampleProfiles(); // Adds example profiles for testing.
+            testSM.start();
+            return;
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(Paths.get(args[0]), WriteAheadLog.Durability.GROUP)) {
+            SocialMedia testSM = new SocialMedia(log);
+            if (testSM.getNumProfiles() == 0)
+                testSM.addExampleProfiles(); // Adds example profiles the first time the log is used.
+            testSM.start();
+        } catch (IOException e) {
+            System.out.println("Unable to use the write-ahead log " + args[0] + ": " + e.getMessage());
+        }
     }
 
     /**
@@ -1,6 +1,7 @@
 package SocialMediaPackage;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 
 /**
  * Profile: Implementation of an object that stores profile data for a user of a social network.
@@ -22,8 +23,8 @@ public class Profile {
     private String image;
     /** Stores the user's current availability status. */
     private statusTypes status;
-    /** Stores the profiles of this user's friends. */
-    private final ArrayList<Profile> friendProfiles;
+    /** Stores the profiles of this user's friends, in the order they became friends. */
+    private final LinkedHashSet<Profile> friendProfiles;
 
     /**
      * Constructor creates a new Profile object with the specified display name and image URL or path.
@@ -34,7 +35,7 @@ public class Profile {
         setName(newName);
         setImage(newImage);
         setStatus(statusTypes.OFFLINE);
-        this.friendProfiles = new ArrayList<>();
+        this.friendProfiles = new LinkedHashSet<>();
     }
 
     /**
@@ -77,10 +78,7 @@ public class Profile {
      * Adds a new profile to the user's friends list if they are not already friends.
      * @param friendProfile The profile to add to the user's friends list.
      */
-    public void addFriend(Profile friendProfile) {
-        if (!friendProfiles.contains(friendProfile))
-            friendProfiles.add(friendProfile);
-    }
+    public void addFriend(Profile friendProfile) { friendProfiles.add(friendProfile); }
 
     /**
      * Removes a profile from the user's friends list if they are friends.
@@ -88,6 +86,13 @@ public class Profile {
      */
     public void removeFriend(Profile friendProfile) { friendProfiles.remove(friendProfile); }
 
+    /**
+     * Determines if a profile is in the user's friends list.
+     * @param friendProfile The profile to look for.
+     * @return True if the profile is in the user's friends list, or false otherwise.
+     */
+    public boolean hasFriend(Profile friendProfile) { return friendProfiles.contains(friendProfile); }
+
     /**
      * Retrieves a list of the profiles in the user's friends list.
      * @return A list of the profiles in the user's friends list.
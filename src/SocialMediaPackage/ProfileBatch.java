@@ -0,0 +1,183 @@
+package SocialMediaPackage;
+
+import java.util.ArrayList;
+
+/**
+ * ProfileBatch: A list of changes to a social network, recorded without touching the network and then applied all at
+ * once by ProfileManager.applyBatch. The changes are applied in the order they were recorded, under a single
+ * acquisition of the manager's lock, so queries made through a ProfileQueryExecutor see either none of a batch or all
+ * of it. Import jobs should record many changes per batch rather than calling the manager once per change.
+ */
+public class ProfileBatch {
+    /** The kinds of change a batch can record. */
+    enum OperationType {
+        /** Adds a user and their profile. */
+        ADD_PROFILE,
+        /** Removes a user and their friendships. */
+        REMOVE_PROFILE,
+        /** Creates a friendship or best friendship between two users. */
+        CREATE_FRIENDSHIP,
+        /** Removes the friendship between two users. */
+        REMOVE_FRIENDSHIP,
+        /** Changes a user's display name, image or status. */
+        UPDATE_PROFILE
+    }
+
+    /** The kind of each recorded change. */
+    private final ArrayList<OperationType> types;
+    /** The username of the user each change applies to, or of the first member of a friendship. */
+    private final ArrayList<String> firstUsernames;
+    /** The username of the second member of each friendship change, or null. */
+    private final ArrayList<String> secondUsernames;
+    /** The profile of each added user, or a profile holding the new details of each updated user, or null. */
+    private final ArrayList<Profile> profiles;
+    /** Indicates whether each created friendship is a best friendship. */
+    private final ArrayList<Boolean> bestFlags;
+    /** The number of profiles the batch adds, if all the additions are of new users. */
+    private int profileAdditions;
+
+    /**
+     * Constructor creates a new, empty ProfileBatch.
+     */
+    public ProfileBatch() {
+        types = new ArrayList<>();
+        firstUsernames = new ArrayList<>();
+        secondUsernames = new ArrayList<>();
+        profiles = new ArrayList<>();
+        bestFlags = new ArrayList<>();
+        profileAdditions = 0;
+    }
+
+    /**
+     * Records the addition of a new user and their profile, which is skipped if the user is already a member.
+     * @param username The username of the new user.
+     * @param newProfile The profile object that corresponds to the new user.
+     */
+    public void addProfile(String username, Profile newProfile) {
+        if (username == null || newProfile == null)
+            return;
+        record(OperationType.ADD_PROFILE, username, null, newProfile, false);
+        profileAdditions++;
+    }
+
+    /**
+     * Records the removal of a user, their profile and their friendships.
+     * @param username The username of the user to remove.
+     */
+    public void removeProfile(String username) { record(OperationType.REMOVE_PROFILE, username, null, null, false); }
+
+    /**
+     * Records the creation of a friendship or best friendship between two users, which is skipped if either user is
+     * not a member when it is applied or they are already friends.
+     * @param username1 The username of the first member of the friendship.
+     * @param username2 The username of the second member of the friendship.
+     * @param best True to create a best friendship, or false to create a normal friendship.
+     */
+    public void createFriendship(String username1, String username2, boolean best) {
+        record(OperationType.CREATE_FRIENDSHIP, username1, username2, null, best);
+    }
+
+    /**
+     * Records the removal of any friendship between two users.
+     * @param username1 The username of the first member of the friendship.
+     * @param username2 The username of the second member of the friendship.
+     */
+    public void removeFriendship(String username1, String username2) {
+        record(OperationType.REMOVE_FRIENDSHIP, username1, username2, null, false);
+    }
+
+    /**
+     * Records a change to a user's profile details, which is skipped if the user is not a member when it is applied.
+     * @param username The username of the user.
+     * @param newName The user's new display name, or null to leave it unchanged.
+     * @param newImage The user's new image URL or path, or null to leave it unchanged.
+     * @param newStatus The user's new status, or null to leave it unchanged.
+     */
+    public void updateProfile(String username, String newName, String newImage, Profile.statusTypes newStatus) {
+        Profile details = new Profile(newName, newImage);
+        details.setStatus(newStatus);
+        record(OperationType.UPDATE_PROFILE, username, null, details, false);
+    }
+
+    /**
+     * Retrieves the number of changes recorded.
+     * @return The number of changes.
+     */
+    public int size() { return types.size(); }
+
+    /**
+     * Determines if the batch is empty.
+     * @return True if no changes are recorded, or false otherwise.
+     */
+    public boolean isEmpty() { return types.isEmpty(); }
+
+    /**
+     * Forgets every recorded change, so the batch can be reused.
+     */
+    public void clear() {
+        types.clear();
+        firstUsernames.clear();
+        secondUsernames.clear();
+        profiles.clear();
+        bestFlags.clear();
+        profileAdditions = 0;
+    }
+
+    /**
+     * Retrieves the kind of a recorded change.
+     * @param index The position of the change, from 0.
+     * @return The kind of change.
+     */
+    OperationType getType(int index) { return types.get(index); }
+
+    /**
+     * Retrieves the username of the user a recorded change applies to, or of the first member of a friendship.
+     * @param index The position of the change, from 0.
+     * @return The username.
+     */
+    String getFirstUsername(int index) { return firstUsernames.get(index); }
+
+    /**
+     * Retrieves the username of the second member of a recorded friendship change.
+     * @param index The position of the change, from 0.
+     * @return The username, or null if the change is not to a friendship.
+     */
+    String getSecondUsername(int index) { return secondUsernames.get(index); }
+
+    /**
+     * Retrieves the profile of a recorded addition, or a profile holding the new details of a recorded update, whose
+     * null name, image or status are to be left unchanged.
+     * @param index The position of the change, from 0.
+     * @return The profile, or null if the change is not an addition or update.
+     */
+    Profile getProfile(int index) { return profiles.get(index); }
+
+    /**
+     * Determines if a recorded friendship creation is of a best friendship.
+     * @param index The position of the change, from 0.
+     * @return True for a best friendship, or false otherwise.
+     */
+    boolean isBest(int index) { return bestFlags.get(index); }
+
+    /**
+     * Retrieves the number of profile additions recorded, used to size the manager's maps before applying the batch.
+     * @return The number of profile additions.
+     */
+    int getProfileAdditions() { return profileAdditions; }
+
+    /**
+     * Records a change.
+     * @param type The kind of change.
+     * @param username1 The username of the user the change applies to, or of the first member of a friendship.
+     * @param username2 The username of the second member of a friendship, or null.
+     * @param profile The profile of an added user, the new details of an updated user, or null.
+     * @param best True for a best friendship, or false otherwise.
+     */
+    private void record(OperationType type, String username1, String username2, Profile profile, boolean best) {
+        types.add(type);
+        firstUsernames.add(username1);
+        secondUsernames.add(username2);
+        profiles.add(profile);
+        bestFlags.add(best);
+    }
+}
@@ -0,0 +1,133 @@
+package SocialMediaPackage;
+
+/**
+ * ProfileChange: A single change to a social network, such as a new friendship, delivered as an event to a
+ * ProfileIngestor. Changes are immutable and created through the static methods, which mirror those of ProfileBatch.
+ */
+public final class ProfileChange {
+    /** The kind of change. */
+    private final ProfileBatch.OperationType type;
+    /** The username of the user the change applies to, or of the first member of a friendship. */
+    private final String firstUsername;
+    /** The username of the second member of a friendship, or null. */
+    private final String secondUsername;
+    /** The profile of an added user, a profile holding the new details of an updated user, or null. */
+    private final Profile profile;
+    /** Indicates whether a created friendship is a best friendship. */
+    private final boolean best;
+
+    /**
+     * Constructor is private; changes are created through the static methods.
+     * @param type The kind of change.
+     * @param firstUsername The username of the user the change applies to, or of the first member of a friendship.
+     * @param secondUsername The username of the second member of a friendship, or null.
+     * @param profile The profile of an added user, the new details of an updated user, or null.
+     * @param best True for a best friendship, or false otherwise.
+     */
+    private ProfileChange(ProfileBatch.OperationType type, String firstUsername, String secondUsername,
+                          Profile profile, boolean best) {
+        this.type = type;
+        this.firstUsername = firstUsername;
+        this.secondUsername = secondUsername;
+        this.profile = profile;
+        this.best = best;
+    }
+
+    /**
+     * Creates the addition of a new user and their profile, which is skipped if the user is already a member.
+     * @param username The username of the new user.
+     * @param newProfile The profile object that corresponds to the new user.
+     * @return The change.
+     */
+    public static ProfileChange addProfile(String username, Profile newProfile) {
+        return new ProfileChange(ProfileBatch.OperationType.ADD_PROFILE, username, null, newProfile, false);
+    }
+
+    /**
+     * Creates the removal of a user, their profile and their friendships.
+     * @param username The username of the user to remove.
+     * @return The change.
+     */
+    public static ProfileChange removeProfile(String username) {
+        return new ProfileChange(ProfileBatch.OperationType.REMOVE_PROFILE, username, null, null, false);
+    }
+
+    /**
+     * Creates the creation of a friendship or best friendship between two users, which is skipped if either user is
+     * not a member when it is applied or they are already friends.
+     * @param username1 The username of the first member of the friendship.
+     * @param username2 The username of the second member of the friendship.
+     * @param best True to create a best friendship, or false to create a normal friendship.
+     * @return The change.
+     */
+    public static ProfileChange createFriendship(String username1, String username2, boolean best) {
+        return new ProfileChange(ProfileBatch.OperationType.CREATE_FRIENDSHIP, username1, username2, null, best);
+    }
+
+    /**
+     * Creates the removal of any friendship between two users.
+     * @param username1 The username of the first member of the friendship.
+     * @param username2 The username of the second member of the friendship.
+     * @return The change.
+     */
+    public static ProfileChange removeFriendship(String username1, String username2) {
+        return new ProfileChange(ProfileBatch.OperationType.REMOVE_FRIENDSHIP, username1, username2, null, false);
+    }
+
+    /**
+     * Creates a change to a user's profile details, which is skipped if the user is not a member when it is applied.
+     * @param username The username of the user.
+     * @param newName The user's new display name, or null to leave it unchanged.
+     * @param newImage The user's new image URL or path, or null to leave it unchanged.
+     * @param newStatus The user's new status, or null to leave it unchanged.
+     * @return The change.
+     */
+    public static ProfileChange updateProfile(String username, String newName, String newImage,
+                                              Profile.statusTypes newStatus) {
+        Profile details = new Profile(newName, newImage);
+        details.setStatus(newStatus);
+        return new ProfileChange(ProfileBatch.OperationType.UPDATE_PROFILE, username, null, details, false);
+    }
+
+    /**
+     * Retrieves the kind of change.
+     * @return The kind of change.
+     */
+    ProfileBatch.OperationType getType() { return type; }
+
+    /**
+     * Retrieves the username of the user the change applies to, or of the first member of a friendship.
+     * @return The username.
+     */
+    String getFirstUsername() { return firstUsername; }
+
+    /**
+     * Retrieves the username of the second member of a friendship change.
+     * @return The username, or null if the change is not to a friendship.
+     */
+    String getSecondUsername() { return secondUsername; }
+
+    /**
+     * Determines if the change is to a friendship.
+     * @return True if the change creates or removes a friendship, or false otherwise.
+     */
+    boolean isFriendshipChange() {
+        return type == ProfileBatch.OperationType.CREATE_FRIENDSHIP
+                || type == ProfileBatch.OperationType.REMOVE_FRIENDSHIP;
+    }
+
+    /**
+     * Records the change in a batch.
+     * @param batch The batch.
+     */
+    void recordIn(ProfileBatch batch) {
+        switch (type) {
+            case ADD_PROFILE -> batch.addProfile(firstUsername, profile);
+            case REMOVE_PROFILE -> batch.removeProfile(firstUsername);
+            case CREATE_FRIENDSHIP -> batch.createFriendship(firstUsername, secondUsername, best);
+            case REMOVE_FRIENDSHIP -> batch.removeFriendship(firstUsername, secondUsername);
+            case UPDATE_PROFILE -> batch.updateProfile(firstUsername, profile.getName(), profile.getImage(),
+                    profile.getStatus());
+        }
+    }
+}
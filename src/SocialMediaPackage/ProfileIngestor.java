@@ -0,0 +1,322 @@
+package SocialMediaPackage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Flow;
+
+/**
+ * ProfileIngestor: A subscriber that applies a continuous stream of profile and friendship changes to a
+ * ProfileManager. Changes arrive from any Flow.Publisher, such as a SubmissionPublisher fed by many producers, into a
+ * bounded queue; the ingestor only requests as many changes as the queue has room for, so producers are held back
+ * rather than the queue growing without limit.
+ * <p>
+ * A single writer thread takes the queued changes in batches and applies each batch with ProfileManager.applyBatch,
+ * under one acquisition of the manager's write lock, so producers never contend for the lock themselves. Before a
+ * batch is applied, changes made pointless by later changes in the same batch are dropped: a friendship created and
+ * then removed is only removed, and a friendship created or removed twice in a row is only created or removed once.
+ * Profile additions and removals are never dropped, and friendship changes are not combined across them.
+ * <p>
+ * If a batch cannot be applied, the writer thread stops: the subscription is cancelled, the changes of that batch and
+ * those still queued are discarded and counted, and getFailure reports the error. The query methods of ProfileManager
+ * do not take its lock, so they must not be called directly while an ingestor is writing; read through a
+ * ProfileQueryExecutor instead, whose queries hold the read lock and never see part of a batch.
+ */
+public class ProfileIngestor implements Flow.Subscriber<ProfileChange>, AutoCloseable {
+    /** Placed in the queue to wake the writer thread when the stream ends or the ingestor is closed. */
+    private static final ProfileChange END = ProfileChange.removeProfile(null);
+
+    /** The manager the changes are applied to. */
+    private final ProfileManager manager;
+    /** The largest number of changes applied in one batch. */
+    private final int maxBatchSize;
+    /** The changes received but not yet applied, with room for END beyond the changes requested. */
+    private final ArrayBlockingQueue<ProfileChange> queue;
+    /** Takes changes from the queue and applies them. */
+    private final Thread writer;
+    /** The subscription changes are requested from, or null before one is received. */
+    private volatile Flow.Subscription subscription;
+    /** The error that ended the stream or stopped the writer, or null if there is none. */
+    private volatile Throwable failure;
+    /** The number of changes passed on to the manager, not counting those dropped. */
+    private volatile long appliedCount;
+    /** The number of changes dropped because later changes in the same batch made them pointless. */
+    private volatile long coalescedCount;
+    /** The number of changes received but discarded, unapplied or partly applied, because a batch failed. */
+    private volatile long discardedCount;
+
+    /**
+     * Constructor creates a new ProfileIngestor and starts its writer thread.
+     * @param manager The manager to apply changes to.
+     * @param queueCapacity The largest number of changes received but not yet applied; at least 1.
+     * @param maxBatchSize The largest number of changes applied in one batch; at least 1.
+     */
+    public ProfileIngestor(ProfileManager manager, int queueCapacity, int maxBatchSize) {
+        if (manager == null)
+            throw new IllegalArgumentException("Manager must not be null.");
+        if (queueCapacity < 1 || queueCapacity == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Queue capacity must be at least 1.");
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("Maximum batch size must be at least 1.");
+        this.manager = manager;
+        this.maxBatchSize = maxBatchSize;
+        queue = new ArrayBlockingQueue<>(queueCapacity + 1);
+        subscription = null;
+        failure = null;
+        appliedCount = 0;
+        coalescedCount = 0;
+        discardedCount = 0;
+        writer = Thread.ofPlatform().name("profile-ingestor").daemon().unstarted(this::applyChanges);
+        writer.start();
+    }
+
+    /**
+     * Accepts the subscription changes will arrive through, and requests enough changes to fill the queue. Only one
+     * subscription is accepted; any later one is cancelled.
+     * @param newSubscription The subscription.
+     */
+    @Override
+    public void onSubscribe(Flow.Subscription newSubscription) {
+        if (newSubscription == null)
+            throw new NullPointerException("Subscription must not be null.");
+        synchronized (this) {
+            if (subscription != null || !writer.isAlive()) {
+                newSubscription.cancel();
+                return;
+            }
+            subscription = newSubscription;
+        }
+        newSubscription.request(queue.remainingCapacity() - 1);
+    }
+
+    /**
+     * Queues a change to be applied. A publisher that sends more changes than were requested has its subscription
+     * cancelled.
+     * @param change The change.
+     */
+    @Override
+    public void onNext(ProfileChange change) {
+        if (change == null)
+            throw new NullPointerException("Change must not be null.");
+        if (queue.remainingCapacity() <= 1 || !queue.offer(change))
+            fail(new IllegalStateException("Publisher sent more changes than were requested."));
+    }
+
+    /**
+     * Records that the stream ended with an error. The changes already received are still applied.
+     * @param error The error.
+     */
+    @Override
+    public void onError(Throwable error) {
+        if (failure == null)
+            failure = error;
+        queue.offer(END);
+    }
+
+    /**
+     * Records that the stream ended. The changes already received are still applied.
+     */
+    @Override
+    public void onComplete() { queue.offer(END); }
+
+    /**
+     * Waits until the stream has ended, or the ingestor has been closed, and every change received has been applied.
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public void awaitCompletion() throws InterruptedException { writer.join(); }
+
+    /**
+     * Retrieves the error that ended the stream, or, when a batch could not be applied, an IllegalStateException
+     * caused by the batch's error that reports how many changes were discarded.
+     * @return The error, or null if there is none.
+     */
+    public Throwable getFailure() { return failure; }
+
+    /**
+     * Retrieves the number of changes passed on to the manager so far, not counting those dropped. The manager skips
+     * any that do not apply when their turn comes, as applyBatch describes.
+     * @return The number of changes passed on.
+     */
+    public long getAppliedCount() { return appliedCount; }
+
+    /**
+     * Retrieves the number of changes dropped so far because later changes in the same batch made them pointless.
+     * @return The number of changes dropped.
+     */
+    public long getCoalescedCount() { return coalescedCount; }
+
+    /**
+     * Retrieves the number of changes received but discarded because a batch could not be applied: those of the
+     * failed batch, which may have been partly applied, and those queued after it.
+     * @return The number of changes discarded.
+     */
+    public long getDiscardedCount() { return discardedCount; }
+
+    /**
+     * Cancels the subscription, applies the changes already received, and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        Flow.Subscription current;
+        synchronized (this) {
+            current = subscription;
+        }
+        if (current != null)
+            current.cancel();
+        queue.offer(END);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Cancels the subscription after an error and wakes the writer thread, which applies the changes already
+     * received and stops.
+     * @param error The error.
+     */
+    private void fail(Throwable error) {
+        if (failure == null)
+            failure = error;
+        Flow.Subscription current = subscription;
+        if (current != null)
+            current.cancel();
+        queue.offer(END);
+    }
+
+    /**
+     * Runs on the writer thread: takes up to the maximum batch size of queued changes at a time, drops those made
+     * pointless by later ones, applies the rest as one batch, and then requests as many changes as were taken, until
+     * END is reached.
+     */
+    private void applyChanges() {
+        ArrayList<ProfileChange> taken = new ArrayList<>(Math.min(maxBatchSize, queue.remainingCapacity()));
+        ProfileBatch batch = new ProfileBatch();
+        boolean ended = false;
+        while (!ended) {
+            try {
+                taken.add(queue.take());
+            } catch (InterruptedException e) {
+                ended = true;
+            }
+            queue.drainTo(taken, maxBatchSize - taken.size());
+            int received = taken.size();
+            int endPosition = taken.indexOf(END);
+            if (endPosition >= 0) {
+                ended = true;
+                taken.subList(endPosition, taken.size()).clear();
+                received = endPosition;
+            }
+
+            int dropped = coalesce(taken);
+            for (ProfileChange change : taken) {
+                if (change != null)
+                    change.recordIn(batch);
+            }
+            try {
+                manager.applyBatch(batch);
+                appliedCount += received - dropped;
+                coalescedCount += dropped;
+            } catch (RuntimeException e) {
+                ended = true;
+                failBatch(e, received - dropped);
+            }
+            batch.clear();
+            taken.clear();
+
+            Flow.Subscription current = subscription;
+            if (!ended && failure == null && current != null && received > 0)
+                current.request(received);
+        }
+    }
+
+    /**
+     * Stops the stream after a batch could not be applied: cancels the subscription, discards the changes still
+     * queued, and records an error reporting how many changes were discarded. Any earlier error of the stream is kept
+     * as a suppressed error.
+     * @param cause The error the batch failed with.
+     * @param batchSize The number of changes in the failed batch, not counting those dropped.
+     */
+    private void failBatch(RuntimeException cause, int batchSize) {
+        Flow.Subscription current = subscription;
+        if (current != null)
+            current.cancel();
+        ArrayList<ProfileChange> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.removeIf(change -> change == END);
+        discardedCount += batchSize + remaining.size();
+
+        IllegalStateException error = new IllegalStateException("A batch of changes could not be applied; "
+                + discardedCount + " changes received were discarded.", cause);
+        Throwable earlier = failure;
+        if (earlier != null)
+            error.addSuppressed(earlier);
+        failure = error;
+    }
+
+    /**
+     * Replaces with null each friendship change made pointless by a later change to the same pair of users in the
+     * list. For each pair, at most a removal followed by a creation is kept: a creation followed by a removal is
+     * dropped, and so is a second creation or removal in a row. Profile additions and removals reset what is known
+     * about every pair, since friendships may be created and removed through them.
+     * @param changes The changes, in order.
+     * @return The number of changes dropped.
+     */
+    private static int coalesce(ArrayList<ProfileChange> changes) {
+        // For each pair of usernames, the position of the kept creation, or -1, and whether a removal is kept.
+        HashMap<String, int[]> pairs = new HashMap<>();
+        int dropped = 0;
+        for (int position = 0; position < changes.size(); position++) {
+            ProfileChange change = changes.get(position);
+            if (!change.isFriendshipChange()) {
+                if (change.getType() != ProfileBatch.OperationType.UPDATE_PROFILE)
+                    pairs.clear();
+                continue;
+            }
+            int[] pair = pairs.computeIfAbsent(pairKey(change.getFirstUsername(), change.getSecondUsername()),
+                    key -> new int[] {-1, 0});
+            if (change.getType() == ProfileBatch.OperationType.CREATE_FRIENDSHIP) {
+                if (pair[0] >= 0) {
+                    changes.set(position, null);
+                    dropped++;
+                } else
+                    pair[0] = position;
+                continue;
+            }
+            if (pair[0] >= 0) {
+                changes.set(pair[0], null);
+                pair[0] = -1;
+                dropped++;
+            }
+            if (pair[1] == 1) {
+                changes.set(position, null);
+                dropped++;
+            } else
+                pair[1] = 1;
+        }
+        return dropped;
+    }
+
+    /**
+     * Builds a key identifying a pair of users regardless of their order.
+     * @param username1 The username of one user.
+     * @param username2 The username of the other user.
+     * @return The key.
+     */
+    private static String pairKey(String username1, String username2) {
+        String first = String.valueOf(username1);
+        String second = String.valueOf(username2);
+        if (first.compareTo(second) > 0) {
+            String temp = first;
+            first = second;
+            second = temp;
+        }
+        return first.length() + ":" + first + second;
+    }
+}
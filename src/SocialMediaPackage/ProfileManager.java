@@ -1,27 +1,80 @@
 package SocialMediaPackage;
+import GraphPackage.BetweennessCentrality;
+import GraphPackage.CommunityDetection;
+import GraphPackage.DistanceOracle;
+import GraphPackage.KCoreDecomposition;
+import GraphPackage.NeighborhoodFunction;
+import GraphPackage.PageRank;
+import GraphPackage.PersonalizedPageRank;
+import GraphPackage.QueryLimits;
+import GraphPackage.SubgraphView;
+import GraphPackage.TriangleCounter;
 import GraphPackage.UndirectedGraph;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.ArrayList;
-import java.util.Queue;
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * ProfileManager: Implementation of a manager for social media network users and their profiles. Performs operations
  * on profiles representing non-interactive functions of the social media network.
  */
 public class ProfileManager {
+    /** The number of log records replayed per batch when a write-ahead log is attached. */
+    private static final int REPLAY_BATCH_SIZE = 1 << 16;
+
     /** Stores usernames (not display names) as keys, corresponding to a value of that user's profile object. */
-    private final HashMap<String, Profile> profiles;
+    private HashMap<String, Profile> profiles;
+    /** Stores profile objects as keys, corresponding to a value of that profile's username. The reverse of profiles,
+     * used to report the results of graph algorithms by username. */
+    private HashMap<Profile, String> usernames;
+    /** Its write lock is held while the network is changed, and its read lock by queries made through a
+     * ProfileQueryExecutor and while a snapshot is copied, so queries run at the same time as each other but never see
+     * part of a change or of a batch. */
+    private final ReentrantReadWriteLock updateLock;
+    /** Records every change before it is applied, or null if changes are not logged. */
+    private volatile WriteAheadLog log;
+    /** The end position in the log of the last change recorded. */
+    private long logPosition;
+    /** The first member of each friendship created by the batch being applied but not yet added to the network, so
+     * runs of creations are added to the network at once. */
+    private final ArrayList<Profile> pendingBegins;
+    /** The second member of each friendship in pendingBegins. */
+    private final ArrayList<Profile> pendingEnds;
+    /** Indicates whether each friendship in pendingBegins is a best friendship. */
+    private final ArrayList<Boolean> pendingBest;
     /** An undirected graph where each user is represented by a vertex and their friendships are represented by
      * bidirectional edges. */
     private final UndirectedGraph<Profile> network;
+    /** Answers degrees of separation between users without a traversal; after the network changes, answers by
+     * searching the network until those searches have cost as much as a rebuild, which then runs in the background. */
+    private final DistanceOracle<Profile> separationOracle;
+    /** Suggests friends by personalized PageRank, estimated with random walks along friendships. */
+    private final PersonalizedPageRank<Profile> friendSuggester;
+    /** Estimates how many users each user can reach through friendships; recomputed when the network has changed. */
+    private final NeighborhoodFunction<Profile> reachEstimator;
 
     /**
      * Constructor creates a new ProfileManager object containing no profiles and an empty network graph.
      */
     public ProfileManager() {
         profiles = new HashMap<>();
+        usernames = new HashMap<>();
         network = new UndirectedGraph<>();
+        updateLock = new ReentrantReadWriteLock();
+        log = null;
+        logPosition = 0;
+        pendingBegins = new ArrayList<>();
+        pendingEnds = new ArrayList<>();
+        pendingBest = new ArrayList<>();
+        separationOracle = new DistanceOracle<>(network, Runtime.getRuntime().availableProcessors(),
+                DistanceOracle.RebuildPolicy.DEFERRED);
+        friendSuggester = new PersonalizedPageRank<>(network);
+        reachEstimator = new NeighborhoodFunction<>(network);
     }
 
     /**
@@ -30,12 +83,15 @@ public class ProfileManager {
      * @param newProfile The profile object that corresponds to the new user.
      */
     public void addProfile(String username, Profile newProfile) {
-        if (username == null || newProfile == null)
-            return;
-        if (!containsProfile(username)) {
-            profiles.put(username, newProfile);
-            network.addVertex(newProfile);
+        long position;
+        updateLock.writeLock().lock();
+        try {
+            insertProfile(username, newProfile);
+            position = logPosition;
+        } finally {
+            updateLock.writeLock().unlock();
         }
+        awaitLog(position);
     }
 
     /**
@@ -43,18 +99,15 @@ public class ProfileManager {
      * @param username The username of the user and corresponding profile to remove.
      */
     public void removeProfile(String username) {
-        if (profiles.containsKey(username)) {
-            Profile remProfile = profiles.get(username);
-
-            ArrayList<Profile> neighborFriends = network.getNeighbors(remProfile, 0);
-            if (neighborFriends != null) {
-                for (Profile curNeighbor : neighborFriends)
-                    curNeighbor.removeFriend(remProfile);
-            }
-
-            network.removeVertex(remProfile);
-            profiles.remove(username);
+        long position;
+        updateLock.writeLock().lock();
+        try {
+            deleteProfile(username);
+            position = logPosition;
+        } finally {
+            updateLock.writeLock().unlock();
         }
+        awaitLog(position);
     }
 
     /**
@@ -122,18 +175,15 @@ public class ProfileManager {
      * @param best True to create a best friendship, or false to create a normal friendship.
      */
     public void createFriendship(String username1, String username2, boolean best) {
-        if (profiles.containsKey(username1) && profiles.containsKey(username2) && !username1.equals(username2)) {
-            Profile profile1 = profiles.get(username1);
-            Profile profile2 = profiles.get(username2);
-            if (!profile1.getFriends().contains(profile2)) {
-                if (best)
-                    network.addEdge(profile1, profile2, 1);
-                else
-                    network.addEdge(profile1, profile2, 0);
-                profile1.addFriend(profile2);
-                profile2.addFriend(profile1);
-            }
+        long position;
+        updateLock.writeLock().lock();
+        try {
+            linkProfiles(username1, username2, best, false);
+            position = logPosition;
+        } finally {
+            updateLock.writeLock().unlock();
         }
+        awaitLog(position);
     }
 
     /**
@@ -142,12 +192,148 @@ public class ProfileManager {
      * @param username2 The username of the second member of the friendship.
      */
     public void removeFriendship(String username1, String username2) {
-        if (profiles.containsKey(username1) && profiles.containsKey(username2)) {
-            Profile profile1 = profiles.get(username1);
-            Profile profile2 = profiles.get(username2);
-            network.removeEdge(profile1, profile2);
-            profile1.removeFriend(profile2);
-            profile2.removeFriend(profile1);
+        long position;
+        updateLock.writeLock().lock();
+        try {
+            unlinkProfiles(username1, username2);
+            position = logPosition;
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+        awaitLog(position);
+    }
+
+    /**
+     * Applies every change recorded in a batch, in the order recorded, under a single acquisition of the manager's
+     * lock, so queries made through a ProfileQueryExecutor see either none of the batch or all of it. Each change is
+     * skipped, as the single-change methods would skip it, if it does not apply when its turn comes. The maps of
+     * members are grown once for all the profiles the batch adds, and each change looks up each of its users once.
+     * With a write-ahead log attached, the method returns once the whole batch is as durable as the log requires.
+     * @param batch The changes to apply.
+     * @return The number of changes that changed the network.
+     */
+    public int applyBatch(ProfileBatch batch) {
+        if (batch == null)
+            throw new IllegalArgumentException("Batch must not be null.");
+        int applied;
+        long position;
+        updateLock.writeLock().lock();
+        try {
+            applied = applyChanges(batch);
+            position = logPosition;
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+        awaitLog(position);
+        return applied;
+    }
+
+    /**
+     * Changes the details of a user's profile.
+     * @param username The username of the user.
+     * @param newName The user's new display name, or null to leave it unchanged.
+     * @param newImage The user's new image URL or path, or null to leave it unchanged.
+     * @param newStatus The user's new status, or null to leave it unchanged.
+     */
+    public void updateProfile(String username, String newName, String newImage, Profile.statusTypes newStatus) {
+        long position;
+        updateLock.writeLock().lock();
+        try {
+            changeProfile(username, newName, newImage, newStatus);
+            position = logPosition;
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+        awaitLog(position);
+    }
+
+    /**
+     * Attaches a write-ahead log, first replaying every change it records, so that a manager created at startup
+     * returns to the state it had when the log was last written. From then on each change is recorded in the log
+     * before it is applied, and returns once it is as durable as the log's durability level requires. The manager
+     * should be empty when the log is attached, or hold exactly the changes the log does not record.
+     * @param newLog The log.
+     * @throws IOException If the log cannot be read.
+     */
+    public void attachLog(WriteAheadLog newLog) throws IOException {
+        if (newLog == null)
+            throw new IllegalArgumentException("Log must not be null.");
+        updateLock.writeLock().lock();
+        try {
+            replayAndAttach(newLog, WriteAheadLog.HEADER_BYTES);
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops recording changes in the write-ahead log, waiting until those already recorded are on disk. The log is not
+     * closed.
+     * @return The log that was attached, or null if none was.
+     */
+    public WriteAheadLog detachLog() {
+        WriteAheadLog detached;
+        updateLock.writeLock().lock();
+        try {
+            detached = log;
+            log = null;
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+        if (detached != null)
+            detached.flush();
+        return detached;
+    }
+
+    /**
+     * Writes every profile, username, status and friendship to a compact binary snapshot file, replacing any existing
+     * file once the new one is on disk. The state is copied at a single point between changes, so the snapshot is
+     * consistent, but changes are held back only while it is copied in memory, not while it is encoded and written.
+     * With a write-ahead log attached, the snapshot records the log position it reflects, so that loadSnapshot only
+     * replays the changes made after it.
+     * @param path The path of the snapshot file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeSnapshot(Path path) throws IOException {
+        if (path == null)
+            throw new IllegalArgumentException("Path must not be null.");
+        ProfileSnapshot snapshot;
+        updateLock.readLock().lock();
+        try {
+            snapshot = new ProfileSnapshot(profiles, network, log != null ? logPosition : 0);
+        } finally {
+            updateLock.readLock().unlock();
+        }
+        snapshot.write(path);
+    }
+
+    /**
+     * Restores an empty manager from a snapshot file written by writeSnapshot, mapping the file into memory and
+     * building the network from it directly, rather than replaying the changes that produced it. If a write-ahead log
+     * is given, it must be the log that was attached when the snapshot was written, or a continuation of it: the
+     * changes it records after the snapshot are replayed, and the log is then attached as by attachLog. Friendships
+     * are restored in the order they appear in the snapshot, which may differ from the order they were made.
+     * @param path The path of the snapshot file.
+     * @param newLog The log to replay and attach, or null to attach none.
+     * @throws IOException If the snapshot or log cannot be read, or the snapshot is newer than the log.
+     */
+    public void loadSnapshot(Path path, WriteAheadLog newLog) throws IOException {
+        if (path == null)
+            throw new IllegalArgumentException("Path must not be null.");
+        ProfileSnapshot snapshot = ProfileSnapshot.read(path);
+        if (newLog != null && snapshot.logPosition > newLog.getEndPosition())
+            throw new IOException("Snapshot records changes the write-ahead log does not.");
+        updateLock.writeLock().lock();
+        try {
+            if (!profiles.isEmpty())
+                throw new IllegalStateException("A snapshot can only be loaded into an empty manager.");
+            if (log != null)
+                throw new IllegalStateException("A write-ahead log is already attached.");
+            restoreSnapshot(snapshot);
+            if (newLog != null)
+                replayAndAttach(newLog, Math.max(snapshot.logPosition, WriteAheadLog.HEADER_BYTES));
+        } finally {
+            updateLock.writeLock().unlock();
         }
     }
 
@@ -172,17 +358,183 @@ public class ProfileManager {
     }
 
     /**
-     * Displays the profiles of all users that can be reached through a breadth-first traversal of the network graph,
-     * starting at the specified user. This will show all profiles ultimately connected to the specified user by a
-     * chain of friendships.
-     * @param username The username corresponding to the profile where to begin the graph traversal.
+     * Determines if two users are connected by any chain of friendships, using the network's connected component
+     * index rather than a traversal.
+     * @param username1 The username of the first user.
+     * @param username2 The username of the second user.
+     * @return True if both users are members and connected by a chain of friendships, or false otherwise.
+     */
+    public boolean areConnected(String username1, String username2) {
+        if (!containsProfile(username1) || !containsProfile(username2))
+            return false;
+        return network.sameComponent(profiles.get(username1), profiles.get(username2));
+    }
+
+    /**
+     * Retrieves the degrees of separation between two users: 1 for friends, 2 for friends of friends, and so on.
+     * @param username1 The username of the first user.
+     * @param username2 The username of the second user.
+     * @return The fewest friendships linking the two users, 0 if they are the same user, or -1 if they are not
+     * connected or either user is not a member.
+     */
+    public int getDegreesOfSeparation(String username1, String username2) {
+        if (!containsProfile(username1) || !containsProfile(username2))
+            return DistanceOracle.UNREACHABLE;
+        return separationOracle.distance(profiles.get(username1), profiles.get(username2));
+    }
+
+    /**
+     * Retrieves the number of users connected to the specified user by any chain of friendships, including the user.
+     * @param username The username of the user.
+     * @return The number of users connected to the specified user, or 0 if the user is not a member.
+     */
+    public int getNumConnectedProfiles(String username) {
+        if (!containsProfile(username))
+            return 0;
+        return network.componentSize(profiles.get(username));
+    }
+
+    /**
+     * Ranks all users by influence, using the PageRank of their profiles in the network graph.
+     * @param count The maximum number of usernames to retrieve.
+     * @return A list of up to count usernames, from the most influential user down.
+     */
+    public ArrayList<String> getMostInfluentialUsernames(int count) {
+        ArrayList<String> returnList = new ArrayList<>();
+        for (Profile rankedProfile : new PageRank<>(network).getTopRanked(count))
+            returnList.add(usernames.get(rankedProfile));
+        return returnList;
+    }
+
+    /**
+     * Identifies the users who act most as bridges in the network: those that lie on the most shortest chains of
+     * friendships between other users, by betweenness centrality.
+     * @param count The maximum number of usernames to retrieve.
+     * @param sampleSize The number of users to search from; smaller samples are faster but less accurate, and a
+     * sample at least as large as the network gives exact results.
+     * @return A list of up to count usernames, from the strongest bridge down.
+     */
+    public ArrayList<String> getBridgeUsernames(int count, int sampleSize) {
+        HashMap<Profile, Double> centrality = new BetweennessCentrality<>(network).computeApproximate(sampleSize);
+        ArrayList<Profile> ranked = new ArrayList<>(centrality.keySet());
+        ranked.sort((first, second) -> Double.compare(centrality.get(second), centrality.get(first)));
+
+        ArrayList<String> returnList = new ArrayList<>();
+        for (int position = 0; position < Math.min(count, ranked.size()); position++)
+            returnList.add(usernames.get(ranked.get(position)));
+        return returnList;
+    }
+
+    /**
+     * Retrieves the usernames of all users in the k-core of the network: the largest group of users in which everyone
+     * has at least k friends within the group. Used to narrow down the users worth considering for expensive analysis.
+     * @param k The minimum number of friends within the group.
+     * @return A list of the usernames of users in the k-core, which is empty if there is no such group.
+     */
+    public ArrayList<String> getCoreUsernames(int k) {
+        ArrayList<String> returnList = new ArrayList<>();
+        HashMap<Profile, Integer> coreNumbers = new KCoreDecomposition<>(network).computeCoreNumbers();
+        for (Profile curProfile : coreNumbers.keySet()) {
+            if (coreNumbers.get(curProfile) >= k)
+                returnList.add(usernames.get(curProfile));
+        }
+        return returnList;
+    }
+
+    /**
+     * Retrieves the online users a user can reach through chains of at most the specified number of friendships in
+     * which every user is online, by traversing a view of the network restricted to online profiles.
+     * @param username The username of the user, who need not be online.
+     * @param hops The maximum number of friendships in a chain; at least 0.
+     * @return A list of the usernames of the reachable online users, nearest first, not including the user.
+     */
+    public ArrayList<String> getOnlineUsernamesWithin(String username, int hops) {
+        ArrayList<String> returnList = new ArrayList<>();
+        if (!containsProfile(username))
+            return returnList;
+        Profile curProfile = profiles.get(username);
+        SubgraphView<Profile> onlineNetwork = new SubgraphView<>(network,
+                profile -> profile == curProfile || profile.getStatus() == Profile.statusTypes.ONLINE, null);
+        QueryLimits limits = new QueryLimits();
+        limits.setMaxDepth(hops);
+        for (Profile profile : onlineNetwork.getBreadthFirstTraversal(curProfile, limits, null).getLabels()) {
+            if (profile != curProfile)
+                returnList.add(usernames.get(profile));
+        }
+        return returnList;
+    }
+
+    /**
+     * Computes how tightly knit a user's friends are: the fraction of pairs of the user's friends who are also
+     * friends with each other.
+     * @param username The username of the user.
+     * @return The user's clustering coefficient from 0 to 1, or 0 if the user has fewer than two friends or is not a
+     * member.
+     */
+    public double getClusteringCoefficient(String username) {
+        if (!containsProfile(username))
+            return 0;
+        return new TriangleCounter<>(network).getClusteringCoefficient(profiles.get(username));
+    }
+
+    /**
+     * Estimates how many other users a user can reach through chains of at most the specified number of friendships.
+     * The estimates of all users are computed together and reused until the network changes.
+     * @param username The username of the user.
+     * @param hops The maximum number of friendships in a chain; at least 0.
+     * @return The estimated number of other users within reach, or 0 if the user is not a member.
+     */
+    public long getEstimatedReach(String username, int hops) {
+        if (!containsProfile(username))
+            return 0;
+        return Math.max(0, Math.round(reachEstimator.getReachEstimate(profiles.get(username), hops)) - 1);
+    }
+
+    /**
+     * Groups the users into friend circles, sets of users with many friendships among themselves and few outside, by
+     * label propagation refined for modularity. Circles are numbered from 0; a user with no friends is in a circle of
+     * their own.
+     * @return A map from each username to the number of their friend circle.
+     */
+    public HashMap<String, Integer> getFriendCircles() {
+        CommunityDetection<Profile> detector = new CommunityDetection<>(network);
+        detector.setRefinement(true);
+        HashMap<String, Integer> returnMap = new HashMap<>();
+        HashMap<Profile, Integer> communities = detector.computeCommunities();
+        for (Profile curProfile : communities.keySet())
+            returnMap.put(usernames.get(curProfile), communities.get(curProfile));
+        return returnMap;
+    }
+
+    /**
+     * Suggests new friends for a user: the users most often reached by random walks along friendships from the user,
+     * leaving out the user and their current friends. The work done depends only on the number and length of the
+     * walks, not on the size of the network.
+     * @param username The username of the user to suggest friends for.
+     * @param count The maximum number of suggestions to retrieve.
+     * @return A list of up to count usernames, from the strongest suggestion down, or an empty list if the user is
+     * not a member.
+     */
+    public ArrayList<String> getSuggestedFriendUsernames(String username, int count) {
+        ArrayList<String> returnList = new ArrayList<>();
+        if (!containsProfile(username))
+            return returnList;
+        for (Profile suggestedProfile : friendSuggester.getTopRecommendations(profiles.get(username), count))
+            returnList.add(usernames.get(suggestedProfile));
+        return returnList;
+    }
+
+    /**
+     * Displays the profiles of all users ultimately connected to the specified user by a chain of friendships,
+     * starting with the specified user. The profiles are looked up in the network's connected component index, so no
+     * traversal of the network graph is needed.
+     * @param username The username corresponding to the profile where to begin the listing.
      */
     public void displayAllConnectedProfiles(String username) {
         Profile originProfile = profiles.get(username);
-        Queue<Profile> profileQueue = network.getBreadthFirstTraversal(originProfile);
-        while (!profileQueue.isEmpty()) {
+        for (Profile connectedProfile : network.componentMembers(originProfile)) {
             System.out.print("\n");
-            profileQueue.remove().printProfileDetails();
+            connectedProfile.printProfileDetails();
         }
     }
 
@@ -195,6 +547,281 @@ public class ProfileManager {
             curProfile.printProfileDetails();
         }
     }
+
+    /**
+     * Retrieves the read lock of the lock held while the network is changed, for a ProfileQueryExecutor to hold during
+     * each query. Queries holding it run at the same time as each other, but never while the network changes.
+     * @return The manager's read lock.
+     */
+    Lock getQueryLock() { return updateLock.readLock(); }
+
+    /**
+     * Applies every change recorded in a batch, in the order recorded. The caller holds the lock. If a change throws,
+     * the friendships created before it are still added to the network, so the friend lists and the network agree.
+     * @param batch The changes to apply.
+     * @return The number of changes that changed the network.
+     */
+    private int applyChanges(ProfileBatch batch) {
+        reserveProfiles(batch.getProfileAdditions());
+        try {
+            return applyEach(batch);
+        } finally {
+            connectPendingFriendships();
+        }
+    }
+
+    /**
+     * Applies every change recorded in a batch, in the order recorded, leaving the last run of friendship creations
+     * pending. The caller holds the lock.
+     * @param batch The changes to apply.
+     * @return The number of changes that changed the network.
+     */
+    private int applyEach(ProfileBatch batch) {
+        int applied = 0;
+        for (int index = 0; index < batch.size(); index++) {
+            String username = batch.getFirstUsername(index);
+            ProfileBatch.OperationType type = batch.getType(index);
+            if (type != ProfileBatch.OperationType.CREATE_FRIENDSHIP)
+                connectPendingFriendships();
+            boolean changed = switch (type) {
+                case ADD_PROFILE -> insertProfile(username, batch.getProfile(index));
+                case REMOVE_PROFILE -> deleteProfile(username);
+                case CREATE_FRIENDSHIP -> linkProfiles(username, batch.getSecondUsername(index), batch.isBest(index),
+                        true);
+                case REMOVE_FRIENDSHIP -> unlinkProfiles(username, batch.getSecondUsername(index));
+                case UPDATE_PROFILE -> {
+                    Profile details = batch.getProfile(index);
+                    yield changeProfile(username, details.getName(), details.getImage(), details.getStatus());
+                }
+            };
+            if (changed)
+                applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Adds the friendships created but not yet added to the network in a single bulk addition, which groups them by
+     * member and grows each member's edge list once, rather than adding them one edge at a time. The caller holds the
+     * lock.
+     */
+    private void connectPendingFriendships() {
+        if (pendingBegins.isEmpty())
+            return;
+        double[] weights = new double[pendingBest.size()];
+        for (int index = 0; index < weights.length; index++)
+            weights[index] = pendingBest.get(index) ? 1 : 0;
+        try {
+            network.addEdges(pendingBegins, pendingEnds, weights);
+        } finally {
+            pendingBegins.clear();
+            pendingEnds.clear();
+            pendingBest.clear();
+        }
+    }
+
+    /**
+     * Replays the changes a write-ahead log records from the specified position to its end, then attaches it. The
+     * caller holds the lock.
+     * @param newLog The log.
+     * @param position The position of the first record to replay.
+     * @throws IOException If the log cannot be read.
+     */
+    private void replayAndAttach(WriteAheadLog newLog, long position) throws IOException {
+        if (log != null)
+            throw new IllegalStateException("A write-ahead log is already attached.");
+        ProfileBatch replayed = new ProfileBatch();
+        long end = newLog.getEndPosition();
+        while (position < end) {
+            position = newLog.readRecords(position, replayed, REPLAY_BATCH_SIZE);
+            applyChanges(replayed);
+            replayed.clear();
+        }
+        log = newLog;
+        logPosition = end;
+    }
+
+    /**
+     * Adds the profiles and friendships of a snapshot to the empty manager, growing the maps of members once, skipping
+     * the checks and logging of the single-change methods, and adding the network's vertices and edges in bulk. The
+     * caller holds the lock.
+     * @param snapshot The snapshot.
+     * @throws IOException If the snapshot holds a username twice.
+     */
+    private void restoreSnapshot(ProfileSnapshot snapshot) throws IOException {
+        int profileCount = snapshot.usernames.length;
+        reserveProfiles(profileCount);
+        Profile[] members = new Profile[profileCount];
+        for (int index = 0; index < profileCount; index++) {
+            Profile curProfile = new Profile(snapshot.names[index], snapshot.images[index]);
+            curProfile.setStatus(snapshot.statuses[index]);
+            if (profiles.putIfAbsent(snapshot.usernames[index], curProfile) != null)
+                throw new IOException("Snapshot holds the username " + snapshot.usernames[index] + " twice.");
+            usernames.put(curProfile, snapshot.usernames[index]);
+            members[index] = curProfile;
+        }
+        network.addVertices(Arrays.asList(members));
+
+        int friendshipCount = snapshot.firstMembers.length;
+        ArrayList<Profile> begins = new ArrayList<>(friendshipCount);
+        ArrayList<Profile> ends = new ArrayList<>(friendshipCount);
+        double[] weights = new double[friendshipCount];
+        for (int friendship = 0; friendship < friendshipCount; friendship++) {
+            Profile profile1 = members[snapshot.firstMembers[friendship]];
+            Profile profile2 = members[snapshot.secondMembers[friendship]];
+            if (profile1 == profile2 || profile1.hasFriend(profile2))
+                continue;
+            profile1.addFriend(profile2);
+            profile2.addFriend(profile1);
+            begins.add(profile1);
+            ends.add(profile2);
+            weights[begins.size() - 1] = snapshot.weights[friendship];
+        }
+        network.addEdges(begins, ends, Arrays.copyOf(weights, begins.size()));
+    }
+
+    /**
+     * Waits, as the write-ahead log's durability level requires, until the changes recorded up to the specified
+     * position are on disk. Called without holding the lock, so that concurrent changes share disk flushes.
+     * @param position The end position in the log of the last change to wait for.
+     */
+    private void awaitLog(long position) {
+        WriteAheadLog currentLog = log;
+        if (currentLog != null)
+            currentLog.awaitDurable(position);
+    }
+
+    /**
+     * Adds a new user and their profile if they are not already a member. The caller holds the lock.
+     * @param username The username of the new user.
+     * @param newProfile The profile object that corresponds to the new user.
+     * @return True if the user was added, or false otherwise.
+     */
+    private boolean insertProfile(String username, Profile newProfile) {
+        if (username == null || newProfile == null || profiles.containsKey(username))
+            return false;
+        if (log != null)
+            logPosition = log.appendAddProfile(username, newProfile);
+        profiles.put(username, newProfile);
+        usernames.put(newProfile, username);
+        network.addVertex(newProfile);
+        return true;
+    }
+
+    /**
+     * Removes a user, their profile and their friendships if they are a member. The caller holds the lock.
+     * @param username The username of the user to remove.
+     * @return True if the user was removed, or false otherwise.
+     */
+    private boolean deleteProfile(String username) {
+        Profile remProfile = profiles.get(username);
+        if (remProfile == null)
+            return false;
+        if (log != null)
+            logPosition = log.appendRemoveProfile(username);
+        profiles.remove(username);
+
+        ArrayList<Profile> neighborFriends = network.getNeighbors(remProfile, 0);
+        if (neighborFriends != null) {
+            for (Profile curNeighbor : neighborFriends)
+                curNeighbor.removeFriend(remProfile);
+        }
+
+        network.removeVertex(remProfile);
+        usernames.remove(remProfile);
+        return true;
+    }
+
+    /**
+     * Creates a new friendship or best friendship between two members who are not yet friends. The caller holds the
+     * lock.
+     * @param username1 The username of the first member of the friendship.
+     * @param username2 The username of the second member of the friendship.
+     * @param best True to create a best friendship, or false to create a normal friendship.
+     * @param deferred True to leave the friendship's edge for connectPendingFriendships to add to the network, or
+     * false to add it now.
+     * @return True if the friendship was created, or false otherwise.
+     */
+    private boolean linkProfiles(String username1, String username2, boolean best, boolean deferred) {
+        if (username1 == null || username1.equals(username2))
+            return false;
+        Profile profile1 = profiles.get(username1);
+        Profile profile2 = profiles.get(username2);
+        if (profile1 == null || profile2 == null || profile1.hasFriend(profile2))
+            return false;
+        if (log != null)
+            logPosition = log.appendCreateFriendship(username1, username2, best);
+        if (deferred) {
+            pendingBegins.add(profile1);
+            pendingEnds.add(profile2);
+            pendingBest.add(best);
+        } else if (best)
+            network.addEdge(profile1, profile2, 1);
+        else
+            network.addEdge(profile1, profile2, 0);
+        profile1.addFriend(profile2);
+        profile2.addFriend(profile1);
+        return true;
+    }
+
+    /**
+     * Removes any friendship between two members. The caller holds the lock.
+     * @param username1 The username of the first member of the friendship.
+     * @param username2 The username of the second member of the friendship.
+     * @return True if there was a friendship to remove, or false otherwise.
+     */
+    private boolean unlinkProfiles(String username1, String username2) {
+        Profile profile1 = profiles.get(username1);
+        Profile profile2 = profiles.get(username2);
+        if (profile1 == null || profile2 == null || !profile1.hasFriend(profile2))
+            return false;
+        if (log != null)
+            logPosition = log.appendRemoveFriendship(username1, username2);
+        network.removeEdge(profile1, profile2);
+        profile1.removeFriend(profile2);
+        profile2.removeFriend(profile1);
+        return true;
+    }
+
+    /**
+     * Changes the details of a member's profile. The caller holds the lock.
+     * @param username The username of the user.
+     * @param newName The user's new display name, or null to leave it unchanged.
+     * @param newImage The user's new image URL or path, or null to leave it unchanged.
+     * @param newStatus The user's new status, or null to leave it unchanged.
+     * @return True if the user is a member, or false otherwise.
+     */
+    private boolean changeProfile(String username, String newName, String newImage, Profile.statusTypes newStatus) {
+        Profile curProfile = profiles.get(username);
+        if (curProfile == null)
+            return false;
+        String name = newName != null ? newName : curProfile.getName();
+        String image = newImage != null ? newImage : curProfile.getImage();
+        Profile.statusTypes status = newStatus != null ? newStatus : curProfile.getStatus();
+        if (log != null)
+            logPosition = log.appendUpdateProfile(username, name, image, status);
+        curProfile.setName(name);
+        curProfile.setImage(image);
+        curProfile.setStatus(status);
+        return true;
+    }
+
+    /**
+     * Grows the maps of members once to hold the specified number of additional profiles, rather than letting them
+     * double repeatedly while a batch is applied. The caller holds the lock.
+     * @param additions The number of profiles about to be added.
+     */
+    private void reserveProfiles(int additions) {
+        if (additions <= profiles.size())
+            return;
+        int capacity = (int)Math.min(Integer.MAX_VALUE, ((long)profiles.size() + additions) * 4 / 3 + 1);
+        HashMap<String, Profile> grownProfiles = new HashMap<>(capacity);
+        grownProfiles.putAll(profiles);
+        profiles = grownProfiles;
+        HashMap<Profile, String> grownUsernames = new HashMap<>(capacity);
+        grownUsernames.putAll(usernames);
+        usernames = grownUsernames;
+    }
 }
 
 
@@ -0,0 +1,73 @@
+package SocialMediaPackage;
+
+import GraphPackage.AsyncQueryExecutor;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ProfileQueryExecutor: An asynchronous facade over the read queries of a ProfileManager, for a server that looks up
+ * friends and connections for many users at once. Each query runs on a virtual thread under the executor's concurrency
+ * limit, holding the manager's read lock, so up to that many queries run at the same time. The manager holds the write
+ * lock while it changes the network, so changes made through it, including whole batches, may be made while queries
+ * are running, and no query sees part of a change.
+ */
+public class ProfileQueryExecutor extends AsyncQueryExecutor<ProfileManager> {
+    /**
+     * Constructor creates a new ProfileQueryExecutor for the specified profile manager.
+     * @param profileManager The profile manager to query.
+     * @param maxConcurrency The maximum number of queries that run at the same time; at least 1.
+     */
+    public ProfileQueryExecutor(ProfileManager profileManager, int maxConcurrency) {
+        super(profileManager, maxConcurrency, profileManager.getQueryLock());
+    }
+
+    /**
+     * Retrieves the usernames of all friends, or only best friends, of a user asynchronously.
+     * @param username The username of the user.
+     * @param best False to retrieve all friend usernames, or true to only retrieve best friend usernames.
+     * @return A future completed with the list of friend usernames.
+     */
+    public CompletableFuture<ArrayList<String>> getFriendUsernames(String username, boolean best) {
+        return submit(manager -> manager.getFriendUsernames(username, best));
+    }
+
+    /**
+     * Retrieves the usernames of a user's friends of friends asynchronously.
+     * @param username The username of the user.
+     * @return A future completed with the list of friend of friend usernames.
+     */
+    public CompletableFuture<ArrayList<String>> getFriendsOfFriendsUsernames(String username) {
+        return submit(manager -> manager.getFriendsOfFriendsUsernames(username));
+    }
+
+    /**
+     * Determines if two users are connected by any chain of friendships asynchronously.
+     * @param username1 The username of the first user.
+     * @param username2 The username of the second user.
+     * @return A future completed with true if the users are connected, or false otherwise.
+     */
+    public CompletableFuture<Boolean> areConnected(String username1, String username2) {
+        return submit(manager -> manager.areConnected(username1, username2));
+    }
+
+    /**
+     * Retrieves the degrees of separation between two users asynchronously.
+     * @param username1 The username of the first user.
+     * @param username2 The username of the second user.
+     * @return A future completed with the fewest friendships linking the users, or -1 if they are not connected.
+     */
+    public CompletableFuture<Integer> getDegreesOfSeparation(String username1, String username2) {
+        return submit(manager -> manager.getDegreesOfSeparation(username1, username2));
+    }
+
+    /**
+     * Suggests new friends for a user asynchronously.
+     * @param username The username of the user to suggest friends for.
+     * @param count The maximum number of suggestions to retrieve.
+     * @return A future completed with a list of up to count usernames, from the strongest suggestion down.
+     */
+    public CompletableFuture<ArrayList<String>> getSuggestedFriendUsernames(String username, int count) {
+        return submit(manager -> manager.getSuggestedFriendUsernames(username, count));
+    }
+}
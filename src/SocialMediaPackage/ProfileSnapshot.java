@@ -0,0 +1,421 @@
+package SocialMediaPackage;
+
+import GraphPackage.UndirectedGraph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * ProfileSnapshot: The whole state of a social network at one moment, copied out of a ProfileManager so it can be
+ * written to a compact binary file while the manager goes on changing, or read back from such a file to restore a
+ * manager. All values are little-endian. A file is a 40-byte header, then one record per profile, then one record per
+ * friendship:
+ * <pre>
+ *   header:     int magic ("PSNP"), int format version (1), long log position, int profile count, int unused,
+ *               long friendship count, long friendship offset
+ *   profile:    string username, string display name, string image, byte status
+ *   friendship: int first profile, int second profile, float weight
+ * </pre>
+ * Strings are an int length, or -1 for null, followed by their UTF-8 bytes, and friendships refer to profiles by their
+ * position in the file. The log position is where the attached write-ahead log ended when the snapshot was taken, or
+ * 0 if there was no log. Files are written under a temporary name and renamed into place once complete, so a crash
+ * while writing leaves any earlier snapshot intact.
+ */
+class ProfileSnapshot {
+    /** The first four bytes of every snapshot, "PSNP" in little-endian order. */
+    private static final int MAGIC = 0x504E5350;
+    /** The version of the snapshot format. */
+    private static final int FORMAT_VERSION = 1;
+    /** The number of bytes in the header. */
+    private static final int HEADER_BYTES = 40;
+    /** The number of bytes in a friendship record. */
+    private static final int FRIENDSHIP_BYTES = 12;
+    /** The number of bytes written to the file at a time. */
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    /** The largest number of bytes mapped as one region when the file is read. */
+    private static final long REGION_BYTES = 1L << 30;
+
+    /** The username of each profile. */
+    final String[] usernames;
+    /** The display name of each profile. */
+    final String[] names;
+    /** The image URL or path of each profile. */
+    final String[] images;
+    /** The status of each profile. */
+    final Profile.statusTypes[] statuses;
+    /** The position of the first member of each friendship, or null until numberFriendships is called. */
+    int[] firstMembers;
+    /** The position of the second member of each friendship, or null until numberFriendships is called. */
+    int[] secondMembers;
+    /** The weight of each friendship, 1 for a best friendship or 0 otherwise, or null until numberFriendships is
+     * called. */
+    float[] weights;
+    /** The position the write-ahead log ended at when the snapshot was taken, or 0 if there was no log. */
+    final long logPosition;
+    /** The profile at each position, kept only until the friendships are numbered. */
+    private Profile[] members;
+    /** The friends of each profile, kept only until the friendships are numbered. */
+    private ArrayList<ArrayList<Profile>> friendLists;
+    /** The best friends of each profile, or null for a profile with no friends, kept only until the friendships are
+     * numbered. */
+    private ArrayList<ArrayList<Profile>> bestFriendLists;
+
+    /**
+     * Constructor creates a new ProfileSnapshot by copying the state of a network, which must not change while it is
+     * copied. Only references are copied: the strings are immutable, and the friend lists are new lists. Numbering
+     * the friendships by the positions of their members is left to numberFriendships, which needs no lock.
+     * @param profiles The profile of each username.
+     * @param network The network, in which each best friendship has weight 1.
+     * @param logPosition The position the write-ahead log ended at, or 0 if there is no log.
+     */
+    ProfileSnapshot(Map<String, Profile> profiles, UndirectedGraph<Profile> network, long logPosition) {
+        int profileCount = profiles.size();
+        usernames = new String[profileCount];
+        names = new String[profileCount];
+        images = new String[profileCount];
+        statuses = new Profile.statusTypes[profileCount];
+        members = new Profile[profileCount];
+        friendLists = new ArrayList<>(profileCount);
+        bestFriendLists = new ArrayList<>(profileCount);
+        int index = 0;
+        for (Map.Entry<String, Profile> entry : profiles.entrySet()) {
+            Profile curProfile = entry.getValue();
+            usernames[index] = entry.getKey();
+            names[index] = curProfile.getName();
+            images[index] = curProfile.getImage();
+            statuses[index] = curProfile.getStatus();
+            members[index] = curProfile;
+            ArrayList<Profile> friends = curProfile.getFriends();
+            friendLists.add(friends);
+            bestFriendLists.add(friends.isEmpty() ? null : network.getNeighbors(curProfile, 1));
+            index++;
+        }
+        this.logPosition = logPosition;
+    }
+
+    /**
+     * Constructor creates a new ProfileSnapshot holding the specified state.
+     * @param usernames The username of each profile.
+     * @param names The display name of each profile.
+     * @param images The image URL or path of each profile.
+     * @param statuses The status of each profile.
+     * @param firstMembers The position of the first member of each friendship.
+     * @param secondMembers The position of the second member of each friendship.
+     * @param weights The weight of each friendship.
+     * @param logPosition The position the write-ahead log ended at, or 0 if there was no log.
+     */
+    ProfileSnapshot(String[] usernames, String[] names, String[] images, Profile.statusTypes[] statuses,
+                    int[] firstMembers, int[] secondMembers, float[] weights, long logPosition) {
+        this.usernames = usernames;
+        this.names = names;
+        this.images = images;
+        this.statuses = statuses;
+        this.firstMembers = firstMembers;
+        this.secondMembers = secondMembers;
+        this.weights = weights;
+        this.logPosition = logPosition;
+    }
+
+    /**
+     * Numbers the friendships of a copied network by the positions of their members, storing each friendship once,
+     * and then lets go of the copied profiles and friend lists. Does nothing if the friendships are already numbered.
+     */
+    void numberFriendships() {
+        if (members == null)
+            return;
+        HashMap<Profile, Integer> positions = new HashMap<>(members.length * 4 / 3 + 1);
+        int friendshipCount = 0;
+        for (int index = 0; index < members.length; index++) {
+            positions.put(members[index], index);
+            friendshipCount += friendLists.get(index).size();
+        }
+        friendshipCount /= 2;
+
+        firstMembers = new int[friendshipCount];
+        secondMembers = new int[friendshipCount];
+        weights = new float[friendshipCount];
+        int friendship = 0;
+        for (int index = 0; index < members.length; index++) {
+            ArrayList<Profile> bestFriendList = bestFriendLists.get(index);
+            if (bestFriendList == null)
+                continue;
+            HashSet<Profile> bestFriends = new HashSet<>(bestFriendList);
+            for (Profile friend : friendLists.get(index)) {
+                int friendPosition = positions.get(friend);
+                if (friendPosition < index)
+                    continue;
+                firstMembers[friendship] = index;
+                secondMembers[friendship] = friendPosition;
+                weights[friendship] = bestFriends.contains(friend) ? 1 : 0;
+                friendship++;
+            }
+        }
+        members = null;
+        friendLists = null;
+        bestFriendLists = null;
+    }
+
+    /**
+     * Writes the snapshot to a file, first numbering its friendships if they are not yet numbered, replacing any
+     * existing file only once the new one is complete and on disk.
+     * @param path The path of the file.
+     * @throws IOException If the file cannot be written.
+     */
+    void write(Path path) throws IOException {
+        numberFriendships();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.position(HEADER_BYTES);
+            for (int index = 0; index < usernames.length; index++) {
+                writeString(usernames[index], buffer, channel);
+                writeString(names[index], buffer, channel);
+                writeString(images[index], buffer, channel);
+                reserve(1, buffer, channel);
+                buffer.put((byte)statuses[index].ordinal());
+            }
+            drain(buffer, channel);
+            long friendshipOffset = channel.position();
+            for (int index = 0; index < firstMembers.length; index++) {
+                reserve(FRIENDSHIP_BYTES, buffer, channel);
+                buffer.putInt(firstMembers[index]).putInt(secondMembers[index]).putFloat(weights[index]);
+            }
+            drain(buffer, channel);
+
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(logPosition).putInt(usernames.length).putInt(0)
+                    .putLong(firstMembers.length).putLong(friendshipOffset).flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer, buffer.position());
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot from a file, mapping the file into memory and decoding it in place.
+     * @param path The path of the file.
+     * @return The snapshot.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    static ProfileSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES)
+                throw new IOException("File is too short to be a profile snapshot.");
+            MappedCursor cursor = new MappedCursor(channel, size);
+            if (cursor.getInt() != MAGIC)
+                throw new IOException("File is not a profile snapshot.");
+            int version = cursor.getInt();
+            if (version != FORMAT_VERSION)
+                throw new IOException("Unsupported profile snapshot version " + version + ".");
+            long logPosition = cursor.getLong();
+            int profileCount = cursor.getInt();
+            cursor.getInt();
+            long friendshipCount = cursor.getLong();
+            long friendshipOffset = cursor.getLong();
+            if (profileCount < 0 || friendshipCount < 0 || friendshipCount > Integer.MAX_VALUE - 8
+                    || friendshipOffset != size - friendshipCount * FRIENDSHIP_BYTES)
+                throw new IOException("Profile snapshot header is corrupt.");
+
+            String[] usernames = new String[profileCount];
+            String[] names = new String[profileCount];
+            String[] images = new String[profileCount];
+            Profile.statusTypes[] statuses = new Profile.statusTypes[profileCount];
+            Profile.statusTypes[] statusValues = Profile.statusTypes.values();
+            for (int index = 0; index < profileCount; index++) {
+                usernames[index] = cursor.getString(friendshipOffset);
+                names[index] = cursor.getString(friendshipOffset);
+                images[index] = cursor.getString(friendshipOffset);
+                int status = cursor.getByte();
+                if (usernames[index] == null || status < 0 || status >= statusValues.length)
+                    throw new IOException("Profile snapshot record " + index + " is corrupt.");
+                statuses[index] = statusValues[status];
+            }
+            if (cursor.position() != friendshipOffset)
+                throw new IOException("Profile snapshot profile records are corrupt.");
+
+            int[] firstMembers = new int[(int)friendshipCount];
+            int[] secondMembers = new int[(int)friendshipCount];
+            float[] weights = new float[(int)friendshipCount];
+            for (int index = 0; index < friendshipCount; index++) {
+                firstMembers[index] = cursor.getInt();
+                secondMembers[index] = cursor.getInt();
+                weights[index] = Float.intBitsToFloat(cursor.getInt());
+                if (firstMembers[index] < 0 || firstMembers[index] >= profileCount || secondMembers[index] < 0
+                        || secondMembers[index] >= profileCount)
+                    throw new IOException("Profile snapshot friendship " + index + " refers to a missing profile.");
+            }
+            return new ProfileSnapshot(usernames, names, images, statuses, firstMembers, secondMembers, weights,
+                    logPosition);
+        }
+    }
+
+    /**
+     * Writes a string as its length, or -1 for null, followed by its UTF-8 bytes.
+     * @param value The string, or null.
+     * @param buffer The buffer to write through.
+     * @param channel The file.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeString(String value, ByteBuffer buffer, FileChannel channel) throws IOException {
+        reserve(4, buffer, channel);
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        for (int offset = 0; offset < bytes.length; ) {
+            if (!buffer.hasRemaining())
+                drain(buffer, channel);
+            int count = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Makes room in a buffer for the specified number of bytes, writing its contents to the file if needed.
+     * @param count The number of bytes needed.
+     * @param buffer The buffer.
+     * @param channel The file.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void reserve(int count, ByteBuffer buffer, FileChannel channel) throws IOException {
+        if (buffer.remaining() < count)
+            drain(buffer, channel);
+    }
+
+    /**
+     * Writes the contents of a buffer to the file and empties the buffer.
+     * @param buffer The buffer.
+     * @param channel The file.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * MappedCursor: Reads a file sequentially through memory-mapped regions, so files larger than a single buffer can
+     * address are decoded in place. Values that straddle two regions are assembled byte by byte.
+     */
+    private static final class MappedCursor {
+        /** The mapped regions of the file, in order. */
+        private final ArrayList<MappedByteBuffer> regions;
+        /** The index of the region being read. */
+        private int regionIndex;
+        /** The file position of the start of the region being read. */
+        private long regionStart;
+
+        /**
+         * Constructor maps a whole file and positions the cursor at its start.
+         * @param channel The file.
+         * @param size The size of the file.
+         * @throws IOException If the file cannot be mapped.
+         */
+        private MappedCursor(FileChannel channel, long size) throws IOException {
+            regions = new ArrayList<>();
+            for (long start = 0; start < size; start += REGION_BYTES) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(REGION_BYTES, size - start));
+                region.order(ByteOrder.LITTLE_ENDIAN);
+                regions.add(region);
+            }
+            regionIndex = 0;
+            regionStart = 0;
+        }
+
+        /**
+         * Retrieves the file position of the next byte to read.
+         * @return The cursor's position.
+         */
+        private long position() { return regionStart + regions.get(regionIndex).position(); }
+
+        /**
+         * Reads one byte.
+         * @return The byte.
+         * @throws IOException If the file ends first.
+         */
+        private byte getByte() throws IOException { return currentRegion(1).get(); }
+
+        /**
+         * Reads a little-endian int.
+         * @return The int.
+         * @throws IOException If the file ends first.
+         */
+        private int getInt() throws IOException {
+            MappedByteBuffer region = regions.get(regionIndex);
+            if (region.remaining() >= Integer.BYTES)
+                return region.getInt();
+            return (getByte() & 0xFF) | (getByte() & 0xFF) << 8 | (getByte() & 0xFF) << 16 | (getByte() & 0xFF) << 24;
+        }
+
+        /**
+         * Reads a little-endian long.
+         * @return The long.
+         * @throws IOException If the file ends first.
+         */
+        private long getLong() throws IOException {
+            MappedByteBuffer region = regions.get(regionIndex);
+            if (region.remaining() >= Long.BYTES)
+                return region.getLong();
+            return (getInt() & 0xFFFFFFFFL) | (long)getInt() << 32;
+        }
+
+        /**
+         * Reads a string written as its length, or -1 for null, followed by its UTF-8 bytes.
+         * @param limit The file position the string must end by.
+         * @return The string, or null.
+         * @throws IOException If the length is invalid or the string runs past the limit.
+         */
+        private String getString(long limit) throws IOException {
+            int length = getInt();
+            if (length == -1)
+                return null;
+            if (length < 0 || length > limit - position())
+                throw new IOException("Profile snapshot string is corrupt.");
+            byte[] bytes = new byte[length];
+            for (int offset = 0; offset < length; ) {
+                MappedByteBuffer region = currentRegion(1);
+                int count = Math.min(region.remaining(), length - offset);
+                region.get(bytes, offset, count);
+                offset += count;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Retrieves the region holding the next byte, moving to the following region if the current one is used up.
+         * @param count The number of bytes about to be read, at least one of which must be in the region.
+         * @return The region.
+         * @throws IOException If the file ends first.
+         */
+        private MappedByteBuffer currentRegion(int count) throws IOException {
+            MappedByteBuffer region = regions.get(regionIndex);
+            if (region.hasRemaining())
+                return region;
+            if (regionIndex + 1 == regions.size())
+                throw new IOException("Profile snapshot ends unexpectedly.");
+            regionStart += region.capacity();
+            regionIndex++;
+            return regions.get(regionIndex);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package SocialMediaPackage;
 
 import MenuPackage.TextMenu;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Scanner;
@@ -45,6 +46,23 @@ public class SocialMedia {
         mainMenu.addMenuEntry("Exit", this::logout);
     }
 
+    /**
+     * Constructor creates a new SocialMedia object whose network is recorded in a write-ahead log, first restoring the
+     * network the log records, so members and friendships survive a restart.
+     * @param log The write-ahead log.
+     * @throws IOException If the log cannot be read.
+     */
+    public SocialMedia(WriteAheadLog log) throws IOException {
+        this();
+        profileMgr.attachLog(log);
+    }
+
+    /**
+     * Retrieves the number of profiles currently part of the social media network.
+     * @return The number of profiles currently part of the social media network.
+     */
+    public int getNumProfiles() { return profileMgr.getNumProfiles(); }
+
     /**
      * Adds example users, their profiles, and example friendships to the network for testing purposes.
      */
@@ -115,15 +133,13 @@ public class SocialMedia {
      */
     private void modifyProfile() {
         Scanner input = new Scanner(System.in);
-        Profile curProfile = profileMgr.getProfile(activeUser);
         System.out.println("\nEditing profile for " + activeUser + "...");
         System.out.print("Enter new display name (not the same as user name): ");
         String name = input.next();
         System.out.print("Enter new URL for your image: ");
         String image = input.next();
 
-        curProfile.setName(name);
-        curProfile.setImage(image);
+        profileMgr.updateProfile(activeUser, name, image, null);
     }
 
     /**
@@ -268,7 +284,7 @@ public class SocialMedia {
     }
 
     /**
-     * Displays the profiles of all users that can be reached through a breadth-first traversal of the network graph,
+     * Displays the profiles of all users that are connected to the current user in the network graph,
      * starting at the current user. This will show all profiles ultimately connected to the current user by a
      * chain of friendships.
      */
@@ -303,7 +319,7 @@ public class SocialMedia {
         if (choice == statusMenu.getNumEntries())
             System.out.println("\nStatus selection cancelled.");
         else {
-            profileMgr.getProfile(activeUser).setStatus(Profile.statusTypes.values()[choice - 1]);
+            profileMgr.updateProfile(activeUser, null, null, Profile.statusTypes.values()[choice - 1]);
             System.out.println("\nStatus set to " + profileMgr.getProfile(activeUser).getStatus());
         }
 
@@ -340,13 +356,13 @@ public class SocialMedia {
         if (profileMgr.containsProfile(username)) {
             System.out.println("User name " + username + " found. Welcome!");
             activeUser = username;
-            profileMgr.getProfile(activeUser).setStatus(Profile.statusTypes.ONLINE);
+            profileMgr.updateProfile(activeUser, null, null, Profile.statusTypes.ONLINE);
         }
         else {
             System.out.println("User name " + username + " not found. Creating new profile.");
             activeUser = username;
             newProfileOnLogin();
-            profileMgr.getProfile(activeUser).setStatus(Profile.statusTypes.ONLINE);
+            profileMgr.updateProfile(activeUser, null, null, Profile.statusTypes.ONLINE);
             System.out.println("\nProfile created. Logging in with the user name " + username + "...");
         }
     }
@@ -371,17 +387,28 @@ public class SocialMedia {
      */
     private void logout() {
         System.out.println("\nLogging off user name " + activeUser);
-        profileMgr.getProfile(activeUser).setStatus(Profile.statusTypes.OFFLINE);
+        profileMgr.updateProfile(activeUser, null, null, Profile.statusTypes.OFFLINE);
         activeUser = null;
     }
 
     /**
-     * Prints the profile information and friends list for the specified username.
+     * Prints the profile information and friends list for the specified username, along with their degrees of
+     * separation from the current user, or the current user's estimated reach if it is their own profile.
      * @param username The username for which to print profile information and friends list.
      */
     private void displayProfileInfo(String username) {
         System.out.println("\nProfile info:\n");
         profileMgr.getProfile(username).printProfileDetails();
+        if (!username.equals(activeUser)) {
+            int separation = profileMgr.getDegreesOfSeparation(activeUser, username);
+            if (separation > 0)
+                System.out.println("Degrees of separation from you: " + separation);
+            else
+                System.out.println("Degrees of separation from you: not connected");
+        }
+        else
+            System.out.println("Your network reaches about " + profileMgr.getEstimatedReach(username, 3) +
+                    " people within 3 hops");
         pause();
     }
 
@@ -0,0 +1,635 @@
+package SocialMediaPackage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * WriteAheadLog: An append-only file recording the changes made to a ProfileManager, so the network survives a
+ * restart. A manager with an attached log records each change before applying it, and replays the log when it is
+ * attached. Records are framed by their length and a CRC-32C checksum; a record left incomplete by a crash is found
+ * and cut off when the log is opened.
+ * <p>
+ * How long a change waits to be durable depends on the log's durability level. With SYNC, every record is written
+ * and forced to disk before the change returns. With GROUP, records are collected in memory while a background
+ * thread writes and forces the previous group, and a change returns once the group holding its record is on disk,
+ * so concurrent changes share one disk flush. With ASYNC, changes return at once and the background thread makes
+ * them durable shortly after, so a crash may lose the most recent changes.
+ */
+public class WriteAheadLog implements AutoCloseable {
+    /** How long a change waits for its record to reach the disk. */
+    public enum Durability {
+        /** Records are flushed to disk in the background; a crash may lose the most recent changes. */
+        ASYNC,
+        /** Each change waits for its record to be flushed to disk together with any others collected meanwhile. */
+        GROUP,
+        /** Each change waits for its record alone to be written and flushed to disk. */
+        SYNC
+    }
+
+    /** The first four bytes of every log, "PWAL" in big-endian order. */
+    private static final int MAGIC = 0x5057414C;
+    /** The version of the log format. */
+    private static final int FORMAT_VERSION = 1;
+    /** The number of bytes in the log header, which is followed by the first record. */
+    static final int HEADER_BYTES = 8;
+    /** The number of bytes before each record's payload: its length and checksum. */
+    private static final int RECORD_HEADER_BYTES = 8;
+    /** The largest payload a record may have; anything larger is treated as corruption. */
+    private static final int MAX_PAYLOAD_BYTES = 1 << 16;
+    /** The initial size of the buffers records are collected in. */
+    private static final int BUFFER_BYTES = 1 << 16;
+    /** The number of bytes read from the file at a time when the log is scanned or replayed. */
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+
+    /** The record type of a profile addition. */
+    private static final byte ADD_PROFILE = 1;
+    /** The record type of a profile removal. */
+    private static final byte REMOVE_PROFILE = 2;
+    /** The record type of a friendship creation. */
+    private static final byte CREATE_FRIENDSHIP = 3;
+    /** The record type of a friendship removal. */
+    private static final byte REMOVE_FRIENDSHIP = 4;
+    /** The record type of a change to a profile's details. */
+    private static final byte UPDATE_PROFILE = 5;
+
+    /** The log file. */
+    private final FileChannel channel;
+    /** How long a change waits for its record to reach the disk. */
+    private final Durability durability;
+    /** Guards the buffers and positions. */
+    private final ReentrantLock lock;
+    /** Signalled when records are waiting to be written, or the log is closing. */
+    private final Condition recordsPending;
+    /** Signalled when the durable position advances or writing fails. */
+    private final Condition durableAdvanced;
+    /** Computes record checksums; guarded by the lock. */
+    private final CRC32C checksum;
+    /** The buffer new records are collected in. */
+    private ByteBuffer pending;
+    /** The buffer the background thread is writing, swapped with pending for each group. */
+    private ByteBuffer spare;
+    /** The position in the pending buffer of the record being appended. */
+    private int recordStart;
+    /** The position just past the last record appended. */
+    private long endPosition;
+    /** The position up to which records are known to be on disk. */
+    private long durablePosition;
+    /** The error that stopped records being written, or null. */
+    private IOException failure;
+    /** Indicates whether the log has been closed. */
+    private boolean closed;
+    /** Writes and flushes groups of records, or null with SYNC durability. */
+    private final Thread flusher;
+
+    /**
+     * Constructor opens a log file, creating it if it does not exist, and cuts off any incomplete or corrupt records
+     * at its end.
+     * @param path The path of the log file.
+     * @param durability How long a change waits for its record to reach the disk.
+     * @throws IOException If the file cannot be opened or is not a write-ahead log.
+     */
+    public WriteAheadLog(Path path, Durability durability) throws IOException {
+        if (durability == null)
+            throw new IllegalArgumentException("Durability must not be null.");
+        this.durability = durability;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+                while (header.hasRemaining())
+                    channel.write(header, header.position());
+                channel.force(true);
+            }
+            else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {}
+                if (header.position() < HEADER_BYTES || header.getInt(0) != MAGIC)
+                    throw new IOException("File is not a write-ahead log.");
+                if (header.getInt(4) != FORMAT_VERSION)
+                    throw new IOException("Unsupported write-ahead log version " + header.getInt(4) + ".");
+            }
+            endPosition = scanValidEnd();
+            if (channel.size() > endPosition) {
+                channel.truncate(endPosition);
+                channel.force(true);
+            }
+            channel.position(endPosition);
+        } catch (IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+        durablePosition = endPosition;
+        lock = new ReentrantLock();
+        recordsPending = lock.newCondition();
+        durableAdvanced = lock.newCondition();
+        checksum = new CRC32C();
+        pending = ByteBuffer.allocate(BUFFER_BYTES);
+        spare = ByteBuffer.allocate(BUFFER_BYTES);
+        failure = null;
+        closed = false;
+        if (durability == Durability.SYNC)
+            flusher = null;
+        else {
+            flusher = Thread.ofPlatform().name("write-ahead-log").daemon().unstarted(this::flushGroups);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Retrieves the log's durability level.
+     * @return How long a change waits for its record to reach the disk.
+     */
+    public Durability getDurability() { return durability; }
+
+    /**
+     * Retrieves the position just past the last record appended, which grows with every record.
+     * @return The log's end position, in bytes.
+     */
+    public long getEndPosition() {
+        lock.lock();
+        try {
+            return endPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the position up to which records are known to be on disk.
+     * @return The log's durable position, in bytes.
+     */
+    public long getDurablePosition() {
+        lock.lock();
+        try {
+            return durablePosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every record appended so far is on disk, whatever the log's durability level.
+     */
+    public void flush() { awaitPosition(getEndPosition()); }
+
+    /**
+     * Writes and flushes every record appended so far, stops the background thread and closes the file.
+     * @throws IOException If the remaining records cannot be written.
+     */
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed)
+                return;
+            closed = true;
+            recordsPending.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (flusher != null)
+                flusher.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * Waits, as the log's durability level requires, until the record ending at the specified position is on disk.
+     * @param position The end position of the record.
+     * @throws UncheckedIOException If records can no longer be written.
+     */
+    void awaitDurable(long position) {
+        if (durability == Durability.GROUP)
+            awaitPosition(position);
+        else if (failure != null)
+            throw new UncheckedIOException("Write-ahead log failed.", failure);
+    }
+
+    /**
+     * Appends a record of a profile addition.
+     * @param username The username of the new user.
+     * @param newProfile The profile of the new user.
+     * @return The end position of the record.
+     */
+    long appendAddProfile(String username, Profile newProfile) {
+        return appendProfileDetails(ADD_PROFILE, username, newProfile.getName(), newProfile.getImage(),
+                newProfile.getStatus());
+    }
+
+    /**
+     * Appends a record of a change to a profile's details.
+     * @param username The username of the user.
+     * @param name The user's new display name.
+     * @param image The user's new image URL or path.
+     * @param status The user's new status.
+     * @return The end position of the record.
+     */
+    long appendUpdateProfile(String username, String name, String image, Profile.statusTypes status) {
+        return appendProfileDetails(UPDATE_PROFILE, username, name, image, status);
+    }
+
+    /**
+     * Appends a record of a profile removal.
+     * @param username The username of the removed user.
+     * @return The end position of the record.
+     */
+    long appendRemoveProfile(String username) {
+        byte[] usernameBytes = encode(username);
+        lock.lock();
+        try {
+            ByteBuffer payload = beginRecord(1 + stringBytes(usernameBytes));
+            payload.put(REMOVE_PROFILE);
+            putString(payload, usernameBytes);
+            return endRecord();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a record of a friendship creation.
+     * @param username1 The username of the first member of the friendship.
+     * @param username2 The username of the second member of the friendship.
+     * @param best True for a best friendship, or false for a normal friendship.
+     * @return The end position of the record.
+     */
+    long appendCreateFriendship(String username1, String username2, boolean best) {
+        byte[] firstBytes = encode(username1);
+        byte[] secondBytes = encode(username2);
+        lock.lock();
+        try {
+            ByteBuffer payload = beginRecord(2 + stringBytes(firstBytes) + stringBytes(secondBytes));
+            payload.put(CREATE_FRIENDSHIP);
+            putString(payload, firstBytes);
+            putString(payload, secondBytes);
+            payload.put((byte)(best ? 1 : 0));
+            return endRecord();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a record of a friendship removal.
+     * @param username1 The username of the first member of the friendship.
+     * @param username2 The username of the second member of the friendship.
+     * @return The end position of the record.
+     */
+    long appendRemoveFriendship(String username1, String username2) {
+        byte[] firstBytes = encode(username1);
+        byte[] secondBytes = encode(username2);
+        lock.lock();
+        try {
+            ByteBuffer payload = beginRecord(1 + stringBytes(firstBytes) + stringBytes(secondBytes));
+            payload.put(REMOVE_FRIENDSHIP);
+            putString(payload, firstBytes);
+            putString(payload, secondBytes);
+            return endRecord();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads records from the log into a batch, for replay.
+     * @param position The position of the first record to read, which is HEADER_BYTES for the first record of the
+     * log, or the end position of an earlier record.
+     * @param batch The batch to record the changes in.
+     * @param maxRecords The maximum number of records to read.
+     * @return The position just past the last record read.
+     * @throws IOException If the log cannot be read or a record is corrupt.
+     */
+    long readRecords(long position, ProfileBatch batch, int maxRecords) throws IOException {
+        RecordReader reader = new RecordReader(position, getEndPosition());
+        for (int count = 0; count < maxRecords && reader.hasRemaining(); count++) {
+            ByteBuffer payload = reader.next();
+            if (payload == null)
+                throw new IOException("Write-ahead log record at position " + reader.position + " is corrupt.");
+            decode(payload, batch);
+        }
+        return reader.position;
+    }
+
+    /**
+     * Appends a record of a profile's username and details.
+     * @param type The record type.
+     * @param username The username of the user.
+     * @param name The user's display name.
+     * @param image The user's image URL or path.
+     * @param status The user's status.
+     * @return The end position of the record.
+     */
+    private long appendProfileDetails(byte type, String username, String name, String image,
+                                      Profile.statusTypes status) {
+        byte[] usernameBytes = encode(username);
+        byte[] nameBytes = encode(name);
+        byte[] imageBytes = encode(image);
+        lock.lock();
+        try {
+            ByteBuffer payload = beginRecord(2 + stringBytes(usernameBytes) + stringBytes(nameBytes)
+                    + stringBytes(imageBytes));
+            payload.put(type);
+            putString(payload, usernameBytes);
+            putString(payload, nameBytes);
+            putString(payload, imageBytes);
+            payload.put((byte)status.ordinal());
+            return endRecord();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves room for a record in the pending buffer and positions the buffer at the start of its payload. The
+     * lock must be held.
+     * @param payloadBytes The number of bytes in the record's payload.
+     * @return The pending buffer.
+     * @throws UncheckedIOException If records can no longer be written.
+     */
+    private ByteBuffer beginRecord(int payloadBytes) {
+        if (failure != null)
+            throw new UncheckedIOException("Write-ahead log failed.", failure);
+        if (closed)
+            throw new IllegalStateException("Write-ahead log is closed.");
+        if (payloadBytes > MAX_PAYLOAD_BYTES)
+            throw new IllegalArgumentException("Write-ahead log record is too large.");
+        int recordBytes = RECORD_HEADER_BYTES + payloadBytes;
+        if (pending.remaining() < recordBytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + recordBytes));
+            pending = grown.put(pending.flip());
+        }
+        recordStart = pending.position();
+        pending.putInt(payloadBytes).putInt(0);
+        return pending;
+    }
+
+    /**
+     * Completes the record just written to the pending buffer by filling in its checksum, then makes it durable with
+     * SYNC durability, or hands it to the background thread otherwise. The lock must be held.
+     * @return The end position of the record.
+     * @throws UncheckedIOException If the record cannot be written with SYNC durability.
+     */
+    private long endRecord() {
+        int payloadStart = recordStart + RECORD_HEADER_BYTES;
+        checksum.reset();
+        checksum.update(pending.array(), payloadStart, pending.position() - payloadStart);
+        pending.putInt(recordStart + 4, (int)checksum.getValue());
+        endPosition += pending.position() - recordStart;
+        if (flusher != null) {
+            recordsPending.signal();
+            return endPosition;
+        }
+        try {
+            writeFully(pending.flip());
+            channel.force(false);
+            durablePosition = endPosition;
+        } catch (IOException exception) {
+            failure = exception;
+            throw new UncheckedIOException("Write-ahead log failed.", exception);
+        } finally {
+            pending.clear();
+        }
+        return endPosition;
+    }
+
+    /**
+     * Waits until the records up to the specified position are on disk.
+     * @param position The position to wait for.
+     * @throws UncheckedIOException If records can no longer be written.
+     */
+    private void awaitPosition(long position) {
+        lock.lock();
+        try {
+            while (durablePosition < position && failure == null)
+                durableAdvanced.awaitUninterruptibly();
+            if (durablePosition < position)
+                throw new UncheckedIOException("Write-ahead log failed.", failure);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs on the background thread, writing and flushing each group of records collected while the previous group
+     * was being written, until the log is closed.
+     */
+    private void flushGroups() {
+        lock.lock();
+        try {
+            while (true) {
+                while (pending.position() == 0 && !closed)
+                    recordsPending.awaitUninterruptibly();
+                if (pending.position() == 0 || failure != null)
+                    return;
+                ByteBuffer group = pending;
+                pending = spare;
+                spare = group;
+                long groupEnd = endPosition;
+                lock.unlock();
+                IOException groupFailure = null;
+                try {
+                    writeFully(group.flip());
+                    channel.force(false);
+                } catch (IOException exception) {
+                    groupFailure = exception;
+                } finally {
+                    lock.lock();
+                }
+                group.clear();
+                if (groupFailure != null)
+                    failure = groupFailure;
+                else
+                    durablePosition = groupEnd;
+                durableAdvanced.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the contents of a buffer at the end of the file.
+     * @param buffer The buffer.
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Finds the end of the last complete, uncorrupted record in the file.
+     * @return The position just past the last valid record.
+     * @throws IOException If the file cannot be read.
+     */
+    private long scanValidEnd() throws IOException {
+        RecordReader reader = new RecordReader(HEADER_BYTES, channel.size());
+        while (reader.hasRemaining() && reader.next() != null) {}
+        return reader.position;
+    }
+
+    /**
+     * Decodes a record's payload into a batch.
+     * @param payload The payload.
+     * @param batch The batch.
+     * @throws IOException If the payload is not a valid record.
+     */
+    private static void decode(ByteBuffer payload, ProfileBatch batch) throws IOException {
+        byte type = payload.get();
+        String username = getString(payload);
+        switch (type) {
+            case ADD_PROFILE, UPDATE_PROFILE -> {
+                Profile profile = new Profile(getString(payload), getString(payload));
+                int status = payload.get();
+                if (status < 0 || status >= Profile.statusTypes.values().length)
+                    throw new IOException("Write-ahead log record has an unknown status.");
+                profile.setStatus(Profile.statusTypes.values()[status]);
+                if (type == ADD_PROFILE)
+                    batch.addProfile(username, profile);
+                else
+                    batch.updateProfile(username, profile.getName(), profile.getImage(), profile.getStatus());
+            }
+            case REMOVE_PROFILE -> batch.removeProfile(username);
+            case CREATE_FRIENDSHIP -> batch.createFriendship(username, getString(payload), payload.get() != 0);
+            case REMOVE_FRIENDSHIP -> batch.removeFriendship(username, getString(payload));
+            default -> throw new IOException("Write-ahead log record has an unknown type " + type + ".");
+        }
+    }
+
+    /**
+     * Encodes a string as UTF-8.
+     * @param value The string, or null.
+     * @return The string's bytes, or null.
+     */
+    private static byte[] encode(String value) { return value == null ? null : value.getBytes(StandardCharsets.UTF_8); }
+
+    /**
+     * Computes the number of bytes a string takes in a record.
+     * @param bytes The string's bytes, or null.
+     * @return The number of bytes.
+     */
+    private static int stringBytes(byte[] bytes) { return 4 + (bytes == null ? 0 : bytes.length); }
+
+    /**
+     * Writes a string to a record as its length, or -1 for null, followed by its bytes.
+     * @param buffer The buffer to write to.
+     * @param bytes The string's bytes, or null.
+     */
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null)
+            buffer.putInt(-1);
+        else
+            buffer.putInt(bytes.length).put(bytes);
+    }
+
+    /**
+     * Reads a string written by putString.
+     * @param buffer The buffer to read from.
+     * @return The string, or null.
+     * @throws IOException If the length is invalid.
+     */
+    private static String getString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length == -1)
+            return null;
+        if (length < 0 || length > buffer.remaining())
+            throw new IOException("Write-ahead log record has an invalid string length.");
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * RecordReader: Reads consecutive records from the log file through a buffer, checking each record's length and
+     * checksum.
+     */
+    private final class RecordReader {
+        /** Holds bytes of the file, starting at bufferStart, up to its limit. */
+        private final ByteBuffer buffer;
+        /** The file position of the first byte in the buffer. */
+        private long bufferStart;
+        /** The position of the next record to read. */
+        private long position;
+        /** The position past which no record is read. */
+        private final long end;
+
+        /**
+         * Constructor creates a new RecordReader.
+         * @param position The position of the first record to read.
+         * @param end The position past which no record is read.
+         */
+        private RecordReader(long position, long end) {
+            buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+            buffer.limit(0);
+            bufferStart = position;
+            this.position = position;
+            this.end = end;
+        }
+
+        /**
+         * Determines if there are bytes left to read before the end.
+         * @return True if the next record's position is before the end, or false otherwise.
+         */
+        private boolean hasRemaining() { return position < end; }
+
+        /**
+         * Reads the next record, advancing past it if it is complete and its checksum matches.
+         * @return The record's payload, valid until the next call, or null if the next record is incomplete or
+         * corrupt.
+         * @throws IOException If the file cannot be read.
+         */
+        private ByteBuffer next() throws IOException {
+            if (end - position < RECORD_HEADER_BYTES || !fill(RECORD_HEADER_BYTES))
+                return null;
+            int offset = (int)(position - bufferStart);
+            int payloadBytes = buffer.getInt(offset);
+            int expectedChecksum = buffer.getInt(offset + 4);
+            if (payloadBytes < 1 || payloadBytes > MAX_PAYLOAD_BYTES
+                    || end - position - RECORD_HEADER_BYTES < payloadBytes
+                    || !fill(RECORD_HEADER_BYTES + payloadBytes))
+                return null;
+            offset = (int)(position - bufferStart);
+            CRC32C recordChecksum = new CRC32C();
+            recordChecksum.update(buffer.array(), offset + RECORD_HEADER_BYTES, payloadBytes);
+            if ((int)recordChecksum.getValue() != expectedChecksum)
+                return null;
+            position += RECORD_HEADER_BYTES + payloadBytes;
+            return buffer.slice(offset + RECORD_HEADER_BYTES, payloadBytes);
+        }
+
+        /**
+         * Makes sure the buffer holds the specified number of bytes from the next record's position, reading more of
+         * the file if needed.
+         * @param count The number of bytes needed.
+         * @return True if the bytes are in the buffer, or false if the file ends first.
+         * @throws IOException If the file cannot be read.
+         */
+        private boolean fill(int count) throws IOException {
+            int offset = (int)(position - bufferStart);
+            if (offset + count <= buffer.limit())
+                return true;
+            buffer.position(offset).compact();
+            bufferStart = position;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, bufferStart + buffer.position()) < 0)
+                    break;
+            }
+            buffer.flip();
+            return buffer.limit() >= count;
+        }
+    }
+}